@@ -3,7 +3,6 @@ package org.vivoweb.harvester.ingest;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -11,29 +10,27 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Lists;
 
 import com.unboundid.ldap.sdk.SearchResultEntry;
 
-import org.apache.commons.lang.StringEscapeUtils;
-import org.apache.jena.query.Dataset;
-import org.apache.jena.query.QueryExecution;
-import org.apache.jena.query.QueryExecutionFactory;
 import org.apache.jena.query.QuerySolution;
-import org.apache.jena.query.ReadWrite;
 import org.apache.jena.query.ResultSet;
-import org.apache.jena.sparql.JenaTransactionException;
-import org.apache.jena.update.GraphStore;
-import org.apache.jena.update.GraphStoreFactory;
-import org.apache.jena.update.UpdateExecutionFactory;
-import org.apache.jena.update.UpdateFactory;
-import org.apache.jena.update.UpdateProcessor;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ResourceFactory;
+import org.apache.jena.sparql.vocabulary.FOAF;
 import org.apache.jena.update.UpdateRequest;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.apache.jena.vocabulary.RDF;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StopWatch;
 import org.vivoweb.harvester.util.repo.SDBJenaConnect;
@@ -44,9 +41,17 @@ import reciter.connect.beans.vivo.PeopleBean;
 import reciter.connect.database.ldap.LDAPConnectionFactory;
 import reciter.connect.database.mysql.MysqlConnectionFactory;
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.sql.SqlQuery;
+import reciter.connect.database.sql.SqlQueryRepository;
+import reciter.connect.database.sql.SqlSession;
 import reciter.connect.database.tdb.TDBConnectionFactory;
 import reciter.connect.vivo.IngestType;
 import reciter.connect.vivo.api.client.VivoClient;
+import reciter.connect.vivo.api.client.VivoUpdateWriter;
+import reciter.connect.vivo.sdb.VivoGraphs;
+import reciter.connect.vivo.sdb.query.EntityGraphDiff;
+import reciter.connect.vivo.sdb.query.SparqlLiteralEscaper;
+import reciter.connect.vivo.sdb.query.TripleBuilder;
 
 /**
  * @author szd2013
@@ -58,13 +63,16 @@ import reciter.connect.vivo.api.client.VivoClient;
 @Component
 public class AcademicFetchFromED {
 	
-	private int updateCount = 0;
+	private AtomicInteger updateCount = new AtomicInteger();
 	
 	public static String propertyFilePath;
 
 	@Autowired
 	private VivoClient vivoClient;
 	
+	@Autowired
+	private VivoUpdateWriter vivoUpdateWriter;
+	
 	@Autowired
 	private LDAPConnectionFactory lcf;
 
@@ -76,9 +84,34 @@ public class AcademicFetchFromED {
 
 	@Autowired
 	private MysqlConnectionFactory mycf;
+	
+	@Autowired
+	private SqlQueryRepository sqlQueries;
+	
+	private static final SqlQuery COI_GROUP_CONCAT_MAX_LEN = new SqlQuery("coi.groupConcatMaxLen", "set session group_concat_max_len = 90000");
+	
+	private static final SqlQuery COI_ACTIVITY_GROUPS = new SqlQuery("coi.activityGroups", "select distinct m.cwid, \n" +
+		"concat(conflicts,'</div>') \n" +
+		"from v_coi_vivo_activity_group m \n" +
+		"join  ( \n" +
+		"select z.cwid, concat(\"<p class='conflicts-explanation'>Relationships and collaborations with for-profit and not-for-profit organizations are of vital importance to our faculty because these exchanges of scientific information foster innovation. As experts in their fields, WCM physicians and scientists are sought after by many organizations to consult and educate. WCM and its faculty make this information available to the public, thus creating a transparent environment.</p><div id='grid-container'>\",group_concat(distinct activityGroupData separator ''),\"\") as conflicts \n" +
+		"from (select cwid, concat(\"<div class='conflicts-description'><div class='tooltip'><span id='tooltip-what'><img class='whatisthisquestion' src='/images/externalRelationshipInfoButton.png' width='20'></span><span class='tooltiptext'>\",description,\"</span>\",vivo_pops_activity_group,\":</div></div><div class='conflicts-list'>\",replace(replace(group_concat(distinct entity order by entity separator '; '),\"(*)\",\"\"),\" ;\",\";\"),\"</div>\") as activityGroupData \n" +
+		"from v_coi_vivo_activity_group \n" +
+		"where vivo_pops_activity_group is not null \n" +
+		"group by cwid, vivo_pops_activity_group) z \n" +
+		"where z.cwid is not null \n" +
+		"group by z.cwid) p on p.cwid = m.cwid");
 
 	private Map<String, String> vivoCoiMap = new HashMap<>();
 	
+	/**
+	 * Current triples of the people prefetched from VIVO in bulk keyed by cwid. People of the same chunk share one model.
+	 */
+	private Map<String, Model> vivoPeople = new ConcurrentHashMap<>();
+	
+	@Value("${connect.people.bulk.chunk.size}")
+	private int bulkChunkSize;
+	
 	private String ingestType = System.getenv("INGEST_TYPE");
 	
 	/**
@@ -130,7 +163,7 @@ public class AcademicFetchFromED {
 		
 		log.info("Number of new people inserted in VIVO: " + count);
 		
-		log.info("Number of people updated in VIVO: " + this.updateCount);
+		log.info("Number of people updated in VIVO: " + this.updateCount.get());
 		stopWatch.stop();
 		log.info("People fetch Time taken: " + stopWatch.getTotalTimeSeconds() + "s");
 		return "People fetch completed successfully for cwids: " + people.toString();
@@ -146,7 +179,10 @@ public class AcademicFetchFromED {
 			int noCwidCount = 0;
 			String filter = "(&(objectClass=eduPerson)(!(weillCornellEduPersonTypeCode=academic-prestart))(weillCornellEduPersonTypeCode=academic))";
 			
-			List<SearchResultEntry> results = lcf.searchWithBaseDN(filter,"ou=people,dc=weill,dc=cornell,dc=edu");
+			//Split by cwid prefix so the pages are read on several connections at the same time
+			List<SearchResultEntry> results = lcf.searchParallel(LDAPConnectionFactory.partitionByCwidPrefix(filter), "ou=people,dc=weill,dc=cornell,dc=edu", 
+				"weillCornellEduCWID", "displayName", "givenName", "mail", "weillCornellEduWorkingTitle", "weillCornellEduPrimaryTitle", "weillCornellEduStatus", 
+				"telephoneNumber", "weillCornellEduMiddleName", "sn", "labeledURI;pops", "weillCornellEduPersonTypeCode");
 			
 			if (results != null) {
 				for (SearchResultEntry entry : results) {
@@ -158,9 +194,9 @@ public class AcademicFetchFromED {
 					if(entry.getAttributeValue("weillCornellEduCWID") != null) {
 						PeopleBean pb = new PeopleBean();
 						pb.setCwid(entry.getAttributeValue("weillCornellEduCWID"));
-						pb.setDisplayName(StringEscapeUtils.escapeJava(entry.getAttributeValue("displayName")));
+						pb.setDisplayName(entry.getAttributeValue("displayName"));
 						
-						pb.setGivenName(StringEscapeUtils.escapeJava(entry.getAttributeValue("givenName")));
+						pb.setGivenName(entry.getAttributeValue("givenName"));
 						
 						if(entry.getAttributeValue("mail")!=null)
 							pb.setMail(entry.getAttributeValue("mail"));
@@ -221,7 +257,7 @@ public class AcademicFetchFromED {
 				log.info("No of Records with no CWID: " + noCwidCount);
 			}
 			else {
-				log.info("No results found");
+				log.error("People could not be searched in ED");
 			}
 			return people;	
 		}
@@ -282,9 +318,9 @@ public class AcademicFetchFromED {
 			if(this.vivoCoiMap.containsKey(pb.getCwid())) {
 				sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid() + "> <http://weill.cornell.edu/vivo/ontology/wcmc#externalRelationships> \"" + this.vivoCoiMap.get(pb.getCwid()) + "\" . \n");
 			}
-			sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:personLabel \"" + pb.getDisplayName().trim() + "\" . \n");
+			sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:personLabel \"" + SparqlLiteralEscaper.escape(pb.getDisplayName().trim()) + "\" . \n");
 			sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:cwid \"" + pb.getCwid().trim() + "\" . \n");
-			sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> rdfs:label \"" + lastMiddleFirst + "\" . \n");
+			sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> rdfs:label \"" + SparqlLiteralEscaper.escape(lastMiddleFirst) + "\" . \n");
 			sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
 			sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vivo:DateTimeValue \"" + currentDate + "\" . \n");
 			sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> obo:ARG_2000028 <" + this.vivoNamespace + "arg2000028-" + pb.getCwid().trim() + "> . \n");
@@ -305,13 +341,13 @@ public class AcademicFetchFromED {
 				sb.append("<" + this.vivoNamespace + "hasEmail-"  + pb.getCwid().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
 			}
 			sb.append("<" + this.vivoNamespace + "hasName-"  + pb.getCwid().trim() + "> rdf:type vcard:Name . \n");
-			sb.append("<" + this.vivoNamespace + "hasName-"  + pb.getCwid().trim() + "> vcard:givenName \"" + pb.getGivenName().trim() + "\" . \n");
+			sb.append("<" + this.vivoNamespace + "hasName-"  + pb.getCwid().trim() + "> vcard:givenName \"" + SparqlLiteralEscaper.escape(pb.getGivenName().trim()) + "\" . \n");
 			if(!middleName.equals(""))
 				sb.append("<" + this.vivoNamespace + "hasName-"  + pb.getCwid().trim() + "> core:middleName \"" + middleName + "\" . \n");
-			sb.append("<" + this.vivoNamespace + "hasName-"  + pb.getCwid().trim() + "> vcard:familyName \"" + pb.getSn().trim() + "\" . \n");
+			sb.append("<" + this.vivoNamespace + "hasName-"  + pb.getCwid().trim() + "> vcard:familyName \"" + SparqlLiteralEscaper.escape(pb.getSn().trim()) + "\" . \n");
 			sb.append("<" + this.vivoNamespace + "hasName-"  + pb.getCwid().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
 			sb.append("<" + this.vivoNamespace + "hasTitle-"  + pb.getCwid().trim() + "> rdf:type vcard:Title . \n");
-			sb.append("<" + this.vivoNamespace + "hasTitle-"  + pb.getCwid().trim() + "> vcard:title \"" + pb.getPrimaryTitle().trim() + "\" . \n");
+			sb.append("<" + this.vivoNamespace + "hasTitle-"  + pb.getCwid().trim() + "> vcard:title \"" + SparqlLiteralEscaper.escape(pb.getPrimaryTitle().trim()) + "\" . \n");
 			sb.append("<" + this.vivoNamespace + "hasTitle-"  + pb.getCwid().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
 			if(!pb.getPopsProfile().equals("")) {
 				sb.append("<" + this.vivoNamespace + "arg2000028-" + pb.getCwid().trim() + "> vcard:hasURL <" + this.vivoNamespace + "popsUrl-"  + pb.getCwid().trim() + "> . \n");
@@ -324,12 +360,7 @@ public class AcademicFetchFromED {
 			sb.append("}}");
 			//log.info(sb.toString());
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
-				try{
-					String response = this.vivoClient.vivoUpdateApi(sb.toString());
-					log.info(response);
-				} catch(Exception  e) {
-					log.info("Api Exception", e);
-				}
+				this.vivoUpdateWriter.submit(sb.toString(), "person cwid - " + pb.getCwid());
 			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())) {
 				try {
 					TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
@@ -342,10 +373,8 @@ public class AcademicFetchFromED {
 			
 			} else {
 				try {
-					TDBJenaConnect vivoJena = this.tcf.createNewDataSetConnectionForPool();
+					TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
 					runTDBSparqlUpdateTemplate(sb.toString(), vivoJena);
-					if(vivoJena != null)
-						vivoJena.getDataset().close();
 				} catch(IOException e) {
 					log.error("Error connecting to Jena database", e);
 				}
@@ -394,12 +423,7 @@ public class AcademicFetchFromED {
 			sb.append("}}");
 
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
-				try{
-					String response = this.vivoClient.vivoUpdateApi(sb.toString());
-					log.info(response);
-				} catch(Exception  e) {
-					log.info("Api Exception", e);
-				}
+				this.vivoUpdateWriter.submit(sb.toString(), "inference triples for cwid - " + pb.getCwid());
 			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
 				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
 
@@ -412,7 +436,7 @@ public class AcademicFetchFromED {
 				if(vivoJena != null)
 					this.tcf.returnConnectionToPool(vivoJena, "dataSet");
 			} else {
-				TDBJenaConnect vivoJena = this.tcf.createNewDataSetConnectionForPool();
+				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
 
 				try{
 					runTDBSparqlUpdateTemplate(sb.toString(), vivoJena);
@@ -420,8 +444,6 @@ public class AcademicFetchFromED {
 				catch(IOException e) {
 					log.error("Error connecting to Jena Database", e);
 				}
-				if(vivoJena != null)
-					vivoJena.getDataset().close();
 			}
 		}
 		
@@ -551,6 +573,107 @@ public class AcademicFetchFromED {
 
 		}
 		
+		/**
+		 * This function fetches the current VIVO state of all people with one construct query per chunk of cwids.
+		 * The results are used by checkPeopleInVivo and checkForUpdates instead of querying VIVO for every person.
+		 * Only used for VIVO_API ingest since every lookup there is a round trip to the VIVO API.
+		 * @param people the list of people from ED
+		 */
+		public void prefetchPeopleInVivo(List<PeopleBean> people) {
+			if(ingestType == null || !ingestType.equals(IngestType.VIVO_API.toString())) {
+				return;
+			}
+			StopWatch stopWatch = new StopWatch("People bulk fetch from VIVO");
+			stopWatch.start("People bulk fetch from VIVO");
+			Map<String, PeopleBean> distinctPeople = new LinkedHashMap<>();
+			for(PeopleBean pb: people) {
+				distinctPeople.putIfAbsent(pb.getCwid().trim(), pb);
+			}
+			for(List<PeopleBean> chunk: Lists.partition(new ArrayList<>(distinctPeople.values()), this.bulkChunkSize)) {
+				List<EntityGraphDiff> diffs = chunk.stream().map(this::getPersonDiff).collect(Collectors.toList());
+				try {
+					Model current = this.vivoClient.vivoConstructApi(EntityGraphDiff.getConstructQuery(diffs));
+					for(PeopleBean pb: chunk) {
+						this.vivoPeople.put(pb.getCwid().trim(), current);
+					}
+				} catch(Exception e) {
+					//People of this chunk fall back to the lookup per person
+					log.error("Api Exception", e);
+				}
+			}
+			stopWatch.stop();
+			log.info("People bulk fetch from VIVO for " + distinctPeople.size() + " people took " + stopWatch.getTotalTimeSeconds() + "s");
+		}
+		
+		/**
+		 * @param pb the people bean with all the data from ED
+		 * @return the triples the person should have in the people graph. Values that are empty in ED are left as they are in VIVO.
+		 */
+		private EntityGraphDiff getPersonDiff(PeopleBean pb) {
+			String cwid = pb.getCwid().trim();
+			String person = TripleBuilder.vivoUri("cwid-" + cwid);
+			String vcard = TripleBuilder.vivoUri("arg2000028-" + cwid);
+			String hasName = TripleBuilder.vivoUri("hasName-" + cwid);
+			String hasEmail = TripleBuilder.vivoUri("hasEmail-" + cwid);
+			String displayName = nonEmpty(pb.getDisplayName());
+			String telephoneNumber = nonEmpty(pb.getTelephoneNumber());
+			String primaryTitle = nonEmpty(pb.getPrimaryTitle());
+			String givenName = nonEmpty(pb.getGivenName());
+			String sn = nonEmpty(pb.getSn());
+			String middleName = nonEmpty(pb.getMiddleName());
+			String mail = nonEmpty(pb.getMail());
+			String popsProfile = nonEmpty(pb.getPopsProfile());
+			
+			EntityGraphDiff diff = new EntityGraphDiff(VivoGraphs.PEOPLE_GRAPH.getValue());
+			//Fetched along to know whether the person exists
+			diff.ensure(person, "rdf:type", EntityGraphDiff.resource("foaf:Person"));
+			if(displayName != null) {
+				diff.set(person, "wcmc:personLabel", EntityGraphDiff.literal(displayName));
+			}
+			if(pb.getPersonCode() != null) {
+				diff.set(person, "vitro:mostSpecificType", EntityGraphDiff.resource("<" + pb.getPersonCode().trim() + ">"));
+			}
+			if(telephoneNumber != null) {
+				diff.set(person, "wcmc:officePhone", EntityGraphDiff.literal(telephoneNumber));
+			}
+			if(primaryTitle != null) {
+				diff.set(TripleBuilder.vivoUri("hasTitle-" + cwid), "vcard:title", EntityGraphDiff.literal(primaryTitle));
+			}
+			if(givenName != null) {
+				diff.set(hasName, "vcard:givenName", EntityGraphDiff.literal(givenName));
+			}
+			if(sn != null) {
+				diff.set(hasName, "vcard:familyName", EntityGraphDiff.literal(sn));
+			}
+			if(middleName != null) {
+				diff.set(hasName, "core:middleName", EntityGraphDiff.literal(middleName));
+			}
+			if(mail != null) {
+				diff.set(hasEmail, "vcard:email", EntityGraphDiff.literal(mail));
+				diff.ensure(vcard, "vcard:hasEmail", EntityGraphDiff.resource(hasEmail));
+				diff.ensure(hasEmail, "rdf:type", EntityGraphDiff.resource("vcard:Work"));
+				diff.ensure(hasEmail, "rdf:type", EntityGraphDiff.resource("vcard:Email"));
+				diff.ensure(hasEmail, "<http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy>", EntityGraphDiff.literal("wcmc-harvester"));
+			}
+			//The clinical profile is only added, never removed
+			if(popsProfile != null) {
+				String popsUrl = TripleBuilder.vivoUri("popsUrl-" + cwid);
+				diff.ensure(vcard, "vcard:hasURL", EntityGraphDiff.resource(popsUrl));
+				diff.ensure(popsUrl, "rdf:type", EntityGraphDiff.resource("vcard:URL"));
+				diff.ensure(popsUrl, "core:rank", EntityGraphDiff.typedLiteral("99", "xsd:int"));
+				diff.ensure(popsUrl, "rdfs:label", EntityGraphDiff.literal("Clinical Profile "));
+				diff.set(popsUrl, "vcard:url", EntityGraphDiff.typedLiteral(popsProfile, "xsd:anyURI"));
+			}
+			return diff;
+		}
+		
+		private static String nonEmpty(String value) {
+			if(value == null || value.trim().isEmpty()) {
+				return null;
+			}
+			return value.trim();
+		}
+		
 		/**
 		 * @param pb  the people bean with all the data that has to be inserted from ED
 		 * @return true or false based on whether the people exist in VIVO
@@ -566,14 +689,18 @@ public class AcademicFetchFromED {
 									"<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> rdf:type foaf:Person . \n" +
 									"}}";
 
+			Model vivoPerson = this.vivoPeople.get(pb.getCwid().trim());
+			if(vivoPerson != null) {
+				boolean exists = vivoPerson.contains(ResourceFactory.createResource(this.vivoNamespace + "cwid-" + pb.getCwid().trim()), RDF.type, FOAF.Person);
+				if(!exists) {
+					this.vivoPeople.remove(pb.getCwid().trim());
+				}
+				return exists;
+			}
 			log.info(sparqlQuery);
 			if(ingestType!=null && ingestType.equals(IngestType.VIVO_API.toString())) {
 				try {
-					String response = this.vivoClient.vivoQueryApi(sparqlQuery);
-					log.info(response);
-					JSONObject obj = new JSONObject(response);
-					JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-					count = bindings.getJSONObject(0).getJSONObject("c").getInt("value");
+					count = this.vivoClient.vivoQueryApi(sparqlQuery, row -> row.getLong("c")).get(0).intValue();
 				} catch(Exception e) {
 					log.error("Api Exception", e);
 				}
@@ -588,17 +715,11 @@ public class AcademicFetchFromED {
 				if(vivoJena != null)
 					this.tcf.returnConnectionToPool(vivoJena, "dataSet");
 			} else {
-				TDBJenaConnect vivoJena = this.tcf.createNewDataSetConnectionForPool();
-				try{
+				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
 				ResultSet rs = runTDBSparqlTemplate(sparqlQuery, vivoJena);
 				
 				QuerySolution qs = rs.nextSolution();
 				count = Integer.parseInt(qs.get("c").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
-				} catch(JenaTransactionException e) {
-					log.error("TDB Exception with uid: ", e);
-				}
-				if(vivoJena != null)
-					vivoJena.getDataset().close();
 			}
 
 			if(count > 0)
@@ -610,514 +731,71 @@ public class AcademicFetchFromED {
 		/**
 		 * @param pb the people bean with all the data that has to be inserted from ED
 		 * This function check for updates from ED and then apply them in VIVO. For email , displayName, lastName, Phone numbers, Primary Title etc.
+		 * The current triples of the person are fetched with one construct query and only the triples that differ are deleted and inserted in one update.
 		 */
 		private void checkForUpdates(PeopleBean pb) {
-			List<String> updateList = new ArrayList<String>();
-			List<String> insertList = new ArrayList<String>();
-			String phone = null;
-			String middleName = null;
-			String label = null;
-			String type = null;
-			String title = null;
-			String email = null;
-			String firstName = null;
-			String lastName = null;
-			String popsUrl = null;
-			String sdbPhone = null;
-			String sdbMiddleName = null;
-			String sdbLabel = null;
-			String sdbType = null;
-			String sdbTitle = null;
-			String sdbEmail = null;
-			String sdbFirstName = null;
-			String sdbLastName = null;
-			String sdbPopsUrl = null;
-			String sparqlQuery = "PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n" +
-					"PREFIX foaf: <http://xmlns.com/foaf/0.1/> \n" +
-					"PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n" +
-					"PREFIX core: <http://vivoweb.org/ontology/core#> \n" +
-					"PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n" +
-					"PREFIX vcard: <http://www.w3.org/2006/vcard/ns#> \n" +
-					"SELECT ?label ?type ?phone ?title ?email ?firstName ?lastName ?middleName ?popsUrl\n" +
-					"WHERE \n" +
-					"{ \n" +
-					"GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPeople> {\n" +
-					"<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:personLabel ?label .\n" +
-					"<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vitro:mostSpecificType ?type .\n" +
-					"<" + this.vivoNamespace + "hasTitle-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#title> ?title . \n" +
-					"<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#givenName> ?firstName . \n" +
-					"<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#familyName> ?lastName . \n" +
-					"OPTIONAL { <" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:officePhone ?phone . }\n" +
-					"OPTIONAL { <" + this.vivoNamespace + "hasEmail-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#email> ?email . }\n" +
-					"OPTIONAL { <" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> core:middleName ?middleName . }\n" +
-					"OPTIONAL { <" + this.vivoNamespace + "popsUrl-" + pb.getCwid().trim() + "> vcard:url ?popsUrl } \n" +
-					"}}";
-			
-			log.debug(sparqlQuery);
+			String cwid = pb.getCwid().trim();
+			String person = TripleBuilder.vivoUri("cwid-" + cwid);
+			EntityGraphDiff diff = getPersonDiff(pb);
 			TDBJenaConnect vivoJena = null;
 			try {
+				Model current = this.vivoPeople.remove(cwid);
 				if(ingestType.equals(IngestType.VIVO_API.toString())) {
-					String response = this.vivoClient.vivoQueryApi(sparqlQuery);
-					log.info(response);
-					JSONObject obj = new JSONObject(response);
-					JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-					if(bindings != null && !bindings.isEmpty()) {
-						if(bindings.getJSONObject(0).optJSONObject("label").has("value"))
-							label = bindings.getJSONObject(0).getJSONObject("label").getString("value");
-						
-						if(bindings.getJSONObject(0).optJSONObject("type").has("value"))
-							type = bindings.getJSONObject(0).getJSONObject("type").getString("value");
-						
-						if(bindings.getJSONObject(0).optJSONObject("phone") != null && bindings.getJSONObject(0).optJSONObject("phone").has("value"))
-							phone = bindings.getJSONObject(0).getJSONObject("phone").getString("value");
-						
-						if(bindings.getJSONObject(0).optJSONObject("title") != null && bindings.getJSONObject(0).optJSONObject("title").has("value"))
-							title = bindings.getJSONObject(0).getJSONObject("title").getString("value");
-						
-						if(bindings.getJSONObject(0).optJSONObject("email") !=  null && bindings.getJSONObject(0).optJSONObject("email").has("value"))
-							email = bindings.getJSONObject(0).getJSONObject("email").getString("value");
-						
-						if(bindings.getJSONObject(0).optJSONObject("firstName").has("value"))
-							firstName = bindings.getJSONObject(0).getJSONObject("firstName").getString("value");
-
-						if(bindings.getJSONObject(0).optJSONObject("lastName").has("value"))
-							lastName = bindings.getJSONObject(0).getJSONObject("lastName").getString("value");
-						
-						if(bindings.getJSONObject(0).optJSONObject("middleName") != null && bindings.getJSONObject(0).optJSONObject("middleName").has("value"))
-							middleName = bindings.getJSONObject(0).getJSONObject("middleName").getString("value");
-						
-						if(bindings.getJSONObject(0).optJSONObject("popsUrl") != null && bindings.getJSONObject(0).optJSONObject("popsUrl").has("value"))
-							popsUrl = bindings.getJSONObject(0).getJSONObject("popsUrl").getString("value");
-
-					
-						if(label != null && !label.equals(pb.getDisplayName().trim())) {
-							updateList.add("DisplayName");
-							log.info("Person Label was updated for cwid: " + pb.getCwid().trim());
-						}
-						if(type != null && !type.equals(pb.getPersonCode().trim())) {
-							updateList.add("MostSpecificType");
-							log.info("MostSpecificType was updated for cwid: " + pb.getCwid().trim());
-						}
-						if(title != null && !title.equals(pb.getPrimaryTitle().trim())) {
-							updateList.add("PrimaryTitle");
-							log.info("Title was updated for cwid: " + pb.getCwid().trim());
-						}
-						if(email != null && !email.equals(pb.getMail().trim())) {
-							updateList.add("Mail");
-							log.info("Email was updated for cwid: " + pb.getCwid().trim());
-						}
-						
-						if(email == null && pb.getMail() != null && !pb.getMail().equals("")) {
-							insertList.add("Mail");
-							log.info("Email was inserted for cwid: " + pb.getCwid().trim());
-						}
-						
-						if(phone == null && pb.getTelephoneNumber() != null && !pb.getTelephoneNumber().equals("")) {
-							insertList.add("TelephoneNumber");
-							log.info("Phone was inserted for cwid: " + pb.getCwid().trim());
-						}
-						
-						if(middleName == null && pb.getMiddleName() != null && !pb.getMiddleName().equals("")) {
-							insertList.add("MiddleName");
-							log.info("Middle Name was inserted for cwid: " + pb.getCwid().trim());
-						}
-						
-						if(phone != null && !phone.equals(pb.getTelephoneNumber().trim())) {
-							updateList.add("TelephoneNumber");
-							log.info("Phone was updated for cwid: " + pb.getCwid().trim());
-						}
-						if(firstName != null && !firstName.equals(pb.getGivenName().trim())) {
-							updateList.add("FirstName");
-							log.info("First was updated for cwid: " + pb.getCwid().trim());
-						}
-						if(lastName != null && !lastName.equals(pb.getSn().trim())) {
-							updateList.add("LastName");
-							log.info("Last Name was updated for cwid: " + pb.getCwid().trim());
-						}
-						if(middleName!= null && !middleName.equals(pb.getMiddleName().trim())) {
-							updateList.add("MiddleName");
-							log.info("Middle Name was updated for cwid: " + pb.getCwid().trim());
-						}
-						if(popsUrl == null && pb.getPopsProfile() != null && !pb.getPopsProfile().equals("")) {
-							insertList.add("PopsUrl");
-							log.info("Pops Url was inserted for cwid: " + pb.getCwid().trim());
-						}
+					if(current == null) {
+						current = this.vivoClient.vivoConstructApi(diff.getConstructQuery());
 					}
 				} else {
-					vivoJena = this.tcf.createNewDataSetConnectionForPool();
-					ResultSet rs = runTDBSparqlTemplate(sparqlQuery, vivoJena);
-					QuerySolution qs = null;
-						if(rs.hasNext()) {
-							qs = rs.nextSolution();
-							
-							if(qs.get("label") != null)
-								sdbLabel = qs.get("label").toString();
-
-							if(qs.get("type") != null)
-								sdbType = qs.get("type").toString();
-							
-							if(qs.get("title") != null)
-								sdbTitle = qs.get("title").toString();
-							
-							if(qs.get("email") != null)
-								sdbEmail = qs.get("email").toString();
-
-							if(qs.get("phone") != null)
-								sdbPhone = qs.get("phone").toString();
-
-							if(qs.get("middleName") != null)
-								sdbMiddleName = qs.get("middleName").toString();
-
-							if(qs.get("firstName") != null)
-								sdbFirstName = qs.get("firstName").toString();
-							
-							if(qs.get("lastName") != null)
-								sdbLastName = qs.get("lastName").toString();
-
-							if(qs.get("popsUrl") != null)
-								sdbPopsUrl = qs.get("popsUrl").toString();
-							
-							
-							if(!qs.get("label").toString().equals(pb.getDisplayName().trim())) {
-								updateList.add("DisplayName");
-								log.info("Person Label was updated for cwid: " + pb.getCwid().trim());
-							}
-							if(!qs.get("type").toString().equals(pb.getPersonCode().trim())) {
-								updateList.add("MostSpecificType");
-								log.info("MostSpecificType was updated for cwid: " + pb.getCwid().trim());
-							}
-							if(qs.get("title") != null && !qs.get("title").toString().equals(pb.getPrimaryTitle().trim())) {
-								updateList.add("PrimaryTitle");
-								log.info("Title was updated for cwid: " + pb.getCwid().trim());
-							}
-							if(qs.get("email") != null && !qs.get("email").toString().equals(pb.getMail().trim())) {
-								updateList.add("Mail");
-								log.info("Email was updated for cwid: " + pb.getCwid().trim());
-							}
-							
-							if(qs.get("email") == null && pb.getMail() != null && !pb.getMail().equals("")) {
-								insertList.add("Mail");
-								log.info("Email was inserted for cwid: " + pb.getCwid().trim());
-							}
-							
-							if(qs.get("phone") == null && pb.getTelephoneNumber() != null && !pb.getTelephoneNumber().equals("")) {
-								insertList.add("TelephoneNumber");
-								log.info("Phone was inserted for cwid: " + pb.getCwid().trim());
-							}
-							
-							if(qs.get("middleName") == null && pb.getMiddleName() != null && !pb.getMiddleName().equals("")) {
-								insertList.add("MiddleName");
-								log.info("Middle Name was inserted for cwid: " + pb.getCwid().trim());
-							}
-							
-							if(qs.get("phone") != null && !qs.get("phone").toString().equals(pb.getTelephoneNumber().trim())) {
-								updateList.add("TelephoneNumber");
-								log.info("Phone was updated for cwid: " + pb.getCwid().trim());
-							}
-							if(!qs.get("firstName").toString().equals(pb.getGivenName().trim())) {
-								updateList.add("FirstName");
-								log.info("First was updated for cwid: " + pb.getCwid().trim());
-							}
-							if(!qs.get("lastName").toString().equals(pb.getSn().trim())) {
-								updateList.add("LastName");
-								log.info("Last Name was updated for cwid: " + pb.getCwid().trim());
-							}
-							if(qs.get("middleName") != null && !qs.get("middleName").toString().equals(pb.getMiddleName().trim())) {
-								updateList.add("MiddleName");
-								log.info("Middle Name was updated for cwid: " + pb.getCwid().trim());
-							}
-							if(qs.get("popsUrl") == null && pb.getPopsProfile() != null && !pb.getPopsProfile().equals("")) {
-								insertList.add("PopsUrl");
-								log.info("Pops Url was inserted for cwid: " + pb.getCwid().trim());
-							}
-						}
-					}
-					
-					if(updateList.isEmpty()) {
-						log.info("No Updates are necessary for cwid : " + pb.getCwid().trim());
-					}
-					else {
-						StringBuffer sb = new StringBuffer();
-						if(ingestType.equals(IngestType.VIVO_API.toString())) {
-							
-						
-							sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-							sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
-							sb.append("PREFIX foaf: <http://xmlns.com/foaf/0.1/> \n");
-							sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-							sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-							sb.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-							sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPeople> \n");
-							sb.append("DELETE { \n");
-							if(updateList.contains("DisplayName")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:personLabel \"" + label + "\" .\n");
-							}
-							if(updateList.contains("PrimaryTitle")) {
-								sb.append("<" + this.vivoNamespace + "hasTitle-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#title> \"" + title + "\" .\n");
-							}
-							if(updateList.contains("Mail")) {
-								sb.append("<" + this.vivoNamespace + "hasEmail-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#email> \"" + email + "\" .\n");
-							}
-							if(updateList.contains("TelephoneNumber")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:officePhone \"" + phone + "\" .\n");
-							}
-							if(updateList.contains("FirstName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#givenName> \"" + firstName + "\" .\n");
-							}
-							if(updateList.contains("LastName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#familyName> \"" + lastName + "\" .\n");
-							}
-							if(updateList.contains("MiddleName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> core:middleName \"" + middleName + "\" .\n");
-							}
-							if(updateList.contains("MostSpecificType")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vitro:mostSpecificType <" + type + "> .\n");
-							}
-							sb.append("} \n");
-							sb.append("INSERT { \n");
-							if(updateList.contains("DisplayName")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:personLabel \"" + pb.getDisplayName().trim() + "\" .\n");
-							}
-							if(updateList.contains("PrimaryTitle")) {
-								sb.append("<" + this.vivoNamespace + "hasTitle-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#title> \"" + pb.getPrimaryTitle().trim() + "\" .\n");
-							}
-							if(updateList.contains("Mail")) {
-								sb.append("<" + this.vivoNamespace + "hasEmail-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#email> \"" + pb.getMail().trim() + "\" .\n");
-							}
-							if(updateList.contains("TelephoneNumber")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:officePhone \"" + pb.getTelephoneNumber().trim() + "\" .\n");
-							}
-							if(updateList.contains("FirstName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#givenName> \"" + pb.getGivenName().trim() + "\" .\n");
-							}
-							if(updateList.contains("LastName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#familyName> \"" + pb.getSn().trim() + "\" .\n");
-							}
-							if(updateList.contains("MiddleName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> core:middleName \"" + pb.getMiddleName().trim() + "\" .\n");
-							}
-							
-							if(updateList.contains("MostSpecificType")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vitro:mostSpecificType <" + pb.getPersonCode().trim() + "> .\n");
-							}
-							
-							sb.append("} \n");
-							sb.append("WHERE { \n");
-							if(updateList.contains("DisplayName")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:personLabel \"" + label + "\" .\n");
-							}
-							if(updateList.contains("PrimaryTitle")) {
-								sb.append("<" + this.vivoNamespace + "hasTitle-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#title> \"" + title + "\" .\n");
-							}
-							if(updateList.contains("Mail")) {
-								sb.append("<" + this.vivoNamespace + "hasEmail-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#email> \"" + email + "\" .\n");
-							}
-							if(updateList.contains("TelephoneNumber")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:officePhone \"" + phone + "\" .\n");
-							}
-							if(updateList.contains("FirstName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#givenName> \"" + firstName + "\" .\n");
-							}
-							if(updateList.contains("LastName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#familyName> \"" + lastName + "\" .\n");
-							}
-							if(updateList.contains("MiddleName")) {
-								sb.append("OPTIONAL { <" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> core:middleName \"" + middleName + "\" . }\n");
-							}
-							if(updateList.contains("MostSpecificType")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vitro:mostSpecificType <" + type + "> .\n");
-							}
-							sb.append("} \n");
-							
-							log.info("Update Query: " + sb.toString());
-							log.info(this.vivoClient.vivoUpdateApi(sb.toString()));
-							
-							this.updateCount = this.updateCount + 1;
-						} else {
-							
-							sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-							sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
-							sb.append("PREFIX foaf: <http://xmlns.com/foaf/0.1/> \n");
-							sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-							sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-							sb.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-							sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPeople> \n");
-							sb.append("DELETE { \n");
-							if(updateList.contains("DisplayName")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:personLabel \"" + sdbLabel + "\" .\n");
-							}
-							if(updateList.contains("PrimaryTitle")) {
-								sb.append("<" + this.vivoNamespace + "hasTitle-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#title> \"" + sdbTitle + "\" .\n");
-							}
-							if(updateList.contains("Mail")) {
-								sb.append("<" + this.vivoNamespace + "hasEmail-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#email> \"" + sdbEmail + "\" .\n");
-							}
-							if(updateList.contains("TelephoneNumber")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:officePhone \"" + sdbPhone + "\" .\n");
-							}
-							if(updateList.contains("FirstName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#givenName> \"" + sdbFirstName + "\" .\n");
-							}
-							if(updateList.contains("LastName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#familyName> \"" + sdbLastName + "\" .\n");
-							}
-							if(updateList.contains("MiddleName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> core:middleName \"" + sdbMiddleName + "\" .\n");
-							}
-							if(updateList.contains("MostSpecificType")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vitro:mostSpecificType <" + sdbType + "> .\n");
-							}
-							sb.append("} \n");
-							sb.append("INSERT { \n");
-							if(updateList.contains("DisplayName")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:personLabel \"" + pb.getDisplayName().trim() + "\" .\n");
-							}
-							if(updateList.contains("PrimaryTitle")) {
-								sb.append("<" + this.vivoNamespace + "hasTitle-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#title> \"" + pb.getPrimaryTitle().trim() + "\" .\n");
-							}
-							if(updateList.contains("Mail")) {
-								sb.append("<" + this.vivoNamespace + "hasEmail-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#email> \"" + pb.getMail().trim() + "\" .\n");
-							}
-							if(updateList.contains("TelephoneNumber")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:officePhone \"" + pb.getTelephoneNumber().trim() + "\" .\n");
-							}
-							if(updateList.contains("FirstName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#givenName> \"" + pb.getGivenName().trim() + "\" .\n");
-							}
-							if(updateList.contains("LastName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#familyName> \"" + pb.getSn().trim() + "\" .\n");
-							}
-							if(updateList.contains("MiddleName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> core:middleName \"" + pb.getMiddleName().trim() + "\" .\n");
-							}
-							
-							if(updateList.contains("MostSpecificType")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vitro:mostSpecificType <" + pb.getPersonCode().trim() + "> .\n");
-							}
-							
-							sb.append("} \n");
-							sb.append("WHERE { \n");
-							if(updateList.contains("DisplayName")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:personLabel \"" + sdbLabel + "\" .\n");
-							}
-							if(updateList.contains("PrimaryTitle")) {
-								sb.append("<" + this.vivoNamespace + "hasTitle-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#title> \"" + sdbTitle + "\" .\n");
-							}
-							if(updateList.contains("Mail")) {
-								sb.append("<" + this.vivoNamespace + "hasEmail-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#email> \"" + sdbEmail + "\" .\n");
-							}
-							if(updateList.contains("TelephoneNumber")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:officePhone \"" + sdbPhone + "\" .\n");
-							}
-							if(updateList.contains("FirstName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#givenName> \"" + sdbFirstName + "\" .\n");
-							}
-							if(updateList.contains("LastName")) {
-								sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#familyName> \"" + sdbLastName + "\" .\n");
-							}
-							if(updateList.contains("MiddleName")) {
-								sb.append("OPTIONAL { <" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> core:middleName \"" + sdbMiddleName + "\" . }\n");
-							}
-							if(updateList.contains("MostSpecificType")) {
-								sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vitro:mostSpecificType <" + sdbType + "> .\n");
-							}
-							sb.append("} \n");
-							
-							log.info("Update Query: " + sb.toString());
-							
-							
-							
-							runTDBSparqlUpdateTemplate(sb.toString(), vivoJena);
-							
-							this.updateCount = this.updateCount + 1;
-						}
-						
-						
-						if(!updateList.isEmpty() && updateList.contains("MostSpecificType")) {
-							log.info("Updating inference triple for mostSpecificType update");
-							sb.setLength(0);
-							
-							sb.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-							sb.append("WITH <http://vitro.mannlib.cornell.edu/default/vitro-kb-inf> \n");
-			                sb.append("DELETE { \n");
-			                sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vitro:mostSpecificType ?o .\n");
-			                sb.append("} \n");
-			                sb.append("INSERT { \n");
-			                sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vitro:mostSpecificType <" + pb.getPersonCode().trim() + "> .\n");
-			                sb.append("} \n");
-			                sb.append("WHERE { \n");
-			                sb.append("OPTIONAL {<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> vitro:mostSpecificType ?o . }\n");
-			                sb.append("}");
-			                
-			                log.info("Update Query for person type: " + sb.toString());
-							if(ingestType.equals(IngestType.VIVO_API.toString())) {
-								log.info(this.vivoClient.vivoUpdateApi(sb.toString()));
-							} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-								TDBJenaConnect vivoJenaInf = this.tcf.getConnectionfromPool("dataSet");
-								runSparqlUpdateTemplate(sb.toString(), vivoJenaInf);
-								this.tcf.returnConnectionToPool(vivoJenaInf, "dataSet");
-							} else {
-								TDBJenaConnect vivoJenaInf = this.tcf.createNewDataSetConnectionForPool();
-								runTDBSparqlUpdateTemplate(sb.toString(), vivoJenaInf);
-								vivoJenaInf.getDataset().close();
-							}
-						}
+					vivoJena = this.tcf.getConnectionfromPool("dataSet");
+					current = runTDBConstructTemplate(diff.getConstructQuery(), vivoJena);
+				}
+				diff.compute(current);
+				
+				if(diff.isEmpty()) {
+					log.info("No Updates are necessary for cwid : " + cwid);
+				}
+				else {
+					log.info("Person was updated for cwid: " + cwid + " with " + diff.getDeletes().size() + " triples deleted and " + diff.getInserts().size() + " triples inserted");
+					if(ingestType.equals(IngestType.VIVO_API.toString())) {
+						String update = diff.toUpdate();
+						log.info("Update Query: " + update);
+						log.info(this.vivoClient.vivoUpdateApi(update));
+					} else {
+						runTDBUpdateTemplate(diff.toUpdateRequest(), vivoJena);
 					}
+					this.updateCount.incrementAndGet();
 					
-					if(!insertList.isEmpty()) {
-	                	StringBuilder sb = new StringBuilder();
+					if(diff.isChanged(person, "vitro:mostSpecificType")) {
+						log.info("Updating inference triple for mostSpecificType update");
+						StringBuilder sb = new StringBuilder();
 						
-						sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
-						sb.append("PREFIX foaf: <http://xmlns.com/foaf/0.1/> \n");
-		                sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-		                sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-		                sb.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-		                sb.append("PREFIX vcard: <http://www.w3.org/2006/vcard/ns#> \n");
-		                sb.append("INSERT DATA { GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPeople> { \n");
-		                if(insertList.contains("TelephoneNumber")) {
-		                	sb.append("<" + this.vivoNamespace + "cwid-" + pb.getCwid().trim() + "> wcmc:officePhone \"" + pb.getTelephoneNumber().trim() + "\" .\n");			                	
-		                }
-		                if(insertList.contains("MiddleName")) {
-		                	sb.append("<" + this.vivoNamespace + "hasName-" + pb.getCwid().trim() + "> core:middleName \"" + pb.getMiddleName().trim() + "\" .\n");
-		                }
-		                if(insertList.contains("Mail")) {
-		                	sb.append("<" + this.vivoNamespace + "arg2000028-" + pb.getCwid().trim() + "> vcard:hasEmail <" + this.vivoNamespace + "hasEmail-"  + pb.getCwid().trim() + "> . \n");
-		                	sb.append("<" + this.vivoNamespace + "hasEmail-" + pb.getCwid().trim() + "> <http://www.w3.org/2006/vcard/ns#email> \"" + pb.getMail().trim() + "\" .\n");
-		                	sb.append("<" + this.vivoNamespace + "hasEmail-"  + pb.getCwid().trim() + "> rdf:type vcard:Work . \n");
-		    				sb.append("<" + this.vivoNamespace + "hasEmail-"  + pb.getCwid().trim() + "> rdf:type vcard:Email . \n");
-		    				sb.append("<" + this.vivoNamespace + "hasEmail-"  + pb.getCwid().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-		                }
-		                if(insertList.contains("PopsUrl")) {
-		                	if(!pb.getPopsProfile().equals("")) {
-		        				sb.append("<" + this.vivoNamespace + "arg2000028-" + pb.getCwid().trim() + "> vcard:hasURL <" + this.vivoNamespace + "popsUrl-"  + pb.getCwid().trim() + "> . \n");
-		        				sb.append("<" + this.vivoNamespace + "popsUrl-"  + pb.getCwid().trim() + "> rdf:type vcard:URL . \n");
-		        				sb.append("<" + this.vivoNamespace + "popsUrl-"  + pb.getCwid().trim() + "> core:rank \"99\"^^<http://www.w3.org/2001/XMLSchema#int> . \n");
-		        				sb.append("<" + this.vivoNamespace + "popsUrl-"  + pb.getCwid().trim() + "> rdfs:label \"Clinical Profile \" . \n");
-		        				sb.append("<" + this.vivoNamespace + "popsUrl-"  + pb.getCwid().trim() + "> vcard:url \"" + pb.getPopsProfile().trim() + "\"^^<http://www.w3.org/2001/XMLSchema#anyURI> . \n");
-		        				
-		        			}
-		                }
-		                sb.append("}}");
-
+						sb.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
+						sb.append("WITH <http://vitro.mannlib.cornell.edu/default/vitro-kb-inf> \n");
+		                sb.append("DELETE { \n");
+		                sb.append(person + " vitro:mostSpecificType ?o .\n");
+		                sb.append("} \n");
+		                sb.append("INSERT { \n");
+		                sb.append(person + " vitro:mostSpecificType <" + pb.getPersonCode().trim() + "> .\n");
+		                sb.append("} \n");
+		                sb.append("WHERE { \n");
+		                sb.append("OPTIONAL {" + person + " vitro:mostSpecificType ?o . }\n");
+		                sb.append("}");
+		                
+		                log.info("Update Query for person type: " + sb.toString());
 						if(ingestType.equals(IngestType.VIVO_API.toString())) {
-							log.info("Insert Query: " + sb.toString());
 							log.info(this.vivoClient.vivoUpdateApi(sb.toString()));
 						} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-							log.info("Insert Query: " + sb.toString());
-		                	runSparqlUpdateTemplate(sb.toString(), vivoJena);
+							TDBJenaConnect vivoJenaInf = this.tcf.getConnectionfromPool("dataSet");
+							runSparqlUpdateTemplate(sb.toString(), vivoJenaInf);
+							this.tcf.returnConnectionToPool(vivoJenaInf, "dataSet");
 						} else {
 							runTDBSparqlUpdateTemplate(sb.toString(), vivoJena);
 						}
-	                }
-					if(ingestType.equals(IngestType.TDB_DIRECT.toString())) {
-						if(vivoJena!= null)
-							vivoJena.getDataset().close();
 					}
-					//Run inferencing on the updated triples
-					insertInferenceTriples(pb);
-	                
-					
+				}
+				//Run inferencing on the updated triples
+				insertInferenceTriples(pb);
+                
+				
 			} catch(Exception e) {
 				log.error("Api Exception" ,e);
 			}
@@ -1261,55 +939,19 @@ public class AcademicFetchFromED {
 
 		public void getCOIData() {
 			Connection con = this.mycf.getConnectionfromPool();
-			String cwid = null;
-			String coi = null;
-			
-			StringBuilder selectQuery = new StringBuilder();
-			selectQuery.append("select distinct m.cwid, \n");
-			selectQuery.append("concat(conflicts,'</div>') \n");
-			selectQuery.append("from v_coi_vivo_activity_group m \n");
-			selectQuery.append("join  ( \n");
-			selectQuery.append("select z.cwid, concat(\"<p class='conflicts-explanation'>Relationships and collaborations with for-profit and not-for-profit organizations are of vital importance to our faculty because these exchanges of scientific information foster innovation. As experts in their fields, WCM physicians and scientists are sought after by many organizations to consult and educate. WCM and its faculty make this information available to the public, thus creating a transparent environment.</p><div id='grid-container'>\",group_concat(distinct activityGroupData separator ''),\"\") as conflicts \n");
-			selectQuery.append("from (select cwid, concat(\"<div class='conflicts-description'><div class='tooltip'><span id='tooltip-what'><img class='whatisthisquestion' src='/images/externalRelationshipInfoButton.png' width='20'></span><span class='tooltiptext'>\",description,\"</span>\",vivo_pops_activity_group,\":</div></div><div class='conflicts-list'>\",replace(replace(group_concat(distinct entity order by entity separator '; '),\"(*)\",\"\"),\" ;\",\";\"),\"</div>\") as activityGroupData \n");
-			selectQuery.append("from v_coi_vivo_activity_group \n");
-			selectQuery.append("where vivo_pops_activity_group is not null \n");
-			selectQuery.append("group by cwid, vivo_pops_activity_group) z \n");
-			selectQuery.append("where z.cwid is not null \n");
-			selectQuery.append("group by z.cwid) p on p.cwid = m.cwid");
-
-			log.info(selectQuery.toString());
-			PreparedStatement ps = null;
-			java.sql.ResultSet rs = null;
-			try {	
-					ps = con.prepareStatement(selectQuery.toString());
-					ps.addBatch("set session group_concat_max_len = 90000");
-					ps.executeBatch();
-					rs = ps.executeQuery();
-					while(rs.next()) {
+			try(SqlSession session = this.sqlQueries.session(con)) {
+					session.update(COI_GROUP_CONCAT_MAX_LEN, null);
+					session.query(COI_ACTIVITY_GROUPS, null, rs -> {
 						if(rs.getString(1) != null)
-							cwid = rs.getString(1);
-						coi = rs.getString(2);
-						
-						this.vivoCoiMap.put(cwid, coi);
-						
-					}
+							this.vivoCoiMap.put(rs.getString(1), rs.getString(2));
+					});
 				}
 			catch(SQLException e) {
 				log.error("SQLException" , e);
 			}
 			finally {
-				try{
-					if(ps!=null)
-						ps.close();
-					if(rs!=null)
-						rs.close();
-					if(con != null)
-						this.mycf.returnConnectionToPool(con);
-				}
-				catch(Exception e) {
-					log.error("Exception",e);
-				}
-				
+				if(con != null)
+					this.mycf.returnConnectionToPool(con);
 			}
 		}
 
@@ -1341,27 +983,34 @@ public class AcademicFetchFromED {
 		 * @throws IOException default exception thrown
 		 */
 		private void runTDBSparqlUpdateTemplate(String sparqlQuery, TDBJenaConnect vivoJena) throws IOException {
-			Dataset ds = vivoJena.getDataset();
-			ds.begin(ReadWrite.WRITE);
-			GraphStore graphStore = GraphStoreFactory.create(ds);
-			UpdateRequest request = UpdateFactory.create(sparqlQuery);
-			UpdateProcessor proc = UpdateExecutionFactory.create(request, graphStore);
-			proc.execute();
-			ds.commit();
+			vivoJena.executeUpdateQuery(sparqlQuery, true);
 		}
 
 		/**
 		 * Template to fit in different JenaConnect queries.
+		 * @param request the update built with the Jena update API
+		 * @param vivoJena connection to SDB jenas
+		 */
+		private void runTDBUpdateTemplate(UpdateRequest request, TDBJenaConnect vivoJena) {
+			vivoJena.executeUpdate(request, true);
+		}
+
+		/**
+		 * Template to fit in different JenaConnect queries. The query runs in a read transaction on the shared dataset.
+		 * @param sparqlQuery contains the construct query
+		 * @return Model containing all the constructed triples
+		 */
+		private Model runTDBConstructTemplate(String sparqlQuery, TDBJenaConnect vivoJena) {
+			return vivoJena.executeConstructQuery(sparqlQuery, true);
+		}
+
+		/**
+		 * Template to fit in different JenaConnect queries. The query runs in a read transaction on the shared dataset.
 		 * @param sparqlQuery contains the query
-		 * @return ResultSet containing all the results
+		 * @return ResultSet containing all the results, copied before the transaction ends
 		 * @throws IOException default exception thrown
 		 */
 		private ResultSet runTDBSparqlTemplate(String sparqlQuery, TDBJenaConnect vivoJena) throws IOException {	
-			Dataset ds = vivoJena.getDataset();
-			ds.begin(ReadWrite.READ);
-			QueryExecution qExec = QueryExecutionFactory.create(sparqlQuery.toString(), ds);
-			ResultSet rs = qExec.execSelect();
-			ds.commit();
-			return rs;
+			return vivoJena.executeSelectQuery(sparqlQuery, true);
 		}
 }
@@ -3,7 +3,6 @@ package org.vivoweb.harvester.ingest;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.time.Instant;
@@ -11,34 +10,54 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
-import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSet;
-import org.json.JSONArray;
-import org.json.JSONObject;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.NodeIterator;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.ResIterator;
+import org.apache.jena.rdf.model.Resource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StopWatch;
 
 import reciter.connect.beans.vivo.*;
 import reciter.connect.database.ldap.LDAPConnectionFactory;
+import reciter.connect.database.mssql.DepartmentDictionary;
 import reciter.connect.database.mssql.MssqlConnectionFactory;
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.mysql.jena.JenaConnectionLease;
+import reciter.connect.database.sql.SqlQuery;
+import reciter.connect.database.sql.SqlQueryRepository;
+import reciter.connect.database.sql.SqlSession;
 import reciter.connect.database.tdb.TDBConnectionFactory;
 import reciter.connect.vivo.IngestType;
 import reciter.connect.vivo.api.client.VivoClient;
+import reciter.connect.vivo.api.client.VivoUpdateWriter;
+import reciter.connect.vivo.sdb.VivoGraphs;
+import reciter.connect.vivo.sdb.query.EntityGraphDiff;
+import reciter.connect.vivo.sdb.query.SparqlLiteralEscaper;
 
 import org.vivoweb.harvester.util.repo.SDBJenaConnect;
 import org.vivoweb.harvester.util.repo.TDBJenaConnect;
 
 import lombok.extern.slf4j.Slf4j;
 
+import com.google.common.collect.Lists;
 import com.unboundid.ldap.sdk.SearchResultEntry;
 
 
@@ -61,8 +80,6 @@ public class AppointmentsFetchFromED {
 	@Autowired
 	private LDAPConnectionFactory lcf;
 	
-	private Connection con = null;
-	
 	/**
 	 * Jena connection factory object for all the apache jena sdb related connections
 	 */
@@ -74,6 +91,54 @@ public class AppointmentsFetchFromED {
 
 	@Autowired
 	private VivoClient vivoClient;
+	
+	@Autowired
+	private VivoUpdateWriter vivoUpdateWriter;
+
+	@Autowired
+	private DepartmentDictionary departmentDictionary;
+	
+	private static final String SORS_BASE_DN = "ou=faculty,ou=sors,dc=weill,dc=cornell,dc=edu";
+	
+	private static final String SOR_RECORD_FILTER = "(ou=faculty)(objectClass=weillCornellEduSORRecord)";
+	
+	private static final String SOR_ROLE_RECORD_FILTER = "(ou=faculty)(objectClass=weillCornellEduSORRoleRecord)(!(weillCornellEduTitleCode=academic-prestart))(weillCornellEduEndDate>=19991231050000Z)(!(|(weillCornellEduSORID=10085791)(weillCornellEduSORID=2318)(weillCornellEduSORID=10002523)(weillCornellEduSORID=10075683)(weillCornellEduSORID=10016608)(weillCornellEduSORID=3001124)))";
+	
+	private static final String[] SOR_RECORD_ATTRIBUTES = {"weillCornellEduCWID", "weillCornellEduPrimaryOrganization", "weillCornellEduPrimaryTitle"};
+	
+	private static final String[] SOR_ROLE_RECORD_ATTRIBUTES = {"weillCornellEduCWID", "weillCornellEduSORID", "weillCornellEduDepartment", "title", "weillCornellEduStartDate",
+		"weillCornellEduEndDate", "weillCornellEduStatus", "weillCornellEduPrimaryEntry"};
+	
+	private static final String EDUCATION_SELECT_QUERY = "SELECT s.id,cwid, c.title, school_id, grad_year, n.title, degree_id \n" +
+		    "from wcmc_person_school s \n" +
+		    "LEFT JOIN wcmc_person p \n" +
+		      "ON p.id = s.person_id \n" +
+		    "LEFT JOIN wcmc_school_degree n \n" +
+		      "ON n.id = s.degree_id \n" +
+		    "LEFT JOIN wcmc_school c \n" +
+		      "ON c.id = s.school_id \n" +
+		    "WHERE s.degree_id is NOT NULL AND s.grad_year IS NOT NULL and c.title IS NOT NULL and cwid is not null ";
+	
+	private static final SqlQuery EDUCATION_BY_CWID = new SqlQuery("ofa.education.byCwid", EDUCATION_SELECT_QUERY + "and cwid = ?");
+	
+	/**
+	 * Education and training prefetched from OFA keyed by cwid
+	 */
+	private Map<String, ArrayList<EducationBean>> bulkEducation = new ConcurrentHashMap<>();
+	
+	@Value("${connect.education.bulk.enabled}")
+	private boolean educationBulkEnabled;
+	
+	@Value("${connect.education.bulk.chunk.size}")
+	private int bulkChunkSize;
+	
+	/**
+	 * Appointments prefetched from ED keyed by cwid
+	 */
+	private Map<String, OfaBean> bulkRoles = new ConcurrentHashMap<>();
+	
+	@Value("${connect.appointments.bulk.enabled}")
+	private boolean bulkEnabled;
 
 	private String ingestType = System.getenv("INGEST_TYPE");
 
@@ -86,15 +151,23 @@ public class AppointmentsFetchFromED {
 
 	private String currYear = new SimpleDateFormat("yyyy").format(new Date());
 
+	private static final String CORE = "http://vivoweb.org/ontology/core#";
+
+	private static final String RDFS_LABEL = "http://www.w3.org/2000/01/rdf-schema#label";
+
+	private static final String HARVESTED_BY = "<http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy>";
+
 	
 	/**
-	 * Mssql connection factory object for all the mysql related connections
+	 * Mssql connection factory object for all the mssql related connections. Every query borrows its own pooled connection
 	 */
 	@Autowired
 	private MssqlConnectionFactory mcf; 
+	
+	@Autowired
+	private SqlQueryRepository sqlQueries;
 
-	public Callable<String> getCallable(List<String> people, Connection asmsCon) {
-		this.con = asmsCon;
+	public Callable<String> getCallable(List<String> people) {
         return new Callable<String>() {
             public String call() throws Exception {
                 return execute(people);
@@ -134,12 +207,7 @@ public class AppointmentsFetchFromED {
 			}
 			else {
 				log.info("Checking for any updates for "+ob1.getCwid());
-				if(ingestType.equals(IngestType.VIVO_API.toString())) {
-					updateCount = checkForUpdatesUsingTDB(ob1, ob1.getCwid());
-				} else {
-					updateCount = checkForUpdates(ob1, ob1.getCwid());
-				}
-				
+				updateCount = checkForUpdates(ob1, ob1.getCwid());
 			}
 			log.info("#########################################################");
 		}
@@ -153,12 +221,74 @@ public class AppointmentsFetchFromED {
 		return "Appointment fetch completed successfully for cwids: " + people.toString();
 	}
 		
+		/**
+		 * This function loads the appointments of all the people from ED with one paged scan over the SOR records and one over the SOR role records.
+		 * The appointments are kept keyed by cwid and getRolesFromED serves them instead of searching ED for every cwid.
+		 * Only the attributes needed for appointments are returned by ED.
+		 * @param people list of active cwids
+		 */
+		public void prefetchRolesFromED(List<String> people) {
+			if(!this.bulkEnabled) {
+				return;
+			}
+			StopWatch stopWatch = new StopWatch("Appointments bulk fetch from ED");
+			stopWatch.start("Appointments bulk fetch from ED");
+			Set<String> cwids = people.stream().map(String::trim).collect(Collectors.toSet());
+			Map<String, List<SearchResultEntry>> sorRecords = new HashMap<>();
+			Map<String, List<SearchResultEntry>> roleRecords = new HashMap<>();
+			boolean complete = this.lcf.searchWithBaseDN("(&" + SOR_RECORD_FILTER + ")", SORS_BASE_DN, entry -> {
+				String cwid = entry.getAttributeValue("weillCornellEduCWID");
+				if(cwid != null && cwids.contains(cwid.trim())) {
+					sorRecords.computeIfAbsent(cwid.trim(), k -> new ArrayList<>()).add(entry);
+				}
+			}, SOR_RECORD_ATTRIBUTES)
+			&&
+			this.lcf.searchWithBaseDN("(&" + SOR_ROLE_RECORD_FILTER + ")", SORS_BASE_DN, entry -> {
+				String cwid = entry.getAttributeValue("weillCornellEduCWID");
+				if(cwid != null && cwids.contains(cwid.trim())) {
+					roleRecords.computeIfAbsent(cwid.trim(), k -> new ArrayList<>()).add(entry);
+				}
+			}, SOR_ROLE_RECORD_ATTRIBUTES);
+			if(!complete) {
+				//Appointments of every cwid fall back to the search per cwid
+				log.error("Appointments bulk fetch from ED did not complete");
+				return;
+			}
+			for(String cwid: cwids) {
+				this.bulkRoles.put(cwid, buildOfaBean(cwid, sorRecords.getOrDefault(cwid, new ArrayList<>()), roleRecords.getOrDefault(cwid, new ArrayList<>())));
+			}
+			stopWatch.stop();
+			log.info("Appointments bulk fetch from ED for " + cwids.size() + " people took " + stopWatch.getTotalTimeSeconds() + "s");
+		}
+		
 		/**
 		 * This function gets all the appointment information from your LDAP based system data
 		 * @param cwid This is the institution wide unique identifier for a person
 		 * @return The bean which holds appointment and education data
 		 */
 		private OfaBean getRolesFromED(String cwid) {
+			OfaBean ob = this.bulkRoles.remove(cwid.trim());
+			if(ob != null) {
+				return ob;
+			}
+			log.info("Getting list of appointments for cwid " + cwid);
+			log.info("Getting primary Affiliation for cwid " + cwid);	
+			List<SearchResultEntry> sorResults = this.lcf.searchWithBaseDN("(&" + SOR_RECORD_FILTER + "(weillCornellEduCWID=" + cwid + "))", SORS_BASE_DN);
+			
+			//Takes care of Douglas J. Ballon appointments			
+			List<SearchResultEntry> roleResults = this.lcf.searchWithBaseDN("(&" + SOR_ROLE_RECORD_FILTER + "(weillCornellEduCWID=" + cwid + "))", SORS_BASE_DN);
+			
+			return buildOfaBean(cwid, sorResults, roleResults);
+		}
+		
+		/**
+		 * This function builds the appointments of a person from the ED SOR entries
+		 * @param cwid unique identifier for faculty
+		 * @param results the SOR records of the person
+		 * @param roleResults the SOR role records of the person
+		 * @return the appointments and primary affiliation of the person
+		 */
+		private OfaBean buildOfaBean(String cwid, List<SearchResultEntry> results, List<SearchResultEntry> roleResults) {
 			Date now = new Date();
 			SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
 			String strDate = sdf.format(now);
@@ -166,13 +296,6 @@ public class AppointmentsFetchFromED {
 			ArrayList<RoleBean> roles = new ArrayList<RoleBean>();
 			
 			ob.setCwid(cwid);
-			log.info("Getting list of appointments for cwid " + cwid);
-			log.info("Getting primary Affiliation for cwid " + cwid);	
-			String filter = "(&(ou=faculty)(objectClass=weillCornellEduSORRecord)(weillCornellEduCWID=" + cwid + "))";
-				
-				
-				
-			List<SearchResultEntry> results = this.lcf.searchWithBaseDN(filter,"ou=faculty,ou=sors,dc=weill,dc=cornell,dc=edu");
 				
 				String primaryAffiliation = null;
 				String primaryPosition = null;
@@ -198,14 +321,8 @@ public class AppointmentsFetchFromED {
 					log.info("No results found");
 				}
 			
-			//Takes care of Douglas J. Ballon appointments			
-			filter = "(&(ou=faculty)(objectClass=weillCornellEduSORRoleRecord)(weillCornellEduCWID=" + cwid + ")(!(weillCornellEduTitleCode=academic-prestart))(weillCornellEduEndDate>=19991231050000Z)(!(|(weillCornellEduSORID=10085791)(weillCornellEduSORID=2318)(weillCornellEduSORID=10002523)(weillCornellEduSORID=10075683)(weillCornellEduSORID=10016608)(weillCornellEduSORID=3001124))))";
-
-			
-			results = this.lcf.searchWithBaseDN(filter,"ou=faculty,ou=sors,dc=weill,dc=cornell,dc=edu");
-			
-			if (results != null && !results.isEmpty()) {
-				for (SearchResultEntry entry : results) {
+			if (roleResults != null && !roleResults.isEmpty()) {
+				for (SearchResultEntry entry : roleResults) {
 					if(entry.getAttributeValue("weillCornellEduCWID") != null) {
 						Date endDate = null;
 						Date currDate = null;
@@ -475,54 +592,17 @@ public class AppointmentsFetchFromED {
 		private int getDepartmentCode(String deptName) {
 			
 			int deptId = 0;
-			java.sql.ResultSet rs = null;
-			Statement st = null;
-			
-			//log.info("Department Name in ED: " + deptName);
-			
-			/*if(deptName.trim().equals("Medicine")) {
-				deptName ="Joan and Sanford I. Weill Department of Medicine";
-			}
-			
-			if(deptName.trim().equals("Library")) {
-				deptName ="Samuel J. Wood Library";
-			}*/
-			if(deptName.trim().equals("Otolaryngology - Head and Neck Surgery")) {
-				deptName ="Otolaryngology - Head and Neck Surgery";
-			}
 			
 			if(deptName.trim().equals("Otolaryngology")) {
 				deptName ="Otolaryngology - Head and Neck Surgery";
 			}
 			
-			/*if(deptName.trim().equals("Integrative Medicine")) {
-				deptName ="Complementary and Integrative Medicine";
-			}*/
-					
-			String selectQuery = "SELECT DISTINCT id FROM wcmc_department where TRIM(title) = '" + deptName.trim() + "'";
-			
-				try {
-					st = this.con.createStatement();
-					rs = st.executeQuery(selectQuery);
-					if(rs!=null) { 
-						rs.next(); 
-						deptId = Integer.parseInt(rs.getString(1).trim());
-					}
-						
-					}
-					catch(SQLException sqle) {
-						log.error("Exception:", sqle);
-					}
-					finally {
-						try {
-							if(rs != null)
-								rs.close();
-							if(st != null)
-								st.close();
-						} catch(SQLException e) {
-							log.error("Error in closing connections:", e);
-						}
-					}
+			String deptCode = this.departmentDictionary.getDepartmentId(deptName);
+			if(deptCode != null) {
+				deptId = Integer.parseInt(deptCode);
+			} else {
+				log.info("Department " + deptName + " does not exist in wcmc_department");
+			}
 				
 			return deptId;
 					
@@ -535,56 +615,67 @@ public class AppointmentsFetchFromED {
 		 */
 		private ArrayList<EducationBean> getEducationAndTraining(String cwid) {
 			
-			ArrayList<EducationBean> edu = new ArrayList<EducationBean>();
-			java.sql.ResultSet rs = null;
-			Statement st = null;
-			String selectQuery = "SELECT s.id,cwid, c.title, school_id, grad_year, n.title, degree_id \n" +
-				    "from wcmc_person_school s \n" +
-				    "LEFT JOIN wcmc_person p \n" +
-				      "ON p.id = s.person_id \n" +
-				    "LEFT JOIN wcmc_school_degree n \n" +
-				      "ON n.id = s.degree_id \n" +
-				    "LEFT JOIN wcmc_school c \n" +
-				      "ON c.id = s.school_id \n" +
-				    "WHERE s.degree_id is NOT NULL AND s.grad_year IS NOT NULL and c.title IS NOT NULL and cwid is not null and cwid= '" + cwid + "'";
-			
-			//log.info(selectQuery);
-			
+			ArrayList<EducationBean> edu = this.bulkEducation.remove(cwid.trim());
+			if(edu != null) {
+				return edu;
+			}
+			final ArrayList<EducationBean> education = new ArrayList<EducationBean>();
+			try(Connection con = this.mcf.getAsmsConnection(); SqlSession session = this.sqlQueries.session(con)) {
+				session.query(EDUCATION_BY_CWID, ps -> ps.setString(1, cwid), rs -> education.add(getEducation(rs)));
+			}
+			catch(SQLException sqle) {
+				log.error("Exception:", sqle);
+			}
 			
-				try {
-					st = this.con.createStatement();
-					rs = st.executeQuery(selectQuery);
-					if(rs!=null) {
-						
-						while(rs.next()) {
-							EducationBean ebean = new EducationBean();
-							ebean.setDegreePk(rs.getString(1));
-							ebean.setDateTimeInterval(rs.getString(5));
-							ebean.setInstituteFk(rs.getString(4));
-							ebean.setDegreeName(StringEscapeUtils.escapeJava(rs.getString(6)));
-							ebean.setInstituion(StringEscapeUtils.escapeJava(rs.getString(3)));
-							ebean.setBuiltInDegreePk(rs.getString(7));
-							//log.info(ebean.toString());
-							edu.add(ebean);
+			return education;
+		}
+		
+		/**
+		 * The function gets education and training data from OFA for all the people with one query per chunk of cwids and keeps them grouped by cwid.
+		 * The last chunk repeats its last cwid so every execution has the same number of parameters and SQL Server compiles the query only once.
+		 * getEducationAndTraining uses the prefetched data and falls back to the query per cwid for cwids that were not prefetched.
+		 * @param people list of active cwids
+		 */
+		public void prefetchEducationAndTraining(List<String> people) {
+			if(!this.educationBulkEnabled) {
+				return;
+			}
+			StopWatch stopWatch = new StopWatch("Education bulk fetch from OFA");
+			stopWatch.start("Education bulk fetch from OFA");
+			List<String> cwids = people.stream().map(String::trim).distinct().collect(Collectors.toList());
+			Map<String, ArrayList<EducationBean>> eduByCwid = new HashMap<>();
+			SqlQuery educationByCwids = new SqlQuery("ofa.education.byCwids",
+				EDUCATION_SELECT_QUERY + "and cwid IN (" + String.join(",", Collections.nCopies(this.bulkChunkSize, "?")) + ")", this.bulkChunkSize);
+			try(Connection con = this.mcf.getAsmsConnection(); SqlSession session = this.sqlQueries.session(con)) {
+				for(List<String> chunk: Lists.partition(cwids, this.bulkChunkSize)) {
+					session.query(educationByCwids, ps -> {
+						for(int i = 0; i < this.bulkChunkSize; i++) {
+							ps.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
 						}
-					}
-				}
-				catch(SQLException sqle) {
-					log.error("Exception:", sqle);
-				}
-				finally {
-					try {
-						if(rs != null)
-							rs.close();
-						if(st != null)
-							st.close();
-					} catch(SQLException e) {
-						// TODO Auto-generated catch block
-						log.error("Error in closing connections:", e);
-					}
+					}, rs -> eduByCwid.computeIfAbsent(rs.getString(2).trim(), k -> new ArrayList<EducationBean>()).add(getEducation(rs)));
 				}
-			
-			return edu;
+			}
+			catch(SQLException sqle) {
+				//Education of every cwid falls back to the query per cwid
+				log.error("Exception:", sqle);
+				return;
+			}
+			for(String cwid: cwids) {
+				this.bulkEducation.put(cwid, eduByCwid.getOrDefault(cwid, new ArrayList<EducationBean>()));
+			}
+			stopWatch.stop();
+			log.info("Education bulk fetch from OFA for " + cwids.size() + " people took " + stopWatch.getTotalTimeSeconds() + "s");
+		}
+		
+		private EducationBean getEducation(java.sql.ResultSet rs) throws SQLException {
+			EducationBean ebean = new EducationBean();
+			ebean.setDegreePk(rs.getString(1));
+			ebean.setDateTimeInterval(rs.getString(5));
+			ebean.setInstituteFk(rs.getString(4));
+			ebean.setDegreeName(rs.getString(6));
+			ebean.setInstituion(rs.getString(3));
+			ebean.setBuiltInDegreePk(rs.getString(7));
+			return ebean;
 		}
 		
 		/**
@@ -755,19 +846,19 @@ public class AppointmentsFetchFromED {
 				edu.setCrudStatus("INSERT");
 				sb.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> . \n");
 				sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdf:type core:AwardedDegree . \n");
-				sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdfs:label \"" + edu.getDegreeName().trim() + "\" . \n");
+				sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdfs:label \"" + SparqlLiteralEscaper.escape(edu.getDegreeName().trim()) + "\" . \n");
 				sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:relates <" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> . \n");
 				sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> . \n");
 				sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:assignedBy <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> .\n");
 				sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0002353 <" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
 				sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:DateTimeValue \"" + strDate + "\" .\n");
-				sb.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> <http://vivoweb.org/ontology/core#abbreviation> \"" + edu.getDegreeName().trim() + "\" . \n");
-				sb.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> rdfs:label \"" + edu.getDegreeName().trim() + "\" . \n");
+				sb.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> <http://vivoweb.org/ontology/core#abbreviation> \"" + SparqlLiteralEscaper.escape(edu.getDegreeName().trim()) + "\" . \n");
+				sb.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> rdfs:label \"" + SparqlLiteralEscaper.escape(edu.getDegreeName().trim()) + "\" . \n");
 				sb.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> . \n");
 				sb.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> rdf:type <http://vivoweb.org/ontology/core#AcademicDegree> . \n");
 				sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> rdf:type <http://xmlns.com/foaf/0.1/Organization> .\n");
 				sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-				sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> rdfs:label \"" + edu.getInstituion() + "\" . \n");
+				sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> rdfs:label \"" + SparqlLiteralEscaper.escape(edu.getInstituion()) + "\" . \n");
 				sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> core:assigns <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
 				sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
 				
@@ -795,18 +886,11 @@ public class AppointmentsFetchFromED {
 			
 			//log.info(sb.toString());
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
-				try{
-					String response = this.vivoClient.vivoUpdateApi(sb.toString());
-					log.info(response);
-				} catch(Exception  e) {
-					log.info("Api Exception", e);
-				}
+				this.vivoUpdateWriter.submit(sb.toString(), "appointments for cwid - " + ob.getCwid());
 			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-				try {
-					SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
+				try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+					SDBJenaConnect vivoJena = lease.getConnection();
 					runSparqlUpdateTemplate(sb.toString(), vivoJena);
-					if(vivoJena != null)
-						this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 				} catch(IOException e) {
 					log.error("Exception in connecting to Jena" ,e);
 				}
@@ -890,18 +974,11 @@ public class AppointmentsFetchFromED {
 			if(insertCount > 0 ) {
 				log.info("Inserting inference triples for " + ob.getCwid());
 				if(ingestType.equals(IngestType.VIVO_API.toString())) {
-					try{
-						String response = this.vivoClient.vivoUpdateApi(sb.toString());
-						log.info(response);
-					} catch(Exception  e) {
-						log.info("Api Exception", e);
-					}
+					this.vivoUpdateWriter.submit(sb.toString(), "inference triples for cwid - " + ob.getCwid());
 				} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-					try {
-						SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
+					try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+						SDBJenaConnect vivoJena = lease.getConnection();
 						runSparqlUpdateTemplate(sb.toString(), vivoJena);
-						if(vivoJena != null)
-							this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 					} catch(IOException e) {
 						log.error("Exception in connecting to Jena" ,e);
 					}
@@ -922,21 +999,20 @@ public class AppointmentsFetchFromED {
 		
 		/**
 		 * This function check for updates against existing data in VIVO. If there is any change in data such as end date for a position, a new position, addition of education and training.
+		 * The current positions and education of the person are fetched with one construct query and only the triples that differ are written.
 		 * The data is automatically updated and inferenced.
 		 * @param ob The bean object containing role and education & training data both
 		 * @param cwid The unqiue identifier for a person
 		 * @return Update count
-		 * @throws IOException thrown by SDBJenaConnect
+		 * @throws IOException thrown by TDBJenaConnect
 		 */
 		private int checkForUpdates(OfaBean ob, String cwid) throws IOException {
-			Date now = new Date();
-			String currYear = new SimpleDateFormat("yyyy").format(new Date());
-			SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-			String strDate = sdf.format(now);
+			String strDate = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
 			int updateCount = 0;
 			
 			ArrayList<RoleBean> rb = ob.getRoles();
 			ArrayList<EducationBean> ebean = ob.getEdu();
+			String person = this.vivoNamespace + "cwid-" + ob.getCwid().trim();
 			
 			//find out the total appointments other than interim 
 			long nonInterimAppointmentsCount = rb.stream()
@@ -944,408 +1020,234 @@ public class AppointmentsFetchFromED {
                     .count();
 			log.info("nonInterimAppointmentCount for CWID: "+cwid + "-" + nonInterimAppointmentsCount);
 			
-			//Checking for appointment updates
+			List<EntityGraphDiff> positionDiffs = new ArrayList<>();
 			for(RoleBean role: rb) {
-				StringBuffer sb = new StringBuffer();
-				sb.append("SELECT ?obj \n");
-				sb.append("WHERE {\n");
-				sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> {\n");
-				sb.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> ?obj . \n");
-				sb.append("}}");
-				
-				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
-				
-				ResultSet rs = runTDBSparqlTemplate(sb.toString(), vivoJena);
-				
-				
-				if(!rs.hasNext()) {
-					if(!role.isInterimAppointment()) {
-						//insert
-						log.info("Insert new appointment - position-" + role.getSorId().trim());
-						
-						role.setCrudStatus("INSERT");
-						StringBuffer insertQuery = new StringBuffer();
-						insertQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						insertQuery.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-						insertQuery.append("PREFIX vivo: <http://vivoweb.org/ontology/core#> \n");
-						insertQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-						insertQuery.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
-						insertQuery.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
-						insertQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-						insertQuery.append("INSERT DATA { GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
-						insertQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> . \n");
-						if(role.isPrimaryAppointment())
-							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type core:PrimaryPosition . \n");
-							
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type core:Position . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type core:Relationship . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type obo:BFO_0000002 . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type obo:BFO_0000001 . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type obo:BFO_0000020 . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdfs:label \"" + role.getTitleCode().trim() + "\" . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:DateTimeValue \"" + strDate + "\" . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() +"> . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> rdf:type core:AcademicDepartment . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> vitro:mostSpecificType core:AcademicDepartment . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> rdf:type core:Department . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> rdfs:label \"" + role.getDepartment() + "\" . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> <http://purl.obolibrary.org/obo/BFO_0000050> <http://vivo.med.cornell.edu/individual/org-568> . \n");
-						insertQuery.append("<http://vivo.med.cornell.edu/individual/org-568> rdf:type core:University . \n");
-						insertQuery.append("<http://vivo.med.cornell.edu/individual/org-568> rdfs:label \"Weill Cornell Medical College\" . \n");
-						insertQuery.append("<http://vivo.med.cornell.edu/individual/org-568> <http://purl.obolibrary.org/obo/BFO_0000051> <" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> . \n");
-							//if there is end date 
-							if(role.getEndDate() != null && !role.getEndDate().equals("CURRENT")) {
-								//For Date Time Interval
-								insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> vitro:mostSpecificType core:DateTimeInterval . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-									//For Start Date
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> rdf:type core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "-01-01T00:00:00\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> vitro:mostSpecificType core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-									//For End Date
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> rdf:type core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> core:dateTime \"" + role.getEndDate().trim() + "\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> core:dateTime \"" + role.getEndDate().trim() + "-01-01T00:00:00\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> vitro:mostSpecificType core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							//if there is no end date
-							else {
-								insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> rdf:type core:DateTimeInterval . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> vitro:mostSpecificType core:DateTimeInterval . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> rdf:type core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "-01-01T00:00:00\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> vitro:mostSpecificType core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-						insertQuery.append("}}");
-						
-						try {
-							
-							runTDBSparqlUpdateTemplate(insertQuery.toString(), vivoJena);
-							
-							
-						} catch(IOException e) {
-							// TODO Auto-generated catch block
-							log.error("IOException", e);
-						}
-					}
+				positionDiffs.add(getPositionIntervalDiff(role.getSorId(), role.getStartDate(), role.getEndDate(), strDate));
+			}
+			List<EntityGraphDiff> educationDiffs = new ArrayList<>();
+			for(EducationBean edu: ebean) {
+				educationDiffs.add(getEducationDiff(ob.getCwid().trim(), edu));
+			}
+			List<EntityGraphDiff> diffs = new ArrayList<>(positionDiffs);
+			diffs.addAll(educationDiffs);
+			
+			Model current = ModelFactory.createDefaultModel();
+			if(!diffs.isEmpty()) {
+				try {
+					current = constructCurrentState(EntityGraphDiff.getConstructQuery(diffs));
+				} catch(Exception e) {
+					log.error("Unable to fetch the appointments in VIVO for cwid - " + cwid, e);
+					return updateCount;
 				}
-				
-				else 
-				{
-					
-					
-					QuerySolution qs = rs.nextSolution();
-					
-					
-					String endDate = qs.get("obj").toString().replace(this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to", "");
-					role.setCrudStatus("UPDATE");
-					
-					//Update an appoinment to have an end date
-					if(endDate.length() == 0 && role.getEndDate() != null && !role.getEndDate().equals("CURRENT")) {
-						log.info("Update existing appointment position-" + role.getSorId().trim());
-						StringBuffer updateQuery = new StringBuffer();
-						updateQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						updateQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n"); 
-						updateQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-						updateQuery.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						updateQuery.append("DELETE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + qs.get("obj").toString() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-						//updateQuery.append("<" + qs.get("obj").toString() + "> ?p ?o . \n");
-						updateQuery.append("} \n");
-						updateQuery.append("INSERT { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:DateTimeValue \"" + strDate + "\" . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> vitro:mostSpecificType core:DateTimeInterval . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-						updateQuery.append("} \n");
-						updateQuery.append("WHERE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + qs.get("obj").toString() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-						//updateQuery.append("<" + qs.get("obj").toString() + "> ?p ?o . \n");
-						updateQuery.append("}");
-						
-						log.info(updateQuery.toString());
-						
-						try {
-							
-							runTDBSparqlUpdateTemplate(updateQuery.toString(), vivoJena);
+			}
+			
+			//Checking for appointment updates
+			for(int i = 0; i < rb.size(); i++) {
+				RoleBean role = rb.get(i);
+				String currentInterval = getCurrentValue(current, this.vivoNamespace + "position-" + role.getSorId().trim(), CORE + "dateTimeInterval");
+				try {
+					if(currentInterval == null) {
+						if(!role.isInterimAppointment()) {
+							//insert
+							log.info("Insert new appointment - position-" + role.getSorId().trim());
 							
-						} catch(IOException e) {
-							// TODO Auto-generated catch block
-							log.error("IOException" ,e);
-						}
-						
-						updateCount = updateCount + 1;
-						
-					}
-					//Update to delete any end date which is for a current appointment
-					else if(endDate.equals(currYear) && role.getEndDate().equals("CURRENT")) {
-						log.info("Update existing appointment position-" + role.getSorId().trim());
-						StringBuffer updateQuery = new StringBuffer();
-						updateQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						updateQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n"); 
-						updateQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-						updateQuery.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						updateQuery.append("DELETE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + qs.get("obj").toString() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-						//updateQuery.append("<" + qs.get("obj").toString() + "> ?p ?o . \n");
-						updateQuery.append("} \n");
-						updateQuery.append("INSERT { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:DateTimeValue \"" + strDate + "\" . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> rdf:type core:DateTimeInterval . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> vitro:mostSpecificType core:DateTimeInterval . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-						updateQuery.append("} \n");
-						updateQuery.append("WHERE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + qs.get("obj").toString() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-						//updateQuery.append("OPTIONAL {<" + qs.get("obj").toString() + "> ?p ?o .} \n");
-						updateQuery.append("}");
-						log.info(updateQuery.toString());
-						
-						
-						try {
+							role.setCrudStatus("INSERT");
+							StringBuffer insertQuery = new StringBuffer();
+							insertQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
+							insertQuery.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
+							insertQuery.append("PREFIX vivo: <http://vivoweb.org/ontology/core#> \n");
+							insertQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
+							insertQuery.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
+							insertQuery.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
+							insertQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
+							insertQuery.append("INSERT DATA { GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
+							insertQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> . \n");
+							if(role.isPrimaryAppointment())
+								insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type core:PrimaryPosition . \n");
 							
-							runTDBSparqlUpdateTemplate(updateQuery.toString(), vivoJena);
+							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type core:Position . \n");
+							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type core:Relationship . \n");
+							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type obo:BFO_0000002 . \n");
+							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type obo:BFO_0000001 . \n");
+							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type obo:BFO_0000020 . \n");
+							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdfs:label \"" + role.getTitleCode().trim() + "\" . \n");
+							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> . \n");
+							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> . \n");
+							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:DateTimeValue \"" + strDate + "\" . \n");
+							insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() +"> . \n");
+							insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> rdf:type core:AcademicDepartment . \n");
+							insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> vitro:mostSpecificType core:AcademicDepartment . \n");
+							insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> rdf:type core:Department . \n");
+							insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> rdfs:label \"" + role.getDepartment() + "\" . \n");
+							insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> <http://purl.obolibrary.org/obo/BFO_0000050> <http://vivo.med.cornell.edu/individual/org-568> . \n");
+							insertQuery.append("<http://vivo.med.cornell.edu/individual/org-568> rdf:type core:University . \n");
+							insertQuery.append("<http://vivo.med.cornell.edu/individual/org-568> rdfs:label \"Weill Cornell Medical College\" . \n");
+							insertQuery.append("<http://vivo.med.cornell.edu/individual/org-568> <http://purl.obolibrary.org/obo/BFO_0000051> <" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> . \n");
+								//if there is end date 
+								if(role.getEndDate() != null && !role.getEndDate().equals("CURRENT")) {
+									//For Date Time Interval
+									insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> . \n");
+									insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
+									insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
+									insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> . \n");
+									insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> vitro:mostSpecificType core:DateTimeInterval . \n");
+									insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
+										//For Start Date
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> rdf:type core:DateTimeValue . \n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTimePrecision core:yearPrecision . \n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "\" .\n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "-01-01T00:00:00\" .\n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> vitro:mostSpecificType core:DateTimeValue . \n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
+										//For End Date
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> rdf:type core:DateTimeValue . \n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> core:dateTimePrecision core:yearPrecision . \n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> core:dateTime \"" + role.getEndDate().trim() + "\" .\n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> core:dateTime \"" + role.getEndDate().trim() + "-01-01T00:00:00\" .\n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> vitro:mostSpecificType core:DateTimeValue . \n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
+								}
+								//if there is no end date
+								else {
+									insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> . \n");
+									insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> rdf:type core:DateTimeInterval . \n");
+									insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
+									insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> vitro:mostSpecificType core:DateTimeInterval . \n");
+									insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> rdf:type core:DateTimeValue . \n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTimePrecision core:yearPrecision . \n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "\" .\n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "-01-01T00:00:00\" .\n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> vitro:mostSpecificType core:DateTimeValue . \n");
+									insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
+								}
+								insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
+							insertQuery.append("}}");
 							
-						} catch(IOException e) {
-							// TODO Auto-generated catch block
-							log.error("IOException" ,e);
+							runUpdate(insertQuery.toString());
 						}
-						
-						updateCount = updateCount + 1;
 					}
-					//Delete interim appointment
-					else if(role.isInterimAppointment() && nonInterimAppointmentsCount > 0) {
-						StringBuffer updateQuery = new StringBuffer();
-						updateQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						updateQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n"); 
-						updateQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-						updateQuery.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						updateQuery.append("DELETE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> ?p ?o . \n");
-						updateQuery.append("} \n");
-						updateQuery.append("WHERE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> ?p ?o . \n");
-						updateQuery.append("}");
-						log.info(updateQuery.toString());
-						
-						
-						try {
+					else {
+						String endDate = currentInterval.replace(this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to", "");
+						boolean currentAppointment = role.getEndDate() == null || role.getEndDate().equals("CURRENT");
+						role.setCrudStatus("UPDATE");
+						
+						//Update an appoinment to have an end date or delete any end date which is for a current appointment
+						if((endDate.length() == 0 && !currentAppointment) || (endDate.equals(this.currYear) && currentAppointment)) {
+							log.info("Update existing appointment position-" + role.getSorId().trim());
+							applyDiff(positionDiffs.get(i).compute(current));
+							updateCount = updateCount + 1;
+						}
+						//Delete interim appointment
+						else if(role.isInterimAppointment() && nonInterimAppointmentsCount > 0) {
+							StringBuffer updateQuery = new StringBuffer();
+							updateQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
+							updateQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n"); 
+							updateQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
+							updateQuery.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
+							updateQuery.append("DELETE { \n");
+							updateQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> . \n");
+							updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> ?p ?o . \n");
+							updateQuery.append("} \n");
+							updateQuery.append("WHERE { \n");
+							updateQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> . \n");
+							updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> ?p ?o . \n");
+							updateQuery.append("}");
+							log.info(updateQuery.toString());
 							
-							runTDBSparqlUpdateTemplate(updateQuery.toString(), vivoJena);
+							runUpdate(updateQuery.toString());
 							
-						} catch(IOException e) {
-							log.error("IOException" ,e);
+							updateCount = updateCount + 1;
 						}
-						
-						updateCount = updateCount + 1;
+						else
+							log.info("No updates are necessary for " + ob.getCwid().trim() + " for position-" + role.getSorId().trim());
 					}
-					else
-						log.info("No updates are necessary for " + ob.getCwid().trim() + " for position-" + role.getSorId().trim());
+				} catch(Exception e) {
+					log.error("Unable to update position-" + role.getSorId().trim() + " for cwid - " + cwid, e);
 				}
-				//Close the connection
-				if(vivoJena != null)
-					this.tcf.returnConnectionToPool(vivoJena, "dataSet");
 			}
 			//Checking for education and training updates
-			for(EducationBean edu: ebean) {
-				StringBuilder sb = new StringBuilder();
-				
-				sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-				sb.append("SELECT ?obj \n");
-				sb.append("WHERE { \n");
-				sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> {\n");
-				sb.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + ">");
-				sb.append("}}");
-				
-				//log.info(sb.toString());
-				
-				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
-				
-				ResultSet rs = runTDBSparqlTemplate(sb.toString(), vivoJena);
-				
-				
-				if(rs != null && !rs.hasNext()) {
-					log.info("Insert new education for " + ob.getCwid().trim() + " - educationalTraining-" + edu.getDegreePk().trim());
-					edu.setCrudStatus("INSERT");
-					StringBuffer insertQuery = new StringBuffer();
-					insertQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-					insertQuery.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-					insertQuery.append("PREFIX vivo: <http://vivoweb.org/ontology/core#> \n");
-					insertQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-					insertQuery.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
-					insertQuery.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
-					insertQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-					insertQuery.append("INSERT DATA { GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
-					//for educational training
-					insertQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdf:type core:AwardedDegree . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdfs:label \"" + edu.getDegreeName().trim() + "\" . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:relates <" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:assignedBy <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> .\n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0002353 <" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:DateTimeValue \"" + strDate + "\" .\n");
-					insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> <http://vivoweb.org/ontology/core#abbreviation> \"" + edu.getDegreeName().trim() + "\" . \n");
-					insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> rdfs:label \"" + edu.getDegreeName().trim() + "\" . \n");
-					insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> rdf:type <http://vivoweb.org/ontology/core#AcademicDegree> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> rdf:type <http://xmlns.com/foaf/0.1/Organization> .\n");
-					insertQuery.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					insertQuery.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> core:assigns <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					
-					//for educational process
-					insertQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdf:type core:EducationalProcess . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0002234 <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + edu.getDateTimeInterval().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:DateTimeValue \"" + strDate + "\" .\n");
-					insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + edu.getDateTimeInterval().trim() + "> rdf:type core:DateTimeInterval . \n");
-					insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + edu.getDateTimeInterval().trim() + "> core:end <" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> rdf:type core:DateTimeValue . \n");
-					insertQuery.append("<" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-					insertQuery.append("<" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> core:dateTime \"" + edu.getDateTimeInterval().substring(2).trim() + "\" . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					insertQuery.append("}}");
-					
-					log.info(insertQuery.toString());
+			for(int i = 0; i < ebean.size(); i++) {
+				EducationBean edu = ebean.get(i);
+				String training = this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim();
+				try {
+					if(!current.contains(current.createResource(person), current.createProperty(CORE + "relatedBy"), current.createResource(training))) {
+						log.info("Insert new education for " + ob.getCwid().trim() + " - educationalTraining-" + edu.getDegreePk().trim());
+						edu.setCrudStatus("INSERT");
+						StringBuffer insertQuery = new StringBuffer();
+						insertQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
+						insertQuery.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
+						insertQuery.append("PREFIX vivo: <http://vivoweb.org/ontology/core#> \n");
+						insertQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
+						insertQuery.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
+						insertQuery.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
+						insertQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
+						insertQuery.append("INSERT DATA { GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
+						//for educational training
+						insertQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdf:type core:AwardedDegree . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdfs:label \"" + SparqlLiteralEscaper.escape(edu.getDegreeName().trim()) + "\" . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:relates <" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:assignedBy <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> .\n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0002353 <" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:DateTimeValue \"" + strDate + "\" .\n");
+						insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> <http://vivoweb.org/ontology/core#abbreviation> \"" + SparqlLiteralEscaper.escape(edu.getDegreeName().trim()) + "\" . \n");
+						insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> rdfs:label \"" + SparqlLiteralEscaper.escape(edu.getDegreeName().trim()) + "\" . \n");
+						insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> rdf:type <http://vivoweb.org/ontology/core#AcademicDegree> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> rdf:type <http://xmlns.com/foaf/0.1/Organization> .\n");
+						insertQuery.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
+						insertQuery.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> core:assigns <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
 					
-					try {
+						//for educational process
+						insertQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdf:type core:EducationalProcess . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0002234 <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + edu.getDateTimeInterval().trim() + "> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:DateTimeValue \"" + strDate + "\" .\n");
+						insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + edu.getDateTimeInterval().trim() + "> rdf:type core:DateTimeInterval . \n");
+						insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + edu.getDateTimeInterval().trim() + "> core:end <" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> . \n");
+						insertQuery.append("<" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> rdf:type core:DateTimeValue . \n");
+						insertQuery.append("<" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> core:dateTimePrecision core:yearPrecision . \n");
+						insertQuery.append("<" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> core:dateTime \"" + edu.getDateTimeInterval().substring(2).trim() + "\" . \n");
+						insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
+						insertQuery.append("}}");
 						
-						runTDBSparqlUpdateTemplate(insertQuery.toString(), vivoJena);
+						log.info(insertQuery.toString());
 						
-					} catch(IOException e) {
-						// TODO Auto-generated catch block
-						e.printStackTrace();
-					}
-					
-					updateCount = updateCount + 1;
-					
-				}
-				else {
-					//Check for change of institution
-					
-					edu.setCrudStatus("UPDATE");
-					int instituteFk = 0;
-					String institutionLabel = null;
-					sb.setLength(0);
-					sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>");
-					sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-					sb.append("SELECT ?instituteFk ?institutionLabel\n");
-					sb.append("WHERE { \n");
-					sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> {\n");
-					sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> core:assignedBy ?instituteFk . \n");
-					sb.append("?instituteFk rdfs:label ?institutionLabel . ");
-					sb.append("}}");
-					
-					rs = runTDBSparqlTemplate(sb.toString(), vivoJena);
-					
-					if(rs.hasNext()) {
-						QuerySolution qs = rs.nextSolution();
-						instituteFk = Integer.parseInt(qs.get("instituteFk").toString().replace(this.vivoNamespace + "org-", ""));
-						institutionLabel = qs.get("institutionLabel").toString();
-					}
-					if(instituteFk != Integer.parseInt(edu.getInstituteFk())) {
-						log.info("Insitition needs to be updated to " + edu.getInstituion() + " for educationalTraining-" + edu.getDegreePk().trim() + " with cwid " + ob.getCwid().trim());
-						sb.setLength(0);
-						sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>");
-						sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-						sb.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
-						sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						sb.append("DELETE { \n");
-						sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> core:assignedBy <" + this.vivoNamespace + "org-" + instituteFk + "> . \n");
-						sb.append("<" + this.vivoNamespace + "org-" + instituteFk + "> core:assigns <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
-						sb.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "org-" + instituteFk + "> . \n");
-						sb.append("} \n");
-						sb.append("INSERT { \n");
-						sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> core:assignedBy <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> . \n");
-						sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> core:assigns <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
-						sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> rdf:type <http://xmlns.com/foaf/0.1/Organization> .\n");
-						sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> rdfs:label \"" + edu.getInstituion() + "\" .\n");
-						sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" .\n");
-						sb.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> . \n");
-						sb.append("} \n");
-						sb.append("WHERE { \n");
-						sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> core:assignedBy <" + this.vivoNamespace + "org-" + instituteFk + "> . \n");
-						sb.append("<" + this.vivoNamespace + "org-" + instituteFk + "> core:assigns <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
-						sb.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "org-" + instituteFk + "> . \n");
-						sb.append("}");
+						runUpdate(insertQuery.toString());
 						
-						//log.info(sb.toString());
-						try {
-							runTDBSparqlUpdateTemplate(sb.toString(), vivoJena);
-						} catch(IOException e) {
-							log.error("IOException" ,e);
-						}
-					} 
-					else	
-						log.info("No updates are necessary for " + ob.getCwid().trim() + " for educationalTraining-" + edu.getDegreePk().trim());
-					
-					//Check for insitution name 
-					if(institutionLabel != null && !institutionLabel.equalsIgnoreCase(edu.getInstituion())) {
-						log.info("Insitition Label needs to be updated to " + edu.getInstituion() + " for educationalTraining-" + edu.getDegreePk().trim() + " with cwid " + ob.getCwid().trim());
-						sb.setLength(0);
-						sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>");
-						sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-						sb.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
-						sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						sb.append("DELETE { \n");
-						sb.append("<" + this.vivoNamespace + "org-" + instituteFk + "> rdfs:label ?label .\n");
-						sb.append("} \n");
-						sb.append("INSERT { \n");
-						sb.append("<" + this.vivoNamespace + "org-" + instituteFk + "> rdfs:label \"" + edu.getInstituion() + "\" .\n");
-						sb.append("} \n");
-						sb.append("WHERE { \n");
-						sb.append("<" + this.vivoNamespace + "org-" + instituteFk + "> rdfs:label ?label .\n");
-						sb.append("}");
+						updateCount = updateCount + 1;
 						
-						//log.info(sb.toString());
-						try {
-							runTDBSparqlUpdateTemplate(sb.toString(), vivoJena);
-						} catch(IOException e) {
-							log.error("IOException" ,e);
+					}
+					else {
+						edu.setCrudStatus("UPDATE");
+						String institution = getCurrentValue(current, training, CORE + "assignedBy");
+						int instituteFk = institution == null ? 0 : Integer.parseInt(institution.replace(this.vivoNamespace + "org-", ""));
+						//Check for change of institution
+						if(instituteFk != Integer.parseInt(edu.getInstituteFk())) {
+							log.info("Insitition needs to be updated to " + edu.getInstituion() + " for educationalTraining-" + edu.getDegreePk().trim() + " with cwid " + ob.getCwid().trim());
+							EntityGraphDiff institutionDiff = getInstitutionDiff(ob.getCwid().trim(), edu, institution);
+							applyDiff(institutionDiff.compute(constructCurrentState(institutionDiff.getConstructQuery())));
+						}
+						else {
+							//Check for insitution name 
+							String institutionLabel = getCurrentValue(current, institution, RDFS_LABEL);
+							if(institutionLabel != null && !institutionLabel.equalsIgnoreCase(SparqlLiteralEscaper.normalize(edu.getInstituion()))) {
+								log.info("Insitition Label needs to be updated to " + edu.getInstituion() + " from " + institutionLabel + " for cwid " + ob.getCwid().trim());
+								applyDiff(educationDiffs.get(i).compute(current));
+							}
+							else
+								log.info("No updates are necessary for " + ob.getCwid().trim() + " for educationalTraining-" + edu.getDegreePk().trim());
 						}
 					}
-					else	
-						log.info("No updates are necessary for institution name " + ob.getCwid().trim() + " for educationalTraining-" + edu.getDegreePk().trim());
+				} catch(Exception e) {
+					log.error("Unable to update educationalTraining-" + edu.getDegreePk().trim() + " for cwid - " + cwid, e);
 				}
-				//Close the connection
-				if(vivoJena != null)
-					this.tcf.returnConnectionToPool(vivoJena, "dataSet");
-				
 			}
 			
 			
@@ -1356,623 +1258,141 @@ public class AppointmentsFetchFromED {
 			return updateCount;
 			
 		}
-
+		
 		/**
-		 * This function check for updates against existing data in VIVO. If there is any change in data such as end date for a position, a new position, addition of education and training.
-		 * The data is automatically updated and inferenced.
-		 * @param ob The bean object containing role and education & training data both
-		 * @param cwid The unqiue identifier for a person
-		 * @return Update count
-		 * @throws IOException thrown by SDBJenaConnect
+		 * The date time interval a position should have in VIVO. Current appointments have an interval without an end.
+		 * @param strDate the date of the update, kept with the position
+		 * @return the diff replacing the interval of the position
 		 */
-		private int checkForUpdatesUsingTDB(OfaBean ob, String cwid) throws IOException {
-			Date now = new Date();
-			String strDate = sdf.format(now);
-			int updateCount = 0;
+		private EntityGraphDiff getPositionIntervalDiff(String sorId, String startDate, String endDate, String strDate) {
+			String position = "<" + this.vivoNamespace + "position-" + sorId.trim() + ">";
+			boolean currentAppointment = endDate == null || endDate.equals("CURRENT");
+			String interval = "<" + this.vivoNamespace + "dtinterval-" + startDate.trim() + "to" + (currentAppointment ? "" : endDate.trim()) + ">";
 			
-			ArrayList<RoleBean> rb = ob.getRoles();
-			ArrayList<EducationBean> ebean = ob.getEdu();
+			EntityGraphDiff diff = new EntityGraphDiff(VivoGraphs.OFA_GRAPH.getValue());
+			diff.set(position, "core:dateTimeInterval", EntityGraphDiff.resource(interval));
+			diff.set(position, "core:DateTimeValue", EntityGraphDiff.literal(strDate));
+			diff.ensure(interval, "rdf:type", EntityGraphDiff.resource("core:DateTimeInterval"));
+			diff.ensure(interval, "core:start", EntityGraphDiff.resource("<" + this.vivoNamespace + "date-" + startDate.trim() + ">"));
+			if(!currentAppointment) {
+				diff.ensure(interval, "core:end", EntityGraphDiff.resource("<" + this.vivoNamespace + "date-" + endDate.trim() + ">"));
+			}
+			diff.ensure(interval, "vitro:mostSpecificType", EntityGraphDiff.resource("core:DateTimeInterval"));
+			diff.ensure(interval, HARVESTED_BY, EntityGraphDiff.literal("wcmc-harvester"));
+			return diff;
+		}
+		
+		/**
+		 * The link of the person to an education and the label of its institution. The institution itself is not
+		 * changed, see {@link #getInstitutionDiff(String, EducationBean, String)}.
+		 */
+		private EntityGraphDiff getEducationDiff(String cwid, EducationBean edu) {
+			String training = "<" + this.vivoNamespace + "educationalTraining-" + cwid + "-" + edu.getDegreePk().trim() + ">";
+			String org = "<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + ">";
 			
-
-			//Checking for appointment updates
-			for(RoleBean role: rb) {
-				StringBuffer sb = new StringBuffer();
-				sb.append("SELECT ?obj \n");
-				sb.append("WHERE {\n");
-				sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
-				sb.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> ?obj . \n");
-				sb.append("}}");
-
-				try {
-					String response = this.vivoClient.vivoQueryApi(sb.toString());
-					log.info(response);
-					JSONObject obj = new JSONObject(response);
-					JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				if(bindings.isEmpty()) {
-					if(!role.isInterimAppointment()) {
-						//insert
-						log.info("Insert new appointment - position-" + role.getSorId().trim());
-						
-						role.setCrudStatus("INSERT");
-						StringBuffer insertQuery = new StringBuffer();
-						insertQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						insertQuery.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-						insertQuery.append("PREFIX vivo: <http://vivoweb.org/ontology/core#> \n");
-						insertQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-						insertQuery.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
-						insertQuery.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
-						insertQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-						insertQuery.append("INSERT DATA { GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
-						insertQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> . \n");
-						if(role.isPrimaryAppointment())
-							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type core:PrimaryPosition . \n");
-							
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type core:Position . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type core:Relationship . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type obo:BFO_0000002 . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type obo:BFO_0000001 . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdf:type obo:BFO_0000020 . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> rdfs:label \"" + role.getTitleCode().trim() + "\" . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> . \n");
-						insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:DateTimeValue \"" + strDate + "\" . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() +"> . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> rdf:type core:AcademicDepartment . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> vitro:mostSpecificType core:AcademicDepartment . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> rdf:type core:Department . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> rdfs:label \"" + role.getDepartment() + "\" . \n");
-						insertQuery.append("<" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> <http://purl.obolibrary.org/obo/BFO_0000050> <http://vivo.med.cornell.edu/individual/org-568> . \n");
-						insertQuery.append("<http://vivo.med.cornell.edu/individual/org-568> rdf:type core:University . \n");
-						insertQuery.append("<http://vivo.med.cornell.edu/individual/org-568> rdfs:label \"Weill Cornell Medical College\" . \n");
-						insertQuery.append("<http://vivo.med.cornell.edu/individual/org-568> <http://purl.obolibrary.org/obo/BFO_0000051> <" + this.vivoNamespace + "org-u" + role.getDeptCode() + "> . \n");
-							//if there is end date 
-							if(role.getEndDate() != null && !role.getEndDate().equals("CURRENT")) {
-								//For Date Time Interval
-								insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> vitro:mostSpecificType core:DateTimeInterval . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-									//For Start Date
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> rdf:type core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "-01-01T00:00:00\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> vitro:mostSpecificType core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-									//For End Date
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> rdf:type core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> core:dateTime \"" + role.getEndDate().trim() + "\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> core:dateTime \"" + role.getEndDate().trim() + "-01-01T00:00:00\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> vitro:mostSpecificType core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							//if there is no end date
-							else {
-								insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> rdf:type core:DateTimeInterval . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> vitro:mostSpecificType core:DateTimeInterval . \n");
-								insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> rdf:type core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> core:dateTime \"" + role.getStartDate().trim() + "-01-01T00:00:00\" .\n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> vitro:mostSpecificType core:DateTimeValue . \n");
-								insertQuery.append("<" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							insertQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-						insertQuery.append("}}");
-						response = this.vivoClient.vivoUpdateApi(insertQuery.toString());
-						log.info(response);
-					}
-				}
-				
-				else
-				{
-					String endDate = bindings.getJSONObject(0).optJSONObject("obj").getString("value").replace(this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to", "");
-					String dateTimeInterval = bindings.getJSONObject(0).optJSONObject("obj").getString("value");
-					role.setCrudStatus("UPDATE");
-					
-					//Update an appoinment to have an end date
-					if(endDate.length() == 0 && role.getEndDate() != null && !role.getEndDate().equals("CURRENT")) {
-						log.info("Update existing appointment position-" + role.getSorId().trim());
-						StringBuffer updateQuery = new StringBuffer();
-						updateQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						updateQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n"); 
-						updateQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-						updateQuery.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						updateQuery.append("DELETE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + dateTimeInterval + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-						//updateQuery.append("<" + qs.get("obj").toString() + "> ?p ?o . \n");
-						updateQuery.append("} \n");
-						updateQuery.append("INSERT { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:DateTimeValue \"" + strDate + "\" . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> vitro:mostSpecificType core:DateTimeInterval . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-						updateQuery.append("} \n");
-						updateQuery.append("WHERE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + dateTimeInterval + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-						//updateQuery.append("<" + qs.get("obj").toString() + "> ?p ?o . \n");
-						updateQuery.append("}");
-						
-						log.info(updateQuery.toString());
-						response = this.vivoClient.vivoUpdateApi(updateQuery.toString());
-						log.info(response);
-						
-						updateCount = updateCount + 1;
-						
-					}
-					//Update to delete any end date which is for a current appointment
-					else if(endDate.equals(this.currYear) && role.getEndDate().equals("CURRENT")) {
-						log.info("Update existing appointment position-" + role.getSorId().trim());
-						StringBuffer updateQuery = new StringBuffer();
-						updateQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						updateQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n"); 
-						updateQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-						updateQuery.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						updateQuery.append("DELETE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + dateTimeInterval + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-						//updateQuery.append("<" + qs.get("obj").toString() + "> ?p ?o . \n");
-						updateQuery.append("} \n");
-						updateQuery.append("INSERT { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> core:DateTimeValue \"" + strDate + "\" . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> rdf:type core:DateTimeInterval . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> vitro:mostSpecificType core:DateTimeInterval . \n");
-						updateQuery.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-						updateQuery.append("} \n");
-						updateQuery.append("WHERE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + dateTimeInterval + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-						//updateQuery.append("OPTIONAL {<" + qs.get("obj").toString() + "> ?p ?o .} \n");
-						updateQuery.append("}");
-						log.info(updateQuery.toString());
-						response = this.vivoClient.vivoUpdateApi(updateQuery.toString());
-						log.info(response);
-						updateCount = updateCount + 1;
-					}
-					//Delete interim appointment
-					else if(role.isInterimAppointment()) {
-						StringBuffer updateQuery = new StringBuffer();
-						updateQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						updateQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n"); 
-						updateQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-						updateQuery.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						updateQuery.append("DELETE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> ?p ?o . \n");
-						updateQuery.append("} \n");
-						updateQuery.append("WHERE { \n");
-						updateQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> . \n");
-						updateQuery.append("<" + this.vivoNamespace + "position-" + role.getSorId().trim() + "> ?p ?o . \n");
-						updateQuery.append("}");
-						log.info(updateQuery.toString());
-						response = this.vivoClient.vivoUpdateApi(updateQuery.toString());
-						log.info(response);
-						
-						updateCount = updateCount + 1;
-					}
-					else
-						log.info("No updates are necessary for " + ob.getCwid().trim() + " for position-" + role.getSorId().trim());
-				}
-					
-			} catch(Exception e) {
-				log.error("Api Exception", e);
+			EntityGraphDiff diff = new EntityGraphDiff(VivoGraphs.OFA_GRAPH.getValue());
+			diff.ensure("<" + this.vivoNamespace + "cwid-" + cwid + ">", "core:relatedBy", EntityGraphDiff.resource(training));
+			diff.set(training, "core:assignedBy", EntityGraphDiff.resource(org));
+			diff.set(org, "rdfs:label", EntityGraphDiff.literal(SparqlLiteralEscaper.normalize(edu.getInstituion())));
+			return diff;
+		}
+		
+		/**
+		 * Move an education to the institution from OFA
+		 * @param currentInstitution the institution in VIVO or null
+		 */
+		private EntityGraphDiff getInstitutionDiff(String cwid, EducationBean edu, String currentInstitution) {
+			String training = "<" + this.vivoNamespace + "educationalTraining-" + cwid + "-" + edu.getDegreePk().trim() + ">";
+			String process = "<" + this.vivoNamespace + "educationalProcess-" + cwid + "-" + edu.getDegreePk().trim() + ">";
+			String org = "<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + ">";
+			
+			EntityGraphDiff diff = new EntityGraphDiff(VivoGraphs.OFA_GRAPH.getValue());
+			diff.set(training, "core:assignedBy", EntityGraphDiff.resource(org));
+			if(currentInstitution != null) {
+				diff.delete("<" + currentInstitution + ">", "core:assigns", EntityGraphDiff.resource(training));
+				diff.delete(process, "obo:RO_0000057", EntityGraphDiff.resource("<" + currentInstitution + ">"));
 			}
+			diff.ensure(org, "core:assigns", EntityGraphDiff.resource(training));
+			diff.ensure(org, "rdf:type", EntityGraphDiff.resource("foaf:Organization"));
+			diff.ensure(org, "rdfs:label", EntityGraphDiff.literal(SparqlLiteralEscaper.normalize(edu.getInstituion())));
+			diff.ensure(org, HARVESTED_BY, EntityGraphDiff.literal("wcmc-harvester"));
+			diff.ensure(process, "obo:RO_0000057", EntityGraphDiff.resource(org));
+			return diff;
+		}
+		
+		/**
+		 * @param subject the IRI of the subject, may be null
+		 * @param predicate the IRI of the predicate
+		 * @return a value of the property in the fetched triples, the IRI for resources, or null if it has none
+		 */
+		private String getCurrentValue(Model current, String subject, String predicate) {
+			if(subject == null) {
+				return null;
 			}
-			//Checking for education and training updates
-			for(EducationBean edu: ebean) {
-				StringBuilder sb = new StringBuilder();
-				
-				sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-				sb.append("SELECT ?obj \n");
-				sb.append("WHERE { \n");
-				sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
-				sb.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + ">");
-				sb.append("}}");
-				
-				try {
-					String response = this.vivoClient.vivoQueryApi(sb.toString());
-					log.info(response);
-					JSONObject obj = new JSONObject(response);
-					JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				
-				if(bindings.isEmpty()) {
-					log.info("Insert new education for " + ob.getCwid().trim() + " - educationalTraining-" + edu.getDegreePk().trim());
-					edu.setCrudStatus("INSERT");
-					StringBuffer insertQuery = new StringBuffer();
-					insertQuery.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-					insertQuery.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-					insertQuery.append("PREFIX vivo: <http://vivoweb.org/ontology/core#> \n");
-					insertQuery.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-					insertQuery.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
-					insertQuery.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
-					insertQuery.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-					insertQuery.append("INSERT DATA { GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
-					//for educational training
-					insertQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdf:type core:AwardedDegree . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdfs:label \"" + edu.getDegreeName().trim() + "\" . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:relates <" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:assignedBy <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> .\n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0002353 <" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:DateTimeValue \"" + strDate + "\" .\n");
-					insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> <http://vivoweb.org/ontology/core#abbreviation> \"" + edu.getDegreeName().trim() + "\" . \n");
-					insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> rdfs:label \"" + edu.getDegreeName().trim() + "\" . \n");
-					insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "degree/academicDegree" + edu.getBuiltInDegreePk().trim() + "> rdf:type <http://vivoweb.org/ontology/core#AcademicDegree> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> rdf:type <http://xmlns.com/foaf/0.1/Organization> .\n");
-					insertQuery.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					insertQuery.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> core:assigns <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					
-					//for educational process
-					insertQuery.append("<" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> core:relatedBy <" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> rdf:type core:EducationalProcess . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "cwid-" + ob.getCwid().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0002234 <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + edu.getDateTimeInterval().trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> core:DateTimeValue \"" + strDate + "\" .\n");
-					insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + edu.getDateTimeInterval().trim() + "> rdf:type core:DateTimeInterval . \n");
-					insertQuery.append("<" + this.vivoNamespace + "dtinterval-" + edu.getDateTimeInterval().trim() + "> core:end <" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> . \n");
-					insertQuery.append("<" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> rdf:type core:DateTimeValue . \n");
-					insertQuery.append("<" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-					insertQuery.append("<" + this.vivoNamespace + "date-" + edu.getDateTimeInterval().substring(2).trim() + "> core:dateTime \"" + edu.getDateTimeInterval().substring(2).trim() + "\" . \n");
-					insertQuery.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					insertQuery.append("}}");
-					
-					log.info(insertQuery.toString());
-					response = this.vivoClient.vivoUpdateApi(insertQuery.toString());
-					log.info(response);
-					updateCount = updateCount + 1;
-					
-				}
-				else {
-					//Check for change of institution
-					
-					edu.setCrudStatus("UPDATE");
-					int instituteFk =0;
-					sb.setLength(0);
-					sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-					sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>");
-					sb.append("SELECT ?instituteFk ?institutionLabel \n");
-					sb.append("WHERE { \n");
-					sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
-					sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> core:assignedBy ?instituteFk . \n");
-					sb.append("?instituteFk rdfs:label ?institutionLabel . \n");
-					sb.append("}}");
-					
-					response = this.vivoClient.vivoQueryApi(sb.toString());
-					log.info(response);
-					obj = new JSONObject(response);
-					bindings = obj.getJSONObject("results").getJSONArray("bindings");
-					
-					if(bindings.getJSONObject(0).optJSONObject("instituteFk") != null && bindings.getJSONObject(0).optJSONObject("instituteFk").has("value")) {
-						instituteFk = Integer.parseInt(bindings.getJSONObject(0).optJSONObject("instituteFk").getString("value").replace(this.vivoNamespace + "org-", ""));
-					}
-					if(instituteFk != Integer.parseInt(edu.getInstituteFk())) {
-						log.info("Insitition needs to be updated to " + edu.getInstituion() + " for educationalTraining-" + edu.getDegreePk().trim() + " with cwid " + ob.getCwid().trim());
-						sb.setLength(0);
-						sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>");
-						sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-						sb.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
-						sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						sb.append("DELETE { \n");
-						sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> core:assignedBy <" + this.vivoNamespace + "org-" + instituteFk + "> . \n");
-						sb.append("<" + this.vivoNamespace + "org-" + instituteFk + "> core:assigns <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
-						sb.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "org-" + instituteFk + "> . \n");
-						sb.append("} \n");
-						sb.append("INSERT { \n");
-						sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> core:assignedBy <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> . \n");
-						sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> core:assigns <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
-						sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> rdf:type <http://xmlns.com/foaf/0.1/Organization> .\n");
-						sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> rdfs:label \"" + edu.getInstituion() + "\" .\n");
-						sb.append("<" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" .\n");
-						sb.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "org-" + edu.getInstituteFk().trim() + "> . \n");
-						sb.append("} \n");
-						sb.append("WHERE { \n");
-						sb.append("<" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk() + "> core:assignedBy <" + this.vivoNamespace + "org-" + instituteFk + "> . \n");
-						sb.append("<" + this.vivoNamespace + "org-" + instituteFk + "> core:assigns <" + this.vivoNamespace + "educationalTraining-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> .\n");
-						sb.append("<" + this.vivoNamespace + "educationalProcess-" + ob.getCwid().trim() + "-" + edu.getDegreePk().trim() + "> obo:RO_0000057 <" + this.vivoNamespace + "org-" + instituteFk + "> . \n");
-						sb.append("}");
-						
-						log.info(sb.toString());
-						response = this.vivoClient.vivoUpdateApi(sb.toString());
-						log.info(response);
-					} else if(instituteFk == Integer.parseInt(edu.getInstituteFk()) && bindings.getJSONObject(0).optJSONObject("institutionLabel") != null && bindings.getJSONObject(0).optJSONObject("institutionLabel").has("value") && !bindings.getJSONObject(0).optJSONObject("institutionLabel").getString("value").equals(edu.getInstituion())) {
-						log.info("Insitition Label needs to be updated to " + edu.getInstituion() + " from " + bindings.getJSONObject(0).optJSONObject("institutionLabel").getString("value") + " for cwid " + ob.getCwid().trim());
-						sb.setLength(0);
-						sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>");
-						sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						sb.append("DELETE { \n");
-						sb.append("<" + this.vivoNamespace + "org-" + instituteFk + "> rdfs:label ?institutionLabel .\n");
-						sb.append("} \n");
-						sb.append("INSERT { \n");
-						sb.append("<" + this.vivoNamespace + "org-" + instituteFk + "> rdfs:label \"" + edu.getInstituion() + "\" .\n");
-						sb.append("} \n");
-						sb.append("WHERE { \n");
-						sb.append("<" + this.vivoNamespace + "org-" + instituteFk + "> rdfs:label ?institutionLabel .\n");
-						sb.append("}");
-						
-						log.info(sb.toString());
-						response = this.vivoClient.vivoUpdateApi(sb.toString());
-						log.info(response);
-					} else	
-						log.info("No updates are necessary for " + ob.getCwid().trim() + " for educationalTraining-" + edu.getDegreePk().trim());
-				}
-				} catch(Exception e) {
-					log.error("Api Exception", e);
-				}
+			NodeIterator it = current.listObjectsOfProperty(current.createResource(subject), current.createProperty(predicate));
+			if(!it.hasNext()) {
+				return null;
 			}
-			
-			
-			insertInferenceTriples(ob);
-			//Check if any appointment needs to be deleted in VIVO
-			syncAppointmentsInVivoUsingTDB(rb, cwid);
-			
-			return updateCount;
-			
+			RDFNode value = it.next();
+			return value.isLiteral() ? value.asLiteral().getLexicalForm() : value.asResource().getURI();
 		}
 		
-		
 		/**
-		 * This is the function which will sync appointments from ED to VIVO
-		 * @param edRole This is the list of roles from Enterprise Directory
-		 * @param cwid This is the unique identifier of the person
+		 * Fetch the current triples of the appointments from VIVO
+		 * @param sparqlQuery the construct query
 		 */
-		private void syncAppointmentsInVivo(ArrayList<RoleBean> edRole, String cwid) {
-			Date now = new Date();
-			SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-			String strDate = sdf.format(now);
-			ArrayList<RoleBean> vivoRole = new ArrayList<RoleBean>();
-			
-			StringBuilder sb = new StringBuilder();
-			
-			sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-			sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-			sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-			sb.append("SELECT ?position ?org ?start ?end ?dateTime \n");
-			sb.append("WHERE {\n");
-			sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> {\n");
-			sb.append("<" + this.vivoNamespace + "cwid-" + cwid + "> core:relatedBy ?position . \n");
-			sb.append("?position a core:Position . \n");
-			sb.append("?position core:relates ?org . \n");
-			sb.append("?org rdf:type core:AcademicDepartment . \n");
-			sb.append("?position core:dateTimeInterval ?dateTime . \n");
-			sb.append("OPTIONAL {?dateTime a core:DateTimeInterval . }\n");
-			sb.append("OPTIONAL {?dateTime core:start ?start . }\n");
-			sb.append("OPTIONAL {?dateTime core:end ?end . }\n");
-			sb.append("}}");
-
-			
+		private Model constructCurrentState(String sparqlQuery) throws IOException {
+			if(ingestType.equals(IngestType.VIVO_API.toString())) {
+				return this.vivoClient.vivoConstructApi(sparqlQuery);
+			}
 			TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
-			
 			try {
-				ResultSet rs = runTDBSparqlTemplate(sb.toString(), vivoJena);
-				
-				
-				while(rs.hasNext()) {
-					QuerySolution qs = rs.nextSolution();
-					RoleBean r = new RoleBean();
-					if(qs.get("position")!= null) {
-						r.setSorId(qs.get("position").toString().replace(this.vivoNamespace + "position-", "").trim());
-					}
-					
-					if(qs.get("org")!= null) {
-						r.setDeptCode(Integer.parseInt(qs.get("org").toString().replace(this.vivoNamespace + "org-u", "").trim()));
-					}
-					
-					if(qs.get("start")!= null) {
-						r.setStartDate(qs.get("start").toString().trim().replace(this.vivoNamespace + "date-", ""));
-					}
-					
-					if(qs.get("end")!= null) {
-						r.setEndDate(qs.get("end").toString().trim().replace(this.vivoNamespace + "date-", ""));
-					}
-					else
-						r.setEndDate("CURRENT");
-					
-					vivoRole.add(r);
-					
-				}
+				return vivoJena.executeConstructQuery(sparqlQuery, true);
+			} finally {
+				this.tcf.returnConnectionToPool(vivoJena, "dataSet");
 			}
-			catch(IOException e) {
-				// TODO Auto-generated catch block
-				log.error("IOException" ,e);
+		}
+		
+		/**
+		 * Write the triples that changed, nothing is sent when the diff is empty
+		 */
+		private void applyDiff(EntityGraphDiff diff) throws IOException {
+			if(diff.isEmpty()) {
+				return;
 			}
-			this.tcf.returnConnectionToPool(vivoJena, "dataSet");
-			for(RoleBean r: vivoRole) {
-				//try{
-					//log.info(r.toString());
-					if(edRole.stream().anyMatch(er -> er.getSorId().equals(r.getSorId()))) {
-						log.info("The position - " + r.getSorId() + " exist in both ED and VIVO. Checking for date ranges.");
-						//Check for date range
-						if(edRole.stream().anyMatch(er -> er.getStartDate().equals(r.getStartDate()) && er.getEndDate().equals(r.getEndDate()))) {
-							log.info("Date Range Matches. No change required.");
-						}
-						else {
-							RoleBean role = edRole.stream().filter(er-> er.getSorId().equals(r.getSorId())).findFirst().get();
-							log.info("Date does not match from ED : start - " + role.getStartDate() + " end - " + role.getEndDate() + " with VIVO : start - " + r.getStartDate() + " end - " + r.getEndDate());
-							
-							if(sb.length() > 0)
-								sb.setLength(0);
-							
-							
-							sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-							sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n"); 
-							sb.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-							if(r.getStartDate() != null)
-								sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-							if(r.getStartDate() != null) { //No Date Interval exist in the system
-								sb.append("DELETE { \n");
-								if(r.getEndDate().equals("CURRENT")) {
-									sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to> . \n");
-									//sb.append("<" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to> ?p ?o . \n");
-								}
-								else {
-									sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to" + r.getEndDate().trim() + "> . \n");
-									//sb.append("<" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to" + r.getEndDate().trim() + "> ?p ?o . \n");
-								}
-									
-								sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-								
-								sb.append("} \n");
-							}
-							
-							if(r.getStartDate() == null) {
-								sb.append("INSERT DATA { \n");
-								sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
-							}
-							else 
-								sb.append("INSERT { \n");
-							
-							if(role.getEndDate().equals("CURRENT")) {
-								sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> rdf:type core:DateTimeInterval . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> vitro:mostSpecificType core:DateTimeInterval . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							else {
-								sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> vitro:mostSpecificType core:DateTimeInterval . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:DateTimeValue \"" + strDate + "\" . \n");
-							sb.append("} \n");
-							if(r.getStartDate() == null) {
-								sb.append("}");
-							}
-							if(r.getStartDate() != null) { //No Date Interval exist in the system
-								sb.append("WHERE { \n");
-								if(r.getEndDate().equals("CURRENT")) {
-									sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to> . \n");
-									//sb.append("<" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to> ?p ?o . \n");
-								}
-								else {
-									sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to" + r.getEndDate().trim() + "> . \n");
-									//sb.append("<" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to" + r.getEndDate().trim() + "> ?p ?o . \n");
-								}
-									
-								sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-								sb.append("}");
-							}
-							
-							log.info(sb.toString());
-							
-							vivoJena = this.tcf.getConnectionfromPool("dataSet");
-							
-							try {
-								runTDBSparqlUpdateTemplate(sb.toString(), vivoJena);
-							} catch(IOException e) {
-								log.error("IOException" ,e);
-							}
-							this.tcf.returnConnectionToPool(vivoJena, "dataSet");
-						}
-						
-					}
-					else {
-						log.info("The position - " + r.getSorId() + " does not exist in ED anymore. Removing from VIVO");
-						
-						if(sb.length() > 0)
-							sb.setLength(0);
-						
-						log.info("Deleting position - " + r.getSorId() + " from wcmcOfa graph");
-						
-						sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-						sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-						sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						sb.append("DELETE { \n");
-						sb.append("<" + this.vivoNamespace + "cwid-" + cwid + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId() + "> . \n");
-						sb.append("<" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . \n");
-						sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> . \n");
-						sb.append("<" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . \n");
-						sb.append("} \n");
-						sb.append("WHERE { \n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "cwid-" + cwid + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId() + "> . }\n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . }\n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> . }\n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . }\n");
-						sb.append("}");
-						
-						log.info(sb.toString());
-						
-						vivoJena = this.tcf.getConnectionfromPool("dataSet");
-						
-						try {
-							runTDBSparqlUpdateTemplate(sb.toString(), vivoJena);
-						} catch(IOException e) {
-							// TODO Auto-generated catch block
-							log.error("IOException" ,e);
-						}
-						this.tcf.returnConnectionToPool(vivoJena, "dataSet");
-						//Delete from inference Graph
-						
-						
-						if(sb.length() > 0)
-							sb.setLength(0);
-						
-						log.info("Deleting position - " + r.getSorId() + " from inference graph");
-						
-						sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-						sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-						sb.append("WITH <http://vitro.mannlib.cornell.edu/default/vitro-kb-inf> \n");
-						sb.append("DELETE { \n");
-						sb.append("<" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . \n");
-						sb.append("<" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:contributingRole <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . \n");
-						sb.append("} \n");
-						sb.append("WHERE { \n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . }\n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:contributingRole <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . }\n");
-						sb.append("}");
-						
-						log.info(sb.toString());
-						
-						vivoJena = this.tcf.getConnectionfromPool("dataSet");
-						
-						try {
-							runTDBSparqlUpdateTemplate(sb.toString(), vivoJena);
-						} catch(IOException e) {
-							// TODO Auto-generated catch block
-							log.error("IOException" ,e);
-						}
-						this.tcf.returnConnectionToPool(vivoJena, "dataSet");
-						
-					}
-				/*}
-				catch(NoSuchElementException nse) {
-					log.info("The position does not exist in VIVO");
-				}*/
+			if(ingestType.equals(IngestType.VIVO_API.toString())) {
+				String update = diff.toUpdate();
+				log.info(update);
+				log.info(this.vivoClient.vivoUpdateApi(update));
+			} else {
+				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
+				vivoJena.executeUpdate(diff.toUpdateRequest(), true);
+				this.tcf.returnConnectionToPool(vivoJena, "dataSet");
 			}
 		}
-
+		
 		/**
-		 * This is the function which will sync appointments from ED to VIVO
+		 * Run an update query against VIVO
+		 */
+		private void runUpdate(String sparqlQuery) throws IOException {
+			if(ingestType.equals(IngestType.VIVO_API.toString())) {
+				log.info(this.vivoClient.vivoUpdateApi(sparqlQuery));
+			} else {
+				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
+				runTDBSparqlUpdateTemplate(sparqlQuery, vivoJena);
+				this.tcf.returnConnectionToPool(vivoJena, "dataSet");
+			}
+		}
+		
+		
+		/**
+		 * This is the function which will sync appointments from ED to VIVO.
+		 * The date ranges that differ are written as diffs fetched with one construct query.
 		 * @param edRole This is the list of roles from Enterprise Directory
 		 * @param cwid This is the unique identifier of the person
 		 */
-		private void syncAppointmentsInVivoUsingTDB(ArrayList<RoleBean> edRole, String cwid) {
-			Date now = new Date();
-			String strDate = sdf.format(now);
+		private void syncAppointmentsInVivo(ArrayList<RoleBean> edRole, String cwid) {
+			String strDate = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
 			ArrayList<RoleBean> vivoRole = new ArrayList<RoleBean>();
 			
 			StringBuilder sb = new StringBuilder();
@@ -1980,214 +1400,143 @@ public class AppointmentsFetchFromED {
 			sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
 			sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
 			sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-			sb.append("SELECT ?position ?org ?start ?end ?dateTime \n");
+			sb.append("CONSTRUCT { \n");
+			sb.append("?position core:relates ?org . \n");
+			sb.append("?position core:dateTimeInterval ?dateTime . \n");
+			sb.append("?dateTime core:start ?start . \n");
+			sb.append("?dateTime core:end ?end . \n");
+			sb.append("} \n");
 			sb.append("WHERE {\n");
-			sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
+			sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> {\n");
 			sb.append("<" + this.vivoNamespace + "cwid-" + cwid + "> core:relatedBy ?position . \n");
 			sb.append("?position a core:Position . \n");
 			sb.append("?position core:relates ?org . \n");
 			sb.append("?org rdf:type core:AcademicDepartment . \n");
 			sb.append("?position core:dateTimeInterval ?dateTime . \n");
-			sb.append("OPTIONAL {?dateTime a core:DateTimeInterval . }\n");
 			sb.append("OPTIONAL {?dateTime core:start ?start . }\n");
 			sb.append("OPTIONAL {?dateTime core:end ?end . }\n");
 			sb.append("}}");
 
 			try {
-				String response = vivoClient.vivoQueryApi(sb.toString());
-				log.info(response);
-				JSONObject obj = new JSONObject(response);
-				JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				if(bindings != null && !bindings.isEmpty()) {
-					for (int i = 0; i < bindings.length(); ++i) {
+				Model positions = constructCurrentState(sb.toString());
+				ResIterator it = positions.listSubjectsWithProperty(positions.createProperty(CORE + "dateTimeInterval"));
+				while(it.hasNext()) {
+					Resource position = it.next();
+					String dateTime = getCurrentValue(positions, position.getURI(), CORE + "dateTimeInterval");
+					String start = getCurrentValue(positions, dateTime, CORE + "start");
+					String end = getCurrentValue(positions, dateTime, CORE + "end");
+					NodeIterator orgs = positions.listObjectsOfProperty(position, positions.createProperty(CORE + "relates"));
+					while(orgs.hasNext()) {
 						RoleBean r = new RoleBean();
-						if(bindings.getJSONObject(i).optJSONObject("position") != null && bindings.getJSONObject(i).optJSONObject("position").has("value")) {
-							r.setSorId(bindings.getJSONObject(i).getJSONObject("position").getString("value").replace(this.vivoNamespace + "position-", "").trim());
-						}
+						r.setSorId(position.getURI().replace(this.vivoNamespace + "position-", "").trim());
+						r.setDeptCode(Integer.parseInt(orgs.next().asResource().getURI().replace(this.vivoNamespace + "org-u", "").trim()));
 						
-						if(bindings.getJSONObject(i).optJSONObject("org") != null && bindings.getJSONObject(i).optJSONObject("org").has("value")) {
-							r.setDeptCode(Integer.parseInt(bindings.getJSONObject(i).getJSONObject("org").getString("value").replace(this.vivoNamespace + "org-u", "").trim()));
+						if(start != null) {
+							r.setStartDate(start.trim().replace(this.vivoNamespace + "date-", ""));
 						}
 						
-						if(bindings.getJSONObject(i).optJSONObject("start") != null && bindings.getJSONObject(i).optJSONObject("start").has("value")) {
-							r.setStartDate(bindings.getJSONObject(i).getJSONObject("start").getString("value").replace(this.vivoNamespace + "date-", ""));
-						}
-						
-						if(bindings.getJSONObject(i).optJSONObject("end") != null && bindings.getJSONObject(i).optJSONObject("end").has("value")) {
-							r.setEndDate(bindings.getJSONObject(i).getJSONObject("end").getString("value").replace(this.vivoNamespace + "date-", ""));
+						if(end != null) {
+							r.setEndDate(end.trim().replace(this.vivoNamespace + "date-", ""));
 						}
 						else
 							r.setEndDate("CURRENT");
 						
 						vivoRole.add(r);
-						
 					}
 				}
 			}
 			catch(Exception e) {
-				log.error("API Exception" ,e);
+				log.error("Unable to fetch the positions in VIVO for cwid - " + cwid, e);
 			}
 			
+			List<EntityGraphDiff> dateRangeDiffs = new ArrayList<>();
 			for(RoleBean r: vivoRole) {
-				//try{
-					//log.info(r.toString());
-					if(edRole.stream().anyMatch(er -> er.getSorId().equals(r.getSorId()))) {
-						log.info("The position - " + r.getSorId() + " exist in both ED and VIVO. Checking for date ranges.");
-						//Check for date range
-						if(edRole.stream().anyMatch(er -> er.getStartDate().equals(r.getStartDate()) && er.getEndDate().equals(r.getEndDate()))) {
-							log.info("Date Range Matches. No change required.");
-						}
-						else {
-							RoleBean role = edRole.stream().filter(er-> er.getSorId().equals(r.getSorId())).findFirst().get();
-							log.info("Date does not match from ED : start - " + role.getStartDate() + " end - " + role.getEndDate() + " with VIVO : start - " + r.getStartDate() + " end - " + r.getEndDate());
-							
-							if(sb.length() > 0)
-								sb.setLength(0);
-							
-							
-							sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-							sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n"); 
-							sb.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-							if(r.getStartDate() != null)
-								sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-							if(r.getStartDate() != null) { //No Date Interval exist in the system
-								sb.append("DELETE { \n");
-								if(r.getEndDate().equals("CURRENT")) {
-									sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to> . \n");
-									//sb.append("<" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to> ?p ?o . \n");
-								}
-								else {
-									sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to" + r.getEndDate().trim() + "> . \n");
-									//sb.append("<" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to" + r.getEndDate().trim() + "> ?p ?o . \n");
-								}
-									
-								sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-								
-								sb.append("} \n");
-							}
-							
-							if(r.getStartDate() == null) {
-								sb.append("INSERT DATA { \n");
-								sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> { \n");
-							}
-							else 
-								sb.append("INSERT { \n");
-							
-							if(role.getEndDate().equals("CURRENT")) {
-								sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> rdf:type core:DateTimeInterval . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> vitro:mostSpecificType core:DateTimeInterval . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							else {
-								sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-" + role.getStartDate().trim() + "> . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-" + role.getEndDate().trim() + "> . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> vitro:mostSpecificType core:DateTimeInterval . \n");
-								sb.append("<" + this.vivoNamespace + "dtinterval-" + role.getStartDate().trim() + "to" + role.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:DateTimeValue \"" + strDate + "\" . \n");
-							sb.append("} \n");
-							if(r.getStartDate() == null) {
-								sb.append("}");
-							}
-							if(r.getStartDate() != null) { //No Date Interval exist in the system
-								sb.append("WHERE { \n");
-								if(r.getEndDate().equals("CURRENT")) {
-									sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to> . \n");
-									//sb.append("<" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to> ?p ?o . \n");
-								}
-								else {
-									sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#dateTimeInterval> <" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to" + r.getEndDate().trim() + "> . \n");
-									//sb.append("<" + this.vivoNamespace + "dtinterval-" + r.getStartDate().trim() + "to" + r.getEndDate().trim() + "> ?p ?o . \n");
-								}
-									
-								sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> <http://vivoweb.org/ontology/core#DateTimeValue> ?date . \n");
-								sb.append("}");
-							}
-							
-							log.info(sb.toString());
-							try{
-								String response = this.vivoClient.vivoUpdateApi(sb.toString());
-								log.info(response);
-							} catch(Exception  e) {
-								log.info("Api Exception", e);
-							}
-						}
-						
+				if(edRole.stream().anyMatch(er -> er.getSorId().equals(r.getSorId()))) {
+					log.info("The position - " + r.getSorId() + " exist in both ED and VIVO. Checking for date ranges.");
+					//Check for date range
+					if(edRole.stream().anyMatch(er -> er.getStartDate().equals(r.getStartDate()) && er.getEndDate().equals(r.getEndDate()))) {
+						log.info("Date Range Matches. No change required.");
 					}
 					else {
-						log.info("The position - " + r.getSorId() + " does not exist in ED anymore. Removing from VIVO");
-						
-						if(sb.length() > 0)
-							sb.setLength(0);
-						
-						log.info("Deleting position - " + r.getSorId() + " from wcmcOfa graph");
-						
-						sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-						sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-						sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
-						sb.append("DELETE { \n");
-						sb.append("<" + this.vivoNamespace + "cwid-" + cwid + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId() + "> . \n");
-						sb.append("<" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . \n");
-						sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> . \n");
-						sb.append("<" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . \n");
-						sb.append("} \n");
-						sb.append("WHERE { \n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "cwid-" + cwid + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId() + "> . }\n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . }\n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> . }\n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . }\n");
-						sb.append("}");
-						
-						log.info(sb.toString());
-						
-						try{
-							String response = this.vivoClient.vivoUpdateApi(sb.toString());
-							log.info(response);
-						} catch(Exception  e) {
-							log.info("Api Exception", e);
-						}
-						
-						//Delete from inference Graph
-						
-						
-						if(sb.length() > 0)
-							sb.setLength(0);
-						
-						log.info("Deleting position - " + r.getSorId() + " from inference graph");
-						
-						sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-						sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-						sb.append("WITH <http://vitro.mannlib.cornell.edu/default/vitro-kb-inf> \n");
-						sb.append("DELETE { \n");
-						sb.append("<" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . \n");
-						sb.append("<" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:contributingRole <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . \n");
-						sb.append("} \n");
-						sb.append("WHERE { \n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . }\n");
-						sb.append("OPTIONAL { <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:contributingRole <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . }\n");
-						sb.append("}");
-						
-						log.info(sb.toString());
-						
-						try{
-							String response = this.vivoClient.vivoUpdateApi(sb.toString());
-							log.info(response);
-						} catch(Exception  e) {
-							log.info("Api Exception", e);
-						} 
-						
-						
+						RoleBean role = edRole.stream().filter(er-> er.getSorId().equals(r.getSorId())).findFirst().get();
+						log.info("Date does not match from ED : start - " + role.getStartDate() + " end - " + role.getEndDate() + " with VIVO : start - " + r.getStartDate() + " end - " + r.getEndDate());
+						dateRangeDiffs.add(getPositionIntervalDiff(r.getSorId(), role.getStartDate(), role.getEndDate(), strDate));
+					}
+					
+				}
+				else {
+					log.info("The position - " + r.getSorId() + " does not exist in ED anymore. Removing from VIVO");
+					
+					if(sb.length() > 0)
+						sb.setLength(0);
+					
+					log.info("Deleting position - " + r.getSorId() + " from wcmcOfa graph");
+					
+					sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
+					sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
+					sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
+					sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcOfa> \n");
+					sb.append("DELETE { \n");
+					sb.append("<" + this.vivoNamespace + "cwid-" + cwid + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId() + "> . \n");
+					sb.append("<" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . \n");
+					sb.append("<" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> . \n");
+					sb.append("<" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . \n");
+					sb.append("} \n");
+					sb.append("WHERE { \n");
+					sb.append("OPTIONAL { <" + this.vivoNamespace + "cwid-" + cwid + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId() + "> . }\n");
+					sb.append("OPTIONAL { <" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . }\n");
+					sb.append("OPTIONAL { <" + this.vivoNamespace + "position-" + r.getSorId().trim() + "> core:relates <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> . }\n");
+					sb.append("OPTIONAL { <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:relatedBy <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . }\n");
+					sb.append("}");
+					
+					log.info(sb.toString());
+					
+					try {
+						runUpdate(sb.toString());
+					} catch(Exception e) {
+						log.error("Unable to delete position - " + r.getSorId(), e);
+					}
+					//Delete from inference Graph
+					
+					
+					if(sb.length() > 0)
+						sb.setLength(0);
+					
+					log.info("Deleting position - " + r.getSorId() + " from inference graph");
+					
+					sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
+					sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
+					sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
+					sb.append("WITH <http://vitro.mannlib.cornell.edu/default/vitro-kb-inf> \n");
+					sb.append("DELETE { \n");
+					sb.append("<" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . \n");
+					sb.append("<" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:contributingRole <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . \n");
+					sb.append("} \n");
+					sb.append("WHERE { \n");
+					sb.append("OPTIONAL { <" + this.vivoNamespace + "position-" + r.getSorId() + "> ?p ?o . }\n");
+					sb.append("OPTIONAL { <" + this.vivoNamespace + "org-u" + r.getDeptCode() + "> core:contributingRole <" + this.vivoNamespace + "position-" + r.getSorId().trim() +"> . }\n");
+					sb.append("}");
+					
+					log.info(sb.toString());
+					
+					try {
+						runUpdate(sb.toString());
+					} catch(Exception e) {
+						log.error("Unable to delete position - " + r.getSorId() + " from inference graph", e);
 					}
-				/*}
-				catch(NoSuchElementException nse) {
-					log.info("The position does not exist in VIVO");
-				}*/
+					
+				}
+			}
+			
+			if(!dateRangeDiffs.isEmpty()) {
+				try {
+					Model current = constructCurrentState(EntityGraphDiff.getConstructQuery(dateRangeDiffs));
+					for(EntityGraphDiff diff: dateRangeDiffs) {
+						applyDiff(diff.compute(current));
+					}
+				} catch(Exception e) {
+					log.error("Unable to update the date ranges of the positions for cwid - " + cwid, e);
+				}
 			}
 		}
 			
@@ -2209,22 +1558,16 @@ public class AppointmentsFetchFromED {
 			sb.append("}}");
 			if(ingestType!=null && ingestType.equals(IngestType.VIVO_API.toString())) {
 				try{
-					String response = this.vivoClient.vivoQueryApi(sb.toString());
-					log.info(response);
-					JSONObject obj = new JSONObject(response);
-					JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-					count = bindings.getJSONObject(0).getJSONObject("positionCount").getInt("value");
+					count = this.vivoClient.vivoQueryApi(sb.toString(), row -> row.getLong("positionCount")).get(0).intValue();
 				} catch(Exception  e) {
 					log.info("Api Exception", e);
 				}
 			} else if(ingestType!=null && ingestType.equals(IngestType.SDB_DIRECT.toString())){
-				SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
-				ResultSet rs = runSparqlTemplate(sb.toString(), vivoJena);
-				QuerySolution qs = rs.nextSolution();
-				count = Integer.parseInt(qs.get("positionCount").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
-				//Close the connection
-				if(vivoJena!= null)
-					this.jcf.returnConnectionToPool(vivoJena, "dataSet");
+				try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+					ResultSet rs = runSparqlTemplate(sb.toString(), lease.getConnection());
+					QuerySolution qs = rs.nextSolution();
+					count = Integer.parseInt(qs.get("positionCount").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
+				}
 			} else {
 				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
 				ResultSet rs = vivoJena.executeSelectQuery(sb.toString(), true);
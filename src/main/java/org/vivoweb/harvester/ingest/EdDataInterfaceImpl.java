@@ -6,14 +6,13 @@ import java.util.List;
 
 import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSet;
-import org.json.JSONArray;
-import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.vivoweb.harvester.util.repo.SDBJenaConnect;
 
 import lombok.extern.slf4j.Slf4j;
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.mysql.jena.JenaConnectionLease;
 import reciter.connect.vivo.IngestType;
 import reciter.connect.vivo.api.client.VivoClient;
 
@@ -50,23 +49,16 @@ public class EdDataInterfaceImpl implements EdDataInterface {
 
 		if(ingestType!=null && ingestType.equals(IngestType.VIVO_API.toString())) {
 			try{
-				String response = vivoClient.vivoQueryApi(sparqlQuery);
-				log.info(response);
-				JSONObject obj = new JSONObject(response);
-				JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				if(bindings != null && !bindings.isEmpty()) {
-					for (int i = 0; i < bindings.length(); ++i) {
-						people.add(bindings.getJSONObject(i).getJSONObject("people").getString("value").replace(JenaConnectionFactory.nameSpace + "cwid-", ""));
-					}
-				} else {
+				people.addAll(vivoClient.vivoQueryApi(sparqlQuery, row -> row.isBound("people") ? row.getValue("people").replace(JenaConnectionFactory.nameSpace + "cwid-", "") : null));
+				if(people.isEmpty()) {
 					log.info("No result from the query");
 				}
 			} catch(Exception  e) {
 				log.info("Api Exception", e);
 			}
 		} else if(ingestType!=null && ingestType.equals(IngestType.SDB_DIRECT.toString())) {
-			SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
-			try {
+			try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+				SDBJenaConnect vivoJena = lease.getConnection();
 				ResultSet rs = vivoJena.executeSelectQuery(sparqlQuery, true);
 				while(rs.hasNext())
 				{
@@ -79,7 +71,6 @@ public class EdDataInterfaceImpl implements EdDataInterface {
 			} catch(IOException e) {
 				log.error("Error connecting to Jena database", e);
 			}
-			this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 		}
 		return people;
 	}
@@ -2,13 +2,12 @@ package org.vivoweb.harvester.ingest;
 
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -17,14 +16,16 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
-import org.json.JSONArray;
-import org.json.JSONObject;
 
-import org.apache.commons.lang.StringEscapeUtils;
+import com.google.common.collect.Lists;
+
 import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StopWatch;
 import org.vivoweb.harvester.util.repo.SDBJenaConnect;
@@ -32,11 +33,21 @@ import org.vivoweb.harvester.util.repo.TDBJenaConnect;
 
 import lombok.extern.slf4j.Slf4j;
 import reciter.connect.beans.vivo.GrantBean;
+import reciter.connect.database.mssql.DepartmentDictionary;
 import reciter.connect.database.mssql.MssqlConnectionFactory;
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.mysql.jena.JenaConnectionLease;
+import reciter.connect.database.sql.SqlQuery;
+import reciter.connect.database.sql.SqlQueryRepository;
+import reciter.connect.database.sql.SqlSession;
 import reciter.connect.database.tdb.TDBConnectionFactory;
 import reciter.connect.vivo.IngestType;
 import reciter.connect.vivo.api.client.VivoClient;
+import reciter.connect.vivo.api.client.VivoUpdateWriter;
+import reciter.connect.vivo.api.client.model.SparqlRow;
+import reciter.connect.vivo.sdb.VivoGraphs;
+import reciter.connect.vivo.sdb.query.EntityGraphDiff;
+import reciter.connect.vivo.sdb.query.SparqlLiteralEscaper;
 
 /**
  * @author Sarbajit Dutta (szd2013@med.cornell.edu)
@@ -58,11 +69,18 @@ public class GrantsFetchFromED {
 	private int updateCount = 0;
 	
 	/**
-	 * MySql connection factory object for all the mysql related connections
+	 * Mssql connection factory object for all the mssql related connections. Every query borrows its own pooled connection
 	 */
 	@Autowired
 	private MssqlConnectionFactory mcf;
 	
+	@Autowired
+	private SqlQueryRepository sqlQueries;
+	
+	private static final SqlQuery GRANTS_BY_CWID = new SqlQuery("infoed.grants.byCwid", getGrantsSelectQuery("v.cwid = ?"));
+	
+	private static final SqlQuery GRANTS_BY_ACCOUNT = new SqlQuery("infoed.grants.byAccount", getGrantsSelectQuery("v.Account_Number = ?"));
+	
 	/**
 	 * Jena connection factory object for all the apache jena sdb related connections
 	 */
@@ -74,15 +92,33 @@ public class GrantsFetchFromED {
 
 	@Autowired
 	private VivoClient vivoClient;
+	
+	@Autowired
+	private VivoUpdateWriter vivoUpdateWriter;
 
-	private Connection asmsCon = null;
-	private Connection infoEdCon = null;
+	@Autowired
+	private DepartmentDictionary departmentDictionary;
+
+	/**
+	 * Grants prefetched from coeus keyed by cwid
+	 */
+	private Map<String, List<GrantBean>> bulkGrants = new ConcurrentHashMap<String, List<GrantBean>>();
+	
+	@Value("${connect.grants.bulk.enabled}")
+	private boolean bulkEnabled;
+	
+	@Value("${connect.grants.bulk.chunk.size}")
+	private int bulkChunkSize;
 	
 	/**
 	 * The default namespace for VIVO
 	 */
 	private String vivoNamespace = TDBConnectionFactory.nameSpace;
 
+	private static final String CORE = "http://vivoweb.org/ontology/core#";
+
+	private static final String HARVESTED_BY = "<http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy>";
+
 	private String ingestType = System.getenv("INGEST_TYPE");
 	
 	
@@ -94,9 +130,7 @@ public class GrantsFetchFromED {
 	 */
 	private String strDate = this.sdf.format(this.now);
 
-	public Callable<String> getCallable(List<String> people, Connection asmsCon, Connection infoEdCon) {	
-		this.asmsCon = asmsCon;
-		this.infoEdCon = infoEdCon;
+	public Callable<String> getCallable(List<String> people) {	
         return new Callable<String>() {
             public String call() throws Exception {
                 return execute(people);
@@ -116,7 +150,9 @@ public class GrantsFetchFromED {
 				String cwid = it.next().trim();
 				log.info("#########################################################");
 				log.info("Trying to fetch grants for cwid - " + cwid);
-				grant = getGrantsFromCoeus(cwid, people);
+				grant = this.bulkGrants.remove(cwid);
+				if(grant == null)
+					grant = getGrantsFromCoeus(cwid, people);
 				if(grant.isEmpty())
 					log.info("There is no grants for cwid - " + cwid + " in Coeus");
 				checkGrantExistInVivo(grant,cwid);
@@ -166,11 +202,9 @@ public class GrantsFetchFromED {
 				log.info("Checking grant " + grants.get(i));
 				if(ingestType.equals(IngestType.VIVO_API.toString())) {
 					try {
-						String response = this.vivoClient.vivoQueryApi(sparqlQuery);
-						log.info(response);
-						JSONObject obj = new JSONObject(response);
-						JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-						int count = bindings.getJSONObject(0).getJSONObject("grant").getInt("value");
+						//A co-investigator may have queued the grant without it being sent yet
+						this.vivoUpdateWriter.awaitPending(this.vivoNamespace + "grant-" + grants.get(i).getAwardNumber().trim());
+						long count = this.vivoClient.vivoQueryApi(sparqlQuery, row -> row.getLong("grant")).get(0);
 						if(count > 0) {
 							log.info("Grant- " + grants.get(i).getAwardNumber() + " exists in VIVO");
 							//This is done to return the connection for coeus since it is being used again in the update function
@@ -185,22 +219,22 @@ public class GrantsFetchFromED {
 
 					}
 				} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-					SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
 					try {
-						ResultSet rs = vivoJena.executeSelectQuery(sparqlQuery, true);
-						
-						QuerySolution qs = rs.nextSolution();
-						
-						
-						int count = Integer.parseInt(qs.get("grant").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
+						int count;
+						//The connection goes back to the pool before the update and insert functions lease their own
+						try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+							ResultSet rs = lease.getConnection().executeSelectQuery(sparqlQuery, true);
+							
+							QuerySolution qs = rs.nextSolution();
+							
+							
+							count = Integer.parseInt(qs.get("grant").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
+						}
 						if(count > 0) {
 							log.info("Grant- " + grants.get(i).getAwardNumber() + " exists in VIVO");
-							this.jcf.returnConnectionToPool(vivoJena, "dataSet");
-							//This is done to return the connection for coeus since it is being used again in the update function
 							checkForUpdates(grants.get(i), cwid, "UPDATE");
 						}
 						else {
-							this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 							insertGrantsInVivo(grants.get(i),cwid,"INSERT");
 							this.insertCount = this.insertCount + 1;
 						}
@@ -239,486 +273,55 @@ public class GrantsFetchFromED {
 		/**
 		 * Check for updates function will check for updates in coeus against Vivo for grant end dates and 
 		 * contributors(for now we might want to expand that later)
+		 * The contributors and the date interval of the grant are fetched with a construct query and only the triples that differ are written.
 		 * @param gb is the grant bean with all the grant data
 		 */
 		private void checkForUpdates(GrantBean gb, String cwid, String crudStatus) {
+			String grant = this.vivoNamespace + "grant-" + gb.getAwardNumber().trim();
 			
-			List<String> contributors = new ArrayList<String>();
-			String dateTimeInterval = null;
-			boolean dateTimeIntervalFlag = false;
-			String beginDate = null;
-			String endDate = null;
-			DateFormat shortFormat = new SimpleDateFormat("yyyy-MM-dd",Locale.ENGLISH);
-			DateFormat mediumFormat = new SimpleDateFormat("dd-MMM-yy",Locale.ENGLISH);
-			DateFormat yearFormat = new SimpleDateFormat("yyyy",Locale.ENGLISH);
-			
-			//get contributor list & date interval for that grant from VIVO
-			StringBuilder sb = new StringBuilder();
-			sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-			sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-			sb.append("PREFIX foaf: <http://xmlns.com/foaf/0.1/> \n");
-			sb.append("select ?person ?dateTimeInterval \n");
-			sb.append("where { \n");
-			sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcCoeus> {\n");
-			sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates ?person . \n");
-			sb.append("?person rdf:type foaf:Person . \n");
-			sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:dateTimeInterval ?dateTimeInterval . \n");
-			sb.append("}}");
-			
-			log.info(sb.toString());
-			if(ingestType.equals(IngestType.VIVO_API.toString())) {
-				try{
-					String response = vivoClient.vivoQueryApi(sb.toString());
-					log.info(response);
-					JSONObject obj = new JSONObject(response);
-					JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-					if(bindings != null && !bindings.isEmpty()) {
-						for (int i = 0; i < bindings.length(); ++i) {
-							contributors.add(bindings.getJSONObject(i).getJSONObject("person").getString("value").replace(this.vivoNamespace + "cwid-", ""));
-						}
-						dateTimeInterval = bindings.getJSONObject(0).getJSONObject("dateTimeInterval").getString("value").replace(this.vivoNamespace + "dtinterval-", "").trim();
-					} else {
-						log.info("No result from the query");
-					}
-				} catch(Exception e) {
-					log.error("API Exception" ,e);
-				}	
-			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-				SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
-				try{
-					ResultSet rs = vivoJena.executeSelectQuery(sb.toString(), true);
-					while(rs.hasNext()) {
-						QuerySolution qs = rs.nextSolution();
-						contributors.add(qs.get("person").toString().replace(this.vivoNamespace + "cwid-", "").trim());
-						dateTimeInterval = qs.get("dateTimeInterval").toString().replace(this.vivoNamespace + "dtinterval-", "").trim();
-					}
-					
-				} catch(IOException e) {
-					log.error("IOException" ,e);
-				}
-				if(vivoJena!= null)
-					this.jcf.returnConnectionToPool(vivoJena, "dataSet");
-			} else {
-				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
-				try{
-					ResultSet rs = vivoJena.executeSelectQuery(sb.toString(), true);
-					while(rs.hasNext()) {
-						QuerySolution qs = rs.nextSolution();
-						contributors.add(qs.get("person").toString().replace(this.vivoNamespace + "cwid-", "").trim());
-						dateTimeInterval = qs.get("dateTimeInterval").toString().replace(this.vivoNamespace + "dtinterval-", "").trim();
-					}
-					
-				} catch(IOException e) {
-					log.error("IOException" ,e);
-				}
-				if(vivoJena!= null)
-					this.tcf.returnConnectionToPool(vivoJena, "dataSet");
+			EntityGraphDiff diff = new EntityGraphDiff(VivoGraphs.INFOED_GRAPH.getValue());
+			for(String contributor: gb.getContributors().keySet()) {
+				diff.ensure("<" + grant + ">", "core:relates", EntityGraphDiff.resource("<" + this.vivoNamespace + "cwid-" + contributor.trim() + ">"));
 			}
+			addGrantInterval(diff, gb);
 			
-			//Checking for new contributors
-			Map<String, String> newContributors = new HashMap<String, String>();
-			Iterator<Entry<String, String>> it = gb.getContributors().entrySet().iterator();
-			while(it.hasNext()) {
-				Entry<String, String> pair = it.next();
-				String contrib = pair.getKey();
-				String ctype = pair.getValue();
-				if(!contributors.contains(contrib))
-					newContributors.put(contrib,ctype);
-					
-			}
-			
-			if(newContributors.isEmpty())
-				log.info("No new contributors for grant-" + gb.getAwardNumber().trim());
-			
-			String[] dates = new String[2];
-				//Checking for new Date Time Interval
-			if(dateTimeInterval != null && dateTimeInterval.contains("to")) {
-				 dates = dateTimeInterval.split("to");
-				if(dates[1].trim().equals(gb.getEndDate().trim())) 
-					log.info("Grant Date Interval has not changed");
-				else
-					dateTimeIntervalFlag = true;
+			try {
+				Model current = constructCurrentState(diff.getConstructQuery());
 				
-				beginDate = dates[0].trim();
-				endDate = dates[1].trim();
-				try {
-					if(!beginDate.equals(""))
-						beginDate = shortFormat.format(mediumFormat.parse(beginDate));
-					if(!endDate.equals(""))
-						endDate = shortFormat.format(mediumFormat.parse(endDate));
-				} catch(ParseException e) {
-					log.error("ParseException", e);
+				//Checking for new contributors
+				Map<String, String> newContributors = new HashMap<String, String>();
+				for(Entry<String, String> pair: gb.getContributors().entrySet()) {
+					if(!current.contains(current.createResource(grant), current.createProperty(CORE + "relates"), current.createResource(this.vivoNamespace + "cwid-" + pair.getKey().trim())))
+						newContributors.put(pair.getKey(), pair.getValue());
 				}
-			}
-			
-			
-			sb.setLength(0);
-			//Make the updates to VIVO
-			if(!newContributors.isEmpty() || dateTimeIntervalFlag) {
-				log.info("Making updates for grant-" + gb.getAwardNumber());
-				sb.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-				sb.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-				sb.append("PREFIX vivo: <http://vivoweb.org/ontology/core#> \n");
-				sb.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-				sb.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
-				sb.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
-				sb.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
-				if(dateTimeIntervalFlag) {
-					sb.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcCoeus> \n");
-					sb.append("DELETE { \n");
-					sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + dates[0].trim() + "to" + dates[1].trim() + "> . \n");
-					//Start Date Section
-					if(!beginDate.equals("")) {
-						sb.append("<" + this.vivoNamespace + "date-" + beginDate.trim() + "> rdf:type core:DateTimeValue . \n");
-						sb.append("<" + this.vivoNamespace + "date-" + beginDate.trim() + "> core:dateTimePrecision core:yearMonthDayPrecision . \n");
-						sb.append("<" + this.vivoNamespace + "date-" + beginDate.trim() + "> core:dateTime \"" + beginDate.trim() + "T00:00:00\" . \n" );
-						sb.append("<" + this.vivoNamespace + "date-" + beginDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					}
-					//End Date Section
-					if(!endDate.equals("")) {
-						sb.append("<" + this.vivoNamespace + "date-" + endDate.trim() + "> rdf:type core:DateTimeValue . \n");
-						sb.append("<" + this.vivoNamespace + "date-" + endDate.trim() + "> core:dateTimePrecision core:yearMonthDayPrecision . \n");
-						sb.append("<" + this.vivoNamespace + "date-" + endDate.trim() + "> core:dateTime \"" + endDate.trim() + "T00:00:00\" . \n" );
-						sb.append("<" + this.vivoNamespace + "date-" + endDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-						sb.append("<" + this.vivoNamespace + "dtinterval-" + dates[0].trim() + "to" + dates[1].trim() + "> ?p ?o . \n");
-					}
-					sb.append("} \n");
-				}
-				if(!dateTimeIntervalFlag && !newContributors.isEmpty()){
-					sb.append("INSERT DATA { \n");
-				}
-				else
-					sb.append("INSERT { \n");
-				if(!newContributors.isEmpty()) {
-					if(!dateTimeIntervalFlag) {
-						sb.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcCoeus> { \n");
-					}
-					it = newContributors.entrySet().iterator();
-					while(it.hasNext()) {
-						Entry<String, String> pair = it.next();
-						String contributor = pair.getKey();
-						String ctype = pair.getValue();
-						
-						if(ctype.equals("PrincipalInvestigatorRole")) {
-							if(cwid.equals(contributor)) 
-								sb.append("<" + this.vivoNamespace + "cwid-" + cwid.trim() + "> obo:RO_0000053 <" + this.vivoNamespace + "role-pi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "role-pi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> rdf:type core:PrincipalInvestigatorRole . \n");
-							sb.append("<" + this.vivoNamespace + "role-pi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> obo:RO_0000052 <" + this.vivoNamespace + "cwid-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "role-pi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> vitro:mostSpecificType core:PrincipalInvestigatorRole . \n");
-							sb.append("<" + this.vivoNamespace + "role-pi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> core:relatedBy <" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> .\n");
-							sb.append("<" + this.vivoNamespace + "role-pi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates <" + this.vivoNamespace + "role-pi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> . \n");
-							beginDate = gb.getBeginDate().trim();
-							endDate = gb.getEndDate().trim();
-							try {
-								if(!beginDate.equals(""))
-									beginDate = yearFormat.format(mediumFormat.parse(beginDate));
-								if(!endDate.equals(""))
-									endDate = yearFormat.format(mediumFormat.parse(endDate));
-							} catch(ParseException e) {
-								log.error("ParseException", e);
-							}
-							//Date Time Interval
-							sb.append("<" + this.vivoNamespace + "role-pi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-role-pi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "dtinterval-role-pi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-							if(!gb.getBeginDate().equals(""))
-								sb.append("<" + this.vivoNamespace + "dtinterval-role-pi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-role" + beginDate.trim() + "> . \n");
-							
-							if(!gb.getEndDate().equals(""))
-								sb.append("<" + this.vivoNamespace + "dtinterval-role-pi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-role" + endDate.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "dtinterval-role-pi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							
-							//Start Date Section
-							if(!gb.getBeginDate().equals("")) {
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> rdf:type core:DateTimeValue . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> core:dateTime \"" + beginDate.trim() + "-01-01T00:00:00\" . \n" );
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							//End Date Section
-							if(!gb.getEndDate().equals("")) {
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> rdf:type core:DateTimeValue . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> core:dateTime \"" + endDate.trim() + "-01-01T00:00:00\" . \n" );
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-						}
-						else if(ctype.equals("KeyPersonnelRole")) {
-							if(cwid.equals(contributor))
-								sb.append("<" + this.vivoNamespace + "cwid-" + cwid.trim() + "> obo:RO_0000053 <" + this.vivoNamespace + "role-kp-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "role-kp-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> rdf:type wcmc:KeyPersonnelRole . \n");
-							sb.append("<" + this.vivoNamespace + "role-kp-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> obo:RO_0000052 <" + this.vivoNamespace + "cwid-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "role-kp-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> vitro:mostSpecificType wcmc:KeyPersonnelRole . \n");
-							sb.append("<" + this.vivoNamespace + "role-kp-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> core:relatedBy <" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> .\n");
-							sb.append("<" + this.vivoNamespace + "role-kp-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates <" + this.vivoNamespace + "role-kp-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> . \n");
-							beginDate = gb.getBeginDate().trim();
-							endDate = gb.getEndDate().trim();
-							try {
-								if(!beginDate.equals(""))
-									beginDate = yearFormat.format(mediumFormat.parse(beginDate));
-								if(!endDate.equals(""))
-									endDate = yearFormat.format(mediumFormat.parse(endDate));
-							} catch(ParseException e) {
-								log.error("ParseException", e);
-							}
-							//Date Time Interval
-							sb.append("<" + this.vivoNamespace + "role-kp-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-role-kp-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "dtinterval-role-kp-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-							if(!gb.getBeginDate().equals(""))
-								sb.append("<" + this.vivoNamespace + "dtinterval-role-kp-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-role" + beginDate.trim() + "> . \n");
-							
-							if(!gb.getEndDate().equals(""))
-								sb.append("<" + this.vivoNamespace + "dtinterval-role-kp-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-role" + endDate.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "dtinterval-role-kp-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							
-							//Start Date Section
-							if(!gb.getBeginDate().equals("")) {
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> rdf:type core:DateTimeValue . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> core:dateTime \"" + beginDate.trim() + "-01-01T00:00:00\" . \n" );
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							//End Date Section
-							if(!gb.getEndDate().equals("")) {
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> rdf:type core:DateTimeValue . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> core:dateTime \"" + endDate.trim() + "-01-01T00:00:00\" . \n" );
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-						}
-						else if(ctype.equals("PrincipalInvestigatorSubawardRole")) {
-							if(cwid.equals(contributor))
-								sb.append("<" + this.vivoNamespace + "cwid-" + cwid.trim() + "> obo:RO_0000053 <" + this.vivoNamespace + "role-pisa-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "role-pisa-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> rdf:type wcmc:PrincipalInvestigatorSubawardRole . \n");
-							sb.append("<" + this.vivoNamespace + "role-pisa-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> obo:RO_0000052 <" + this.vivoNamespace + "cwid-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "role-pisa-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> vitro:mostSpecificType wcmc:PrincipalInvestigatorSubawardRole . \n");
-							sb.append("<" + this.vivoNamespace + "role-pisa-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> core:relatedBy <" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> .\n");
-							sb.append("<" + this.vivoNamespace + "role-pisa-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates <" + this.vivoNamespace + "role-pisa-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> . \n");
-							beginDate = gb.getBeginDate().trim();
-							endDate = gb.getEndDate().trim();
-							try {
-								if(!beginDate.equals(""))
-									beginDate = yearFormat.format(mediumFormat.parse(beginDate));
-								if(!endDate.equals(""))
-									endDate = yearFormat.format(mediumFormat.parse(endDate));
-							} catch(ParseException e) {
-								log.error("ParseException", e);
-							}
-							//Date Time Interval
-							sb.append("<" + this.vivoNamespace + "role-pisa-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-role-pisa-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "dtinterval-role-pisa-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-							if(!gb.getBeginDate().equals(""))
-								sb.append("<" + this.vivoNamespace + "dtinterval-role-pisa-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-role" + beginDate.trim() + "> . \n");
-							
-							if(!gb.getEndDate().equals(""))
-								sb.append("<" + this.vivoNamespace + "dtinterval-role-pisa-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-role" + endDate.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "dtinterval-role-pisa-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							
-							//Start Date Section
-							if(!gb.getBeginDate().equals("")) {
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> rdf:type core:DateTimeValue . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> core:dateTime \"" + beginDate.trim() + "-01-01T00:00:00\" . \n" );
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							//End Date Section
-							if(!gb.getEndDate().equals("")) {
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> rdf:type core:DateTimeValue . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> core:dateTime \"" + endDate.trim() + "-01-01T00:00:00\" . \n" );
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-						}
-						else if(ctype.equals("CoPrincipalInvestigatorRole")) {
-							if(cwid.equals(contributor))
-								sb.append("<" + this.vivoNamespace + "cwid-" + cwid.trim() + "> obo:RO_0000053 <" + this.vivoNamespace + "role-copi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "role-copi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> rdf:type vivo:CoPrincipalInvestigatorRole . \n");
-							sb.append("<" + this.vivoNamespace + "role-copi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> obo:RO_0000052 <" + this.vivoNamespace + "cwid-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "role-copi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> vitro:mostSpecificType vivo:CoPrincipalInvestigatorRole . \n");
-							sb.append("<" + this.vivoNamespace + "role-copi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> core:relatedBy <" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> .\n");
-							sb.append("<" + this.vivoNamespace + "role-copi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates <" + this.vivoNamespace + "role-copi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> . \n");
-							beginDate = gb.getBeginDate().trim();
-							endDate = gb.getEndDate().trim();
-							try {
-								if(!beginDate.equals(""))
-									beginDate = yearFormat.format(mediumFormat.parse(beginDate));
-								if(!endDate.equals(""))
-									endDate = yearFormat.format(mediumFormat.parse(endDate));
-							} catch(ParseException e) {
-								log.error("ParseException", e);
-							}
-							//Date Time Interval
-							sb.append("<" + this.vivoNamespace + "role-copi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-role-copi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "dtinterval-role-copi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-							if(!gb.getBeginDate().equals(""))
-								sb.append("<" + this.vivoNamespace + "dtinterval-role-copi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-role" + beginDate.trim() + "> . \n");
-							
-							if(!gb.getEndDate().equals(""))
-								sb.append("<" + this.vivoNamespace + "dtinterval-role-copi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-role" + endDate.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "dtinterval-role-copi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							
-							//Start Date Section
-							if(!gb.getBeginDate().equals("")) {
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> rdf:type core:DateTimeValue . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> core:dateTime \"" + beginDate.trim() + "-01-01T00:00:00\" . \n" );
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							//End Date Section
-							if(!gb.getEndDate().equals("")) {
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> rdf:type core:DateTimeValue . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> core:dateTime \"" + endDate.trim() + "-01-01T00:00:00\" . \n" );
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-						}
-						else if(ctype.equals("CoInvestigatorRole")) {
-							if(cwid.equals(contributor))
-								sb.append("<" + this.vivoNamespace + "cwid-" + cwid.trim() + "> obo:RO_0000053 <" + this.vivoNamespace + "role-coi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "role-coi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> rdf:type wcmc:CoInvestigatorRole . \n");
-							sb.append("<" + this.vivoNamespace + "role-coi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> obo:RO_0000052 <" + this.vivoNamespace + "cwid-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "role-coi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> vitro:mostSpecificType wcmc:CoInvestigatorRole . \n");
-							sb.append("<" + this.vivoNamespace + "role-coi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> core:relatedBy <" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> .\n");
-							sb.append("<" + this.vivoNamespace + "role-coi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates <" + this.vivoNamespace + "cwid-" + contributor.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:relates <" + this.vivoNamespace + "role-coi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> . \n");
-							beginDate = gb.getBeginDate().trim();
-							endDate = gb.getEndDate().trim();
-							try {
-								if(!beginDate.equals(""))
-									beginDate = yearFormat.format(mediumFormat.parse(beginDate));
-								if(!endDate.equals(""))
-									endDate = yearFormat.format(mediumFormat.parse(endDate));
-							} catch(ParseException e) {
-								log.error("ParseException", e);
-							}
-							//Date Time Interval
-							sb.append("<" + this.vivoNamespace + "role-coi-" + gb.getAwardNumber().trim() + "-" + contributor.trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-role-coi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "dtinterval-role-coi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-							if(!gb.getBeginDate().equals(""))
-								sb.append("<" + this.vivoNamespace + "dtinterval-role-coi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-role" + beginDate.trim() + "> . \n");
-							
-							if(!gb.getEndDate().equals(""))
-								sb.append("<" + this.vivoNamespace + "dtinterval-role-coi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-role" + endDate.trim() + "> . \n");
-							sb.append("<" + this.vivoNamespace + "dtinterval-role-coi-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							
-							//Start Date Section
-							if(!gb.getBeginDate().equals("")) {
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> rdf:type core:DateTimeValue . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> core:dateTime \"" + beginDate.trim() + "-01-01T00:00:00\" . \n" );
-								sb.append("<" + this.vivoNamespace + "date-role" + beginDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-							//End Date Section
-							if(!gb.getEndDate().equals("")) {
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> rdf:type core:DateTimeValue . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> core:dateTimePrecision core:yearPrecision . \n");
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> core:dateTime \"" + endDate.trim() + "-01-01T00:00:00\" . \n" );
-								sb.append("<" + this.vivoNamespace + "date-role" + endDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-							}
-						}
+				
+				if(newContributors.isEmpty())
+					log.info("No new contributors for grant-" + gb.getAwardNumber().trim());
+				else {
+					for(Entry<String, String> pair: newContributors.entrySet()) {
+						addContributorRole(diff, gb, cwid, pair.getKey().trim(), pair.getValue());
 					}
-					if(!dateTimeIntervalFlag && !newContributors.isEmpty())
-						sb.append("} \n");
-					
+					//The roles of the new contributors are fetched as well before comparing
+					current = constructCurrentState(diff.getConstructQuery());
 				}
-				if(dateTimeIntervalFlag) {
+				diff.compute(current);
+				
+				//Make the updates to VIVO
+				if(!diff.isEmpty()) {
+					log.info("Making updates for grant-" + gb.getAwardNumber() + " with " + diff.getDeletes().size() + " triples deleted and " + diff.getInserts().size() + " triples inserted");
+					applyDiff(diff);
+					gb.setContributors(newContributors);
 					
-					String insertBeginDate = gb.getBeginDate().trim();
-					String insertEndDate = gb.getEndDate().trim();
-					try {
-						if(!insertBeginDate.equals(""))
-							insertBeginDate = shortFormat.format(mediumFormat.parse(insertBeginDate));
-						if(!insertEndDate.equals(""))
-							insertEndDate = shortFormat.format(mediumFormat.parse(insertEndDate));
-					} catch(ParseException e) {
-						log.error("ParseException", e);
-					}
+					if(!newContributors.isEmpty())
+						insertInferenceTriples(gb, crudStatus); 
 					
-					sb.append("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> . \n");
-					sb.append("<" + this.vivoNamespace + "dtinterval-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> rdf:type core:DateTimeInterval . \n");
-					if(!gb.getBeginDate().equals(""))
-						sb.append("<" + this.vivoNamespace + "dtinterval-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:start <" + this.vivoNamespace + "date-" + insertBeginDate.trim() + "> . \n");
-					if(!gb.getEndDate().equals(""))
-						sb.append("<" + this.vivoNamespace + "dtinterval-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> core:end <" + this.vivoNamespace + "date-" + insertEndDate.trim() + "> . \n");
-					sb.append("<" + this.vivoNamespace + "dtinterval-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					//Start Date Section
-					if(!gb.getBeginDate().equals("")) {
-						sb.append("<" + this.vivoNamespace + "date-" + insertBeginDate.trim() + "> rdf:type core:DateTimeValue . \n");
-						sb.append("<" + this.vivoNamespace + "date-" + insertBeginDate.trim() + "> core:dateTimePrecision core:yearMonthDayPrecision . \n");
-						sb.append("<" + this.vivoNamespace + "date-" + insertBeginDate.trim() + "> core:dateTime \"" + insertBeginDate.trim() + "T00:00:00\" . \n" );
-						sb.append("<" + this.vivoNamespace + "date-" + insertBeginDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					}
-					//End Date Section
-					if(!gb.getEndDate().equals("")) {
-						sb.append("<" + this.vivoNamespace + "date-" + insertEndDate.trim() + "> rdf:type core:DateTimeValue . \n");
-						sb.append("<" + this.vivoNamespace + "date-" + insertEndDate.trim() + "> core:dateTimePrecision core:yearMonthDayPrecision . \n");
-						sb.append("<" + this.vivoNamespace + "date-" + insertEndDate.trim() + "> core:dateTime \"" + insertEndDate.trim() + "T00:00:00\" . \n" );
-						sb.append("<" + this.vivoNamespace + "date-" + insertEndDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					}
+					this.updateCount = this.updateCount + 1;
 				}
-				sb.append("} \n");
-				if(dateTimeIntervalFlag) {
-					sb.append("WHERE { \n");
-					sb.append("OPTIONAL {<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + "> core:dateTimeInterval <" + this.vivoNamespace + "dtinterval-" + dates[0].trim() + "to" + dates[1].trim() + "> . \n");
-					
-					//Start Date Section
-					sb.append("<" + this.vivoNamespace + "date-" + beginDate.trim() + "> rdf:type core:DateTimeValue . \n");
-					sb.append("<" + this.vivoNamespace + "date-" + beginDate.trim() + "> core:dateTimePrecision core:yearMonthDayPrecision . \n");
-					sb.append("<" + this.vivoNamespace + "date-" + beginDate.trim() + "> core:dateTime \"" + beginDate.trim() + "T00:00:00\" . \n" );
-					sb.append("<" + this.vivoNamespace + "date-" + beginDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					//End Date Section
-					sb.append("<" + this.vivoNamespace + "date-" + endDate.trim() + "> rdf:type core:DateTimeValue . \n");
-					sb.append("<" + this.vivoNamespace + "date-" + endDate.trim() + "> core:dateTimePrecision core:yearMonthDayPrecision . \n");
-					sb.append("<" + this.vivoNamespace + "date-" + endDate.trim() + "> core:dateTime \"" + endDate.trim() + "T00:00:00\" . \n" );
-					sb.append("<" + this.vivoNamespace + "date-" + endDate.trim() + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"wcmc-harvester\" . \n");
-					sb.append("<" + this.vivoNamespace + "dtinterval-" + dates[0].trim() + "to" + dates[1].trim() + "> ?p ?o . \n");
-					sb.append("}}");
-				}
-				
-				//log.info(sb.toString());
-				if(ingestType.equals(IngestType.VIVO_API.toString())) {
-					try{
-						String response = this.vivoClient.vivoUpdateApi(sb.toString());
-						log.info(response);
-					} catch(Exception  e) {
-						log.info("Api Exception", e);
-					}
-				} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())) {
-					SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
-					try {
-						vivoJena.executeUpdateQuery(sb.toString(), true);
-					} catch(IOException e) {
-						log.error("Error connecting to Jena database", e);
-					}
-					if(vivoJena!= null)
-						this.jcf.returnConnectionToPool(vivoJena, "dataSet");
-				} else {
-					TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
-					try {
-						vivoJena.executeUpdateQuery(sb.toString(), true);
-					} catch(IOException e) {
-						log.error("Error connecting to Jena database", e);
-					}
-					if(vivoJena!= null)
-						this.tcf.returnConnectionToPool(vivoJena, "dataSet");
-				}
-				gb.setContributors(newContributors);
-				
-				if(!newContributors.isEmpty())
-					insertInferenceTriples(gb, crudStatus); 
-				
-				this.updateCount = this.updateCount + 1;
+				else
+					log.info("No updates are necessary for grant-" + gb.getAwardNumber());
+			} catch(Exception e) {
+				log.error("Unable to check grant-" + gb.getAwardNumber() + " for updates", e);
 			}
-			else
-				log.info("No updates are necessary for grant-" + gb.getAwardNumber());
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
 				checkForSponsorUpdateUsingTDB(gb);
 			} else {
@@ -726,6 +329,152 @@ public class GrantsFetchFromED {
 			}
 		}
 		
+		/**
+		 * The date time interval the grant should have. The interval and date values are keyed by the dates only and can be
+		 * shared by other grants, so the ones of an old interval are kept.
+		 */
+		private void addGrantInterval(EntityGraphDiff diff, GrantBean gb) {
+			String interval = "<" + this.vivoNamespace + "dtinterval-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + ">";
+			diff.set("<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + ">", "core:dateTimeInterval", EntityGraphDiff.resource(interval));
+			diff.ensure(interval, "rdf:type", EntityGraphDiff.resource("core:DateTimeInterval"));
+			//Start Date Section
+			if(!gb.getBeginDate().equals("")) {
+				String beginDate = formatDate(gb.getBeginDate().trim(), "yyyy-MM-dd");
+				diff.ensure(interval, "core:start", EntityGraphDiff.resource("<" + this.vivoNamespace + "date-" + beginDate + ">"));
+				addDateTimeValue(diff, "date-" + beginDate, "core:yearMonthDayPrecision", beginDate + "T00:00:00");
+			}
+			//End Date Section
+			if(!gb.getEndDate().equals("")) {
+				String endDate = formatDate(gb.getEndDate().trim(), "yyyy-MM-dd");
+				diff.ensure(interval, "core:end", EntityGraphDiff.resource("<" + this.vivoNamespace + "date-" + endDate + ">"));
+				addDateTimeValue(diff, "date-" + endDate, "core:yearMonthDayPrecision", endDate + "T00:00:00");
+			}
+			diff.ensure(interval, HARVESTED_BY, EntityGraphDiff.literal("wcmc-harvester"));
+		}
+		
+		/**
+		 * The role of a new contributor with its date time interval
+		 * @param ctype the role type from coeus, other types are skipped
+		 */
+		private void addContributorRole(EntityGraphDiff diff, GrantBean gb, String cwid, String contributor, String ctype) {
+			String roleName;
+			String roleType;
+			switch(ctype) {
+				case "PrincipalInvestigatorRole":
+					roleName = "pi";
+					roleType = "core:PrincipalInvestigatorRole";
+					break;
+				case "KeyPersonnelRole":
+					roleName = "kp";
+					roleType = "wcmc:KeyPersonnelRole";
+					break;
+				case "PrincipalInvestigatorSubawardRole":
+					roleName = "pisa";
+					roleType = "wcmc:PrincipalInvestigatorSubawardRole";
+					break;
+				case "CoPrincipalInvestigatorRole":
+					roleName = "copi";
+					roleType = "core:CoPrincipalInvestigatorRole";
+					break;
+				case "CoInvestigatorRole":
+					roleName = "coi";
+					roleType = "wcmc:CoInvestigatorRole";
+					break;
+				default:
+					return;
+			}
+			String grant = "<" + this.vivoNamespace + "grant-" + gb.getAwardNumber().trim() + ">";
+			String role = "<" + this.vivoNamespace + "role-" + roleName + "-" + gb.getAwardNumber().trim() + "-" + contributor + ">";
+			String person = "<" + this.vivoNamespace + "cwid-" + contributor + ">";
+			
+			if(cwid.equals(contributor))
+				diff.ensure("<" + this.vivoNamespace + "cwid-" + cwid.trim() + ">", "obo:RO_0000053", EntityGraphDiff.resource(role));
+			diff.ensure(role, "rdf:type", EntityGraphDiff.resource(roleType));
+			diff.ensure(role, "obo:RO_0000052", EntityGraphDiff.resource(person));
+			diff.ensure(role, "vitro:mostSpecificType", EntityGraphDiff.resource(roleType));
+			diff.ensure(role, "core:relatedBy", EntityGraphDiff.resource(grant));
+			diff.ensure(role, HARVESTED_BY, EntityGraphDiff.literal("wcmc-harvester"));
+			diff.ensure(grant, "core:relates", EntityGraphDiff.resource(person));
+			diff.ensure(grant, "core:relates", EntityGraphDiff.resource(role));
+			
+			//Date Time Interval
+			String interval = "<" + this.vivoNamespace + "dtinterval-role-" + roleName + "-" + gb.getBeginDate().trim() + "to" + gb.getEndDate().trim() + ">";
+			diff.ensure(role, "core:dateTimeInterval", EntityGraphDiff.resource(interval));
+			diff.ensure(interval, "rdf:type", EntityGraphDiff.resource("core:DateTimeInterval"));
+			//Start Date Section
+			if(!gb.getBeginDate().equals("")) {
+				String beginDate = formatDate(gb.getBeginDate().trim(), "yyyy");
+				diff.ensure(interval, "core:start", EntityGraphDiff.resource("<" + this.vivoNamespace + "date-role" + beginDate + ">"));
+				addDateTimeValue(diff, "date-role" + beginDate, "core:yearPrecision", beginDate + "-01-01T00:00:00");
+			}
+			//End Date Section
+			if(!gb.getEndDate().equals("")) {
+				String endDate = formatDate(gb.getEndDate().trim(), "yyyy");
+				diff.ensure(interval, "core:end", EntityGraphDiff.resource("<" + this.vivoNamespace + "date-role" + endDate + ">"));
+				addDateTimeValue(diff, "date-role" + endDate, "core:yearPrecision", endDate + "-01-01T00:00:00");
+			}
+			diff.ensure(interval, HARVESTED_BY, EntityGraphDiff.literal("wcmc-harvester"));
+		}
+		
+		private void addDateTimeValue(EntityGraphDiff diff, String localName, String precision, String dateTime) {
+			String date = "<" + this.vivoNamespace + localName + ">";
+			diff.ensure(date, "rdf:type", EntityGraphDiff.resource("core:DateTimeValue"));
+			diff.ensure(date, "core:dateTimePrecision", EntityGraphDiff.resource(precision));
+			diff.ensure(date, "core:dateTime", EntityGraphDiff.literal(dateTime));
+			diff.ensure(date, HARVESTED_BY, EntityGraphDiff.literal("wcmc-harvester"));
+		}
+		
+		/**
+		 * @param date a date from coeus like 01-JAN-20
+		 * @param pattern the format of the returned date
+		 * @return the formatted date or the date itself if it can not be parsed
+		 */
+		private String formatDate(String date, String pattern) {
+			try {
+				return new SimpleDateFormat(pattern, Locale.ENGLISH).format(new SimpleDateFormat("dd-MMM-yy", Locale.ENGLISH).parse(date));
+			} catch(ParseException e) {
+				log.error("ParseException", e);
+				return date;
+			}
+		}
+		
+		/**
+		 * Fetch the current triples of a grant from VIVO
+		 * @param sparqlQuery the construct query
+		 */
+		private Model constructCurrentState(String sparqlQuery) throws IOException {
+			if(ingestType.equals(IngestType.VIVO_API.toString())) {
+				return this.vivoClient.vivoConstructApi(sparqlQuery);
+			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())) {
+				try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+					return lease.getConnection().executeConstructQuery(sparqlQuery, true);
+				}
+			}
+			TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
+			try {
+				return vivoJena.executeConstructQuery(sparqlQuery, true);
+			} finally {
+				this.tcf.returnConnectionToPool(vivoJena, "dataSet");
+			}
+		}
+		
+		/**
+		 * Write the triples of a grant that changed
+		 */
+		private void applyDiff(EntityGraphDiff diff) throws IOException {
+			if(ingestType.equals(IngestType.VIVO_API.toString())) {
+				log.info(this.vivoClient.vivoUpdateApi(diff.toUpdate()));
+			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())) {
+				try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+					lease.getConnection().executeUpdateQuery(diff.toUpdate(), true);
+				}
+			} else {
+				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
+				vivoJena.executeUpdate(diff.toUpdateRequest(), true);
+				this.tcf.returnConnectionToPool(vivoJena, "dataSet");
+			}
+		}
+		
 		/**
 		 * This function is to sync Sponsor Code and Label
 		 * @param gb
@@ -859,16 +608,13 @@ public class GrantsFetchFromED {
 			//log.info(sb.toString());
 			
 			try{
-				String response = this.vivoClient.vivoQueryApi(sb.toString());
-				log.info(response);
-				JSONObject obj = new JSONObject(response);
-				JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				if(bindings != null && !bindings.isEmpty()) {
-					if(bindings.getJSONObject(0).optJSONObject("fundingOrganization") != null && bindings.getJSONObject(0).optJSONObject("fundingOrganization").has("value") &&
-					bindings.getJSONObject(0).optJSONObject("fundingOrganizationLabel") != null && bindings.getJSONObject(0).optJSONObject("fundingOrganizationLabel").has("value")) {
-						if(bindings.getJSONObject(0).getJSONObject("fundingOrganization").getString("value").contains(this.vivoNamespace + "org-f")) {
-							String fundingOrganizationCode = bindings.getJSONObject(0).getJSONObject("fundingOrganization").getString("value").replace(this.vivoNamespace + "org-f", "").trim();
-							String fundingOrganizationLabel = bindings.getJSONObject(0).getJSONObject("fundingOrganizationLabel").getString("value");
+				List<SparqlRow> rows = this.vivoClient.vivoQueryApi(sb.toString(), row -> row);
+				if(!rows.isEmpty()) {
+					String response;
+					if(rows.get(0).isBound("fundingOrganization") && rows.get(0).isBound("fundingOrganizationLabel")) {
+						if(rows.get(0).getValue("fundingOrganization").contains(this.vivoNamespace + "org-f")) {
+							String fundingOrganizationCode = rows.get(0).getValue("fundingOrganization").replace(this.vivoNamespace + "org-f", "").trim();
+							String fundingOrganizationLabel = rows.get(0).getValue("fundingOrganizationLabel");
 							//Update only label
 							if(fundingOrganizationCode.equalsIgnoreCase(gb.getSponsorCode())
 									&&
@@ -1140,15 +886,7 @@ public class GrantsFetchFromED {
 			//log.info(sb.toString());
 			
 			try{
-				String response = vivoClient.vivoQueryApi(sb.toString());
-				log.info(response);
-				JSONObject obj = new JSONObject(response);
-				JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				if(bindings != null && !bindings.isEmpty()) {
-					for (int i = 0; i < bindings.length(); ++i) {
-						vivoGrants.add(bindings.getJSONObject(i).getJSONObject("grant").getString("value").replace(this.vivoNamespace + "grant-", ""));
-					}
-				}
+				vivoGrants.addAll(vivoClient.vivoQueryApi(sb.toString(), row -> row.isBound("grant") ? row.getValue("grant").replace(this.vivoNamespace + "grant-", "") : null));
 			} catch(Exception e) {
 				log.error("API Exception" ,e);
 			}
@@ -1179,14 +917,8 @@ public class GrantsFetchFromED {
 					sb.append("}");
 					
 					try{
-						String response = vivoClient.vivoQueryApi(sb.toString());
-						log.info(response);
-						JSONObject obj = new JSONObject(response);
-						JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-						if(bindings != null && !bindings.isEmpty()) {
-							for (int i = 0; i < bindings.length(); ++i) {
-								roles.put(bindings.getJSONObject(i).getJSONObject("role").getString("value"), bindings.getJSONObject(i).getJSONObject("cwid").getString("value"));
-							}
+						for(SparqlRow row: vivoClient.vivoQueryApi(sb.toString(), row -> row)) {
+							roles.put(row.getValue("role"), row.getValue("cwid"));
 						}
 					} catch(Exception e) {
 						log.error("API Exception" ,e);
@@ -1819,18 +1551,10 @@ public class GrantsFetchFromED {
 			sb.append("}}");
 			//log.info(sb.toString());
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
-				try{
-					String response = this.vivoClient.vivoUpdateApi(sb.toString());
-					log.info(response);
-				} catch(Exception  e) {
-					log.info("Api Exception", e);
-				}
+				this.vivoUpdateWriter.submit(sb.toString(), "grant-" + gb.getAwardNumber() + " for cwid - " + cwid, this.vivoNamespace + "grant-" + gb.getAwardNumber().trim());
 			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())) {
-				try {
-					SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
-					vivoJena.executeUpdateQuery(sb.toString(), true);
-					if(vivoJena != null)
-						this.jcf.returnConnectionToPool(vivoJena, "dataSet");
+				try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+					lease.getConnection().executeUpdateQuery(sb.toString(), true);
 				} catch(IOException e) {
 					log.error("Error connecting to Jena database", e);
 				}
@@ -1944,21 +1668,15 @@ public class GrantsFetchFromED {
 			sb.append("}}");
 			
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
-				try {
-					log.info(this.vivoClient.vivoUpdateApi(sb.toString()));
-				} catch(Exception e) {
-					log.error("API Exception" ,e);
-				}
+				this.vivoUpdateWriter.submit(sb.toString(), "inference triples for grant-" + gb.getAwardNumber());
 			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-				SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
 				log.info("Inserting inference triples for grant-" + gb.getAwardNumber());
-				try {
-					vivoJena.executeUpdateQuery(sb.toString(), true);
+				try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+					lease.getConnection().executeUpdateQuery(sb.toString(), true);
 					
 				} catch(IOException e) {
 					log.error("IOException" ,e);
 				}
-				this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 			} else {
 				TDBJenaConnect vivoJena = this.tcf.getConnectionfromPool("dataSet");
 				log.info("Inserting inference triples for grant-" + gb.getAwardNumber());
@@ -1973,118 +1691,136 @@ public class GrantsFetchFromED {
 		}
 		
 		
+		/**
+		 * This function gets the grants and their contributors from coeus for all the people in one pass and keeps them grouped by cwid.
+		 * The cwids are bound in chunks of a fixed size so SQL Server compiles the query only once. Like the query per cwid the
+		 * contributors of a grant only hold the cwid being ingested, every grant gets its own map since execute runs per cwid.
+		 * execute uses the prefetched grants and falls back to the query per cwid for cwids that were not prefetched.
+		 * @param people list of active cwids
+		 */
+		public void prefetchGrants(List<String> people) {
+			if(!this.bulkEnabled) {
+				return;
+			}
+			StopWatch stopWatch = new StopWatch("Grants bulk fetch from coeus");
+			stopWatch.start("Grants bulk fetch from coeus");
+			List<String> cwids = people.stream().map(String::trim).distinct().collect(Collectors.toList());
+			Map<String, List<GrantBean>> grantsByCwid = new HashMap<String, List<GrantBean>>();
+			SqlQuery grantsByCwids = new SqlQuery("infoed.grants.byCwids",
+				getGrantsSelectQuery("v.cwid IN (" + String.join(",", Collections.nCopies(this.bulkChunkSize, "?")) + ")"), this.bulkChunkSize);
+			try(Connection con = this.mcf.getInfoEdConnection(); SqlSession session = this.sqlQueries.session(con)) {
+				for(List<String> chunk: Lists.partition(cwids, this.bulkChunkSize)) {
+					session.query(grantsByCwids, ps -> {
+						for(int i = 0; i < this.bulkChunkSize; i++) {
+							//The last chunk repeats its last cwid so every execution has the same shape
+							ps.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+						}
+					}, rs -> {
+						if(rs.getString(1) == null || rs.getString(2) == null)
+							return;
+						String cwid = rs.getString(1).trim();
+						GrantBean gb = getGrant(rs);
+						Map<String, String> contributors = new HashMap<String, String>();
+						if(rs.getString(13) != null)
+							contributors.put(cwid, rs.getString(13));
+						gb.setContributors(contributors);
+						grantsByCwid.computeIfAbsent(cwid, k -> new ArrayList<GrantBean>()).add(gb);
+					});
+				}
+			}
+			catch(SQLException e) {
+				//Grants of every cwid fall back to the query per cwid
+				log.error("SQLException" , e);
+				return;
+			}
+			for(String cwid: cwids) {
+				this.bulkGrants.put(cwid, grantsByCwid.getOrDefault(cwid, new ArrayList<GrantBean>()));
+			}
+			stopWatch.stop();
+			log.info("Grants bulk fetch from coeus for " + cwids.size() + " people took " + stopWatch.getTotalTimeSeconds() + "s");
+		}
+		
 		/**
 		 * This function gets all the grants for coeus for a cwid supplied
 		 * @param cwid unique identifier for faculty
 		 * @return list of grants
 		 */
 		private List<GrantBean> getGrantsFromCoeus(String cwid, List<String> people) {
-			PreparedStatement ps = null;
-			java.sql.ResultSet rs = null;
 			List<GrantBean> grant = new ArrayList<GrantBean>();
-			try {
-			StringBuilder selectQuery = new StringBuilder();
-
-                        selectQuery.append("SELECT DISTINCT v.CWID, v.Account_Number, x.Award_Number, REPLACE(CONVERT(NVARCHAR, begin_date, 106), ' ', '-') AS begin_date, REPLACE(CONVERT(NVARCHAR, end_date, 106), ' ', '-') AS end_date, replace(replace(z.proj_title, char(13), ' '), char(10), ' ') AS proj_title, z.unit_name, z.int_unit_code, z.program_type, z.Orig_Sponsor, case when z.Sponsor = z.Orig_Sponsor then null when z.Sponsor != z.Orig_Sponsor then z.Sponsor end as Subward_Sponsor, z.spon_code, coalesce(r1.ROLE, r2.ROLE, r3.ROLE, r4.ROLE, r5.ROLE) as ROLE FROM vivo v \n"); 
-                        selectQuery.append("LEFT JOIN (SELECT DISTINCT CWID, Account_Number, 'PrincipalInvestigatorRole' AS ROLE FROM vivo WHERE cwid IS NOT NULL AND Confidential <> 'Y' AND unit_name IS NOT NULL AND program_type <> 'Contract without funding' AND Project_Period_Start IS NOT NULL AND Project_Period_End IS NOT NULL AND Sponsor = Orig_Sponsor AND Primary_PI_Flag = 'Y' ) r1 on r1.cwid = v.cwid AND r1.Account_Number = v.Account_Number \n"); 
-                        selectQuery.append("LEFT JOIN (SELECT DISTINCT CWID, Account_Number, 'PrincipalInvestigatorSubawardRole' AS ROLE FROM vivo WHERE cwid IS NOT NULL AND Confidential <> 'Y' AND unit_name IS NOT NULL AND program_type <> 'Contract without funding' AND Project_Period_Start IS NOT NULL AND Project_Period_End IS NOT NULL AND Sponsor != Orig_Sponsor AND Primary_PI_Flag = 'Y' ) r2 on r2.cwid = v.cwid AND r2.Account_Number = v.Account_Number \n"); 
-                        selectQuery.append("LEFT JOIN (SELECT DISTINCT CWID, Account_Number, 'CoPrincipalInvestigatorRole' AS ROLE FROM vivo WHERE cwid IS NOT NULL AND Confidential <> 'Y' AND unit_name IS NOT NULL AND program_type <> 'Contract without funding' AND Project_Period_Start IS NOT NULL AND Project_Period_End IS NOT NULL AND Role_Category like '%PI%' ) r3 on r3.cwid = v.cwid AND r3.Account_Number = v.Account_Number \n"); 
-                        selectQuery.append("LEFT JOIN (SELECT DISTINCT CWID, Account_Number, 'CoInvestigatorRole' AS ROLE FROM vivo WHERE Confidential <> 'Y' AND unit_name IS NOT NULL AND program_type <> 'Contract without funding' AND Project_Period_Start IS NOT NULL AND Project_Period_End IS NOT NULL AND Role_Category = 'Co-investigator' ) r4 on r4.cwid = v.cwid AND r4.Account_Number = v.Account_Number  \n"); 
-                        selectQuery.append("LEFT JOIN (SELECT DISTINCT CWID, Account_Number, 'KeyPersonnelRole' AS ROLE FROM vivo WHERE Confidential <> 'Y' AND unit_name IS NOT NULL AND program_type <> 'Contract without funding' AND Project_Period_Start IS NOT NULL AND Project_Period_End IS NOT NULL ) r5 on r5.cwid = v.cwid AND r5.Account_Number = v.Account_Number  \n"); 
-                        selectQuery.append("LEFT JOIN (SELECT DISTINCT CWID, Account_Number, max(Award_Number) AS Award_Number FROM vivo WHERE program_type <> 'Contract without funding' AND Project_Period_Start IS NOT NULL AND Project_Period_End IS NOT NULL GROUP BY cwid, Account_Number) x ON x.cwid = v.cwid AND x.Account_Number = v.Account_Number  \n"); 
-                        selectQuery.append("LEFT JOIN (SELECT DISTINCT CWID, Account_Number, min(Project_Period_Start) AS begin_date FROM vivo WHERE program_type <> 'Contract without funding' AND Project_Period_Start IS NOT NULL AND Project_Period_End IS NOT NULL GROUP BY cwid, Account_Number) y ON y.cwid = v.cwid AND y.Account_Number = v.Account_Number  \n"); 
-                        selectQuery.append("LEFT JOIN (SELECT DISTINCT CWID, Account_Number, max(Project_Period_End) AS end_date, max(Sponsor) AS Sponsor, max(Orig_Sponsor) AS Orig_Sponsor, max(spon_code) AS spon_code, max(proj_title) AS proj_title, min(program_type) AS program_type, min(unit_name) AS unit_name, min(int_unit_code) AS int_unit_code FROM vivo GROUP BY cwid, Account_Number) z ON z.cwid = v.cwid AND z.Account_Number = v.Account_Number \n"); 
-                        selectQuery.append("WHERE v.CWID IS NOT NULL AND Confidential <> 'Y' AND v.unit_name IS NOT NULL AND v.program_type <> 'Contract without funding' AND Project_Period_Start IS NOT NULL AND Project_Period_End IS NOT NULL AND (r1.CWID is not null OR r2.CWID is not null OR r3.CWID is not null OR r4.CWID is not null OR r5.CWID is not null)  \n"); 
-                        selectQuery.append("AND v.cwid= '" + cwid + "'  \n"); 
-                        selectQuery.append("ORDER BY v.CWID, v.Account_Number");
-				
-           					selectQuery = new StringBuilder(selectQuery.toString().trim().replaceAll("\\s+", " "));
-				
-			//log.info(selectQuery.toString());
-			
-				ps = this.infoEdCon.prepareStatement(selectQuery.toString());
-				rs = ps.executeQuery();
-				while(rs.next()) {
-					GrantBean gb = new GrantBean();
-					
-					if(rs.getString(2) != null)
-						gb.setAwardNumber(rs.getString(2).trim());
-					
-					if(rs.getString(3) != null) {
-						gb.setSponsorAwardNumber(rs.getString(3));
-					}
-						
-					if(rs.getString(6) != null)
-						gb.setTitle(StringEscapeUtils.escapeJava(rs.getString(6)).replace("'", "''").trim());
+			try(Connection con = this.mcf.getInfoEdConnection(); SqlSession session = this.sqlQueries.session(con)) {
+				session.query(GRANTS_BY_CWID, ps -> ps.setString(1, cwid), rs -> {
+					GrantBean gb = getGrant(rs);
 					
-					if(rs.getString(4) != null)
-						gb.setBeginDate(rs.getString(4));
-					else
-						gb.setBeginDate("");
-					
-					if(rs.getString(5) != null)
-						gb.setEndDate(rs.getString(5));
-					else
-						gb.setEndDate("");
-					
-					if(rs.getString(7) != null)  {
-						String unitCode = null;
-						if(rs.getString(8) != null) {
-							unitCode = rs.getString(8).trim();
-						}
-						gb.setDepartment(getDepartmentCode(rs.getString(7).trim(),unitCode, gb));
-						gb.setDepartmentName(rs.getString(7).trim());
-					}
-					
-					
-					if(rs.getString(10) != null)
-						gb.setSponsorName(StringEscapeUtils.escapeJava(rs.getString(10)).replace("'", "''").trim());
-					
-					if(rs.getString(12) != null)
-						gb.setSponsorCode(rs.getString(12).trim());
-					
-					gb.setContributors(getContributors(gb, gb.getAwardNumber(), infoEdCon, people));
+					gb.setContributors(getContributors(gb, gb.getAwardNumber(), session, people));
 					
 
 					grant.add(gb);
 					
 					log.info("Grant - " + gb.toString());
-					
-					
-				}
+				});
 			}
 			catch(SQLException e) {
 				log.error("SQLException" , e);
 			}
 			
-			finally {
-				try{
-					if(ps!=null)
-						ps.close();
-					if(rs!=null)
-						rs.close();
-				}
-				catch(Exception e) {
-					log.error("Exception",e);
-				}
+			
+			
+			return grant;
+		}
+		
+		/**
+		 * This function builds the grant from a row of the grants query. Contributors are not set.
+		 * @param rs the result set positioned at the row
+		 * @return the grant bean
+		 */
+		private GrantBean getGrant(java.sql.ResultSet rs) throws SQLException {
+			GrantBean gb = new GrantBean();
+			
+			if(rs.getString(2) != null)
+				gb.setAwardNumber(rs.getString(2).trim());
+			
+			if(rs.getString(3) != null) {
+				gb.setSponsorAwardNumber(rs.getString(3));
+			}
 				
+			if(rs.getString(6) != null)
+				gb.setTitle(SparqlLiteralEscaper.escape(rs.getString(6)).replace("'", "''").trim());
+			
+			if(rs.getString(4) != null)
+				gb.setBeginDate(rs.getString(4));
+			else
+				gb.setBeginDate("");
+			
+			if(rs.getString(5) != null)
+				gb.setEndDate(rs.getString(5));
+			else
+				gb.setEndDate("");
+			
+			if(rs.getString(7) != null)  {
+				String unitCode = null;
+				if(rs.getString(8) != null) {
+					unitCode = rs.getString(8).trim();
+				}
+				gb.setDepartment(getDepartmentCode(rs.getString(7).trim(),unitCode, gb));
+				gb.setDepartmentName(rs.getString(7).trim());
 			}
 			
 			
+			if(rs.getString(10) != null)
+				gb.setSponsorName(SparqlLiteralEscaper.escape(rs.getString(10)).replace("'", "''").trim());
 			
-			return grant;
+			if(rs.getString(12) != null)
+				gb.setSponsorCode(rs.getString(12).trim());
+			
+			return gb;
 		}
 		
 		/**
-		 * This function gets the list of contributors for a grant
-		 * @param gb the grant information for a single grant in bean
-		 * @param cwid unique identifier for faculty
-		 * @return a map of contributors having cwid and contributor type
+		 * This function builds the grants query against the InfoEd vivo view
+		 * @param filter the additional condition on the grant rows with the values as parameters
+		 * @return the select query
 		 */
-		private Map<String, String> getContributors(GrantBean gb, String accountNumber, Connection con, List<String> people) {
-			Map<String, String> contributors = new HashMap<String, String>();
-			String contributor = null;
-			
+		private static String getGrantsSelectQuery(String filter) {
 			StringBuilder selectQuery = new StringBuilder();
 
                         selectQuery.append("SELECT DISTINCT v.CWID, v.Account_Number, x.Award_Number, REPLACE(CONVERT(NVARCHAR, begin_date, 106), ' ', '-') AS begin_date, REPLACE(CONVERT(NVARCHAR, end_date, 106), ' ', '-') AS end_date, replace(replace(z.proj_title, char(13), ' '), char(10), ' ') AS proj_title, z.unit_name, z.int_unit_code, z.program_type, z.Orig_Sponsor, case when z.Sponsor = z.Orig_Sponsor then null when z.Sponsor != z.Orig_Sponsor then z.Sponsor end as Subward_Sponsor, z.spon_code, coalesce(r1.ROLE, r2.ROLE, r3.ROLE, r4.ROLE, r5.ROLE) as ROLE FROM vivo v \n"); 
@@ -2097,43 +1833,33 @@ public class GrantsFetchFromED {
                         selectQuery.append("LEFT JOIN (SELECT DISTINCT CWID, Account_Number, min(Project_Period_Start) AS begin_date FROM vivo WHERE program_type <> 'Contract without funding' AND Project_Period_Start IS NOT NULL AND Project_Period_End IS NOT NULL GROUP BY cwid, Account_Number) y ON y.cwid = v.cwid AND y.Account_Number = v.Account_Number  \n"); 
                         selectQuery.append("LEFT JOIN (SELECT DISTINCT CWID, Account_Number, max(Project_Period_End) AS end_date, max(Sponsor) AS Sponsor, max(Orig_Sponsor) AS Orig_Sponsor, max(spon_code) AS spon_code, max(proj_title) AS proj_title, min(program_type) AS program_type, min(unit_name) AS unit_name, min(int_unit_code) AS int_unit_code FROM vivo GROUP BY cwid, Account_Number) z ON z.cwid = v.cwid AND z.Account_Number = v.Account_Number \n"); 
                         selectQuery.append("WHERE v.CWID IS NOT NULL AND Confidential <> 'Y' AND v.unit_name IS NOT NULL AND v.program_type <> 'Contract without funding' AND Project_Period_Start IS NOT NULL AND Project_Period_End IS NOT NULL AND (r1.CWID is not null OR r2.CWID is not null OR r3.CWID is not null OR r4.CWID is not null OR r5.CWID is not null)  \n"); 
-                        selectQuery.append("AND v.Account_Number= '" + accountNumber + "'  \n"); 
+                        selectQuery.append("AND " + filter + "  \n"); 
                         selectQuery.append("ORDER BY v.CWID, v.Account_Number");
-
-           					selectQuery = new StringBuilder(selectQuery.toString().trim().replaceAll("\\s+", " "));
+				
+			return selectQuery.toString().trim().replaceAll("\\s+", " ");
+		}
+		
+		/**
+		 * This function gets the list of contributors for a grant
+		 * @param gb the grant information for a single grant in bean
+		 * @param cwid unique identifier for faculty
+		 * @return a map of contributors having cwid and contributor type
+		 */
+		private Map<String, String> getContributors(GrantBean gb, String accountNumber, SqlSession session, List<String> people) {
+			Map<String, String> contributors = new HashMap<String, String>();
 									
-			//log.info(selectQuery.toString());
-			PreparedStatement ps = null;
-			java.sql.ResultSet rs = null;
 			try {
-					ps = con.prepareStatement(selectQuery.toString());
-					rs = ps.executeQuery();
-					while(rs.next()) {
-						if(rs.getString(1) != null)
-							contributor = rs.getString(1).trim();
-						
-						if(contributor != null && people.contains(contributor.trim())){
-							if(rs.getString(13) != null)
+					session.query(GRANTS_BY_ACCOUNT, ps -> ps.setString(1, accountNumber), rs -> {
+						if(rs.getString(1) != null) {
+							String contributor = rs.getString(1).trim();
+							if(people.contains(contributor) && rs.getString(13) != null)
 								contributors.put(contributor, rs.getString(13));
 						}
-						
-					}
+					});
 				}
 			catch(SQLException e) {
 				log.error("SQLException" , e);
 			}
-			finally {
-				try{
-					if(ps!=null)
-						ps.close();
-					if(rs!=null)
-						rs.close();
-				}
-				catch(Exception e) {
-					log.error("Exception",e);
-				}
-				
-			}
 			log.info("List of contributors for grant-" + gb.getAwardNumber());
 			Iterator<Entry<String, String>> it = contributors.entrySet().iterator();
 			while(it.hasNext()) {
@@ -2152,45 +1878,14 @@ public class GrantsFetchFromED {
 		 * @return the deptID
 		 */
 		private String getDepartmentCode(String deptName, String unitCode, GrantBean gb) {
-			String deptId = null;
-			java.sql.ResultSet rs = null;
-			Statement st = null;
-			try {
-				if(deptName.trim().equals("Otolaryngology - Head and Neck Surgery")) {
-					deptName ="Otorlaryngology - Head and Neck Surgery";
-				}
-				
-				if(deptName.trim().equals("Otolaryngology")) {
-					deptName ="Otorlaryngology - Head and Neck Surgery";
-				}
-						
-				String selectQuery = "SELECT DISTINCT id FROM wcmc_department where TRIM(title) = '" + deptName.replaceAll("'", "''").trim() + "'";
-				st = this.asmsCon.createStatement();
-				rs = st.executeQuery(selectQuery);
-				if(rs!=null) { 
-					if(rs.next()){
-						deptId = rs.getString(1).trim();
-					} else {
-						deptId = unitCode;
-						gb.setUnitCodeMissing(true);
-					}
-				}
-					
-				}
-				catch(SQLException sqle) {
-					log.error("Exception:", sqle);
-				}
-				finally {
-					try {
-						if(rs != null)
-							rs.close();
-						if(st != null)
-							st.close();
-							
-					} catch(SQLException e) {
-						log.error("Error in closing connections:", e);
-					}
-				}
+			if(deptName.trim().equals("Otolaryngology - Head and Neck Surgery") || deptName.trim().equals("Otolaryngology")) {
+				deptName ="Otorlaryngology - Head and Neck Surgery";
+			}
+			String deptId = this.departmentDictionary.getDepartmentId(deptName);
+			if(deptId == null) {
+				deptId = unitCode;
+				gb.setUnitCodeMissing(true);
+			}
 				
 			return deptId;
 					
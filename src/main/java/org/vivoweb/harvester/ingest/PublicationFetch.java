@@ -10,7 +10,6 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
@@ -45,6 +44,11 @@ import org.apache.jena.query.ResultSet;
 import reciter.connect.beans.vivo.*;
 import reciter.connect.database.mysql.MysqlConnectionFactory;
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.mysql.jena.JenaConnectionLease;
+import reciter.connect.database.sql.SqlQuery;
+import reciter.connect.database.sql.SqlQueryRepository;
+import reciter.connect.database.sql.SqlSession;
+import reciter.connect.vivo.sdb.query.SparqlLiteralEscaper;
 
 /**
  * @author szd2013
@@ -57,6 +61,43 @@ public class PublicationFetch {
 	 */
 	private Connection con = null;
 	
+	/**
+	 * <i>Named queries to PubAdmin run on the global connection</i>
+	 */
+	private SqlSession session = null;
+	
+	/**
+	 * <i>Repository of the named queries keeping their timings</i>
+	 */
+	@Autowired
+	private SqlQueryRepository sqlQueries;
+	
+	private static final SqlQuery PUBLICATIONS_BY_CWID = new SqlQuery("pubadmin.publications.byCwid", "SELECT distinct wcmc_document_pk, scopus_doc_id, pmid, pmcid, doi, publication_name, cover_date, pages, volume, issue, citation_count, issn, eissn, \n" +
+		"nlmabbreviation, abstract, mesh_major, language, funding, pubtype, isbn10, isbn13, title, pubmed_xml_content, \n" +
+		"case when issn is not null and eissn is not null then 1 \n" +
+		"when issn is not null and eissn is null then 2 \n" +
+		"when issn is null and eissn is not null then 3 \n" +
+		"when issn is null and eissn is null then 4 \n" +
+		"end as journal_order \n" +
+		"FROM wcmc_authorship INNER JOIN wcmc_document_authorship ON wcmc_authorship_fk = wcmc_authorship_pk INNER JOIN wcmc_document ON wcmc_document_fk = wcmc_document_pk \n" +
+		"WHERE (wcmc_document.pubtype not like '%Retract%' or wcmc_document.pubtype not like '%rratum%' or wcmc_document.pubtype is not null) and (wcmc_document.duplicate = 'N' or wcmc_document.duplicate is null or (wcmc_document.duplicate = 'Y' and wcmc_document.duplicate_override ='Y')) "
+		+ "and wcmc_authorship.cwid = ? order by journal_order ASC , wcmc_document.pubtype ASC");
+
+	private static final SqlQuery AUTHORS_BY_DOCUMENT = new SqlQuery("pubadmin.authors.byDocument", "SELECT cwid, authname, surname, given_name, initials, scopus_author_id, wcmc_authorship_rank, wcmc_authorship.wcmc_authorship_pk \n" +
+		"FROM wcmc_authorship \n" + 
+		"INNER JOIN wcmc_document_authorship ON wcmc_authorship_fk = wcmc_authorship_pk \n" +
+		"INNER JOIN wcmc_document ON wcmc_document_fk = wcmc_document_pk \n" + 
+		"WHERE wcmc_document.wcmc_document_pk = ? \n" +
+		"AND wcmc_document_authorship.ignore_flag is null \n" +
+		"GROUP BY cwid, authname, surname, given_name, initials, scopus_author_id \n" +
+		"ORDER BY wcmc_document_authorship.wcmc_authorship_rank");
+	
+	private static final SqlQuery PUBADMIN_INSERTED = new SqlQuery("pubadmin.document.inserted", "update wcmc_document set vivo_ingest_date=NOW(), exists_in_vivo = 'Y' where wcmc_document_pk = ?");
+	
+	private static final SqlQuery PUBADMIN_UPDATED = new SqlQuery("pubadmin.document.updated", "update wcmc_document set vivo_ingest_date_history=NOW(), exists_in_vivo = 'Y' where wcmc_document_pk = ?");
+	
+	private static final SqlQuery PUBADMIN_CITATION_COUNT = new SqlQuery("pubadmin.document.citationCount", "update wcmc_document set citation_count = ?, citation_count_date=NOW() where wcmc_document_pk = ?");
+	
 	/**
 	 * <i> Connection factory object to get connections to PubAdmin </i>
 	 */
@@ -145,11 +186,6 @@ public class PublicationFetch {
 	 */
 	public List<PublicationAuthorshipMaintenanceBean> vivoAuthorships = new ArrayList<PublicationAuthorshipMaintenanceBean>();
 	
-	/**
-	 * The global SDBJenaConnect reference for all Jena related connection
-	 */
-	public SDBJenaConnect vivoJena = null;
-	
 	private Map<String, String> journalIdMap = new HashMap<String,String>();
 	
 	private Set<String> meshMajor = new HashSet<String>();
@@ -205,6 +241,7 @@ public class PublicationFetch {
 		}
 		else {
 			this.con = this.mcf.getConnectionfromPool();
+			this.session = this.sqlQueries.session(this.con);
 			this.activePeople = edi.getPeopleInVivo();
 			PublicationBean pb = new PublicationBean();
 			Set<AuthorBean> authors = new HashSet<AuthorBean>();
@@ -225,6 +262,7 @@ public class PublicationFetch {
 			
 			
 			//Destory Mysql connection pool
+			this.session.close();
 			if(this.con!=null) {
 				this.mcf.returnConnectionToPool(this.con);
 			}
@@ -240,23 +278,9 @@ public class PublicationFetch {
 	private void fetchPublications(String cwid, PublicationBean pb, Set<AuthorBean> authors) {
 		
 		log.info("***********************Workflow Start for a Publication**********************");
-		String selectQuery = "SELECT distinct wcmc_document_pk, scopus_doc_id, pmid, pmcid, doi, publication_name, cover_date, pages, volume, issue, citation_count, issn, eissn, \n" +
-							 "nlmabbreviation, abstract, mesh_major, language, funding, pubtype, isbn10, isbn13, title, pubmed_xml_content, \n" +
-							 "case when issn is not null and eissn is not null then 1 \n" +
-							 "when issn is not null and eissn is null then 2 \n" +
-							 "when issn is null and eissn is not null then 3 \n" +
-							 "when issn is null and eissn is null then 4 \n" +
-							 "end as journal_order \n" +
-							 "FROM wcmc_authorship INNER JOIN wcmc_document_authorship ON wcmc_authorship_fk = wcmc_authorship_pk INNER JOIN wcmc_document ON wcmc_document_fk = wcmc_document_pk \n" +
-							 "WHERE (wcmc_document.pubtype not like '%Retract%' or wcmc_document.pubtype not like '%rratum%' or wcmc_document.pubtype is not null) and (wcmc_document.duplicate = 'N' or wcmc_document.duplicate is null or (wcmc_document.duplicate = 'Y' and wcmc_document.duplicate_override ='Y')) "
-							 + "and wcmc_authorship.cwid = '" + cwid.trim() + "' order by journal_order ASC , wcmc_document.pubtype ASC";
-		
-		log.info(selectQuery);
-		PreparedStatement ps = null;
 		java.sql.ResultSet rs = null;
 		try {
-				ps = this.con.prepareStatement(selectQuery);
-				rs = ps.executeQuery();
+				rs = this.session.executeQuery(PUBLICATIONS_BY_CWID, ps -> ps.setString(1, cwid.trim()));
 				while(rs.next()) {
 
 					if(rs.getString(1) != null && !rs.getString(1).isEmpty())
@@ -279,12 +303,12 @@ public class PublicationFetch {
 						pb.setPmcid("null");
 					
 					if(rs.getString(5) != null && !rs.getString(5).isEmpty())
-						pb.setDoi(rs.getString(5).trim().replaceAll("([\\\\\\\\\"])", "\\\\$1").replaceAll("\\s+", "")); //replace whitespace and any escape back slashes
+						pb.setDoi(SparqlLiteralEscaper.escapeIdentifier(rs.getString(5))); //replace whitespace and any escape back slashes
 					else
 						pb.setDoi("null");
 					
 					if(rs.getString(6) != null && !rs.getString(6).isEmpty())
-						pb.setJournal(rs.getString(6).trim().replaceAll("([\\\\\\\\\"])", "\\\\$1"));
+						pb.setJournal(SparqlLiteralEscaper.escape(rs.getString(6).trim()));
 					else
 						pb.setJournal("null");
 					
@@ -338,7 +362,7 @@ public class PublicationFetch {
 						pb.setNlmabbreviation("null");
 					
 					if(rs.getString(15) != null && !rs.getString(15).isEmpty())
-						pb.setPublicationAbstract(rs.getString(15).trim().replaceAll("([\\\\\\\\\"])", "\\\\$1"));
+						pb.setPublicationAbstract(SparqlLiteralEscaper.escape(rs.getString(15).trim()));
 					else
 						pb.setPublicationAbstract("null");
 					
@@ -403,7 +427,7 @@ public class PublicationFetch {
 						if(rs.getString(22).trim().startsWith("Errat"))
 							pb.setTitle("null");
 						else
-							pb.setTitle(rs.getString(22).trim().replaceAll("([\\\\\\\\\"])", "\\\\$1"));
+							pb.setTitle(SparqlLiteralEscaper.escape(rs.getString(22).trim()));
 					}
 					else
 						pb.setTitle("null");
@@ -481,8 +505,6 @@ public class PublicationFetch {
 		}
 		finally {
 			try{
-				if(ps!=null)
-					ps.close();
 				if(rs!=null)
 					rs.close();
 			}
@@ -507,21 +529,9 @@ public class PublicationFetch {
 		if(authors != null && !authors.isEmpty())
 			authors.clear();
 
-		String selectQuery = "SELECT cwid, authname, surname, given_name, initials, scopus_author_id, wcmc_authorship_rank, wcmc_authorship.wcmc_authorship_pk \n" +
-							 "FROM wcmc_authorship \n" + 
-							 "INNER JOIN wcmc_document_authorship ON wcmc_authorship_fk = wcmc_authorship_pk \n" +
-							 "INNER JOIN wcmc_document ON wcmc_document_fk = wcmc_document_pk \n" + 
-							 "WHERE wcmc_document.wcmc_document_pk = " + docPk + " \n" +
-							 "AND wcmc_document_authorship.ignore_flag is null \n" +
-							 "GROUP BY cwid, authname, surname, given_name, initials, scopus_author_id \n" +
-							 "ORDER BY wcmc_document_authorship.wcmc_authorship_rank";
-		//log.info(selectQuery);
-		
-		PreparedStatement ps = null;
 		java.sql.ResultSet rs = null;
 		try {
-				ps = this.con.prepareStatement(selectQuery);
-				rs = ps.executeQuery();
+				rs = this.session.executeQuery(AUTHORS_BY_DOCUMENT, ps -> ps.setInt(1, docPk));
 				while(rs.next()) {
 					AuthorBean ab = new AuthorBean();
 					if(rs.getString(1) != null && !rs.getString(1).trim().isEmpty()) 
@@ -571,8 +581,6 @@ public class PublicationFetch {
 		}
 		finally {
 			try{
-				if(ps!=null)
-					ps.close();
 				if(rs!=null)
 					rs.close();
 			}
@@ -834,25 +842,20 @@ public class PublicationFetch {
 			log.debug("Inference Triple Insert Query " + this.inf.toString());
 		
 		
-		this.vivoJena = this.jcf.getConnectionfromPool("wcmcPublications");
-		try {
-			this.vivoJena.executeUpdateQuery(this.sbInsert.toString(), true);
+		try(JenaConnectionLease lease = this.jcf.lease("wcmcPublications")) {
+			lease.getConnection().executeUpdateQuery(this.sbInsert.toString(), true);
 		} catch(IOException e) {
 			log.error("Error connecting to SDBJena");
 		}
-		this.jcf.returnConnectionToPool(this.vivoJena, "wcmcPublications");
 		
 		log.info("Inserting inference Triples for pubid" + pb.getScopusDocId());
 		
 		
-		this.vivoJena = this.jcf.getConnectionfromPool("vitro-kb-inf");
-		
-		try {
-			this.vivoJena.executeUpdateQuery(this.inf.toString(), true);
+		try(JenaConnectionLease lease = this.jcf.lease("vitro-kb-inf")) {
+			lease.getConnection().executeUpdateQuery(this.inf.toString(), true);
 		} catch(IOException e) {
 			log.error("Error connecting to SDBJena");
 		}
-		this.jcf.returnConnectionToPool(this.vivoJena, "vitro-kb-inf");
 		
 		updatePubAdmin(pb, crudType);
 		
@@ -1192,54 +1195,41 @@ public class PublicationFetch {
 	 * @param crudType The type of operation carried out in VIVO(UPDATE or INSERT)
 	 */
 	private  void updatePubAdmin(PublicationBean pb, String crudType) {
-		String updateQuery = null;
-		PreparedStatement ps = null;
+		SqlQuery updateQuery = null;
 		if(crudType.equals("INSERT")) {
-			updateQuery = "update wcmc_document set vivo_ingest_date=NOW(), exists_in_vivo = 'Y' where wcmc_document_pk = " + pb.getPublicationId();
-
-			try {
-				ps = this.con.prepareStatement(updateQuery);
-				log.info(ps.executeUpdate() + " row updated in pubadmin for wcmc_document_pk " + pb.getPublicationId());
-			}
-			catch(SQLException e) {
-				log.error("SQLException" , e);
-			}
-			finally {
-				try{
-					if(ps!=null)
-						ps.close();
-				}
-				catch(Exception e) {
-					log.error("Exception",e);
-				}
-				
-			}
+			updateQuery = PUBADMIN_INSERTED;
 		}
 		else if(crudType.equals("UPDATE")) {
-			updateQuery = "update wcmc_document set vivo_ingest_date_history=NOW(), exists_in_vivo = 'Y' where wcmc_document_pk = " + pb.getPublicationId();
-
+			updateQuery = PUBADMIN_UPDATED;
+		}
+		if(updateQuery != null) {
 			try {
-				ps = this.con.prepareStatement(updateQuery);
-				log.info(ps.executeUpdate() + " row updated in pubadmin for wcmc_document_pk " + pb.getPublicationId());
+				log.info(this.session.update(updateQuery, ps -> ps.setInt(1, pb.getPublicationId())) + " row updated in pubadmin for wcmc_document_pk " + pb.getPublicationId());
 			}
 			catch(SQLException e) {
 				log.error("SQLException" , e);
 			}
-			finally {
-				try{
-					if(ps!=null)
-						ps.close();
-				}
-				catch(Exception e) {
-					log.error("Exception",e);
-				}
-				
-			}
 		}
 		
 	}
 	
 	
+	/**
+	 * @param pb PublicationBean containing all the publication information
+	 * @param citationCount the current citation count from scopus
+	 */
+	private void updatePubAdminCitationCount(PublicationBean pb, int citationCount) {
+		try {
+			log.info(this.session.update(PUBADMIN_CITATION_COUNT, ps -> {
+				ps.setInt(1, citationCount);
+				ps.setInt(2, pb.getPublicationId());
+			}) + " row updated in pubadmin for wcmc_document_pk" + pb.getPublicationId());
+		}
+		catch(SQLException e) {
+			log.error("SQLException" , e);
+		}
+	}
+	
 	/**
 	 * This function will check for inprocess publication in VIVO and check if their publication status
 	 * have changed in Pubmed or Scopus and thereby apply updates to VIVO and Pubadmin
@@ -1281,9 +1271,9 @@ public class PublicationFetch {
 		}
 		else {
 			//Updates required
-			this.vivoJena = this.jcf.getConnectionfromPool("wcmcPublications");
-			ScopusInProcessUpdate.updatePublicationTypesInVivo(this.vivoJena, pb, pubType, this.vivoNamespace);
-			this.jcf.returnConnectionToPool(this.vivoJena, "wcmcPublications");
+			try(JenaConnectionLease lease = this.jcf.lease("wcmcPublications")) {
+				ScopusInProcessUpdate.updatePublicationTypesInVivo(lease.getConnection(), pb, pubType, this.vivoNamespace);
+			}
 			
 			ScopusInProcessUpdate.updatePubadmin(this.con, pb, pubType);
 			
@@ -1321,141 +1311,102 @@ public class PublicationFetch {
 		this.sbUpdate.append("}\n");
 		this.sbUpdate.append("}\n");
 		
-		this.vivoJena = this.jcf.getConnectionfromPool("wcmcPublications");
-		ResultSet rs;
-		try {
-			rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
-		while(rs.hasNext())
-		{
-			QuerySolution qs =rs.nextSolution();
-			if(qs.get("citeCount") != null)
-				vivoCiteCount = qs.get("citeCount").toString();
-		}
-		} catch(IOException e) {
-			// TODO Auto-generated catch block
-			log.info("IOException" , e);
-		}
-			
-		
-		
-		//Check in Scopus if citeCount has changed or not
-		String urlQuery = "https://api.elsevier.com/content/search/scopus?query=SCOPUS-ID(" + pb.getScopusDocId().trim() + ")&field=citedby-count";
-		String response = urlConnect(urlQuery, "SCOPUS");
-		Document doc = null;
-		try {
-			doc = loadXMLFromString(response);
-			if(doc != null) {
-				if (doc.getElementsByTagName("citedby-count").item(0) != null && doc.getElementsByTagName("citedby-count").getLength() != 0) {
-					scopusCiteCount = Integer.parseInt(doc.getElementsByTagName("citedby-count").item(0).getTextContent().trim());
-				}
-			}
-		}
-		catch (Exception e) {
-			log.error("extractScopusDataFromXml Exception: ", e);
-		}
-		
-		
-		if(vivoCiteCount != null && scopusCiteCount > Integer.parseInt(vivoCiteCount.trim())) {
-			log.info("Citation Count in VIVO : " + vivoCiteCount + " for pubid" + pb.getScopusDocId() + " does not match with count from scopus: " + scopusCiteCount + " - Updating");
-			//Update VIVO
-			if(this.sbUpdate.length() > 0)
-				this.sbUpdate.setLength(0);
-			this.sbUpdate.append("PREFIX rdf:  <http://www.w3.org/1999/02/22-rdf-syntax-ns#>\n");
-			this.sbUpdate.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
-			this.sbUpdate.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
-			this.sbUpdate.append("DELETE { \n");
-			this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdfs:label \"" + vivoCiteCount + "\" . \n");
-			this.sbUpdate.append("} \n");
-			this.sbUpdate.append("INSERT { \n");
-			this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdfs:label \"" + scopusCiteCount + "\" . \n");
-			this.sbUpdate.append("} \n");
-			this.sbUpdate.append("WHERE { \n");
-			this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdfs:label \"" + vivoCiteCount + "\" . \n");
-			this.sbUpdate.append("}");
-			
+		try(JenaConnectionLease lease = this.jcf.lease("wcmcPublications")) {
+			SDBJenaConnect vivoJena = lease.getConnection();
+			ResultSet rs;
 			try {
-				this.vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
+				rs = vivoJena.executeSelectQuery(this.sbUpdate.toString());
+			while(rs.hasNext())
+			{
+				QuerySolution qs =rs.nextSolution();
+				if(qs.get("citeCount") != null)
+					vivoCiteCount = qs.get("citeCount").toString();
+			}
 			} catch(IOException e) {
-				log.error("Error connecting to SDBJena");
+				// TODO Auto-generated catch block
+				log.info("IOException" , e);
 			}
 			
-			//Update Pubadmin with current citationCount
-			String updateQuery = "update wcmc_document set citation_count = " + scopusCiteCount + ", citation_count_date=NOW() where wcmc_document_pk = " + pb.getPublicationId();
-
-			PreparedStatement ps = null;
-
+		
+		
+			//Check in Scopus if citeCount has changed or not
+			String urlQuery = "https://api.elsevier.com/content/search/scopus?query=SCOPUS-ID(" + pb.getScopusDocId().trim() + ")&field=citedby-count";
+			String response = urlConnect(urlQuery, "SCOPUS");
+			Document doc = null;
 			try {
-				ps = this.con.prepareStatement(updateQuery);
-				log.info(ps.executeUpdate() + " row updated in pubadmin for wcmc_document_pk" + pb.getPublicationId());
-			}
-			catch(SQLException e) {
-				log.error("SQLException" , e);
-			}
-			finally {
-				try{
-					if(ps!=null)
-						ps.close();
-				}
-				catch(Exception e) {
-					log.error("Exception",e);
+				doc = loadXMLFromString(response);
+				if(doc != null) {
+					if (doc.getElementsByTagName("citedby-count").item(0) != null && doc.getElementsByTagName("citedby-count").getLength() != 0) {
+						scopusCiteCount = Integer.parseInt(doc.getElementsByTagName("citedby-count").item(0).getTextContent().trim());
+					}
 				}
-				
-			}
-			this.updateFlag = true;
-			this.citeCountPubs++;
-		}
-		else if(vivoCiteCount != null && scopusCiteCount == Integer.parseInt(vivoCiteCount.trim())) {
-			log.info("Citation Count in VIVO : " + vivoCiteCount + " for pubid" + pb.getScopusDocId() + " matches with count from scopus: " + scopusCiteCount + " - No change");
-		}
-		else if(vivoCiteCount == null && scopusCiteCount > 0) {
-			//Insert the new citation
-			if(this.sbUpdate.length() > 0)
-				this.sbUpdate.setLength(0);
-			this.sbUpdate.append("PREFIX rdf:  <http://www.w3.org/1999/02/22-rdf-syntax-ns#>\n");
-			this.sbUpdate.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
-			this.sbUpdate.append("INSERT DATA { GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> { \n");
-			this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://purl.org/spar/c4o/hasGlobalCitationFrequency> <" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + ">  . \n");
-		    this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdf:type <http://purl.org/spar/c4o/GlobalCitationCount> . \n");
-		    this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-		    this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdfs:label \"" + scopusCiteCount + "\" . \n");
-			this.sbUpdate.append("}} \n");
-			
-			try {
-				this.vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
-			} catch(IOException e) {
-				log.error("Error connecting to SDBJena");
 			}
+			catch (Exception e) {
+				log.error("extractScopusDataFromXml Exception: ", e);
+			}
+		
+		
+			if(vivoCiteCount != null && scopusCiteCount > Integer.parseInt(vivoCiteCount.trim())) {
+				log.info("Citation Count in VIVO : " + vivoCiteCount + " for pubid" + pb.getScopusDocId() + " does not match with count from scopus: " + scopusCiteCount + " - Updating");
+				//Update VIVO
+				if(this.sbUpdate.length() > 0)
+					this.sbUpdate.setLength(0);
+				this.sbUpdate.append("PREFIX rdf:  <http://www.w3.org/1999/02/22-rdf-syntax-ns#>\n");
+				this.sbUpdate.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
+				this.sbUpdate.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
+				this.sbUpdate.append("DELETE { \n");
+				this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdfs:label \"" + vivoCiteCount + "\" . \n");
+				this.sbUpdate.append("} \n");
+				this.sbUpdate.append("INSERT { \n");
+				this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdfs:label \"" + scopusCiteCount + "\" . \n");
+				this.sbUpdate.append("} \n");
+				this.sbUpdate.append("WHERE { \n");
+				this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdfs:label \"" + vivoCiteCount + "\" . \n");
+				this.sbUpdate.append("}");
 			
-			//Update Pubadmin with current citationCount
-			String updateQuery = "update wcmc_document set citation_count = " + scopusCiteCount + ", citation_count_date=NOW() where wcmc_document_pk = " + pb.getPublicationId();
-
-			PreparedStatement ps = null;
-
-			try {
-				ps = this.con.prepareStatement(updateQuery);
-				log.info(ps.executeUpdate() + " row updated in pubadmin for wcmc_document_pk" + pb.getPublicationId());
-			}
-			catch(SQLException e) {
-				log.error("SQLException" , e);
-			}
-			finally {
-				try{
-					if(ps!=null)
-						ps.close();
+				try {
+					vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
+				} catch(IOException e) {
+					log.error("Error connecting to SDBJena");
 				}
-				catch(Exception e) {
-					log.error("Exception",e);
+			
+				//Update Pubadmin with current citationCount
+				updatePubAdminCitationCount(pb, scopusCiteCount);
+				this.updateFlag = true;
+				this.citeCountPubs++;
+			}
+			else if(vivoCiteCount != null && scopusCiteCount == Integer.parseInt(vivoCiteCount.trim())) {
+				log.info("Citation Count in VIVO : " + vivoCiteCount + " for pubid" + pb.getScopusDocId() + " matches with count from scopus: " + scopusCiteCount + " - No change");
+			}
+			else if(vivoCiteCount == null && scopusCiteCount > 0) {
+				//Insert the new citation
+				if(this.sbUpdate.length() > 0)
+					this.sbUpdate.setLength(0);
+				this.sbUpdate.append("PREFIX rdf:  <http://www.w3.org/1999/02/22-rdf-syntax-ns#>\n");
+				this.sbUpdate.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
+				this.sbUpdate.append("INSERT DATA { GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> { \n");
+				this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://purl.org/spar/c4o/hasGlobalCitationFrequency> <" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + ">  . \n");
+			    this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdf:type <http://purl.org/spar/c4o/GlobalCitationCount> . \n");
+			    this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
+			    this.sbUpdate.append("<" + this.vivoNamespace + "citation-pubid" + pb.getScopusDocId().trim() + "> rdfs:label \"" + scopusCiteCount + "\" . \n");
+				this.sbUpdate.append("}} \n");
+			
+				try {
+					vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
+				} catch(IOException e) {
+					log.error("Error connecting to SDBJena");
 				}
-				
+			
+				//Update Pubadmin with current citationCount
+				updatePubAdminCitationCount(pb, scopusCiteCount);
+				this.updateFlag = true;
+				this.citeCountPubs++;
+				log.info("Adding new citation count for pubid " + pb.getScopusDocId() + " with count " + scopusCiteCount);
 			}
-			this.updateFlag = true;
-			this.citeCountPubs++;
-			log.info("Adding new citation count for pubid " + pb.getScopusDocId() + " with count " + scopusCiteCount);
-		}
-		else if(vivoCiteCount == null)
-			log.info("Publication does not have a citation");
+			else if(vivoCiteCount == null)
+				log.info("Publication does not have a citation");
 		
-		this.jcf.returnConnectionToPool(this.vivoJena, "wcmcPublications");
+		}
 		
 	}
 	
@@ -1568,11 +1519,10 @@ public class PublicationFetch {
 		this.sbUpdate.append("}");
 		this.sbUpdate.append("GROUP BY ?o");
 		
-		this.vivoJena = this.jcf.getConnectionfromPool("wcmcPublications");
 
 		ResultSet rs;
-		try {
-			rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
+		try(JenaConnectionLease lease = this.jcf.lease("wcmcPublications")) {
+			rs = lease.getConnection().executeSelectQuery(this.sbUpdate.toString());
 			QuerySolution qs = rs.nextSolution();
 			int count = Integer.parseInt(qs.get("count").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
 			if(qs.get("o") != null) {
@@ -1589,8 +1539,6 @@ public class PublicationFetch {
 				log.info("IOException" , e);
 			}
 		
-		this.jcf.returnConnectionToPool(this.vivoJena, "wcmcPublications");
-		
 		return inVivo;
 	}
 	
@@ -1615,11 +1563,10 @@ public class PublicationFetch {
 		this.sbUpdate.append("}");
 		
 		//log.info(sbs.toString());
-		this.vivoJena = this.jcf.getConnectionfromPool("wcmcPublications");
 		
 		ResultSet rs;
-		try {
-			rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
+		try(JenaConnectionLease lease = this.jcf.lease("wcmcPublications")) {
+			rs = lease.getConnection().executeSelectQuery(this.sbUpdate.toString());
 			int count = Integer.parseInt(rs.nextSolution().get("count").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
 			if(count == 0) 
 				inVivo = false;
@@ -1630,8 +1577,6 @@ public class PublicationFetch {
 				log.info("IOException" , e);
 			}
 		
-		this.jcf.returnConnectionToPool(this.vivoJena, "wcmcPublications");
-		
 		return inVivo;
 	}
 	
@@ -1653,11 +1598,10 @@ public class PublicationFetch {
 		this.sbUpdate.append("}");
 		
 		
-		this.vivoJena = this.jcf.getConnectionfromPool("wcmcPublications");
 		ResultSet rs;
 		
-		try {
-			rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
+		try(JenaConnectionLease lease = this.jcf.lease("wcmcPublications")) {
+			rs = lease.getConnection().executeSelectQuery(this.sbUpdate.toString());
 			int count = Integer.parseInt(rs.nextSolution().get("count").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
 			if(count == 0) 
 				inVivo = false;
@@ -1667,7 +1611,6 @@ public class PublicationFetch {
 		} catch(IOException e) {
 			log.error("Error connecting to Jena Database" , e);
 		}
-		this.jcf.returnConnectionToPool(this.vivoJena, "wcmcPublications");
 		
 		return inVivo;
 	}
@@ -1778,11 +1721,10 @@ public class PublicationFetch {
 		}
 		this.sbUpdate.append("}");
 
-		this.vivoJena = this.jcf.getConnectionfromPool("wcmcPublications");
 		ResultSet rs;
 		int count = 0;
-		try {
-			rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
+		try(JenaConnectionLease lease = this.jcf.lease("wcmcPublications")) {
+			rs = lease.getConnection().executeSelectQuery(this.sbUpdate.toString());
 			if((pb.getVivoPubTypeDeduction().equals("book") || pb.getVivoPubTypeDeduction().equals("book-chapter")) ) {
 
 				if(rs.hasNext()) {
@@ -1811,8 +1753,6 @@ public class PublicationFetch {
 		} catch(IOException e) {
 			log.error("Error connecting to Jena Database" , e);
 		}
-
-		this.jcf.returnConnectionToPool(this.vivoJena, "wcmcPublications");
 		
 		//Case when journal does not exist in VIVO
 		if((!pb.getVivoPubTypeDeduction().equals("book") && !pb.getVivoPubTypeDeduction().equals("book-chapter"))  && journalUri != null && !inVivo) {
@@ -1878,9 +1818,8 @@ public class PublicationFetch {
 			this.sbUpdate.append("} \n");
 			
 			//log.info(this.sbUpdate.toString());
-			this.vivoJena = this.jcf.getConnectionfromPool("wcmcPublications");
-			try {
-				rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
+			try(JenaConnectionLease lease = this.jcf.lease("wcmcPublications")) {
+				rs = lease.getConnection().executeSelectQuery(this.sbUpdate.toString());
 				
 				if(rs.hasNext()) {
 					QuerySolution qs = rs.nextSolution();
@@ -1910,7 +1849,6 @@ public class PublicationFetch {
 			} catch(IOException e) {
 				log.error("Error connecting to Jena Database" , e);
 			}
-			this.jcf.returnConnectionToPool(this.vivoJena, "wcmcPublications");
 			
 			
 			
@@ -1956,52 +1894,53 @@ public class PublicationFetch {
 		this.sbUpdate.append("OPTIONAL {<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> obo:BFO_0000050 ?bookPart . }\n");
 		this.sbUpdate.append("}");
 		
-		this.vivoJena = this.jcf.getConnectionfromPool("wcmcPublications");
-		ResultSet rs;
-		try {
-			rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
+		try(JenaConnectionLease lease = this.jcf.lease("wcmcPublications")) {
+			SDBJenaConnect vivoJena = lease.getConnection();
+			ResultSet rs;
+			try {
+				rs = vivoJena.executeSelectQuery(this.sbUpdate.toString());
 
-			if(rs.hasNext()) {
-				QuerySolution qs = rs.nextSolution();
-				if(qs.get("book")!= null) {
-					bookUri = qs.get("book").toString();
-				}
-				if(qs.get("bookPart")!= null) {
-					bookChapterLink = true;
+				if(rs.hasNext()) {
+					QuerySolution qs = rs.nextSolution();
+					if(qs.get("book")!= null) {
+						bookUri = qs.get("book").toString();
+					}
+					if(qs.get("bookPart")!= null) {
+						bookChapterLink = true;
+					}
 				}
-			}
 		
-		} catch(IOException e) {
-			log.error("Error connecting to Jena Database" , e);
-		}
+			} catch(IOException e) {
+				log.error("Error connecting to Jena Database" , e);
+			}
 
-		if(bookUri != null && !bookChapterLink) {
-			log.info("Book - " + pb.getJournal() + " exist in VIVO but not linked to Chapter - pubid" + pb.getScopusDocId() + ". Linking it.");
+			if(bookUri != null && !bookChapterLink) {
+				log.info("Book - " + pb.getJournal() + " exist in VIVO but not linked to Chapter - pubid" + pb.getScopusDocId() + ". Linking it.");
 			
-			if(this.sbUpdate.length()>0)
-				this.sbUpdate.setLength(0);
-			this.sbUpdate.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-			this.sbUpdate.append("PREFIX obo: <http://purl.obolibrary.org/obo/>");
-			this.sbUpdate.append("PREFIX bibo: <http://purl.org/ontology/bibo/> \n");
-			this.sbUpdate.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-			this.sbUpdate.append("INSERT DATA { \n");
-			this.sbUpdate.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
-			this.sbUpdate.append("{ \n");
-			this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> obo:BFO_0000050 <" + bookUri + "> . \n");
-			this.sbUpdate.append("<" + bookUri + "> obo:BFO_0000051 <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
-			this.sbUpdate.append("}}");
-			log.info(this.sbUpdate.toString());
+				if(this.sbUpdate.length()>0)
+					this.sbUpdate.setLength(0);
+				this.sbUpdate.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
+				this.sbUpdate.append("PREFIX obo: <http://purl.obolibrary.org/obo/>");
+				this.sbUpdate.append("PREFIX bibo: <http://purl.org/ontology/bibo/> \n");
+				this.sbUpdate.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
+				this.sbUpdate.append("INSERT DATA { \n");
+				this.sbUpdate.append("GRAPH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
+				this.sbUpdate.append("{ \n");
+				this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> obo:BFO_0000050 <" + bookUri + "> . \n");
+				this.sbUpdate.append("<" + bookUri + "> obo:BFO_0000051 <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
+				this.sbUpdate.append("}}");
+				log.info(this.sbUpdate.toString());
 			
-			try {
-				this.vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
-			} catch(IOException e) {
-				log.error("Error connecting to SDBJena", e);
+				try {
+					vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
+				} catch(IOException e) {
+					log.error("Error connecting to SDBJena", e);
+				}
 			}
-		}
-		else
-			log.info("Book to Chapter link for pubid" + pb.getScopusDocId() + " looks good");
+			else
+				log.info("Book to Chapter link for pubid" + pb.getScopusDocId() + " looks good");
 		
-		this.jcf.returnConnectionToPool(this.vivoJena, "wcmcPublications");
+		}
 		
 	}
 	
@@ -2070,151 +2009,87 @@ public class PublicationFetch {
 		this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> ?journalVivo .\n");
 		this.sbUpdate.append("}");
 		
-		this.vivoJena = this.jcf.getConnectionfromPool("wcmcPublications");
-		ResultSet rs;
-		try {
-			rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
+		try(JenaConnectionLease lease = this.jcf.lease("wcmcPublications")) {
+			SDBJenaConnect vivoJena = lease.getConnection();
+			ResultSet rs;
+			try {
+				rs = vivoJena.executeSelectQuery(this.sbUpdate.toString());
 
-			if(rs.hasNext()) {
-				QuerySolution qs = rs.nextSolution();
-				if(qs.get("journalVivo")!= null) {
-					journalVivo = qs.get("journalVivo").toString();
+				if(rs.hasNext()) {
+					QuerySolution qs = rs.nextSolution();
+					if(qs.get("journalVivo")!= null) {
+						journalVivo = qs.get("journalVivo").toString();
+					}
 				}
-			}
 		
-		} catch(IOException e) {
-			log.error("Error connecting to Jena Database" , e);
-		}
+			} catch(IOException e) {
+				log.error("Error connecting to Jena Database" , e);
+			}
 		
-		if(journalUri != null && journalVivo != null && !journalUri.equals(journalVivo)) {
-			log.info("Journal in VIVO: " + journalVivo + " does not match with Journal from Pubadmin: " + journalUri);
+			if(journalUri != null && journalVivo != null && !journalUri.equals(journalVivo)) {
+				log.info("Journal in VIVO: " + journalVivo + " does not match with Journal from Pubadmin: " + journalUri);
 			
-			//Check for the journal Uri from pubadmin exist in VIVO
+				//Check for the journal Uri from pubadmin exist in VIVO
 			
-			if(this.sbUpdate.length()>0)
-				this.sbUpdate.setLength(0);
+				if(this.sbUpdate.length()>0)
+					this.sbUpdate.setLength(0);
 			
-			this.sbUpdate.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-			this.sbUpdate.append("PREFIX obo: <http://purl.obolibrary.org/obo/>");
-			this.sbUpdate.append("PREFIX bibo: <http://purl.org/ontology/bibo/> \n");
-			this.sbUpdate.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-			this.sbUpdate.append("SELECT (count(?o) as ?count) \n");
-			this.sbUpdate.append("from <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
-			this.sbUpdate.append("WHERE { \n");
-			this.sbUpdate.append("<" + journalUri + "> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> ?o .\n");
-			this.sbUpdate.append("}");
+				this.sbUpdate.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
+				this.sbUpdate.append("PREFIX obo: <http://purl.obolibrary.org/obo/>");
+				this.sbUpdate.append("PREFIX bibo: <http://purl.org/ontology/bibo/> \n");
+				this.sbUpdate.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
+				this.sbUpdate.append("SELECT (count(?o) as ?count) \n");
+				this.sbUpdate.append("from <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
+				this.sbUpdate.append("WHERE { \n");
+				this.sbUpdate.append("<" + journalUri + "> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> ?o .\n");
+				this.sbUpdate.append("}");
 			
-			try {
-				rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
-				int count = Integer.parseInt(rs.nextSolution().get("count").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
-				if(count > 0) {
-					log.info("Correct Journal from Pubadmin already exist in VIVO. Replacing the incorrect journal link " + journalVivo + " for the publication with " + journalUri);
-					
-					String journalCheck = null;
-					boolean journalTag = false;
-					
-					if(this.sbUpdate.length()>0)
-						this.sbUpdate.setLength(0);
-					
-					this.sbUpdate.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-					this.sbUpdate.append("PREFIX obo: <http://purl.obolibrary.org/obo/>");
-					this.sbUpdate.append("PREFIX bibo: <http://purl.org/ontology/bibo/> \n");
-					this.sbUpdate.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-					this.sbUpdate.append("SELECT ?journalUri \n");
-					this.sbUpdate.append("from <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
-					this.sbUpdate.append("WHERE { \n");
-					
-					if(!pb.getIssn().equals("null") && !pb.getIssn().isEmpty())
-						this.sbUpdate.append("OPTIONAL {?journalUri bibo:issn \"" + pb.getIssn().trim() + "\" . }\n");
-					if(!pb.getEissn().equals("null") && !pb.getEissn().isEmpty())
-						this.sbUpdate.append("OPTIONAL {?journalUri bibo:eissn \"" + pb.getEissn().trim() + "\" . }\n");
-					if(lissn!=null && !lissn.isEmpty())
-						this.sbUpdate.append("OPTIONAL {?journalUri wcmc:lissn \"" + lissn.trim() + "\" . }\n");
-					this.sbUpdate.append("}");
-					
-					rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
-
-					while(rs.hasNext()) {
-						QuerySolution qs = rs.nextSolution();
-						if(qs.get("journalUri")!= null) {
-							journalCheck = qs.get("journalUri").toString();
-							if(journalCheck.equals(journalVivo))
-								journalTag = true;
-						}
-					}
-					if(journalTag) {
-						log.info("Journal is correctly tagged");
-					}
-					else {
+				try {
+					rs = vivoJena.executeSelectQuery(this.sbUpdate.toString());
+					int count = Integer.parseInt(rs.nextSolution().get("count").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
+					if(count > 0) {
+						log.info("Correct Journal from Pubadmin already exist in VIVO. Replacing the incorrect journal link " + journalVivo + " for the publication with " + journalUri);
 					
-						if(this.sbUpdate.length() > 0)
+						String journalCheck = null;
+						boolean journalTag = false;
+					
+						if(this.sbUpdate.length()>0)
 							this.sbUpdate.setLength(0);
-						
-						this.sbUpdate.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
-						this.sbUpdate.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
-						this.sbUpdate.append("DELETE { \n");
-						this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalVivo + "> . \n");
-						this.sbUpdate.append("<" + journalVivo + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
-						this.sbUpdate.append("} \n");
-						this.sbUpdate.append("INSERT { \n");
-						this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalUri + "> . \n");
-						this.sbUpdate.append("<" + journalUri + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
-						this.sbUpdate.append("} \n");
+					
+						this.sbUpdate.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
+						this.sbUpdate.append("PREFIX obo: <http://purl.obolibrary.org/obo/>");
+						this.sbUpdate.append("PREFIX bibo: <http://purl.org/ontology/bibo/> \n");
+						this.sbUpdate.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
+						this.sbUpdate.append("SELECT ?journalUri \n");
+						this.sbUpdate.append("from <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
 						this.sbUpdate.append("WHERE { \n");
-						this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalVivo + "> . \n");
-						this.sbUpdate.append("<" + journalVivo + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
+					
+						if(!pb.getIssn().equals("null") && !pb.getIssn().isEmpty())
+							this.sbUpdate.append("OPTIONAL {?journalUri bibo:issn \"" + pb.getIssn().trim() + "\" . }\n");
+						if(!pb.getEissn().equals("null") && !pb.getEissn().isEmpty())
+							this.sbUpdate.append("OPTIONAL {?journalUri bibo:eissn \"" + pb.getEissn().trim() + "\" . }\n");
+						if(lissn!=null && !lissn.isEmpty())
+							this.sbUpdate.append("OPTIONAL {?journalUri wcmc:lissn \"" + lissn.trim() + "\" . }\n");
 						this.sbUpdate.append("}");
-						
-						log.info(this.sbUpdate.toString());
-						
-						try {
-							this.vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
-						} catch(IOException e) {
-							log.error("Error connecting to SDBJena");
-						}
-						this.updateFlag = true;
-					}
-				}
-				else {
-					log.info("Checking Journal object: " + journalUri + " in VIVO and and its corresponding publication: pubid" + pb.getScopusDocId());
-					
-					String journalCheck = null;
-					
-					if(this.sbUpdate.length()>0)
-						this.sbUpdate.setLength(0);
-					
-					this.sbUpdate.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-					this.sbUpdate.append("PREFIX obo: <http://purl.obolibrary.org/obo/>");
-					this.sbUpdate.append("PREFIX bibo: <http://purl.org/ontology/bibo/> \n");
-					this.sbUpdate.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-					this.sbUpdate.append("SELECT ?journalUri \n");
-					this.sbUpdate.append("from <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
-					this.sbUpdate.append("WHERE { \n");
-					
-					if(!pb.getIssn().equals("null") && !pb.getIssn().isEmpty())
-						this.sbUpdate.append("OPTIONAL {?journalUri bibo:issn \"" + pb.getIssn().trim() + "\" . }\n");
-					if(!pb.getEissn().equals("null") && !pb.getEissn().isEmpty())
-						this.sbUpdate.append("OPTIONAL {?journalUri bibo:eissn \"" + pb.getEissn().trim() + "\" . }\n");
-					if(lissn!=null && !lissn.isEmpty())
-						this.sbUpdate.append("OPTIONAL {?journalUri wcmc:lissn \"" + lissn.trim() + "\" . }\n");
-					this.sbUpdate.append("}");
-					
-					rs = this.vivoJena.executeSelectQuery(this.sbUpdate.toString());
+					
+						rs = vivoJena.executeSelectQuery(this.sbUpdate.toString());
 
-					if(rs.hasNext()) {
-						QuerySolution qs = rs.nextSolution();
-						if(qs.get("journalUri")!= null) {
-							journalCheck = qs.get("journalUri").toString();
+						while(rs.hasNext()) {
+							QuerySolution qs = rs.nextSolution();
+							if(qs.get("journalUri")!= null) {
+								journalCheck = qs.get("journalUri").toString();
+								if(journalCheck.equals(journalVivo))
+									journalTag = true;
+							}
 						}
-					}
+						if(journalTag) {
+							log.info("Journal is correctly tagged");
+						}
+						else {
 					
-					if(journalCheck != null) {
-						
-						log.info("Journal " + journalCheck + " exist in VIVO based on issn and eissn lookup. Linking to it");
-						if(!journalCheck.equals(journalVivo)) {
 							if(this.sbUpdate.length() > 0)
 								this.sbUpdate.setLength(0);
-							
+						
 							this.sbUpdate.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
 							this.sbUpdate.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
 							this.sbUpdate.append("DELETE { \n");
@@ -2222,116 +2097,181 @@ public class PublicationFetch {
 							this.sbUpdate.append("<" + journalVivo + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
 							this.sbUpdate.append("} \n");
 							this.sbUpdate.append("INSERT { \n");
-							this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalCheck + "> . \n");
-							this.sbUpdate.append("<" + journalCheck + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
+							this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalUri + "> . \n");
+							this.sbUpdate.append("<" + journalUri + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
 							this.sbUpdate.append("} \n");
 							this.sbUpdate.append("WHERE { \n");
 							this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalVivo + "> . \n");
 							this.sbUpdate.append("<" + journalVivo + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
 							this.sbUpdate.append("}");
-							
+						
 							log.info(this.sbUpdate.toString());
-							
+						
 							try {
-								this.vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
+								vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
 							} catch(IOException e) {
 								log.error("Error connecting to SDBJena");
 							}
 							this.updateFlag = true;
 						}
-						else
-							log.info("Journal Tagging is correct");
-						
 					}
 					else {
+						log.info("Checking Journal object: " + journalUri + " in VIVO and and its corresponding publication: pubid" + pb.getScopusDocId());
+					
+						String journalCheck = null;
 					
-						//Correct Journal does not exist in VIVO yet Create it
-						if(this.sbUpdate.length() > 0)
+						if(this.sbUpdate.length()>0)
 							this.sbUpdate.setLength(0);
-						
-						this.sbUpdate.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
-						this.sbUpdate.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
-						this.sbUpdate.append("PREFIX vivo: <http://vivoweb.org/ontology/core#> \n");
+					
 						this.sbUpdate.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
-						this.sbUpdate.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
-						this.sbUpdate.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
-						this.sbUpdate.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
+						this.sbUpdate.append("PREFIX obo: <http://purl.obolibrary.org/obo/>");
 						this.sbUpdate.append("PREFIX bibo: <http://purl.org/ontology/bibo/> \n");
-						this.sbUpdate.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
-						this.sbUpdate.append("DELETE { \n");
-						this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalVivo + "> . \n");
-						this.sbUpdate.append("<" + journalVivo + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
-						this.sbUpdate.append("} \n");
-						this.sbUpdate.append("INSERT { \n");
-						this.sbUpdate.append("<" + journalUri + "> rdf:type obo:BFO_0000001 . \n");
-						this.sbUpdate.append("<" + journalUri + "> rdf:type obo:BFO_0000002 . \n");
-						this.sbUpdate.append("<" + journalUri + "> rdf:type obo:BFO_0000031 . \n");
-						this.sbUpdate.append("<" + journalUri + "> rdf:type obo:IAO_0000030 . \n");
-						this.sbUpdate.append("<" + journalUri + "> rdf:type bibo:Collection . \n");
-						this.sbUpdate.append("<" + journalUri + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-						this.sbUpdate.append("<" + journalUri + "> rdf:type bibo:Periodical . \n");
-						this.sbUpdate.append("<" + journalUri + "> rdf:type bibo:Journal . \n");
-						this.sbUpdate.append("<" + journalUri + "> vitro:mostSpecificType bibo:Journal . \n");
-						this.sbUpdate.append("<" + journalUri + "> core:Title \"" + pb.getJournal().trim() + "\" . \n");
-						this.sbUpdate.append("<" + journalUri + "> rdfs:label \"" + pb.getJournal().trim() + "\" . \n");
-						if(!pb.getNlmabbreviation().equals("null") && !pb.getNlmabbreviation().isEmpty())
-							this.sbUpdate.append("<" + journalUri + "> wcmc:ISOAbbreviation \"" + pb.getNlmabbreviation().trim() + "\" . \n");
-						
+						this.sbUpdate.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
+						this.sbUpdate.append("SELECT ?journalUri \n");
+						this.sbUpdate.append("from <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
+						this.sbUpdate.append("WHERE { \n");
+					
 						if(!pb.getIssn().equals("null") && !pb.getIssn().isEmpty())
-							this.sbUpdate.append("<" + journalUri + "> bibo:issn \"" + pb.getIssn().trim() + "\" . \n");
+							this.sbUpdate.append("OPTIONAL {?journalUri bibo:issn \"" + pb.getIssn().trim() + "\" . }\n");
 						if(!pb.getEissn().equals("null") && !pb.getEissn().isEmpty())
-							this.sbUpdate.append("<" + journalUri + "> bibo:eissn \"" + pb.getEissn().trim() + "\" . \n");
+							this.sbUpdate.append("OPTIONAL {?journalUri bibo:eissn \"" + pb.getEissn().trim() + "\" . }\n");
+						if(lissn!=null && !lissn.isEmpty())
+							this.sbUpdate.append("OPTIONAL {?journalUri wcmc:lissn \"" + lissn.trim() + "\" . }\n");
+						this.sbUpdate.append("}");
+					
+						rs = vivoJena.executeSelectQuery(this.sbUpdate.toString());
+
+						if(rs.hasNext()) {
+							QuerySolution qs = rs.nextSolution();
+							if(qs.get("journalUri")!= null) {
+								journalCheck = qs.get("journalUri").toString();
+							}
+						}
+					
+						if(journalCheck != null) {
+						
+							log.info("Journal " + journalCheck + " exist in VIVO based on issn and eissn lookup. Linking to it");
+							if(!journalCheck.equals(journalVivo)) {
+								if(this.sbUpdate.length() > 0)
+									this.sbUpdate.setLength(0);
+							
+								this.sbUpdate.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#>\n");
+								this.sbUpdate.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
+								this.sbUpdate.append("DELETE { \n");
+								this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalVivo + "> . \n");
+								this.sbUpdate.append("<" + journalVivo + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
+								this.sbUpdate.append("} \n");
+								this.sbUpdate.append("INSERT { \n");
+								this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalCheck + "> . \n");
+								this.sbUpdate.append("<" + journalCheck + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
+								this.sbUpdate.append("} \n");
+								this.sbUpdate.append("WHERE { \n");
+								this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalVivo + "> . \n");
+								this.sbUpdate.append("<" + journalVivo + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
+								this.sbUpdate.append("}");
+							
+								log.info(this.sbUpdate.toString());
+							
+								try {
+									vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
+								} catch(IOException e) {
+									log.error("Error connecting to SDBJena");
+								}
+								this.updateFlag = true;
+							}
+							else
+								log.info("Journal Tagging is correct");
+						
+						}
+						else {
+					
+							//Correct Journal does not exist in VIVO yet Create it
+							if(this.sbUpdate.length() > 0)
+								this.sbUpdate.setLength(0);
+						
+							this.sbUpdate.append("PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#> \n");
+							this.sbUpdate.append("PREFIX wcmc: <http://weill.cornell.edu/vivo/ontology/wcmc#> \n");
+							this.sbUpdate.append("PREFIX vivo: <http://vivoweb.org/ontology/core#> \n");
+							this.sbUpdate.append("PREFIX vitro: <http://vitro.mannlib.cornell.edu/ns/vitro/0.7#> \n");
+							this.sbUpdate.append("PREFIX obo: <http://purl.obolibrary.org/obo/> \n");
+							this.sbUpdate.append("PREFIX rdfs: <http://www.w3.org/2000/01/rdf-schema#> \n");
+							this.sbUpdate.append("PREFIX core: <http://vivoweb.org/ontology/core#> \n");
+							this.sbUpdate.append("PREFIX bibo: <http://purl.org/ontology/bibo/> \n");
+							this.sbUpdate.append("WITH <http://vitro.mannlib.cornell.edu/a/graph/wcmcPublications> \n");
+							this.sbUpdate.append("DELETE { \n");
+							this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalVivo + "> . \n");
+							this.sbUpdate.append("<" + journalVivo + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
+							this.sbUpdate.append("} \n");
+							this.sbUpdate.append("INSERT { \n");
+							this.sbUpdate.append("<" + journalUri + "> rdf:type obo:BFO_0000001 . \n");
+							this.sbUpdate.append("<" + journalUri + "> rdf:type obo:BFO_0000002 . \n");
+							this.sbUpdate.append("<" + journalUri + "> rdf:type obo:BFO_0000031 . \n");
+							this.sbUpdate.append("<" + journalUri + "> rdf:type obo:IAO_0000030 . \n");
+							this.sbUpdate.append("<" + journalUri + "> rdf:type bibo:Collection . \n");
+							this.sbUpdate.append("<" + journalUri + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
+							this.sbUpdate.append("<" + journalUri + "> rdf:type bibo:Periodical . \n");
+							this.sbUpdate.append("<" + journalUri + "> rdf:type bibo:Journal . \n");
+							this.sbUpdate.append("<" + journalUri + "> vitro:mostSpecificType bibo:Journal . \n");
+							this.sbUpdate.append("<" + journalUri + "> core:Title \"" + pb.getJournal().trim() + "\" . \n");
+							this.sbUpdate.append("<" + journalUri + "> rdfs:label \"" + pb.getJournal().trim() + "\" . \n");
+							if(!pb.getNlmabbreviation().equals("null") && !pb.getNlmabbreviation().isEmpty())
+								this.sbUpdate.append("<" + journalUri + "> wcmc:ISOAbbreviation \"" + pb.getNlmabbreviation().trim() + "\" . \n");
+						
+							if(!pb.getIssn().equals("null") && !pb.getIssn().isEmpty())
+								this.sbUpdate.append("<" + journalUri + "> bibo:issn \"" + pb.getIssn().trim() + "\" . \n");
+							if(!pb.getEissn().equals("null") && !pb.getEissn().isEmpty())
+								this.sbUpdate.append("<" + journalUri + "> bibo:eissn \"" + pb.getEissn().trim() + "\" . \n");
 	
-						//case if journal uri is assigned by issn or eissn then to add the lissn if it exists as triple
-						if(!pb.getPubmedXmlContent().equals("null") && pb.getPubmedXmlContent().contains("ISSNLinking") ) {
-							try {
-								Document doc = loadXMLFromString(pb.getPubmedXmlContent());
-								if(doc != null) {
-									if(doc.getElementsByTagName("ISSNLinking")!=null && doc.getElementsByTagName("ISSNLinking").getLength() != 0) {
-										lissn = doc.getElementsByTagName("ISSNLinking").item(0).getTextContent();
-										this.sbUpdate.append("<" + journalUri + "> wcmc:lissn \"" + lissn.trim() + "\" . \n");
+							//case if journal uri is assigned by issn or eissn then to add the lissn if it exists as triple
+							if(!pb.getPubmedXmlContent().equals("null") && pb.getPubmedXmlContent().contains("ISSNLinking") ) {
+								try {
+									Document doc = loadXMLFromString(pb.getPubmedXmlContent());
+									if(doc != null) {
+										if(doc.getElementsByTagName("ISSNLinking")!=null && doc.getElementsByTagName("ISSNLinking").getLength() != 0) {
+											lissn = doc.getElementsByTagName("ISSNLinking").item(0).getTextContent();
+											this.sbUpdate.append("<" + journalUri + "> wcmc:lissn \"" + lissn.trim() + "\" . \n");
+										}
 									}
 								}
-							}
-							catch (Exception e) {
-								log.error("extractPubmedDataFromXml Exception: ", e);
-							}
+								catch (Exception e) {
+									log.error("extractPubmedDataFromXml Exception: ", e);
+								}
 							
-						}
-						this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalUri + "> . \n");
-						this.sbUpdate.append("<" + journalUri + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
-						this.sbUpdate.append("<" + journalUri + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"Scopus-Pubmed-Harvester\" . \n");
-						this.sbUpdate.append("} \n");
-						this.sbUpdate.append("WHERE { \n");
-						this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalVivo + "> . \n");
-						this.sbUpdate.append("<" + journalVivo + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
-						this.sbUpdate.append("}");
+							}
+							this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalUri + "> . \n");
+							this.sbUpdate.append("<" + journalUri + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
+							this.sbUpdate.append("<" + journalUri + "> <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"Scopus-Pubmed-Harvester\" . \n");
+							this.sbUpdate.append("} \n");
+							this.sbUpdate.append("WHERE { \n");
+							this.sbUpdate.append("<" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> <http://vivoweb.org/ontology/core#hasPublicationVenue> <" + journalVivo + "> . \n");
+							this.sbUpdate.append("<" + journalVivo + "> <http://vivoweb.org/ontology/core#publicationVenueFor> <" + this.vivoNamespace + "pubid" + pb.getScopusDocId().trim() + "> . \n");
+							this.sbUpdate.append("}");
 						
-						log.info(this.sbUpdate.toString());
+							log.info(this.sbUpdate.toString());
 						
-						try {
-							this.vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
-						} catch(IOException e) {
-							log.error("Error connecting to SDBJena");
+							try {
+								vivoJena.executeUpdateQuery(this.sbUpdate.toString(), true);
+							} catch(IOException e) {
+								log.error("Error connecting to SDBJena");
+							}
+							this.updateFlag = true;
 						}
-						this.updateFlag = true;
-					}
 					
 					
-				}
+					}
 				
 					
 			
-			} catch(IOException e) {
-				log.error("Error connecting to Jena Database" , e);
-			}
+				} catch(IOException e) {
+					log.error("Error connecting to Jena Database" , e);
+				}
 			
 			
-		}
-		else
-			log.info("Journal is in perfect sync with Pubadmin for pubid" + pb.getScopusDocId());
+			}
+			else
+				log.info("Journal is in perfect sync with Pubadmin for pubid" + pb.getScopusDocId());
 		
-		this.jcf.returnConnectionToPool(this.vivoJena, "wcmcPublications");
+		}
 	}
 	
 	public static Document loadXMLFromString(String xml) throws Exception {
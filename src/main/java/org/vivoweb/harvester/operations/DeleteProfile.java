@@ -8,6 +8,7 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -29,21 +30,24 @@ import org.vivoweb.harvester.util.repo.SDBJenaConnect;
 
 import lombok.extern.slf4j.Slf4j;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSet;
 
+import com.google.common.collect.Lists;
+import com.unboundid.ldap.sdk.Filter;
 import com.unboundid.ldap.sdk.LDAPConnection;
 import com.unboundid.ldap.sdk.SearchResultEntry;
+import com.unboundid.ldap.sdk.SearchScope;
 
 import reciter.connect.beans.vivo.delete.profile.PublicationBean;
 import reciter.connect.database.ldap.LDAPConnectionFactory;
 import reciter.connect.database.mysql.MysqlConnectionFactory;
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.mysql.jena.JenaConnectionLease;
 import reciter.connect.vivo.IngestType;
 import reciter.connect.vivo.api.client.VivoClient;
+import reciter.connect.vivo.api.client.model.SparqlRow;
 
 
 
@@ -64,6 +68,18 @@ public class DeleteProfile {
 	
 	private static String ldapbasedn = null;
 	
+	private static final String ED_PEOPLE_BASE_DN = "ou=people,dc=weill,dc=cornell,dc=edu";
+	
+	/**
+	 * The attributes read from ED for a person
+	 */
+	private static final String[] ED_PERSON_ATTRIBUTES = {"weillCornellEduCWID", "weillCornellEduPersonTypeCode", "sn", "givenName", "weillCornellEduMiddleName"};
+	
+	/**
+	 * Number of cwids looked up in ED with one filter
+	 */
+	private static final int ED_LOOKUP_CHUNK_SIZE = 100;
+	
 	private String givenName = null;
 	private String familyName = null;
 	private String middleName = null;
@@ -122,17 +138,9 @@ public class DeleteProfile {
 		
 		if(ingestType.equals(IngestType.VIVO_API.toString())) {
 			try {
-				String response = this.vivoClient.vivoQueryApi(sb.toString());
-				logger.info(response);
-				JSONObject obj = new JSONObject(response);
-				JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				if(bindings != null && !bindings.isEmpty()) {
-					for (int i = 0; i < bindings.length(); ++i) {
-						if(bindings.getJSONObject(i).optJSONObject("grant") != null && bindings.getJSONObject(i).optJSONObject("grant").has("value")
-						&&
-						bindings.getJSONObject(i).optJSONObject("role") != null && bindings.getJSONObject(i).optJSONObject("role").has("value")) {
-							grants.put("<" + bindings.getJSONObject(i).getJSONObject("grant").getString("value") + ">", "<" + bindings.getJSONObject(i).getJSONObject("role").getString("value") + ">");
-						}
+				for(SparqlRow row: this.vivoClient.vivoQueryApi(sb.toString(), row -> row)) {
+					if(row.isBound("grant") && row.isBound("role")) {
+						grants.put("<" + row.getValue("grant") + ">", "<" + row.getValue("role") + ">");
 					}
 				}
 			} catch(Exception e) {
@@ -140,9 +148,9 @@ public class DeleteProfile {
 			}
 		} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
 		
-			SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
 			ResultSet rs = null;
-			try {
+			try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+				SDBJenaConnect vivoJena = lease.getConnection();
 				rs = vivoJena.executeSelectQuery(sb.toString(), true);
 			
 			logger.info("Grant List for cwid " + cwid);
@@ -160,7 +168,6 @@ public class DeleteProfile {
 			} catch(IOException e) {
 				logger.error("Error Connecting to Jena Database" , e);
 			}
-			this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 		}
 		
 		
@@ -189,31 +196,21 @@ public class DeleteProfile {
 		
 		if(ingestType.equals(IngestType.VIVO_API.toString())) {
 			try {
-				String response = this.vivoClient.vivoQueryApi(sparqlQuery);
-				logger.info(response);
-				JSONObject obj = new JSONObject(response);
-				JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				if(bindings != null && !bindings.isEmpty()) {
-					for (int i = 0; i < bindings.length(); ++i) {
-						PublicationBean pb = new PublicationBean();
-						if(bindings.getJSONObject(i).optJSONObject("pub") != null && bindings.getJSONObject(i).optJSONObject("pub").has("value")) {
-							pb.setPubUrl(bindings.getJSONObject(i).getJSONObject("pub").getString("value"));
-						}
-						if(bindings.getJSONObject(i).optJSONObject("Authorship") != null && bindings.getJSONObject(i).optJSONObject("Authorship").has("value")) {
-							pb.setAuthorshipUrl(bindings.getJSONObject(i).getJSONObject("Authorship").getString("value"));
-						}
-						pb.setAuthorUrl(this.vivoNamespace + "cwid-" + cwid.trim());
-						publications.add(pb);
-					}
-				}
+				publications.addAll(this.vivoClient.vivoQueryApi(sparqlQuery, row -> {
+					PublicationBean pb = new PublicationBean();
+					pb.setPubUrl(row.getValue("pub"));
+					pb.setAuthorshipUrl(row.getValue("Authorship"));
+					pb.setAuthorUrl(this.vivoNamespace + "cwid-" + cwid.trim());
+					return pb;
+				}));
 			} catch(Exception e) {
 				logger.error("Api Exception", e);
 			}
 		} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
 		
-			SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
 			ResultSet rs;
-			try {
+			try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+				SDBJenaConnect vivoJena = lease.getConnection();
 				rs = vivoJena.executeSelectQuery(sparqlQuery, true);
 			
 			logger.info("Publication list for cwid " + cwid);
@@ -235,7 +232,6 @@ public class DeleteProfile {
 			} catch(IOException e) {
 				logger.error("Error Connecting to Jena Database" , e);
 			}
-			this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 		}
 		
 		
@@ -265,13 +261,9 @@ public class DeleteProfile {
 			
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
 				try {
-					String response = this.vivoClient.vivoQueryApi(sparqlQuery);
-					logger.info(response);
-					JSONObject obj = new JSONObject(response);
-					JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-					if(bindings != null && !bindings.isEmpty()) {
-						int count = bindings.getJSONObject(0).getJSONObject("count").getInt("value");
-						if(count <= 1) 
+					List<Long> counts = this.vivoClient.vivoQueryApi(sparqlQuery, row -> row.getLong("count"));
+					if(!counts.isEmpty()) {
+						if(counts.get(0) <= 1) 
 							pub.setAdditionalWcmcAuthorFlag(false);
 						else
 							pub.setAdditionalWcmcAuthorFlag(true);
@@ -280,9 +272,9 @@ public class DeleteProfile {
 					logger.error("Api Exception", e);
 				}
 			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-				SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
 				ResultSet rs;
-				try {
+				try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+					SDBJenaConnect vivoJena = lease.getConnection();
 					rs = vivoJena.executeSelectQuery(sparqlQuery, true);
 					int count = Integer.parseInt(rs.nextSolution().get("count").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
 					if(count <= 1) 
@@ -292,7 +284,6 @@ public class DeleteProfile {
 				} catch(IOException e) {
 					logger.error("Error Connecting to Jena Database" , e);
 				}
-				this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 			}
 			
 			
@@ -311,12 +302,17 @@ public class DeleteProfile {
 	 * @throws IOException exception thrown by JenaConnect
 	 */
 	private void deleteProfile(String cwid, List<PublicationBean> publications, Map<String, String> grants) throws IOException {
-		String sparql = null;
-		SDBJenaConnect vivoJena = null;
-		
-		if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-			vivoJena = this.jcf.getConnectionfromPool("dataSet");
+		try(JenaConnectionLease lease = ingestType.equals(IngestType.SDB_DIRECT.toString()) ? this.jcf.lease("dataSet") : null) {
+			deleteProfile(cwid, publications, grants, lease == null ? null : lease.getConnection());
 		}
+	}
+	
+	/**
+	 * Delete the profile with the SDB connection leased by {@link #deleteProfile(String, List, Map)}
+	 * @param vivoJena the SDB connection, null for the other ingest types
+	 */
+	private void deleteProfile(String cwid, List<PublicationBean> publications, Map<String, String> grants, SDBJenaConnect vivoJena) throws IOException {
+		String sparql = null;
 
 			// Delete from People Graph
 			logger.info("Deleting profile in People graph for " + cwid );
@@ -424,23 +420,14 @@ public class DeleteProfile {
 			
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
 				try {
-					String response = this.vivoClient.vivoQueryApi(sparql);
-					logger.info(response);
-					JSONObject obj = new JSONObject(response);
-					JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-					if(bindings != null && !bindings.isEmpty()) {
-						for (int i = 0; i < bindings.length(); ++i) {
-							if(bindings.getJSONObject(i).optJSONObject("obj") != null && bindings.getJSONObject(i).optJSONObject("obj").has("value")) {
-								String manual = bindings.getJSONObject(i).getJSONObject("obj").getString("value");
-								sparql = "WITH <http://vitro.mannlib.cornell.edu/default/vitro-kb-2> \n" +
-								"DELETE { \n" +
-								"<" + manual + "> ?p ?o . \n" +
-								"} WHERE { \n" +
-								"<" + manual + "> ?p ?o . \n" +
-								"}";
-								logger.info(this.vivoClient.vivoUpdateApi(sparql));
-							}
-						}
+					for(String manual: this.vivoClient.vivoQueryApi(sparql, row -> row.getValue("obj"))) {
+						sparql = "WITH <http://vitro.mannlib.cornell.edu/default/vitro-kb-2> \n" +
+						"DELETE { \n" +
+						"<" + manual + "> ?p ?o . \n" +
+						"} WHERE { \n" +
+						"<" + manual + "> ?p ?o . \n" +
+						"}";
+						logger.info(this.vivoClient.vivoUpdateApi(sparql));
 					}
 				} catch(Exception e) {
 					logger.error("Api Exception", e);
@@ -472,23 +459,14 @@ public class DeleteProfile {
 			
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
 				try {
-					String response = this.vivoClient.vivoQueryApi(sparql);
-					logger.info(response);
-					JSONObject obj = new JSONObject(response);
-					JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-					if(bindings != null && !bindings.isEmpty()) {
-						for (int i = 0; i < bindings.length(); ++i) {
-							if(bindings.getJSONObject(i).optJSONObject("obj") != null && bindings.getJSONObject(i).optJSONObject("obj").has("value")) {
-								String manual = bindings.getJSONObject(i).getJSONObject("obj").getString("value");
-								sparql = "WITH <http://vitro.mannlib.cornell.edu/default/vitro-kb-2> \n" +
-								"DELETE { \n" +
-								"<" + manual + "> ?p ?o . \n" +
-								"} WHERE { \n" +
-								"<" + manual + "> ?p ?o . \n" +
-								"}";
-								logger.info(this.vivoClient.vivoUpdateApi(sparql));
-							}
-						}
+					for(String manual: this.vivoClient.vivoQueryApi(sparql, row -> row.getValue("obj"))) {
+						sparql = "WITH <http://vitro.mannlib.cornell.edu/default/vitro-kb-2> \n" +
+						"DELETE { \n" +
+						"<" + manual + "> ?p ?o . \n" +
+						"} WHERE { \n" +
+						"<" + manual + "> ?p ?o . \n" +
+						"}";
+						logger.info(this.vivoClient.vivoUpdateApi(sparql));
 					}
 				} catch(Exception e) {
 					logger.error("Api Exception", e);
@@ -754,9 +732,6 @@ public class DeleteProfile {
 				
 			}	
 		}
-		if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-			this.jcf.returnConnectionToPool(vivoJena, "dataSet");
-		}
 		
 	}
 	
@@ -766,57 +741,94 @@ public class DeleteProfile {
 	 * This function checks for a supplied cwid whether the person is active in ED or not
 	 */
 	public boolean checkForInActivePeopleEd(String cwid) {
-		boolean isActive = false;
 		LDAPConnection connection = this.lcf.getConnectionfromPool();
 		if(connection != null) {
 			this.lcf.returnConnectionToPool(connection);
-			List<SearchResultEntry> results = this.lcf.searchWithBaseDN("(&(objectClass=eduPerson)(weillCornellEduCWID=" + cwid + "))", "ou=people,dc=weill,dc=cornell,dc=edu");
-		
-			if (results.size() == 1) {
-				SearchResultEntry entry = results.get(0);
-				if(entry.getAttributeValue("weillCornellEduCWID") != null) {
-					if(entry.getAttributeValues("weillCornellEduPersonTypeCode") != null) {
-						String personType[] = new String[entry.getAttributeValues("weillCornellEduPersonTypeCode").length];
-						personType = entry.getAttributeValues("weillCornellEduPersonTypeCode");
-						List<String> ptypes = Arrays.asList(personType);
-						if(ptypes.contains("academic")) 
-							isActive = true;
-						else
-							isActive = false;
-					}
+			List<SearchResultEntry> results = this.lcf.search("(&(objectClass=eduPerson)(weillCornellEduCWID=" + cwid + "))", ED_PEOPLE_BASE_DN, SearchScope.SUBORDINATE_SUBTREE, ED_PERSON_ATTRIBUTES);
+			return checkForInActivePeopleEd(cwid, results);
+		} else 
+			return true;
+	}
+	
+	/**
+	 * @param cwid The unique identifier to search for in ED
+	 * @param results the entries found in ED for the cwid
+	 * @return whether the person is active in ED or not
+	 */
+	private boolean checkForInActivePeopleEd(String cwid, List<SearchResultEntry> results) {
+		boolean isActive = false;
+		if (results.size() == 1) {
+			SearchResultEntry entry = results.get(0);
+			if(entry.getAttributeValue("weillCornellEduCWID") != null) {
+				if(entry.getAttributeValues("weillCornellEduPersonTypeCode") != null) {
+					String personType[] = new String[entry.getAttributeValues("weillCornellEduPersonTypeCode").length];
+					personType = entry.getAttributeValues("weillCornellEduPersonTypeCode");
+					List<String> ptypes = Arrays.asList(personType);
+					if(ptypes.contains("academic")) 
+						isActive = true;
 					else
 						isActive = false;
-					
-					if(entry.getAttributeValue("sn") !=null ) 
-						this.familyName = StringEscapeUtils.escapeJava(entry.getAttributeValue("sn"));
-					
-					if(entry.getAttributeValue("givenName") !=null )
-						this.givenName = StringEscapeUtils.escapeJava(entry.getAttributeValue("givenName"));
-					
-					if(entry.getAttributeValue("weillCornellEduMiddleName") != null)
-						this.middleName = " " + StringEscapeUtils.escapeJava(entry.getAttributeValue("weillCornellEduMiddleName")) + " ";
-					else
-						this.middleName= " ";
-					
-					//logger.info(entry.toLDIFString());
-
 				}
 				else
 					isActive = false;
 				
+				if(entry.getAttributeValue("sn") !=null ) 
+					this.familyName = StringEscapeUtils.escapeJava(entry.getAttributeValue("sn"));
+				
+				if(entry.getAttributeValue("givenName") !=null )
+					this.givenName = StringEscapeUtils.escapeJava(entry.getAttributeValue("givenName"));
+				
+				if(entry.getAttributeValue("weillCornellEduMiddleName") != null)
+					this.middleName = " " + StringEscapeUtils.escapeJava(entry.getAttributeValue("weillCornellEduMiddleName")) + " ";
+				else
+					this.middleName= " ";
+				
+				//logger.info(entry.toLDIFString());
+
 			}
 			else
 				isActive = false;
 			
-			if(isActive==false) {
-				if(this.givenName == null && this.familyName == null)
-				getNamesFromVivo(cwid);
-			}
-		} else 
-			isActive = true;
+		}
+		else
+			isActive = false;
+		
+		if(isActive==false) {
+			if(this.givenName == null && this.familyName == null)
+			getNamesFromVivo(cwid);
+		}
 		return isActive;
 	}
 	
+	/**
+	 * Looks up all the cwids in ED at once. The cwids are searched in chunks on several connections in parallel.
+	 * @param cwids the people in VIVO
+	 * @return the ED entries by lower case cwid or null if ED could not be searched completely
+	 */
+	private Map<String, List<SearchResultEntry>> getPeopleFromED(List<String> cwids) {
+		List<String> filters = new ArrayList<>();
+		for(List<String> chunk : Lists.partition(cwids, ED_LOOKUP_CHUNK_SIZE)) {
+			StringBuilder filter = new StringBuilder("(&(objectClass=eduPerson)(|");
+			for(String cwid : chunk) {
+				filter.append(Filter.createEqualityFilter("weillCornellEduCWID", cwid.trim()).toString());
+			}
+			filters.add(filter.append("))").toString());
+		}
+		List<SearchResultEntry> results = this.lcf.searchParallel(filters, ED_PEOPLE_BASE_DN, ED_PERSON_ATTRIBUTES);
+		if(results == null) {
+			logger.error("People could not be looked up in ED at once. Every cwid is searched separately");
+			return null;
+		}
+		Map<String, List<SearchResultEntry>> edPeople = new HashMap<>();
+		for(SearchResultEntry entry : results) {
+			String cwid = entry.getAttributeValue("weillCornellEduCWID");
+			if(cwid != null) {
+				edPeople.computeIfAbsent(cwid.trim().toLowerCase(), k -> new ArrayList<>()).add(entry);
+			}
+		}
+		return edPeople;
+	}
+	
 	/**
 	 * @param cwid Unique identifier 
 	 * This function gets the full Name for the faculty
@@ -830,26 +842,20 @@ public class DeleteProfile {
 			 "}}";
 		
 		if(ingestType.equals(IngestType.VIVO_API.toString())) {
-			String response = vivoClient.vivoQueryApi(sparqlQuery);
-			logger.info(response);
-			JSONObject obj = new JSONObject(response);
-			JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-			if(bindings != null && !bindings.isEmpty()) {
-				if(bindings.getJSONObject(0).optJSONObject("givenName") != null && bindings.getJSONObject(0).optJSONObject("givenName").has("value")
-				&&
-				bindings.getJSONObject(0).optJSONObject("familyName") != null && bindings.getJSONObject(0).optJSONObject("familyName").has("value")) {
-					this.givenName = bindings.getJSONObject(0).getJSONObject("givenName").getString("value");
-					this.familyName = bindings.getJSONObject(0).getJSONObject("familyName").getString("value");
+			List<SparqlRow> rows = vivoClient.vivoQueryApi(sparqlQuery, row -> row);
+			if(!rows.isEmpty()) {
+				if(rows.get(0).isBound("givenName") && rows.get(0).isBound("familyName")) {
+					this.givenName = rows.get(0).getValue("givenName");
+					this.familyName = rows.get(0).getValue("familyName");
 				}
 				
 			}
 		} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
 		
-			SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
 			ResultSet rs;
 			
-			try {
-				rs = vivoJena.executeSelectQuery(sparqlQuery, true);
+			try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+				rs = lease.getConnection().executeSelectQuery(sparqlQuery, true);
 				if(rs != null && rs.hasNext()) {
 					QuerySolution qs = rs.nextSolution();
 					this.givenName = qs.get("givenName").toString().trim();
@@ -858,7 +864,6 @@ public class DeleteProfile {
 			} catch(IOException e) {
 			logger.error("Error connecting to Jena Database" , e);
 			}
-			this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 		}
 		
 		if(this.givenName==null && this.familyName==null) {
@@ -869,13 +874,10 @@ public class DeleteProfile {
 				 "}}";
 			
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
-				String response = vivoClient.vivoQueryApi(sparqlQuery);
-				logger.info(response);
-				JSONObject obj = new JSONObject(response);
-				JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				if(bindings != null && !bindings.isEmpty()) {
-					if(bindings.getJSONObject(0).optJSONObject("label") != null && bindings.getJSONObject(0).optJSONObject("label").has("value")) {
-						String label =bindings.getJSONObject(0).getJSONObject("label").getString("value").replace("@en-us", "").replace("\"", "").trim();
+				List<String> labels = vivoClient.vivoQueryApi(sparqlQuery, row -> row.getValue("label"));
+				if(!labels.isEmpty()) {
+					if(labels.get(0) != null) {
+						String label =labels.get(0).replace("@en-us", "").replace("\"", "").trim();
 						String[] splitLabel = label.split(",");
 						this.givenName = splitLabel[0].trim();
 						this.familyName = splitLabel[1].trim();
@@ -884,10 +886,8 @@ public class DeleteProfile {
 				}
 			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
 			
-				SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
-				
-				try {
-					ResultSet rs = vivoJena.executeSelectQuery(sparqlQuery, true);
+				try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+					ResultSet rs = lease.getConnection().executeSelectQuery(sparqlQuery, true);
 					if(rs != null && rs.hasNext()) {
 						QuerySolution qs = rs.nextSolution();
 						String label = qs.get("label").toString().replace("@en-us", "").replace("\"", "").trim();
@@ -899,7 +899,6 @@ public class DeleteProfile {
 				} catch(IOException e) {
 				logger.error("Error connecting to Jena Database" , e);
 				}
-				this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 			}
 		}
 		
@@ -921,11 +920,10 @@ public class DeleteProfile {
 		logger.info(sparqlQuery);
 		
 		
-		SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
 		ResultSet rs;
 		
-		try {
-		rs = vivoJena.executeSelectQuery(sparqlQuery, true);
+		try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+		rs = lease.getConnection().executeSelectQuery(sparqlQuery, true);
 		int count = Integer.parseInt(rs.nextSolution().get("count").toString().replace("^^http://www.w3.org/2001/XMLSchema#integer", ""));
 		if(count == 0) 
 		inVivo = false;
@@ -933,7 +931,6 @@ public class DeleteProfile {
 		} catch(IOException e) {
 		logger.error("Error connecting to Jena Database" , e);
 		}
-		this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 		
 		return inVivo;
 	}
@@ -965,7 +962,6 @@ public class DeleteProfile {
 		String randomNumber;
 		int inferenceCount = 0;
 		
-		SDBJenaConnect vivoJena = null;
 		//Check for person in VIVO
 		/*StringBuilder sbs = new StringBuilder();
 		sbs.append("SELECT ?vcard ?arg ?person \n");
@@ -1071,16 +1067,13 @@ public class DeleteProfile {
 				if(ingestType.equals(IngestType.VIVO_API.toString())) {
 					logger.info(this.vivoClient.vivoUpdateApi(sb.toString()));
 				} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-					vivoJena = this.jcf.getConnectionfromPool("dataSet");
-					
-					try {
-						vivoJena.executeUpdateQuery(sb.toString(), true);
+					try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+						lease.getConnection().executeUpdateQuery(sb.toString(), true);
 		
 					} catch(IOException e) {
 						// TODO Auto-generated catch block
 						logger.error("IOException" , e);
 					}
-					this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 					//Insert into inference graph
 					
 					if(inferenceCount == 0) {
@@ -1093,14 +1086,12 @@ public class DeleteProfile {
 						if(ingestType.equals(IngestType.VIVO_API.toString())) {
 							logger.info(this.vivoClient.vivoUpdateApi(sparqlQuery));
 						} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-							vivoJena = this.jcf.getConnectionfromPool("dataSet");
-							try {
-								vivoJena.executeUpdateQuery(sparqlQuery, true);
+							try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+								lease.getConnection().executeUpdateQuery(sparqlQuery, true);
 							} catch(IOException e) {
 								// TODO Auto-generated catch block
 								logger.error("IOException" , e);
 							}
-							this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 						}
 					}
 				}
@@ -1178,27 +1169,16 @@ public class DeleteProfile {
 		//logger.info(sb.toString());
 		logger.info("Fetching all the remaining triples from different graphs for cleanup for " + cwid);
 		if(ingestType.equals(IngestType.VIVO_API.toString())) {
-			String response = vivoClient.vivoQueryApi(sb.toString());
-			logger.info(response);
-			JSONObject obj = new JSONObject(response);
-			JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-			if(bindings != null && !bindings.isEmpty()) {
-				for (int i = 0; i < bindings.length(); ++i) {
-					if(bindings.getJSONObject(i).optJSONObject("g") != null && bindings.getJSONObject(i).optJSONObject("g").has("value")
-					&&
-					bindings.getJSONObject(i).optJSONObject("p") != null && bindings.getJSONObject(i).optJSONObject("p").has("value")
-					&&
-					bindings.getJSONObject(i).optJSONObject("o") != null && bindings.getJSONObject(i).optJSONObject("o").has("value")) {
-						triples.add(new Triples(bindings.getJSONObject(i).getJSONObject("g").getString("value"), this.vivoNamespace + "cwid-" + cwid.trim(), bindings.getJSONObject(i).getJSONObject("p").getString("value"), bindings.getJSONObject(i).getJSONObject("o").getString("value")));
-						logger.info("Graph - " + bindings.getJSONObject(i).getJSONObject("g").getString("value") + " - Triple: " + this.vivoNamespace + "cwid-" + cwid.trim()+ " " + bindings.getJSONObject(i).getJSONObject("p").getString("value") + " " + bindings.getJSONObject(i).getJSONObject("o").getString("value"));
-					}
+			for(SparqlRow row: vivoClient.vivoQueryApi(sb.toString(), row -> row)) {
+				if(row.isBound("g") && row.isBound("p") && row.isBound("o")) {
+					triples.add(new Triples(row.getValue("g"), this.vivoNamespace + "cwid-" + cwid.trim(), row.getValue("p"), row.getValue("o")));
+					logger.info("Graph - " + row.getValue("g") + " - Triple: " + this.vivoNamespace + "cwid-" + cwid.trim()+ " " + row.getValue("p") + " " + row.getValue("o"));
 				}
 			}
 		} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-			SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
 			ResultSet rs;
-			try {
-				rs = vivoJena.executeSelectQuery(sb.toString(), true);
+			try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+				rs = lease.getConnection().executeSelectQuery(sb.toString(), true);
 				while(rs.hasNext())
 				{
 					QuerySolution qs =rs.nextSolution();
@@ -1215,8 +1195,6 @@ public class DeleteProfile {
 					// TODO Auto-generated catch block
 					logger.info("IOException" , e);
 				}
-				
-			this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 		}
 		
 		sb.setLength(0);
@@ -1251,16 +1229,12 @@ public class DeleteProfile {
 			if(ingestType.equals(IngestType.VIVO_API.toString())) {
 				logger.info(this.vivoClient.vivoUpdateApi(sb.toString()));
 			} else if(ingestType.equals(IngestType.SDB_DIRECT.toString())){
-				SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
-				
 				logger.info("Deleting all the remaining triples for cwid - " + cwid );
-				try {
-					vivoJena.executeUpdateQuery(sb.toString(), true);
+				try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+					lease.getConnection().executeUpdateQuery(sb.toString(), true);
 				} catch(IOException e) {
 					logger.error("Error connecting to SDBJena");
 				}
-				
-				this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 			}
 			
 			
@@ -1301,26 +1275,16 @@ public class DeleteProfile {
 		//logger.info(sparqlQuery);
 		if(ingestType.equals(IngestType.VIVO_API.toString())) {
 			try {
-				String response = this.vivoClient.vivoQueryApi(sparqlQuery);
-				logger.info(response);
-				JSONObject obj = new JSONObject(response);
-				JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				if(bindings != null && !bindings.isEmpty()) {
-					for (int i = 0; i < bindings.length(); ++i) {
-						if(bindings.getJSONObject(i).optJSONObject("people") != null && bindings.getJSONObject(i).optJSONObject("people").has("value")) {
-							people.add(bindings.getJSONObject(i).getJSONObject("people").getString("value").replace(this.vivoNamespace + "cwid-", "").trim());
-						}
-					}
-				}
+				people.addAll(this.vivoClient.vivoQueryApi(sparqlQuery, row -> row.isBound("people") ? row.getValue("people").replace(this.vivoNamespace + "cwid-", "").trim() : null));
 				
 			} catch(Exception e) {
 				logger.error("Api Exception", e);
 			}
 		} else {
 		
-			SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
 			ResultSet rs;
-			try {
+			try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+				SDBJenaConnect vivoJena = lease.getConnection();
 				rs = vivoJena.executeSelectQuery(sparqlQuery,true);
 			
 			
@@ -1337,16 +1301,18 @@ public class DeleteProfile {
 				// TODO Auto-generated catch block
 				logger.info("IOException" , e);
 			}
-			this.jcf.returnConnectionToPool(vivoJena, "dataSet");
 		}
 			
 		
 			
 		
+		Map<String, List<SearchResultEntry>> edPeople = getPeopleFromED(people);
 		Iterator<String> it = people.iterator();
 		while(it.hasNext()) {
 			String cwid = it.next().trim();
-			if(!checkForInActivePeopleEd(cwid)) {
+			boolean isActive = edPeople == null ? checkForInActivePeopleEd(cwid)
+				: checkForInActivePeopleEd(cwid, edPeople.getOrDefault(cwid.toLowerCase(), Collections.emptyList()));
+			if(!isActive) {
 				List<PublicationBean> publications = new ArrayList<PublicationBean>();
 				Map<String, String> grants = new HashMap<String, String>();
 				logger.info("###########################################");
@@ -6,6 +6,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.mysql.jena.JenaConnectionLease;
 import org.vivoweb.harvester.util.repo.SDBJenaConnect;
 
 import org.apache.jena.query.QuerySolution;
@@ -80,13 +81,11 @@ public class PublicationAuthorshipMaintenance {
 		
 		log.info("Deleting authorship: " + pa.getAuthorshipUrl() + "\nfor publication: " + pa.getPubUrl() + " having author as " + pa.getAuthorUrl() + " \nand assigning correct author " + vivoNamespace + "cwid-" + ab.getCwid() );
 		
-		SDBJenaConnect vivoJena = jcf.getConnectionfromPool("wcmcPublications");
-		try {
-			vivoJena.executeUpdateQuery(sb.toString(), true);
+		try(JenaConnectionLease lease = jcf.lease("wcmcPublications")) {
+			lease.getConnection().executeUpdateQuery(sb.toString(), true);
 		} catch(IOException e) {
 			log.error("Error connecting to SDBJena");
 		}
-		jcf.returnConnectionToPool(vivoJena, "wcmcPublications");
 		
 		//Deal with inference graph for person
 		if(sb.length()>0)
@@ -105,15 +104,12 @@ public class PublicationAuthorshipMaintenance {
 		sb.append("OPTIONAL {<" + pa.getAuthorshipUrl().trim() + "> <http://purl.obolibrary.org/obo/ARG_2000028> <" + vivoNamespace + "arg2000028-" + personId.trim() + "> . } \n");
 		sb.append("}");
 		
-		vivoJena = jcf.getConnectionfromPool("vitro-kb-inf");
-		
-		try {
-			vivoJena.executeUpdateQuery(sb.toString(), true);
+		try(JenaConnectionLease lease = jcf.lease("vitro-kb-inf")) {
+			lease.getConnection().executeUpdateQuery(sb.toString(), true);
 		} catch(IOException e) {
 			log.error("Error connecting to SDBJena");
 		}
 		log.info("Deleting triples in inference graph for " + pa.getAuthorUrl());
-		jcf.returnConnectionToPool(vivoJena, "vitro-kb-inf");
 	}
 	
 	/**
@@ -138,10 +134,9 @@ public class PublicationAuthorshipMaintenance {
 		
 		log.info("Fetching all the authorship details for publication: " + pub + " in VIVO");
 		
-		SDBJenaConnect vivoJena = jcf.getConnectionfromPool("wcmcPublications");
 		ResultSet rs;
-		try {
-			rs = vivoJena.executeSelectQuery(sb.toString());
+		try(JenaConnectionLease lease = jcf.lease("wcmcPublications")) {
+			rs = lease.getConnection().executeSelectQuery(sb.toString());
 			while(rs.hasNext())
 			{
 				QuerySolution qs =rs.nextSolution();
@@ -161,8 +156,6 @@ public class PublicationAuthorshipMaintenance {
 				// TODO Auto-generated catch block
 				log.info("IOException" , e);
 			}
-			
-		jcf.returnConnectionToPool(vivoJena, "wcmcPublications");
 		
 			return publication;
 	}
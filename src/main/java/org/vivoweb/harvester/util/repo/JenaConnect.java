@@ -37,6 +37,7 @@ import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.shared.Lock;
 import org.apache.jena.update.UpdateAction;
 import org.apache.jena.update.UpdateFactory;
+import org.apache.jena.update.UpdateRequest;
 
 /* import com.hp.hpl.jena.graph.GraphEvents;
 import com.hp.hpl.jena.query.Dataset;
@@ -455,7 +456,23 @@ public abstract class JenaConnect {
 	public boolean executeAskQuery(String queryString, boolean datasetMode) throws IOException {
 		return buildQueryExec(queryString, datasetMode).execAsk();
 	}
-	
+
+	/**
+	 * Executes a sparql construct query against the JENA model and returns the constructed triples
+	 * @param queryString the query to execute against the model
+	 * @param datasetMode execute against dataset
+	 * @return the constructed triples in a new in memory model
+	 * @throws IOException error connecting
+	 */
+	public Model executeConstructQuery(String queryString, boolean datasetMode) throws IOException {
+		QueryExecution qexec = buildQueryExec(queryString, datasetMode);
+		try {
+			return qexec.execConstruct();
+		} finally {
+			qexec.close();
+		}
+	}
+
 	/**
 	 * Executes a sparql update query against the JENA model
 	 * @param queryString the query to execute against the model
@@ -472,16 +489,26 @@ public abstract class JenaConnect {
 	 * @throws IOException error connecting
 	 */
 	public void executeUpdateQuery(String queryString, boolean datasetMode) throws IOException {
+//		log.debug("query:\n" + queryString);
+		executeUpdate(UpdateFactory.create(queryString), datasetMode);
+	}
+	
+	/**
+	 * Executes a sparql update that was built with the Jena update API, no SPARQL text is written or parsed
+	 * @param updateRequest the update to execute against the model
+	 * @param datasetMode execute against dataset
+	 * @throws IOException error connecting
+	 */
+	public void executeUpdate(UpdateRequest updateRequest, boolean datasetMode) throws IOException {
 		this.jenaModel.begin();
 		this.jenaModel.notifyEvent(GraphEvents.startRead);
 		try {
-//			log.debug("query:\n" + queryString);
 			if(datasetMode) {
 //				log.trace("Executing query against dataset");
-				UpdateAction.execute(UpdateFactory.create(queryString), getDataset());
+				UpdateAction.execute(updateRequest, getDataset());
 			} else {
 //				log.trace("Executing query against model");
-				UpdateAction.execute(UpdateFactory.create(queryString), getJenaModel());
+				UpdateAction.execute(updateRequest, getJenaModel());
 			}
 		} finally {
 			this.jenaModel.notifyEvent(GraphEvents.finishRead);
@@ -141,6 +141,20 @@ public class SDBJenaConnect extends DBJenaConnect {
 		}
 	}
 	
+	/**
+	 * Check that the database connection of the store is still usable
+	 * @param timeoutSeconds seconds to wait for the database to answer
+	 * @return true if the connection answered in time
+	 */
+	public boolean isValid(int timeoutSeconds) {
+		try {
+			return this.store.getConnection().getSqlConnection().isValid(timeoutSeconds);
+		} catch(SQLException e) {
+			log.debug("Connection validation failed", e);
+			return false;
+		}
+	}
+	
 	@Override
 	public void close() {
 		super.close();
@@ -6,16 +6,30 @@
 package org.vivoweb.harvester.util.repo;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.jena.query.Dataset;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.query.ResultSetFactory;
+import org.apache.jena.query.Syntax;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.system.Txn;
 import org.apache.jena.tdb.TDBFactory;
+import org.apache.jena.update.UpdateAction;
+import org.apache.jena.update.UpdateRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.vivoweb.harvester.util.FileAide;
 
 /**
  * Connection Helper for TDB Jena Models
+ * <p>All connections to a directory share one transactional Dataset. Queries run in a read transaction and updates in a
+ * write transaction so many threads can use the connections at the same time. Select results are copied before the
+ * read transaction ends.</p>
  * @author Christopher Haines (hainesc@ctrip.ufl.edu)
  */
 public class TDBJenaConnect extends JenaConnect {
@@ -24,9 +38,9 @@ public class TDBJenaConnect extends JenaConnect {
 	 */
 	private static Logger log = LoggerFactory.getLogger(TDBJenaConnect.class);
 	/**
-	 * Mapping of directory to Dataset
+	 * Mapping of directory to the Dataset shared by all connections to it
 	 */
-	private static HashMap<String, Dataset> dirDatasets = new HashMap<>();
+	private static final ConcurrentMap<String, Dataset> dirDatasets = new ConcurrentHashMap<>();
 	/**
 	 * the TDB directory name
 	 */
@@ -71,10 +85,72 @@ public class TDBJenaConnect extends JenaConnect {
 	
 	@Override
 	public Dataset getDataset() {
-		if(!dirDatasets.containsKey(this.dbDir)) {
-			dirDatasets.put(this.dbDir, TDBFactory.createDataset(this.dbDir));
+		return dirDatasets.computeIfAbsent(this.dbDir, TDBFactory::createDataset);
+	}
+	
+	/**
+	 * Close the shared Dataset of a directory. Connections opened before must not be used afterwards.
+	 * @param dbDir tdb directory name
+	 */
+	public static void closeDataset(String dbDir) {
+		Dataset dataset = dirDatasets.remove(dbDir);
+		if(dataset != null) {
+			dataset.close();
 		}
-		return dirDatasets.get(this.dbDir);
+	}
+	
+	private QueryExecution buildQueryExec(String queryString, boolean datasetMode) {
+		return QueryExecutionFactory.create(QueryFactory.create(queryString, Syntax.syntaxARQ), datasetMode ? getDataset() : getJenaModel());
+	}
+	
+	/**
+	 * Executes a sparql select query in a read transaction. The result set is always copied.
+	 */
+	@Override
+	public ResultSet executeSelectQuery(String queryString, boolean copyResultSet, boolean datasetMode) {
+		return Txn.calculateRead(getDataset(), () -> {
+			try(QueryExecution qexec = buildQueryExec(queryString, datasetMode)) {
+				return ResultSetFactory.copyResults(qexec.execSelect());
+			}
+		});
+	}
+	
+	/**
+	 * Executes a sparql ask query in a read transaction
+	 */
+	@Override
+	public boolean executeAskQuery(String queryString, boolean datasetMode) {
+		return Txn.calculateRead(getDataset(), () -> {
+			try(QueryExecution qexec = buildQueryExec(queryString, datasetMode)) {
+				return qexec.execAsk();
+			}
+		});
+	}
+	
+	/**
+	 * Executes a sparql construct query in a read transaction
+	 */
+	@Override
+	public Model executeConstructQuery(String queryString, boolean datasetMode) {
+		return Txn.calculateRead(getDataset(), () -> {
+			try(QueryExecution qexec = buildQueryExec(queryString, datasetMode)) {
+				return qexec.execConstruct();
+			}
+		});
+	}
+	
+	/**
+	 * Executes a sparql update in a write transaction. Writers are serialized by TDB, readers are not blocked.
+	 */
+	@Override
+	public void executeUpdate(UpdateRequest updateRequest, boolean datasetMode) {
+		Txn.executeWrite(getDataset(), () -> {
+			if(datasetMode) {
+				UpdateAction.execute(updateRequest, getDataset());
+			} else {
+				UpdateAction.execute(updateRequest, getJenaModel());
+			}
+		});
 	}
 	
 	@Override
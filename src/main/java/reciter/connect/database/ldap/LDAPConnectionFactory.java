@@ -20,22 +20,31 @@ package reciter.connect.database.ldap;
 
 import java.security.GeneralSecurityException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Enumeration;
 import java.util.List;
-import java.util.Vector;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import javax.inject.Inject;
 
 import com.unboundid.asn1.ASN1OctetString;
+import com.unboundid.ldap.sdk.GetEntryLDAPConnectionPoolHealthCheck;
 import com.unboundid.ldap.sdk.LDAPConnection;
+import com.unboundid.ldap.sdk.LDAPConnectionPool;
 import com.unboundid.ldap.sdk.LDAPException;
 import com.unboundid.ldap.sdk.LDAPSearchException;
 import com.unboundid.ldap.sdk.SearchRequest;
 import com.unboundid.ldap.sdk.SearchResult;
 import com.unboundid.ldap.sdk.SearchResultEntry;
+import com.unboundid.ldap.sdk.SearchResultListener;
+import com.unboundid.ldap.sdk.SearchResultReference;
 import com.unboundid.ldap.sdk.SearchScope;
+import com.unboundid.ldap.sdk.SimpleBindRequest;
+import com.unboundid.ldap.sdk.SingleServerSet;
 import com.unboundid.ldap.sdk.controls.SimplePagedResultsControl;
 import com.unboundid.util.ssl.SSLUtil;
 import com.unboundid.util.ssl.TrustAllTrustManager;
@@ -63,7 +72,22 @@ public class LDAPConnectionFactory {
 
 	private String ldapbaseDn;
     
-    private Vector<LDAPConnection> connectionPool = new Vector<LDAPConnection>(); 
+    /**
+     * Prefixes of the cwids a search is split by in {@link #partitionByCwidPrefix(String)}
+     */
+    private static final String CWID_PREFIXES = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+    private final int maxPoolSize;
+    private final long maxWaitMillis;
+    private final long maxConnectionAgeMillis;
+    private final long healthCheckIntervalMillis;
+
+    private LDAPConnectionPool connectionPool;
+
+    /**
+     * Runs the partitions of {@link #searchParallel(List, String, String...)}, one pooled connection each
+     */
+    private final ExecutorService searchExecutor;
     
     /**
 	 * @param propertyFilePath the path of property file
@@ -71,12 +95,25 @@ public class LDAPConnectionFactory {
     @Inject
     @Autowired(required=true)
 	public LDAPConnectionFactory(@Value("${ldap.bind.dn}") String ldapBindDn, @Value("${ldap.port}") int ldapPort, Environment env,
-			@Value("${ldap.hostname}") String ldapHostname, @Value("${ldap.base.dn}") String ldapbaseDn) {
+			@Value("${ldap.hostname}") String ldapHostname, @Value("${ldap.base.dn}") String ldapbaseDn,
+			@Value("${ldap.pool.max.size}") int maxPoolSize, @Value("${ldap.pool.max.wait.seconds}") long maxWaitSeconds,
+			@Value("${ldap.pool.max.connection.age.minutes}") long maxConnectionAgeMinutes,
+			@Value("${ldap.pool.health.check.interval.seconds}") long healthCheckIntervalSeconds) {
         this.ldapbaseDn = ldapbaseDn;
         this.ldapBindDn = ldapBindDn;
         this.ldapBindPassword = env.getProperty("LDAP_BIND_PASSWORD");
         this.ldapHostname = ldapHostname;
         this.ldapPort = ldapPort;
+        this.maxPoolSize = maxPoolSize;
+        this.maxWaitMillis = TimeUnit.SECONDS.toMillis(maxWaitSeconds);
+        this.maxConnectionAgeMillis = TimeUnit.MINUTES.toMillis(maxConnectionAgeMinutes);
+        this.healthCheckIntervalMillis = TimeUnit.SECONDS.toMillis(healthCheckIntervalSeconds);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.searchExecutor = Executors.newFixedThreadPool(maxPoolSize, r -> {
+            Thread thread = new Thread(r, "ldap-search-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
         initialize();
 	}
 
@@ -98,72 +135,86 @@ public class LDAPConnectionFactory {
 	}
 	
 	/**
-	 * This method initializes and creates and populates the connection pool
+	 * This method creates the connection pool with all its connections. Connections are checked in the background and
+	 * replaced when they fail or get older than the maximum connection age.
 	 */
 	private void initialize() {
-		initializeConnectionPool();
-		
-	}
-	
-	/**
-	 * This method initializes and creates and populates the connection pool
-	 */
-	private void initializeConnectionPool() {
-		while(!checkIfConnectionPoolIsFull()) {
-			slf4jLogger.info("LDAP Connection pool is not full. Proceeding with adding new connection");
-			this.connectionPool.addElement(getConnection());
+		try {
+			SSLUtil sslUtil = new SSLUtil(new TrustAllTrustManager());
+			SingleServerSet serverSet = new SingleServerSet(ldapHostname, ldapPort, sslUtil.createSSLSocketFactory());
+			this.connectionPool = new LDAPConnectionPool(serverSet, new SimpleBindRequest(ldapBindDn, ldapBindPassword), this.maxPoolSize, this.maxPoolSize);
+			this.connectionPool.setConnectionPoolName("ED");
+			//Wait for a free connection instead of opening more than the maximum
+			this.connectionPool.setCreateIfNecessary(false);
+			this.connectionPool.setMaxWaitTimeMillis(this.maxWaitMillis);
+			this.connectionPool.setMaxConnectionAgeMillis(this.maxConnectionAgeMillis);
+			this.connectionPool.setHealthCheck(new GetEntryLDAPConnectionPoolHealthCheck(null, 10000L, false, false, false, false, true, true));
+			this.connectionPool.setHealthCheckIntervalMillis(this.healthCheckIntervalMillis);
+			slf4jLogger.info("LDAP Connection pool is full with {} connections", this.maxPoolSize);
+		} catch (LDAPException e) {
+			slf4jLogger.error("LDAPConnection error", e);
+		} catch (GeneralSecurityException e) {
+			slf4jLogger.error("Error connecting via SSL to LDAP", e);
 		}
-		slf4jLogger.info("LDAP Connection pool is full");
 	}
 	
 	/**
-	 * This method checks if connection Pool is full or not
-	 * @return boolean
+	 * This method gets a connection from pool and returns it. If all connections are in use it waits up to the maximum
+	 * wait time for one to be returned.
+	 * @return LDAP Connection or null if no connection is available
 	 */
-	private synchronized boolean checkIfConnectionPoolIsFull() {
-		final int MAX_POOL_SIZE = 10;
-		if(this.connectionPool.size()<MAX_POOL_SIZE)
-			return false;
-		else
-			return true;
-	}
-	
-	
-	/**
-	 * This method gets a connection from pool and returns it
-	 * @return LDAP Connection
-	 */
-	public synchronized LDAPConnection getConnectionfromPool(){
-		
-		LDAPConnection con = null;
-		if(this.connectionPool.size()>0){
-			con = this.connectionPool.firstElement();
-			this.connectionPool.removeElementAt(0);
+	public LDAPConnection getConnectionfromPool(){
+		if(this.connectionPool == null) {
+			return null;
+		}
+		try {
+			return this.connectionPool.getConnection();
+		} catch (LDAPException e) {
+			slf4jLogger.error("No LDAP connection available. " + getPoolStats(), e);
+			return null;
 		}
-		return con;
 	}
 	
 	/**
 	 * This method returns the connection to the pool after its used
 	 * @param connection LDAP Connection
 	 */
-	public synchronized void returnConnectionToPool(LDAPConnection connection)
+	public void returnConnectionToPool(LDAPConnection connection)
     {
-        //Adding the connection from the client back to the connection pool
-        this.connectionPool.addElement(connection);
+        if(connection != null) {
+        	this.connectionPool.releaseConnection(connection);
+        }
     }
 	
+	/**
+	 * Returns a connection after an operation failed with it. The pool replaces the connection if it is no longer usable.
+	 */
+	private void returnConnectionToPool(LDAPConnection connection, LDAPException e) {
+		if(connection != null) {
+			this.connectionPool.releaseConnectionAfterException(connection, e);
+		}
+	}
+	
 	public void destroyConnectionPool() {
-		Enumeration<LDAPConnection> e = this.connectionPool.elements();
-		while(e.hasMoreElements()) {
-			LDAPConnection con = e.nextElement();
-			if(con!= null)
-				con.close();
+		this.searchExecutor.shutdownNow();
+		if(this.connectionPool != null) {
+			slf4jLogger.info(getPoolStats());
+			this.connectionPool.close();
 		}
-		this.connectionPool.removeAllElements();
 		slf4jLogger.info("All LDAP connection was destroyed");
 	} 
 	
+	/**
+	 * @return the connection pool usage for logging
+	 */
+	public String getPoolStats() {
+		if(this.connectionPool == null) {
+			return "LDAP pool was not created";
+		}
+		return "LDAP pool: " + this.connectionPool.getCurrentAvailableConnections() + " available of " + this.maxPoolSize
+			+ ", " + this.connectionPool.getConnectionPoolStatistics();
+	}
+	
 	public LDAPConnection getConnection() {
 		
 		LDAPConnection connection = null;
@@ -203,6 +254,71 @@ public class LDAPConnectionFactory {
 		return search(filter, basedn, SearchScope.SUBORDINATE_SUBTREE, "*","modifyTimestamp");
 	}
 
+	/**
+	 * Searches the ED for the provided filter and hands every entry to the consumer as it arrives instead of collecting
+	 * all of them. Results are read in pages of 500 entries.
+	 *
+	 * @param filter     A valid LDAP filter string
+	 * @param basedn     This is the basedn used to search the filter
+	 * @param consumer   Receives every entry found
+	 * @param attributes A list of attributes that you want returned from LDAP
+	 * @return true if all the pages were read
+	 */
+	public boolean searchWithBaseDN(final String filter, String basedn, Consumer<SearchResultEntry> consumer, String... attributes) {
+		LDAPConnection connection = null;
+		int count = 0;
+		slf4jLogger.info("Starting paged LDAP scan with filter: {}", filter);
+		try {
+			SearchResultListener listener = new SearchResultListener() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				public void searchEntryReturned(SearchResultEntry searchEntry) {
+					consumer.accept(searchEntry);
+				}
+
+				@Override
+				public void searchReferenceReturned(SearchResultReference searchReference) {
+					//Referrals are not followed
+				}
+			};
+			SearchRequest searchRequest = new SearchRequest(listener, basedn, SearchScope.SUBORDINATE_SUBTREE, filter, attributes);
+			ASN1OctetString resumeCookie = null;
+
+			connection = getConnectionfromPool();
+			if (connection == null) {
+				return false;
+			}
+			while (true) {
+				searchRequest.setControls(new SimplePagedResultsControl(500, resumeCookie));
+				SearchResult results = connection.search(searchRequest);
+				count = count + results.getEntryCount();
+				SimplePagedResultsControl responseControl = SimplePagedResultsControl.get(results);
+				if (responseControl != null && responseControl.moreResultsToReturn()) {
+					resumeCookie = responseControl.getCookie();
+				} else {
+					break;
+				}
+			}
+		} catch (LDAPSearchException e) {
+			slf4jLogger.error("LDAPSearchException", e);
+			returnConnectionToPool(connection, e);
+			connection = null;
+			return false;
+		} catch (LDAPException e) {
+			slf4jLogger.error("LDAPException", e);
+			returnConnectionToPool(connection, e);
+			connection = null;
+			return false;
+		} finally {
+			if (connection != null) {
+				returnConnectionToPool(connection);
+			}
+		}
+		slf4jLogger.info("Paged LDAP scan returned {} entries", count);
+		return true;
+	}
+
 	/**
 	 * Searches the ED for the provided filter.
 	 *
@@ -253,8 +369,12 @@ public class LDAPConnectionFactory {
         	}
     	} catch (LDAPSearchException e) {
         	slf4jLogger.error("LDAPSearchException", e);
+        	returnConnectionToPool(connection, e);
+        	connection = null;
     	} catch (LDAPException e) {
         	slf4jLogger.error("LDAPException", e);
+        	returnConnectionToPool(connection, e);
+        	connection = null;
     	} finally {
         	if (connection != null) {
             	returnConnectionToPool(connection);
@@ -262,4 +382,54 @@ public class LDAPConnectionFactory {
     	}
     	return entries;
 	}
+
+	/**
+	 * Searches the ED with several filters at the same time, each one paged on its own pooled connection. Only the
+	 * requested attributes are returned. The filters should not overlap, like the ones of {@link #partitionByCwidPrefix(String)}.
+	 *
+	 * @param filters    Valid LDAP filter strings
+	 * @param basedn     This is the basedn used to search the filters
+	 * @param attributes A list of attributes that you want returned from LDAP
+	 * @return the entries of all the filters or null if any of the searches failed
+	 */
+	public List<SearchResultEntry> searchParallel(List<String> filters, String basedn, String... attributes) {
+		List<CompletableFuture<List<SearchResultEntry>>> searches = new ArrayList<>(filters.size());
+		for (String filter : filters) {
+			searches.add(CompletableFuture.supplyAsync(() -> {
+				List<SearchResultEntry> entries = new ArrayList<>();
+				return searchWithBaseDN(filter, basedn, entries::add, attributes) ? entries : null;
+			}, this.searchExecutor));
+		}
+		List<SearchResultEntry> entries = new ArrayList<>();
+		boolean complete = true;
+		for (CompletableFuture<List<SearchResultEntry>> search : searches) {
+			List<SearchResultEntry> partition = search.join();
+			if (partition == null) {
+				complete = false;
+			} else {
+				entries.addAll(partition);
+			}
+		}
+		slf4jLogger.info("Parallel LDAP search with {} partitions returned {} entries", filters.size(), entries.size());
+		return complete ? entries : null;
+	}
+
+	/**
+	 * Splits a filter by the first character of the cwid so it can be searched with {@link #searchParallel(List, String, String...)}.
+	 * The last partition holds all entries matching none of the prefixes, including the ones without a cwid.
+	 *
+	 * @param filter A valid LDAP filter string
+	 * @return filters that together match the same entries as the filter
+	 */
+	public static List<String> partitionByCwidPrefix(String filter) {
+		List<String> filters = new ArrayList<>(CWID_PREFIXES.length() + 1);
+		StringBuilder others = new StringBuilder("(&").append(filter).append("(!(|");
+		for (char prefix : CWID_PREFIXES.toCharArray()) {
+			String prefixFilter = "(weillCornellEduCWID=" + prefix + "*)";
+			filters.add("(&" + filter + prefixFilter + ")");
+			others.append(prefixFilter);
+		}
+		filters.add(others.append(")))").toString());
+		return filters;
+	}
 }
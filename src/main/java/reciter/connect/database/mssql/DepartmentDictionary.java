@@ -0,0 +1,74 @@
+package reciter.connect.database.mssql;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In memory index of the ASMS wcmc_department table used by appointments and grants to resolve department names to ids.
+ * <p>The table is loaded on the first lookup of the run, while the ASMS pool is open, and kept until the end of the run.
+ * A failed load is tried again on the next lookup. Titles are keyed trimmed, with whitespace collapsed and lower cased,
+ * the same way SQL Server compared them with its case insensitive collation. Names that are titled differently in ASMS
+ * are mapped by the callers before the lookup.</p>
+ */
+@Slf4j
+@Component
+public class DepartmentDictionary {
+
+	private volatile Map<String, String> departments;
+
+	/**
+	 * @param deptName the department name from ED or InfoEd
+	 * @return the department id in ASMS or null if there is no department with that title
+	 */
+	public String getDepartmentId(String deptName) {
+		if(deptName == null) {
+			return null;
+		}
+		return getDepartments().get(normalize(deptName));
+	}
+
+	private Map<String, String> getDepartments() {
+		Map<String, String> index = this.departments;
+		if(index == null) {
+			synchronized(this) {
+				if(this.departments == null) {
+					load();
+				}
+				index = this.departments;
+			}
+		}
+		return index == null ? Collections.<String, String>emptyMap() : index;
+	}
+
+	private void load() {
+		Map<String, String> index = new HashMap<>();
+		try(Connection con = MssqlConnectionFactory.getASMSDataSource().getConnection();
+			Statement st = con.createStatement();
+			ResultSet rs = st.executeQuery("SELECT DISTINCT id, title FROM wcmc_department")) {
+			while(rs.next()) {
+				if(rs.getString(1) != null && rs.getString(2) != null) {
+					index.putIfAbsent(normalize(rs.getString(2)), rs.getString(1).trim());
+				}
+			}
+			this.departments = Collections.unmodifiableMap(index);
+			log.info("Loaded " + index.size() + " departments from wcmc_department");
+		} catch(SQLException e) {
+			//The departments stay unloaded so the next lookup tries again
+			log.error("SQLException", e);
+		}
+	}
+
+	private static String normalize(String title) {
+		return title.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ENGLISH);
+	}
+}
@@ -67,12 +67,26 @@ public class MssqlConnectionFactory {
 	private static ComboPooledDataSource asmsDataSource;
 	private static ComboPooledDataSource infoedDataSource;
 	
+	private final int minPoolSize;
+	private final int maxPoolSize;
+	private final int checkoutTimeoutMillis;
+	private final int statementCacheSize;
+	
 	/**
 	 * @param propertyFilePath the path of property file
+	 * @param maxPoolSize maximum number of connections of each datasource
+	 * @param checkoutTimeoutSeconds seconds to wait for a free connection when all are in use
+	 * @param statementCacheSize prepared statements kept open per pooled connection so they survive between checkouts
 	 */
 	@Inject
 	@Autowired(required=true)
-	public MssqlConnectionFactory(@Value("${msssql.asms.db.username}") String username, @Value("${msssql.infoed.db.username}") String infoEdUsername, Environment env) {
+	public MssqlConnectionFactory(@Value("${msssql.asms.db.username}") String username, @Value("${msssql.infoed.db.username}") String infoEdUsername, Environment env,
+			@Value("${mssql.pool.min.size}") int minPoolSize, @Value("${mssql.pool.max.size}") int maxPoolSize, 
+			@Value("${mssql.pool.checkout.timeout.seconds}") int checkoutTimeoutSeconds, @Value("${mssql.pool.statement.cache.size}") int statementCacheSize) {
+		this.minPoolSize = minPoolSize;
+		this.maxPoolSize = maxPoolSize;
+		this.checkoutTimeoutMillis = checkoutTimeoutSeconds * 1000;
+		this.statementCacheSize = statementCacheSize;
 		this.username = username;
 		this.password = env.getProperty("MSSQL_ASMS_DB_PASSWORD");
 		this.url = env.getProperty("MSSQL_ASMS_DB_URL");
@@ -227,9 +241,11 @@ public class MssqlConnectionFactory {
 		asmsDataSource.setUser(this.username);
 		asmsDataSource.setPassword(this.password);
 		
-		asmsDataSource.setMinPoolSize(2);
-		asmsDataSource.setMaxPoolSize(50);
+		asmsDataSource.setMinPoolSize(this.minPoolSize);
+		asmsDataSource.setMaxPoolSize(this.maxPoolSize);
 		asmsDataSource.setAcquireIncrement(5);
+		asmsDataSource.setCheckoutTimeout(this.checkoutTimeoutMillis);
+		asmsDataSource.setMaxStatementsPerConnection(this.statementCacheSize);
 	}
 
 	public void createC3PODatasourceForInfoEd() {
@@ -239,9 +255,51 @@ public class MssqlConnectionFactory {
 		infoedDataSource.setUser(this.infoEdUsername);
 		infoedDataSource.setPassword(this.infoEdPassword);
 		
-		infoedDataSource.setMinPoolSize(2);
-		infoedDataSource.setMaxPoolSize(50);
+		infoedDataSource.setMinPoolSize(this.minPoolSize);
+		infoedDataSource.setMaxPoolSize(this.maxPoolSize);
 		infoedDataSource.setAcquireIncrement(5);
+		infoedDataSource.setCheckoutTimeout(this.checkoutTimeoutMillis);
+		infoedDataSource.setMaxStatementsPerConnection(this.statementCacheSize);
+	}
+
+	/**
+	 * Borrows a connection from the pooled ASMS datasource. The connection is used by one task only and must be closed
+	 * to return it to the pool, best with try-with-resources.
+	 * @return a pooled connection to ASMS
+	 * @throws SQLException when no connection is free within the checkout timeout
+	 */
+	public Connection getAsmsConnection() throws SQLException {
+		return asmsDataSource.getConnection();
+	}
+
+	/**
+	 * Borrows a connection from the pooled InfoEd datasource. The connection is used by one task only and must be closed
+	 * to return it to the pool, best with try-with-resources.
+	 * @return a pooled connection to InfoEd
+	 * @throws SQLException when no connection is free within the checkout timeout
+	 */
+	public Connection getInfoEdConnection() throws SQLException {
+		return infoedDataSource.getConnection();
+	}
+
+	/**
+	 * @return connections in use, idle and the threads waiting for one of both datasources for logging
+	 */
+	public String getPoolStats() {
+		return "ASMS pool: " + getPoolStats(asmsDataSource) + ", InfoEd pool: " + getPoolStats(infoedDataSource);
+	}
+
+	private static String getPoolStats(PooledDataSource ds) {
+		if(ds == null) {
+			return "not created";
+		}
+		try {
+			return ds.getNumBusyConnectionsDefaultUser() + " busy, " + ds.getNumIdleConnectionsDefaultUser() + " idle, "
+				+ ds.getNumThreadsAwaitingCheckoutDefaultUser() + " waiting";
+		} catch (SQLException e) {
+			log.error("Unable to read pool statistics", e);
+			return "unknown";
+		}
 	}
 
 	public static DataSource getASMSDataSource(){
@@ -3,10 +3,14 @@ package reciter.connect.database.mysql.jena;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.util.Deque;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.sql.DriverManager;
 
 import javax.inject.Inject;
@@ -27,6 +31,8 @@ import org.springframework.beans.factory.config.ConfigurableBeanFactory;
  * @author Sarbajit Dutta (szd2013@med.cornell.edu)
  * <p><b><i>This class creates and manages connections for Jena related connections. You can create , get , return and remove connection from pool with different
  * functional methods.<p><b><i>
+ * <p>The pool is bounded by jena.pool.max.size leased connections. Callers wait for a returned connection when all are leased,
+ * connections are created on first use and validated before they are reused.</p>
  */
 @Slf4j
 @Component
@@ -47,7 +53,51 @@ public class JenaConnectionFactory {
 	private String dbLayout = null;
 	private String dbModel = null; 
 	
-	private Map<SDBJenaConnect, String> connectionPool = new HashMap<SDBJenaConnect, String>(); 
+	/**
+	 * Maximum number of Jena connections leased at the same time
+	 */
+	private final int maxPoolSize;
+	
+	/**
+	 * Seconds a caller waits for a free connection before giving up
+	 */
+	private final long maxWaitSeconds;
+	
+	/**
+	 * Seconds a pooled connection may take to answer the validation before use
+	 */
+	private final int validationTimeoutSeconds;
+	
+	/**
+	 * Limits the leased connections to maxPoolSize. Waiting callers are served in arrival order.
+	 */
+	private final Semaphore leases;
+	
+	/**
+	 * Idle connections per graph name, most recently returned first
+	 */
+	private final Map<String, Deque<SDBJenaConnect>> idleConnections = new ConcurrentHashMap<>();
+	
+	/**
+	 * Leased connections and the graph name they were leased for
+	 */
+	private final Map<SDBJenaConnect, String> leasedConnections = new ConcurrentHashMap<>();
+	
+	private final AtomicInteger idleCount = new AtomicInteger();
+	
+	private final AtomicLong leaseCount = new AtomicLong();
+	
+	private final AtomicLong createdCount = new AtomicLong();
+	
+	private final AtomicLong invalidCount = new AtomicLong();
+	
+	private final AtomicLong timeoutCount = new AtomicLong();
+	
+	private final AtomicLong totalWaitNanos = new AtomicLong();
+	
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	
+	private volatile boolean destroyed = false;
 	
 	/**
 	 * @param propertyFilePath the path of property file
@@ -56,7 +106,9 @@ public class JenaConnectionFactory {
     @Autowired(required = true)
     public JenaConnectionFactory(@Value("${jena.dbUsername}") String username, Environment env, @Value("${jena.url}") String url,
     @Value("${jena.dbModel}") String dbModel, @Value("${jena.dbLayout}") String dbLayout, @Value("${jena.dbType}") String dbType,
-    @Value("${jena.dbDriver}") String dbDriver, @Value("${vivoNamespace}") String namespace) {
+    @Value("${jena.dbDriver}") String dbDriver, @Value("${vivoNamespace}") String namespace,
+    @Value("${jena.pool.max.size}") int maxPoolSize, @Value("${jena.pool.max.wait.seconds}") long maxWaitSeconds,
+    @Value("${jena.pool.validation.timeout.seconds}") int validationTimeoutSeconds) {
         this.jenaDbUser = username;
         this.jenaDbPassword = env.getProperty("JENA_DB_PASSWORD");
         this.dbHost = url;
@@ -65,89 +117,188 @@ public class JenaConnectionFactory {
         this.dbLayout = dbLayout;
 		this.dbDriver = dbDriver;
 		this.nameSpaceProp = namespace;
-		//initialize();
+		this.maxPoolSize = maxPoolSize;
+		this.maxWaitSeconds = maxWaitSeconds;
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+		this.leases = new Semaphore(maxPoolSize, true);
 		if(nameSpaceProp != null && nameSpaceProp.trim().length() != 0) {
 			JenaConnectionFactory.nameSpace=(nameSpaceProp.trim().endsWith("/"))?nameSpaceProp.trim():nameSpaceProp.trim().concat("/");
         }
 	}
 	
 	/**
-	 * This method initializes and creates and populates the connection pool
+	 * The function gets a connection from pool for a specified graph name. Waits up to the configured time for a
+	 * connection to be returned when all connections are leased. Idle connections are validated before they are handed out
+	 * and new connections are created lazily. Callers borrow through {@link #lease(String)} so the connection is given
+	 * back even when the work fails.
+	 * @param graphName the graphName for which the connection will be created, dataSet for a connection across all graphs
+	 * @return the jena connection object
+	 * @throws IllegalStateException when no connection became available in time or a connection could not be created
 	 */
-	private void initialize() {
-		initializeConnectionPool();
+	SDBJenaConnect getConnectionfromPool(String graphName) {
+		long start = System.nanoTime();
+		try {
+			if(!this.leases.tryAcquire(this.maxWaitSeconds, TimeUnit.SECONDS)) {
+				this.timeoutCount.incrementAndGet();
+				throw new IllegalStateException("No Jena connection for " + graphName + " became available within " + this.maxWaitSeconds + "s. " + getPoolStats());
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a Jena connection for " + graphName, e);
+		}
+		long waited = System.nanoTime() - start;
+		this.totalWaitNanos.addAndGet(waited);
+		this.maxWaitNanos.accumulateAndGet(waited, Math::max);
 		
+		SDBJenaConnect con = null;
+		try {
+			con = pollValidConnection(graphName);
+			if(con == null) {
+				con = graphName.equals("dataSet") ? createNewDataSetConnectionForPool() : createNewConnectionForPool(graphName);
+				if(con != null) {
+					this.createdCount.incrementAndGet();
+				}
+			}
+		} finally {
+			if(con == null) {
+				this.leases.release();
+			}
+		}
+		if(con == null) {
+			throw new IllegalStateException("Unable to create a Jena connection for " + graphName);
+		}
+		this.leasedConnections.put(con, graphName);
+		this.leaseCount.incrementAndGet();
+		return con;
 	}
 	
 	/**
-	 * This method initializes and creates and populates the connection pool
+	 * Lease a connection to be used with try-with-resources, the connection is returned to the pool when the lease is closed
+	 * @param graphName the graphName for which the connection will be created, dataSet for a connection across all graphs
+	 * @return the lease holding the jena connection object
 	 */
-	private void initializeConnectionPool() {
-		while(!checkIfConnectionPoolIsFull()) {
-			log.info("Jena pool is not full. Proceeding with adding new connection");
-			this.connectionPool.put(createNewDataSetConnectionForPool(),"dataSet");
-		}
-		log.info("Jena connection pool is full");
+	public JenaConnectionLease lease(String graphName) {
+		return new JenaConnectionLease(this, getConnectionfromPool(graphName), graphName);
 	}
 	
 	/**
-	 * This method checks if connection Pool is full or not
-	 * @return boolean
+	 * This fuctions returns a connection for a graph Name specified. Nothing happens for a null connection or a connection
+	 * that is not leased from this pool.
+	 * @param connection The connection object to SDBJena
+	 * @param graphName the graphName for which the connection will be created
 	 */
-	private synchronized boolean checkIfConnectionPoolIsFull() {
-		final int MAX_POOL_SIZE = 25;
-		if(this.connectionPool.size()<MAX_POOL_SIZE)
-			return false;
-		else
-			return true;
+	void returnConnectionToPool(SDBJenaConnect connection, String graphName) {
+		if(connection == null) {
+			return;
+		}
+		if(this.leasedConnections.remove(connection) == null) {
+			log.warn("Jena connection for " + graphName + " was returned but is not leased from the pool");
+			return;
+		}
+		try {
+			if(this.destroyed) {
+				connection.close();
+			} else if(this.idleCount.incrementAndGet() > this.maxPoolSize) {
+				this.idleCount.decrementAndGet();
+				connection.close();
+			} else {
+				this.idleConnections.computeIfAbsent(graphName, key -> new ConcurrentLinkedDeque<>()).offerFirst(connection);
+			}
+		} finally {
+			this.leases.release();
+		}
 	}
 	
 	/**
-	 * The function gets a connection from pool for a specified graph name
-	 * @param graphName the graphName for which the connection will be created
-	 * @return the jena connection object
+	 * This function iterate through the connection pool and destroys all the connections. Connections still leased are
+	 * closed when they are returned.
 	 */
-	public synchronized SDBJenaConnect getConnectionfromPool(String graphName){
-			
-		SDBJenaConnect con = null;
-			if(this.connectionPool.size()>0){
-				Iterator<Entry<SDBJenaConnect, String>> it = this.connectionPool.entrySet().iterator();
-				while(it.hasNext()) {
-					Entry<SDBJenaConnect, String> pair = it.next();
-					if(graphName.equals(pair.getValue())) {
-						con = pair.getKey();
-						
-					}
-					
-				}
-				this.connectionPool.remove(con);
-				
+	public void destroyConnectionPool() {
+		this.destroyed = true;
+		log.info("Jena connection pool before destroying. " + getPoolStats());
+		for(Deque<SDBJenaConnect> idle: this.idleConnections.values()) {
+			SDBJenaConnect con;
+			while((con = idle.pollFirst()) != null) {
+				this.idleCount.decrementAndGet();
+				con.close();
 			}
-			return con;
+		}
+		log.info("All Jena connections were destroyed");
+	}
+	
+	public int getMaxPoolSize() {
+		return this.maxPoolSize;
 	}
 	
 	/**
-	 * This fuctions returns a connection for a graph Name specified
-	 * @param connection The connection object to SDBJena
-	 * @param graphName the graphName for which the connection will be created
+	 * @return number of connections currently leased
 	 */
-	public synchronized void returnConnectionToPool(SDBJenaConnect connection, String graphName)
-    {
-        //Adding the connection from the client back to the connection pool
-        this.connectionPool.put(connection, graphName);
-    }
+	public int getActiveConnections() {
+		return this.leasedConnections.size();
+	}
 	
 	/**
-	 * This function iterate through the connection pool and destroys all the connections
+	 * @return number of open connections waiting in the pool
 	 */
-	public void destroyConnectionPool() {
-		for (SDBJenaConnect key : this.connectionPool.keySet()) {
-			if(key != null)
-				key.close();
+	public int getIdleConnections() {
+		return this.idleCount.get();
+	}
+	
+	/**
+	 * @return estimated number of threads waiting for a connection
+	 */
+	public int getWaitingThreads() {
+		return this.leases.getQueueLength();
+	}
+	
+	/**
+	 * @return average time in milliseconds callers waited for a connection
+	 */
+	public double getAverageWaitMillis() {
+		long count = this.leaseCount.get() + this.timeoutCount.get();
+		return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(this.totalWaitNanos.get()) / 1000d / count;
+	}
+	
+	/**
+	 * @return longest time in milliseconds a caller waited for a connection
+	 */
+	public long getMaxWaitMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(this.maxWaitNanos.get());
+	}
+	
+	/**
+	 * @return a one line summary of the pool metrics for logging
+	 */
+	public String getPoolStats() {
+		return String.format("Jena pool active=%d idle=%d waiting=%d max=%d leases=%d created=%d invalid=%d timeouts=%d avgWaitMs=%.1f maxWaitMs=%d",
+			getActiveConnections(), getIdleConnections(), getWaitingThreads(), this.maxPoolSize, this.leaseCount.get(), this.createdCount.get(),
+			this.invalidCount.get(), this.timeoutCount.get(), getAverageWaitMillis(), getMaxWaitMillis());
+	}
+	
+	/**
+	 * @return an idle connection for the graph that answered the validation or null if there is none
+	 */
+	private SDBJenaConnect pollValidConnection(String graphName) {
+		Deque<SDBJenaConnect> idle = this.idleConnections.get(graphName);
+		if(idle == null) {
+			return null;
 		}
-		this.connectionPool.clear();
-		log.info("All Jena connections were destroyed");
-	} 
+		SDBJenaConnect con;
+		while((con = idle.pollFirst()) != null) {
+			this.idleCount.decrementAndGet();
+			if(con.isValid(this.validationTimeoutSeconds)) {
+				return con;
+			}
+			this.invalidCount.incrementAndGet();
+			log.info("Discarding invalid Jena connection for " + graphName);
+			try {
+				con.close();
+			} catch(Exception e) {
+				log.error("Exception closing invalid Jena connection", e);
+			}
+		}
+		return null;
+	}
 	
 	/**
 	 * This function will create a new connection for pool
@@ -0,0 +1,43 @@
+package reciter.connect.database.mysql.jena;
+
+import org.vivoweb.harvester.util.repo.SDBJenaConnect;
+
+/**
+ * A Jena connection leased from {@link JenaConnectionFactory} that goes back to the pool when the lease is closed.
+ * <pre>
+ * try(JenaConnectionLease lease = jcf.lease("dataSet")) {
+ *     lease.getConnection().executeSelectQuery(query, true);
+ * }
+ * </pre>
+ */
+public class JenaConnectionLease implements AutoCloseable {
+
+	private final JenaConnectionFactory pool;
+
+	private final SDBJenaConnect connection;
+
+	private final String graphName;
+
+	private boolean closed = false;
+
+	JenaConnectionLease(JenaConnectionFactory pool, SDBJenaConnect connection, String graphName) {
+		this.pool = pool;
+		this.connection = connection;
+		this.graphName = graphName;
+	}
+
+	public SDBJenaConnect getConnection() {
+		return this.connection;
+	}
+
+	/**
+	 * Return the connection to the pool. Closing the lease again has no effect.
+	 */
+	@Override
+	public void close() {
+		if(!this.closed) {
+			this.closed = true;
+			this.pool.returnConnectionToPool(this.connection, this.graphName);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package reciter.connect.database.sql;
+
+/**
+ * A named SQL statement with <code>?</code> parameters. Values are never written into the SQL so the database compiles
+ * the statement once and reuses its plan. The name identifies the statement in the statement cache and in the timings
+ * of {@link SqlQueryRepository}.
+ */
+public class SqlQuery {
+
+	private final String name;
+
+	private final String sql;
+
+	private final int fetchSize;
+
+	/**
+	 * A query read with the default fetch size of the repository
+	 * @param name unique name of the query like <code>infoed.grants.byCwid</code>
+	 * @param sql the statement with <code>?</code> parameters
+	 */
+	public SqlQuery(String name, String sql) {
+		this(name, sql, 0);
+	}
+
+	/**
+	 * @param name unique name of the query like <code>infoed.grants.byCwid</code>
+	 * @param sql the statement with <code>?</code> parameters
+	 * @param fetchSize number of rows fetched from the database at once, 0 for the default of the repository
+	 */
+	public SqlQuery(String name, String sql, int fetchSize) {
+		this.name = name;
+		this.sql = sql;
+		this.fetchSize = fetchSize;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public String getSql() {
+		return this.sql;
+	}
+
+	public int getFetchSize() {
+		return this.fetchSize;
+	}
+
+	@Override
+	public String toString() {
+		return this.name;
+	}
+}
@@ -0,0 +1,117 @@
+package reciter.connect.database.sql;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.annotation.Scope;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the named {@link SqlQuery}s of all the ingests and keeps the timings of every name.
+ * <p>Statements are prepared once per connection by a {@link SqlSession} and reused for every execution on that
+ * connection. Executions slower than the configured threshold are logged with the query name right away, the totals
+ * of all the names can be logged with {@link #getQueryStats()}.</p>
+ * <pre>
+ * try(Connection con = mcf.getInfoEdConnection(); SqlSession session = sqlQueries.session(con)) {
+ *     session.query(GRANTS_BY_CWID, ps -&gt; ps.setString(1, cwid), rs -&gt; grants.add(getGrant(rs)));
+ * }
+ * </pre>
+ */
+@Slf4j
+@Component
+@Scope(value = ConfigurableBeanFactory.SCOPE_SINGLETON)
+public class SqlQueryRepository {
+
+	private final int defaultFetchSize;
+
+	private final long slowQueryNanos;
+
+	private final Map<String, QueryStats> stats = new ConcurrentHashMap<>();
+
+	/**
+	 * @param defaultFetchSize rows fetched from the database at once for queries without their own fetch size
+	 * @param slowQueryMillis executions taking longer are logged
+	 */
+	@Autowired
+	public SqlQueryRepository(@Value("${sql.query.fetch.size}") int defaultFetchSize, @Value("${sql.query.slow.millis}") long slowQueryMillis) {
+		this.defaultFetchSize = defaultFetchSize;
+		this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+	}
+
+	/**
+	 * Start running queries on a connection. The session does not close the connection.
+	 * @param connection the connection used by the calling task only
+	 * @return the session, to be closed once the queries are done
+	 */
+	public SqlSession session(Connection connection) {
+		return new SqlSession(this, connection);
+	}
+
+	int getFetchSize(SqlQuery query) {
+		return query.getFetchSize() > 0 ? query.getFetchSize() : this.defaultFetchSize;
+	}
+
+	void record(SqlQuery query, long nanos, int rows, boolean failed) {
+		this.stats.computeIfAbsent(query.getName(), name -> new QueryStats()).add(nanos, rows, failed);
+		if(nanos > this.slowQueryNanos) {
+			log.warn("Slow query " + query.getName() + " took " + TimeUnit.NANOSECONDS.toMillis(nanos) + "ms for " + rows + " rows");
+		}
+	}
+
+	/**
+	 * @return executions, rows and time of every query name, the slowest in total first
+	 */
+	public String getQueryStats() {
+		List<Map.Entry<String, QueryStats>> entries = new ArrayList<>(this.stats.entrySet());
+		entries.sort(Comparator.comparingLong((Map.Entry<String, QueryStats> e) -> e.getValue().totalNanos.sum()).reversed());
+		StringBuilder sb = new StringBuilder("SQL query timings:");
+		for(Map.Entry<String, QueryStats> entry : entries) {
+			sb.append('\n').append(entry.getKey()).append(": ").append(entry.getValue());
+		}
+		return sb.toString();
+	}
+
+	private static class QueryStats {
+
+		private final LongAdder executions = new LongAdder();
+
+		private final LongAdder failures = new LongAdder();
+
+		private final LongAdder rows = new LongAdder();
+
+		private final LongAdder totalNanos = new LongAdder();
+
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		void add(long nanos, int rowCount, boolean failed) {
+			this.executions.increment();
+			if(failed) {
+				this.failures.increment();
+			}
+			this.rows.add(rowCount);
+			this.totalNanos.add(nanos);
+			this.maxNanos.accumulateAndGet(nanos, Math::max);
+		}
+
+		@Override
+		public String toString() {
+			long count = this.executions.sum();
+			long totalMillis = TimeUnit.NANOSECONDS.toMillis(this.totalNanos.sum());
+			return count + " executions, " + this.rows.sum() + " rows, " + totalMillis + "ms total, "
+				+ (count == 0 ? 0 : totalMillis / count) + "ms average, " + TimeUnit.NANOSECONDS.toMillis(this.maxNanos.get()) + "ms max, "
+				+ this.failures.sum() + " failed";
+		}
+	}
+}
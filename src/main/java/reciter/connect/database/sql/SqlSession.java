@@ -0,0 +1,132 @@
+package reciter.connect.database.sql;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs named queries on one connection. Every query is prepared on the first execution and the statement is reused
+ * for later executions until the session is closed. A session must only be used by one thread at a time.
+ */
+@Slf4j
+public class SqlSession implements AutoCloseable {
+
+	/**
+	 * Binds the values of the <code>?</code> parameters
+	 */
+	@FunctionalInterface
+	public interface ParameterSetter {
+		void setParameters(PreparedStatement ps) throws SQLException;
+	}
+
+	/**
+	 * Reads the current row of the result
+	 */
+	@FunctionalInterface
+	public interface RowHandler {
+		void processRow(ResultSet rs) throws SQLException;
+	}
+
+	private final SqlQueryRepository repository;
+
+	private final Connection connection;
+
+	private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+	SqlSession(SqlQueryRepository repository, Connection connection) {
+		this.repository = repository;
+		this.connection = connection;
+	}
+
+	/**
+	 * Run a query and hand every row to the row handler. The time recorded for the query includes reading the rows.
+	 * @param parameters binds the parameters, may be null for queries without parameters
+	 * @return the number of rows read
+	 */
+	public int query(SqlQuery query, ParameterSetter parameters, RowHandler rowHandler) throws SQLException {
+		long start = System.nanoTime();
+		int rows = 0;
+		boolean failed = true;
+		try(ResultSet rs = prepare(query, parameters).executeQuery()) {
+			while(rs.next()) {
+				rowHandler.processRow(rs);
+				rows++;
+			}
+			failed = false;
+		} finally {
+			this.repository.record(query, System.nanoTime() - start, rows, failed);
+		}
+		return rows;
+	}
+
+	/**
+	 * Run a query and return its result for callers reading the rows themselves. Only the result set has to be
+	 * closed, the statement stays open for the next execution. The time recorded for the query ends when the first
+	 * rows are returned.
+	 * @param parameters binds the parameters, may be null for queries without parameters
+	 */
+	public ResultSet executeQuery(SqlQuery query, ParameterSetter parameters) throws SQLException {
+		long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			ResultSet rs = prepare(query, parameters).executeQuery();
+			failed = false;
+			return rs;
+		} finally {
+			this.repository.record(query, System.nanoTime() - start, 0, failed);
+		}
+	}
+
+	/**
+	 * Run an insert, update or other statement without a result
+	 * @param parameters binds the parameters, may be null for statements without parameters
+	 * @return the number of rows changed
+	 */
+	public int update(SqlQuery query, ParameterSetter parameters) throws SQLException {
+		long start = System.nanoTime();
+		int count = 0;
+		boolean failed = true;
+		try {
+			count = prepare(query, parameters).executeUpdate();
+			failed = false;
+		} finally {
+			this.repository.record(query, System.nanoTime() - start, count, failed);
+		}
+		return count;
+	}
+
+	private PreparedStatement prepare(SqlQuery query, ParameterSetter parameters) throws SQLException {
+		PreparedStatement ps = this.statements.get(query.getName());
+		if(ps == null || ps.isClosed()) {
+			ps = this.connection.prepareStatement(query.getSql());
+			ps.setFetchSize(this.repository.getFetchSize(query));
+			this.statements.put(query.getName(), ps);
+		} else {
+			ps.clearParameters();
+		}
+		if(parameters != null) {
+			parameters.setParameters(ps);
+		}
+		return ps;
+	}
+
+	/**
+	 * Close the statements of the session. The connection stays open.
+	 */
+	@Override
+	public void close() {
+		for(PreparedStatement ps : this.statements.values()) {
+			try {
+				ps.close();
+			} catch(SQLException e) {
+				log.error("Error in closing statement", e);
+			}
+		}
+		this.statements.clear();
+	}
+}
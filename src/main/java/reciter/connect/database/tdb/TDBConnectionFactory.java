@@ -1,12 +1,13 @@
 package reciter.connect.database.tdb;
 
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
 
+import org.apache.jena.query.Dataset;
+import org.apache.jena.system.Txn;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
@@ -16,7 +17,6 @@ import org.springframework.stereotype.Component;
 import org.vivoweb.harvester.util.repo.TDBJenaConnect;
 
 import lombok.extern.slf4j.Slf4j;
-import reciter.connect.database.mysql.jena.JenaConnectionFactory;
 
 
 /**
@@ -37,7 +37,10 @@ public class TDBConnectionFactory {
 	
 	private String dbDir = null;
 	
-	private Map<TDBJenaConnect, String> connectionPool = new HashMap<>(); 
+	/**
+	 * Connections by graph name. All of them share the Dataset of the TDB directory and are safe to use from many threads.
+	 */
+	private final Map<String, TDBJenaConnect> connections = new ConcurrentHashMap<>();
 	
 	/**
 	 * @param propertyFilePath the path of property file
@@ -47,92 +50,75 @@ public class TDBConnectionFactory {
     public TDBConnectionFactory(Environment env, @Value("${vivoNamespace}") String namespace) {
         this.dbDir = env.getProperty("TDB_DIR");
 		this.nameSpaceProp = namespace;
-		//initialize();
 		if(nameSpaceProp != null && nameSpaceProp.trim().length() != 0) {
 			TDBConnectionFactory.nameSpace=(nameSpaceProp.trim().endsWith("/"))?nameSpaceProp.trim():nameSpaceProp.trim().concat("/");
         }
 	}
 	
 	/**
-	 * This method initializes and creates and populates the connection pool
+	 * The function gets the shared connection for a specified graph name. The connection does not have to be returned.
+	 * @param graphName the graphName for which the connection will be created, dataSet for the whole dataset
+	 * @return the jena connection object
 	 */
-	public void initialize() {
-		initializeConnectionPool();
-		
+	public TDBJenaConnect getConnectionfromPool(String graphName){
+		return this.connections.computeIfAbsent(graphName, 
+			name -> "dataSet".equals(name) ? createNewDataSetConnectionForPool() : createNewConnectionForPool(name));
 	}
 	
 	/**
-	 * This method initializes and creates and populates the connection pool
+	 * Connections are shared, nothing has to be done. Kept so callers can release connections the same way for every backend.
+	 * @param connection The connection object to TDBJena
+	 * @param graphName the graphName for which the connection will be created
 	 */
-	private void initializeConnectionPool() {
-		while(!checkIfConnectionPoolIsFull()) {
-			log.info("Jena pool is not full. Proceeding with adding new connection");
-			this.connectionPool.put(createNewDataSetConnectionForPool(),"dataSet");
-		}
-		log.info("Jena connection pool is full");
+	public void returnConnectionToPool(TDBJenaConnect connection, String graphName)
+    {
+    }
+	
+	/**
+	 * The shared Dataset of the TDB directory
+	 */
+	public Dataset getDataset() {
+		return getConnectionfromPool("dataSet").getDataset();
 	}
 	
 	/**
-	 * This method checks if connection Pool is full or not
-	 * @return boolean
+	 * Run several reads against the shared Dataset in one read transaction
+	 * @param action the reads to run
 	 */
-	private synchronized boolean checkIfConnectionPoolIsFull() {
-		final int MAX_POOL_SIZE = 5;
-		if(this.connectionPool.size()<MAX_POOL_SIZE)
-			return false;
-		else
-			return true;
+	public void executeRead(Runnable action) {
+		Txn.executeRead(getDataset(), action);
 	}
 	
 	/**
-	 * The function gets a connection from pool for a specified graph name
-	 * @param graphName the graphName for which the connection will be created
-	 * @return the jena connection object
+	 * Run several reads against the shared Dataset in one read transaction and return a result. Results such as result
+	 * sets must not be lazy since the transaction ends with the call.
+	 * @param action the reads to run
+	 * @return the result of the action
 	 */
-	public synchronized TDBJenaConnect getConnectionfromPool(String graphName){
-			
-		TDBJenaConnect con = null;
-			if(this.connectionPool.size()>0){
-				Iterator<Entry<TDBJenaConnect, String>> it = this.connectionPool.entrySet().iterator();
-				while(it.hasNext()) {
-					Entry<TDBJenaConnect, String> pair = it.next();
-					if(graphName.equals(pair.getValue())) {
-						con = pair.getKey();
-						
-					}
-					
-				}
-				this.connectionPool.remove(con);
-				
-			}
-			return con;
+	public <T> T calculateRead(Supplier<T> action) {
+		return Txn.calculateRead(getDataset(), action);
 	}
 	
 	/**
-	 * This fuctions returns a connection for a graph Name specified
-	 * @param connection The connection object to SDBJena
-	 * @param graphName the graphName for which the connection will be created
+	 * Run several reads and updates against the shared Dataset in one write transaction. Only one write transaction runs
+	 * at a time, reads in other threads are not blocked.
+	 * @param action the reads and updates to run
 	 */
-	public synchronized void returnConnectionToPool(TDBJenaConnect connection, String graphName)
-    {
-        //Adding the connection from the client back to the connection pool
-        this.connectionPool.put(connection, graphName);
-    }
+	public void executeWrite(Runnable action) {
+		Txn.executeWrite(getDataset(), action);
+	}
 	
 	/**
-	 * This function iterate through the connection pool and destroys all the connections
+	 * Closes the shared Dataset once at shutdown
 	 */
 	public void destroyConnectionPool() {
-		for (TDBJenaConnect key : this.connectionPool.keySet()) {
-			if(key != null)
-				key.getDataset().close();
-		}
-		this.connectionPool.clear();
+		this.connections.clear();
+		TDBJenaConnect.closeDataset(this.dbDir);
 		log.info("All Jena connections were destroyed");
 	} 
 	
 	/**
-	 * This function will create a new connection for pool
+	 * This function will create a new connection over the shared Dataset
 	 * @param filePath The file path for the property file
 	 * @param graphName the graphName for which the connection will be created
 	 * @return the jena connection object
@@ -144,7 +130,7 @@ public class TDBConnectionFactory {
 	}
 	
 	/**
-	 * This function will create a new connection for pool without modelName which enables us to query across all models(graphs)
+	 * This function will create a new connection over the shared Dataset without modelName which enables us to query across all models(graphs)
 	 * @param filePath The file path for the property file
 	 * @param graphName the graphName for which the connection will be created
 	 * @return the jena connection object
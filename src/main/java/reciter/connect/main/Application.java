@@ -1,21 +1,11 @@
 package reciter.connect.main;
 
-import java.sql.Connection;
-import java.sql.SQLException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 
 import javax.net.ssl.SSLException;
 
-import com.google.common.collect.Lists;
-
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.ApplicationArguments;
@@ -29,7 +19,6 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.retry.annotation.EnableRetry;
-import org.springframework.util.StopWatch;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.vivoweb.harvester.ingest.AcademicFetchFromED;
@@ -43,13 +32,18 @@ import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import lombok.extern.slf4j.Slf4j;
 import reactor.netty.http.client.HttpClient;
 import reciter.connect.api.client.ReCiterClient;
-import reciter.connect.api.client.model.ArticleRetrievalModel;
 import reciter.connect.beans.vivo.PeopleBean;
 import reciter.connect.database.ldap.LDAPConnectionFactory;
 import reciter.connect.database.mssql.MssqlConnectionFactory;
 import reciter.connect.database.mysql.MysqlConnectionFactory;
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.sql.SqlQueryRepository;
+import reciter.connect.vivo.IngestType;
+import reciter.connect.vivo.api.client.VivoClient;
+import reciter.connect.vivo.api.client.VivoGraphReplica;
+import reciter.connect.vivo.api.client.VivoUpdateWriter;
 import reciter.connect.vivo.sdb.publications.service.VivoPublicationsService;
+import reciter.connect.vivo.sdb.publications.util.PublicationFingerprintStore;
 
 @SpringBootApplication
 @PropertySource("classpath:application.properties")
@@ -71,6 +65,26 @@ public class Application implements ApplicationRunner {
     @Autowired
     private VivoPublicationsService vivoPublicationsService;
 
+    @Value("${connect.stage.people.parallelism}")
+    private int peopleParallelism;
+
+    @Value("${connect.stage.appointments-grants.parallelism}")
+    private int appointmentsGrantsParallelism;
+
+    @Value("${connect.stage.publications.parallelism}")
+    private int publicationsParallelism;
+
+    @Value("${connect.stage.queue.capacity}")
+    private int stageQueueCapacity;
+
+    @Value("${connect.stage.publications.group.size}")
+    private int publicationsGroupSize;
+
+    @Value("${vivo.api.max.concurrent.requests}")
+    private int vivoApiMaxConcurrentRequests;
+
+    private String ingestType = System.getenv("INGEST_TYPE");
+
     @Bean
     public WebClient getWebClient() {
         try {
@@ -103,138 +117,50 @@ public class Application implements ApplicationRunner {
         AppointmentsFetchFromED appointmentsFetchFromED = context.getBean(AppointmentsFetchFromED.class);
         ReCiterClient reCiterClient = context.getBean(ReCiterClient.class);
         DeleteProfile deleteProfile = context.getBean(DeleteProfile.class);
+        VivoUpdateWriter vivoUpdateWriter = context.getBean(VivoUpdateWriter.class);
+        PublicationFingerprintStore publicationFingerprintStore = context.getBean(PublicationFingerprintStore.class);
+        SqlQueryRepository sqlQueryRepository = context.getBean(SqlQueryRepository.class);
+        VivoGraphReplica vivoGraphReplica = context.getBean(VivoGraphReplica.class);
         mssqlConnectionFactory.createC3PODatasourceForASMS();
         mssqlConnectionFactory.createC3PODatasourceForInfoEd();
-        Connection asmsCon = null;
-        Connection infoEdCon = null;
-        try {
-            asmsCon = MssqlConnectionFactory.getASMSDataSource().getConnection();
-            infoEdCon = MssqlConnectionFactory.getInfoedDataSource().getConnection();
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
 
         academicFetchFromED.getCOIData();
 
-        ExecutorService executor = Executors.newFixedThreadPool(25);
+        if (IngestType.VIVO_API.toString().equals(this.ingestType)) {
+            vivoGraphReplica.bootstrap(context.getBean(VivoClient.class));
+        }
 
         try {
             List<PeopleBean> people = academicFetchFromED.getActivePeopleFromED();
             deleteProfile.execute();
-            List<List<PeopleBean>> peopleSubSets = Lists.partition(people, 10);
-            Iterator<List<PeopleBean>> subSetsIteratorPeople = peopleSubSets.iterator();
-            while (subSetsIteratorPeople.hasNext()) {
-                List<PeopleBean> subsetPeoples = subSetsIteratorPeople.next();
-                List<Callable<String>> callables = new ArrayList<>();
-                for(PeopleBean peopleSubset: subsetPeoples) {
-                    callables.add(academicFetchFromED.getCallable(Arrays.asList(peopleSubset)));
-                }
-                log.info("People fetch will run for " + subsetPeoples.toString());
-                try {
-                    executor.invokeAll(callables)
-                    .stream()
-                    .map(future -> {
-                        try {
-                            return future.get();
-                        }
-                        catch (Exception e) {
-                            throw new IllegalStateException(e);
-                        }
-                    }).forEach(System.out::println);
-                } catch (InterruptedException e) {
-                    log.error("Unable to invoke callable.", e);
-                }
-                callables.clear();
-            }
-
-            List<String> peopleCwids = people.stream().map(PeopleBean::getCwid).collect(Collectors.toList());
-            
-            List<List<String>> peopleCwidsSubSets = Lists.partition(peopleCwids, 5);
-            Iterator<List<String>> subSetsIteratorPeopleCwids = peopleCwidsSubSets.iterator();
-		    while (subSetsIteratorPeopleCwids.hasNext()) {
-                List<String> subsetPeoples = subSetsIteratorPeopleCwids.next();
-                List<Callable<String>> callables = new ArrayList<>();
-                for(String cwid: subsetPeoples) {
-                    callables.add(appointmentsFetchFromED.getCallable(Arrays.asList(cwid), asmsCon));
-                    callables.add(grantsFetchFromED.getCallable(Arrays.asList(cwid), asmsCon, infoEdCon));
-                }
-                log.info("Appointment and Grants fetch will run for " + subsetPeoples.toString());
-                try {
-                    executor.invokeAll(callables)
-                    .stream()
-                    .map(future -> {
-                        try {
-                            return future.get();
-                        }
-                        catch (Exception e) {
-                            throw new IllegalStateException(e);
-                        }
-                    }).forEach(System.out::println);
-                } catch (InterruptedException e) {
-                    log.error("Unable to invoke callable.", e);
-                }
-                callables.clear();
-            }
-
-            //Close Connections
-            if (ldapConnectionFactory != null)
-            ldapConnectionFactory.destroyConnectionPool();
-
-            if (mysqlConnectionFactory != null)
-                mysqlConnectionFactory.destroyConnectionPool();
-
-            if(asmsCon != null && infoEdCon != null) {
-                try {
-                    asmsCon.close();
-                    infoEdCon.close();
-                } catch (SQLException e) {
-                    log.error("SQLException", e);
-                }
-            }
-
-            MssqlConnectionFactory.dataSourceCleanup(MssqlConnectionFactory.getASMSDataSource());
-            MssqlConnectionFactory.dataSourceCleanup(MssqlConnectionFactory.getInfoedDataSource());
-
-            for(List<String> subsetPeoples: peopleCwidsSubSets) {
-                List<Callable<String>> callables = new ArrayList<>();
-                try{
-                    StopWatch stopWatch = new StopWatch("Getting Publications from ReCiter");
-                    stopWatch.start("Getting Publications from ReCiter");
-                    log.info("Getting publications for group : " + subsetPeoples.toString());
-                    List<ArticleRetrievalModel> allPubs = reCiterClient
-                                .getPublicationsByGroup(subsetPeoples)
-                                .onErrorReturn(new ArticleRetrievalModel())
-                                .collectList()
-                                .block();
-                    stopWatch.stop();
-                    if(!allPubs.isEmpty()) {
-                        log.info("Publications fetch Time taken: " + stopWatch.getTotalTimeSeconds() + "s");
-                        callables.add(vivoPublicationsService.getCallable(allPubs));
-                    }
-                } catch(Exception e) {
-                    log.error("Bulk Retrieval Exception", e);
-                }
-                if(!callables.isEmpty()) {
-                    log.info("Publications fetch will run for " + subsetPeoples.toString());
-                    try {
-                        executor.invokeAll(callables)
-                        .stream()
-                        .map(future -> {
-                            try {
-                                return future.get();
-                            }
-                            catch (Exception e) {
-                                throw new IllegalStateException(e);
-                            }
-                        }).forEach(System.out::println);
-                    } catch (InterruptedException e) {
-                        log.error("Unable to invoke callable.", e);
-                    }
-                }
-                callables.clear();
-            }
-            
-
+            academicFetchFromED.prefetchPeopleInVivo(people);
+            List<String> cwids = people.stream().map(PeopleBean::getCwid).collect(Collectors.toList());
+            appointmentsFetchFromED.prefetchRolesFromED(cwids);
+            appointmentsFetchFromED.prefetchEducationAndTraining(cwids);
+            grantsFetchFromED.prefetchGrants(cwids);
+            //Each publications task holds a Jena connection or a VIVO API request for its whole run
+            int publicationsConcurrency = Math.min(this.publicationsParallelism, IngestType.VIVO_API.toString().equals(this.ingestType) ?
+                this.vivoApiMaxConcurrentRequests : jenaConnectionFactory.getMaxPoolSize());
+            IngestPipeline ingestPipeline = new IngestPipeline(academicFetchFromED, appointmentsFetchFromED, grantsFetchFromED,
+                reCiterClient, vivoPublicationsService, this.peopleParallelism,
+                this.appointmentsGrantsParallelism, publicationsConcurrency, this.stageQueueCapacity, this.publicationsGroupSize,
+                () -> {
+                    //Close Connections
+                    if (ldapConnectionFactory != null)
+                    ldapConnectionFactory.destroyConnectionPool();
+
+                    if (mysqlConnectionFactory != null)
+                        mysqlConnectionFactory.destroyConnectionPool();
+
+                    log.info(mssqlConnectionFactory.getPoolStats());
+                    log.info(sqlQueryRepository.getQueryStats());
+                    MssqlConnectionFactory.dataSourceCleanup(MssqlConnectionFactory.getASMSDataSource());
+                    MssqlConnectionFactory.dataSourceCleanup(MssqlConnectionFactory.getInfoedDataSource());
+                });
+            ingestPipeline.run(people);
+            vivoUpdateWriter.flush();
+            log.info(vivoGraphReplica.getStats());
+            publicationFingerprintStore.save();
         } catch (Exception e) {
             log.error("Exception in application", e);
         }
@@ -0,0 +1,230 @@
+package reciter.connect.main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.StopWatch;
+import org.vivoweb.harvester.ingest.AcademicFetchFromED;
+import org.vivoweb.harvester.ingest.AppointmentsFetchFromED;
+import org.vivoweb.harvester.ingest.GrantsFetchFromED;
+
+import lombok.extern.slf4j.Slf4j;
+import reciter.connect.api.client.ReCiterClient;
+import reciter.connect.api.client.model.ArticleRetrievalModel;
+import reciter.connect.beans.vivo.PeopleBean;
+import reciter.connect.vivo.sdb.publications.service.PublicationInventory;
+import reciter.connect.vivo.sdb.publications.service.VivoPublicationsService;
+
+/**
+ * Overlapped ingest pipeline of people, appointments and grants, and publications.
+ * <p>A cwid moves on to the appointments and grants stage as soon as its person record is done and to the publications
+ * stage as soon as both its appointments and grants are done. Stages are connected with bounded queues so a slow
+ * downstream stage holds back the upstream ones instead of letting work pile up in memory.</p>
+ */
+@Slf4j
+public class IngestPipeline {
+
+    private static final String END_OF_STREAM = "END_OF_STREAM";
+
+    private final AcademicFetchFromED academicFetchFromED;
+
+    private final AppointmentsFetchFromED appointmentsFetchFromED;
+
+    private final GrantsFetchFromED grantsFetchFromED;
+
+    private final ReCiterClient reCiterClient;
+
+    private final VivoPublicationsService vivoPublicationsService;
+
+    private final int peopleParallelism;
+
+    private final int appointmentsGrantsParallelism;
+
+    private final int publicationsParallelism;
+
+    private final int queueCapacity;
+
+    private final int publicationsGroupSize;
+
+    private final Runnable edStagesCompleted;
+
+    private final BlockingQueue<String> appointmentsGrantsQueue;
+
+    private final BlockingQueue<String> publicationsQueue;
+
+    /**
+     * @param edStagesCompleted called once people, appointments and grants are done for every cwid so the ED, ASMS and InfoEd
+     * resources can be released while publications are still running
+     */
+    public IngestPipeline(AcademicFetchFromED academicFetchFromED, AppointmentsFetchFromED appointmentsFetchFromED,
+        GrantsFetchFromED grantsFetchFromED, ReCiterClient reCiterClient, VivoPublicationsService vivoPublicationsService,
+        int peopleParallelism, int appointmentsGrantsParallelism,
+        int publicationsParallelism, int queueCapacity, int publicationsGroupSize, Runnable edStagesCompleted) {
+        this.academicFetchFromED = academicFetchFromED;
+        this.appointmentsFetchFromED = appointmentsFetchFromED;
+        this.grantsFetchFromED = grantsFetchFromED;
+        this.reCiterClient = reCiterClient;
+        this.vivoPublicationsService = vivoPublicationsService;
+        this.peopleParallelism = peopleParallelism;
+        this.appointmentsGrantsParallelism = appointmentsGrantsParallelism;
+        this.publicationsParallelism = publicationsParallelism;
+        this.queueCapacity = queueCapacity;
+        this.publicationsGroupSize = publicationsGroupSize;
+        this.edStagesCompleted = edStagesCompleted;
+        this.appointmentsGrantsQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.publicationsQueue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Run every stage for the given people and return once the publications stage has finished.
+     */
+    public void run(List<PeopleBean> people) throws InterruptedException {
+        StopWatch stopWatch = new StopWatch("Ingest pipeline");
+        stopWatch.start("Ingest pipeline");
+        ExecutorService dispatchers = Executors.newFixedThreadPool(2);
+        try {
+            CompletableFuture<Void> appointmentsGrants = CompletableFuture.runAsync(this::dispatchAppointmentsAndGrants, dispatchers);
+            CompletableFuture<Void> publications = CompletableFuture.runAsync(this::dispatchPublications, dispatchers);
+
+            try(StageExecutor peopleStage = new StageExecutor("people", this.peopleParallelism, this.queueCapacity)) {
+                List<CompletableFuture<Void>> handoffs = new ArrayList<>();
+                for(PeopleBean person: people) {
+                    String cwid = person.getCwid();
+                    handoffs.add(peopleStage.submit(cwid, this.academicFetchFromED.getCallable(Arrays.asList(person)))
+                        .handle((result, e) -> handoff(this.appointmentsGrantsQueue, cwid)));
+                }
+                CompletableFuture.allOf(handoffs.toArray(new CompletableFuture[handoffs.size()])).join();
+                peopleStage.awaitCompletion();
+            }
+            this.appointmentsGrantsQueue.put(END_OF_STREAM);
+
+            appointmentsGrants.join();
+            publications.join();
+        } finally {
+            dispatchers.shutdownNow();
+        }
+        stopWatch.stop();
+        log.info("Ingest pipeline took " + stopWatch.getTotalTimeSeconds() + "s for " + people.size() + " people");
+    }
+
+    /**
+     * Takes cwids finished by the people stage and runs appointments and grants for them. A cwid is handed to the
+     * publications stage once both are done.
+     */
+    private void dispatchAppointmentsAndGrants() {
+        try(StageExecutor appointmentsGrantsStage = new StageExecutor("appointments-grants", this.appointmentsGrantsParallelism, this.queueCapacity)) {
+            List<CompletableFuture<Void>> handoffs = new ArrayList<>();
+            String cwid;
+            while(!(cwid = this.appointmentsGrantsQueue.take()).equals(END_OF_STREAM)) {
+                final String personCwid = cwid;
+                CompletableFuture<String> appointments = appointmentsGrantsStage.submit(cwid + "-appointments",
+                    this.appointmentsFetchFromED.getCallable(Arrays.asList(cwid)));
+                CompletableFuture<String> grants = appointmentsGrantsStage.submit(cwid + "-grants",
+                    this.grantsFetchFromED.getCallable(Arrays.asList(cwid)));
+                handoffs.add(CompletableFuture.allOf(appointments, grants)
+                    .handle((result, e) -> handoff(this.publicationsQueue, personCwid)));
+            }
+            CompletableFuture.allOf(handoffs.toArray(new CompletableFuture[handoffs.size()])).join();
+            appointmentsGrantsStage.awaitCompletion();
+        } catch (InterruptedException e) {
+            log.error("Appointments and grants dispatcher was interrupted", e);
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                this.edStagesCompleted.run();
+            } catch (Exception e) {
+                log.error("Unable to release ED resources", e);
+            }
+            handoff(this.publicationsQueue, END_OF_STREAM);
+        }
+    }
+
+    /**
+     * Collects cwids finished by the appointments and grants stage into ReCiter groups and runs the publications
+     * import for every person of a group concurrently. The next group is fetched from ReCiter while the current one
+     * is being written. A partial group is flushed when no cwid arrives within a few seconds.
+     */
+    private void dispatchPublications() {
+        try(StageExecutor publicationsStage = new StageExecutor("publications", this.publicationsParallelism, this.queueCapacity)) {
+            List<String> group = new ArrayList<>();
+            CompletableFuture<List<ArticleRetrievalModel>> pendingFetch = null;
+            boolean endOfStream = false;
+            while(!endOfStream) {
+                String cwid = this.publicationsQueue.poll(5, TimeUnit.SECONDS);
+                if(cwid != null && cwid.equals(END_OF_STREAM)) {
+                    endOfStream = true;
+                } else if(cwid != null) {
+                    group.add(cwid);
+                }
+                if(!group.isEmpty() && (cwid == null || endOfStream || group.size() >= this.publicationsGroupSize)) {
+                    CompletableFuture<List<ArticleRetrievalModel>> nextFetch = fetchPublications(new ArrayList<>(group));
+                    group.clear();
+                    submitPublications(publicationsStage, pendingFetch);
+                    pendingFetch = nextFetch;
+                }
+            }
+            submitPublications(publicationsStage, pendingFetch);
+            publicationsStage.awaitCompletion();
+        } catch (InterruptedException e) {
+            log.error("Publications dispatcher was interrupted", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<List<ArticleRetrievalModel>> fetchPublications(List<String> subsetPeoples) {
+        StopWatch stopWatch = new StopWatch("Getting Publications from ReCiter");
+        stopWatch.start("Getting Publications from ReCiter");
+        log.info("Getting publications for group : " + subsetPeoples.toString());
+        return this.reCiterClient
+                    .getPublicationsByGroup(subsetPeoples)
+                    .onErrorReturn(new ArticleRetrievalModel())
+                    .collectList()
+                    .toFuture()
+                    .whenComplete((allPubs, e) -> {
+                        stopWatch.stop();
+                        if(e != null) {
+                            log.error("Bulk Retrieval Exception", e);
+                        } else {
+                            log.info("Publications fetch Time taken: " + stopWatch.getTotalTimeSeconds() + "s for " + subsetPeoples.toString());
+                        }
+                    });
+    }
+
+    private void submitPublications(StageExecutor publicationsStage, CompletableFuture<List<ArticleRetrievalModel>> fetch) throws InterruptedException {
+        if(fetch == null) {
+            return;
+        }
+        List<ArticleRetrievalModel> allPubs;
+        try {
+            allPubs = fetch.join();
+        } catch (Exception e) {
+            //Already logged when the fetch completed
+            return;
+        }
+        //One lookup of the publications already in VIVO for the whole group instead of one per person and publication
+        PublicationInventory inventory = this.vivoPublicationsService.getPublicationInventory(allPubs);
+        for(ArticleRetrievalModel articleRetrievalModel: allPubs) {
+            if(articleRetrievalModel.getPersonIdentifier() == null) {
+                continue;
+            }
+            publicationsStage.submit(articleRetrievalModel.getPersonIdentifier(), this.vivoPublicationsService.getCallable(articleRetrievalModel, inventory));
+        }
+    }
+
+    private Void handoff(BlockingQueue<String> queue, String cwid) {
+        try {
+            queue.put(cwid);
+        } catch (InterruptedException e) {
+            log.error("Interrupted while handing off " + cwid, e);
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
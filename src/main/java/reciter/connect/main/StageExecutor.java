@@ -0,0 +1,120 @@
+package reciter.connect.main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs the tasks of a single ingest stage on a work-stealing pool.
+ * <p>Tasks are fed continuously instead of in fixed groups, so one slow cwid only occupies one worker.
+ * The number of submitted but unfinished tasks is bounded by the queue capacity and {@link #submit(String, Callable)}
+ * blocks until a slot frees up. Each task completion is reported with its running count.</p>
+ */
+@Slf4j
+public class StageExecutor implements AutoCloseable {
+
+    private final String stageName;
+
+    private final ForkJoinPool pool;
+
+    private final Semaphore slots;
+
+    private final List<CompletableFuture<String>> futures = new ArrayList<>();
+
+    private final AtomicInteger submitted = new AtomicInteger();
+
+    private final AtomicInteger completed = new AtomicInteger();
+
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private final long startTime = System.currentTimeMillis();
+
+    /**
+     * @param stageName name used for worker threads and log messages
+     * @param parallelism number of worker threads for this stage
+     * @param queueCapacity maximum number of tasks submitted but not yet finished
+     */
+    public StageExecutor(String stageName, int parallelism, int queueCapacity) {
+        this.stageName = stageName;
+        this.slots = new Semaphore(Math.max(queueCapacity, parallelism));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ForkJoinPool(parallelism, fjPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(fjPool);
+            thread.setName(stageName + "-" + threadCount.incrementAndGet());
+            return thread;
+        }, (thread, e) -> log.error("Uncaught exception in " + thread.getName(), e), true);
+        log.info("Stage " + stageName + " started with parallelism " + parallelism + " and queue capacity " + queueCapacity);
+    }
+
+    /**
+     * Submit a task to the stage. Blocks while the stage queue is full.
+     * @param taskName identifier of the task used in completion reporting, usually the cwid
+     * @param task the work to run
+     * @return future completing with the task result, or exceptionally if the task failed
+     */
+    public CompletableFuture<String> submit(String taskName, Callable<String> task) throws InterruptedException {
+        this.slots.acquire();
+        this.submitted.incrementAndGet();
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+            long taskStart = System.currentTimeMillis();
+            try {
+                String result = task.call();
+                log.info("Stage " + this.stageName + " - " + taskName + " completed in " + (System.currentTimeMillis() - taskStart)
+                    + "ms (" + this.completed.incrementAndGet() + "/" + this.submitted.get() + ")");
+                return result;
+            } catch (Exception e) {
+                this.failed.incrementAndGet();
+                this.completed.incrementAndGet();
+                log.error("Stage " + this.stageName + " - " + taskName + " failed", e);
+                throw new IllegalStateException(e);
+            } finally {
+                this.slots.release();
+            }
+        }, this.pool);
+        synchronized (this.futures) {
+            this.futures.add(future);
+        }
+        return future;
+    }
+
+    /**
+     * Wait until every submitted task has finished. Failed tasks are logged and do not stop the stage.
+     */
+    public void awaitCompletion() {
+        List<CompletableFuture<String>> pending;
+        synchronized (this.futures) {
+            pending = new ArrayList<>(this.futures);
+            this.futures.clear();
+        }
+        for (CompletableFuture<String> future : pending) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                //Already reported by the task itself
+            }
+        }
+        log.info("Stage " + this.stageName + " finished " + this.completed.get() + " tasks (" + this.failed.get() + " failed) in "
+            + (System.currentTimeMillis() - this.startTime) / 1000 + "s");
+    }
+
+    @Override
+    public void close() {
+        this.pool.shutdown();
+        try {
+            if (!this.pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                this.pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            this.pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
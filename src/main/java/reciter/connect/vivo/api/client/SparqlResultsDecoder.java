@@ -0,0 +1,187 @@
+package reciter.connect.vivo.api.client;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import reactor.core.publisher.Flux;
+import reciter.connect.vivo.api.client.model.SparqlBinding;
+import reciter.connect.vivo.api.client.model.SparqlRow;
+
+/**
+ * Incremental decoder for <code>application/sparql-results+json</code>.
+ * <p>The response is fed chunk by chunk into a non blocking JSON parser and every entry of <code>results.bindings</code>
+ * is turned into a {@link SparqlRow} as soon as it is complete, so neither the raw body nor a JSON tree of the whole
+ * response is held in memory. A decoder keeps parser state and must only be used for one response.</p>
+ */
+public class SparqlResultsDecoder {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final JsonParser parser;
+
+    private final ByteArrayFeeder feeder;
+
+    private int depth = 0;
+
+    private String fieldName;
+
+    private boolean inResults;
+
+    private boolean inBindings;
+
+    private Map<String, SparqlBinding> row;
+
+    private String variable;
+
+    private String type;
+
+    private String value;
+
+    private String datatype;
+
+    private String lang;
+
+    public SparqlResultsDecoder() {
+        try {
+            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) this.parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Decode a response body into mapped rows.
+     * @param body the response body as it arrives from the server
+     * @param mapper maps each row, rows mapped to null are skipped
+     */
+    public static <T> Flux<T> decode(Flux<DataBuffer> body, SparqlRowMapper<T> mapper) {
+        return Flux.defer(() -> {
+            SparqlResultsDecoder decoder = new SparqlResultsDecoder();
+            return body.concatMapIterable(decoder::feed)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.endOfInput())));
+        })
+        .<T>handle((row, sink) -> {
+            T mapped = mapper.mapRow(row);
+            if (mapped != null) {
+                sink.next(mapped);
+            }
+        });
+    }
+
+    /**
+     * Feed the next chunk of the response. The buffer is released.
+     * @return rows completed by this chunk
+     */
+    public List<SparqlRow> feed(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            this.feeder.feedInput(bytes, 0, bytes.length);
+            return parse();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    /**
+     * Signal the end of the response.
+     * @return rows completed by the remaining input
+     */
+    public List<SparqlRow> endOfInput() {
+        this.feeder.endOfInput();
+        try {
+            return parse();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<SparqlRow> parse() throws IOException {
+        List<SparqlRow> rows = new ArrayList<>();
+        JsonToken token;
+        while ((token = this.parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case FIELD_NAME:
+                    this.fieldName = this.parser.getCurrentName();
+                    break;
+                case START_OBJECT:
+                case START_ARRAY:
+                    this.depth++;
+                    if (this.depth == 2 && token == JsonToken.START_OBJECT && "results".equals(this.fieldName)) {
+                        this.inResults = true;
+                    } else if (this.inResults && this.depth == 3 && token == JsonToken.START_ARRAY && "bindings".equals(this.fieldName)) {
+                        this.inBindings = true;
+                    } else if (this.inBindings && this.depth == 4 && token == JsonToken.START_OBJECT) {
+                        this.row = new LinkedHashMap<>();
+                    } else if (this.row != null && this.depth == 5 && token == JsonToken.START_OBJECT) {
+                        this.variable = this.fieldName;
+                        this.type = null;
+                        this.value = null;
+                        this.datatype = null;
+                        this.lang = null;
+                    }
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    if (this.row != null && this.depth == 5) {
+                        this.row.put(this.variable, new SparqlBinding(bindingType(), this.value, this.datatype, this.lang));
+                    } else if (this.row != null && this.depth == 4) {
+                        rows.add(new SparqlRow(this.row));
+                        this.row = null;
+                    } else if (this.inBindings && this.depth == 3) {
+                        this.inBindings = false;
+                    } else if (this.inResults && this.depth == 2) {
+                        this.inResults = false;
+                    }
+                    this.depth--;
+                    break;
+                default:
+                    if (this.row != null && this.depth == 5 && token.isScalarValue()) {
+                        setBindingField(this.parser.getText());
+                    }
+                    break;
+            }
+        }
+        return rows;
+    }
+
+    private void setBindingField(String text) {
+        if ("type".equals(this.fieldName)) {
+            this.type = text;
+        } else if ("value".equals(this.fieldName)) {
+            this.value = text;
+        } else if ("datatype".equals(this.fieldName)) {
+            this.datatype = text;
+        } else if ("xml:lang".equals(this.fieldName)) {
+            this.lang = text;
+        }
+    }
+
+    private SparqlBinding.Type bindingType() {
+        if ("uri".equals(this.type)) {
+            return SparqlBinding.Type.URI;
+        }
+        if ("bnode".equals(this.type)) {
+            return SparqlBinding.Type.BNODE;
+        }
+        if ("typed-literal".equals(this.type) || this.datatype != null) {
+            return SparqlBinding.Type.TYPED_LITERAL;
+        }
+        return SparqlBinding.Type.LITERAL;
+    }
+}
@@ -0,0 +1,13 @@
+package reciter.connect.vivo.api.client;
+
+import reciter.connect.vivo.api.client.model.SparqlRow;
+
+/**
+ * Maps a row of a SPARQL select result to an object. Rows mapped to null are skipped.
+ */
+@FunctionalInterface
+public interface SparqlRowMapper<T> {
+
+    T mapRow(SparqlRow row);
+
+}
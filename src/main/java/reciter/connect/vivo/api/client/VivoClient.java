@@ -1,7 +1,27 @@
 package reciter.connect.vivo.api.client;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
 import javax.net.ssl.SSLException;
 
+import org.apache.jena.query.Query;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.retry.annotation.Retryable;
@@ -16,8 +36,13 @@ import io.netty.handler.ssl.SslContext;
 import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
 import reciter.connect.vivo.api.client.model.exception.CustomWebClientResponseException;
 
 @Slf4j
@@ -26,15 +51,38 @@ public class VivoClient {
 
     private WebClient webClient;
 
+    private final VivoGraphReplica replica;
+
     private static final String vivoApiUsername = System.getenv("VIVO_API_USERNAME").trim();
     private static final String vivoApiPassword = System.getenv("VIVO_API_PASSWORD").trim();
     private static final String vivoBaseUrl = System.getenv("VIVO_BASE_URL");
 
-    public VivoClient(WebClient.Builder webClientBuilder) {
+    /**
+     * Retry policy of the reactive variants. Mirrors the @Retryable settings of the blocking methods.
+     */
+    private static final Retry retryPolicy = Retry.backoff(4, Duration.ofSeconds(2))
+            .maxBackoff(Duration.ofSeconds(15))
+            .jitter(0.5)
+            .doBeforeRetry(signal -> log.error("Exception Occurred, Retry Count {} ", signal.totalRetries() + 1 + " with error:" + signal.failure().getMessage()));
+
+    /**
+     * @param maxConcurrentRequests maximum number of requests in flight to VIVO. Further requests wait in an unbounded
+     * queue for a free connection, the reactive variants without holding a thread.
+     * @param pendingAcquireTimeout seconds a request waits for a free connection before it fails and is retried
+     * @param replica local copy of the graphs connect writes, answers the queries only reading those graphs
+     */
+    public VivoClient(WebClient.Builder webClientBuilder, @Value("${vivo.api.max.concurrent.requests}") int maxConcurrentRequests,
+            @Value("${vivo.api.pending.acquire.timeout.seconds}") long pendingAcquireTimeout, VivoGraphReplica replica) {
+        this.replica = replica;
         try {
             SslContext sslContext = SslContextBuilder.forClient().trustManager(InsecureTrustManagerFactory.INSTANCE)
                     .build();
-            HttpClient httpClient = HttpClient.create().secure(t -> t.sslContext(sslContext));
+            ConnectionProvider connectionProvider = ConnectionProvider.builder("vivo-api")
+                    .maxConnections(maxConcurrentRequests)
+                    .pendingAcquireMaxCount(-1)
+                    .pendingAcquireTimeout(Duration.ofSeconds(pendingAcquireTimeout))
+                    .build();
+            HttpClient httpClient = HttpClient.create(connectionProvider).secure(t -> t.sslContext(sslContext));
             this.webClient = webClientBuilder
                     .clientConnector(new ReactorClientHttpConnector(httpClient))
                     //.filter(VivoClient.errorHandlingFilter())
@@ -48,6 +96,25 @@ public class VivoClient {
     @Retryable(maxAttempts = 5, value = RuntimeException.class, 
         backoff = @Backoff(random = true, delay = 2000, maxDelay = 15000), listeners = {"retryListener"})
     public String vivoUpdateApi(String updateQuery) {
+        String response = update(updateQuery).block();
+        this.replica.apply(updateQuery);
+        return response;
+    }
+
+    /**
+     * Non blocking variant of {@link #vivoUpdateApi(String)}. Failed requests are retried with jittered backoff
+     * without holding a thread. The replica and everything chained to the result run on a worker thread, not the
+     * netty event loop.
+     * @param updateQuery the SPARQL update
+     * @return the response body from VIVO, empty when VIVO sends no body
+     */
+    public Mono<String> vivoUpdateApiAsync(String updateQuery) {
+        return update(updateQuery).retryWhen(VivoClient.retryPolicy)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnSuccess(response -> this.replica.apply(updateQuery));
+    }
+
+    private Mono<String> update(String updateQuery) {
         LinkedMultiValueMap<String, String> body = new LinkedMultiValueMap<>();
         //body.add("email", VivoClient.vivoApiUsername);
         //body.add("password", VivoClient.vivoApiPassword);
@@ -71,8 +138,7 @@ public class VivoClient {
                         }
                     })
                     //.flatMap(response -> response.toEntity(String.class))
-                    .block()
-                    .getBody();
+                    .flatMap(response -> Mono.justOrEmpty(response.getBody()));
     }
 
     public static ExchangeFilterFunction errorHandlingFilter() {
@@ -91,6 +157,28 @@ public class VivoClient {
     @Retryable(maxAttempts = 5, value = RuntimeException.class, 
         backoff = @Backoff(random = true, delay = 2000, maxDelay = 15000), listeners = {"retryListener"})
     public String vivoQueryApi(String query) {
+        Query localQuery = this.replica.getLocalQuery(query);
+        if (localQuery != null) {
+            return this.replica.select(localQuery);
+        }
+        return query(query).block();
+    }
+
+    /**
+     * Non blocking variant of {@link #vivoQueryApi(String)}. Failed requests are retried with jittered backoff
+     * without holding a thread.
+     * @param query the SPARQL select query
+     * @return the sparql-results+json response from VIVO
+     */
+    public Mono<String> vivoQueryApiAsync(String query) {
+        Query localQuery = this.replica.getLocalQuery(query);
+        if (localQuery != null) {
+            return Mono.fromCallable(() -> this.replica.select(localQuery)).subscribeOn(Schedulers.boundedElastic());
+        }
+        return query(query).retryWhen(VivoClient.retryPolicy);
+    }
+
+    private Mono<String> query(String query) {
 
         LinkedMultiValueMap<String, String> body = new LinkedMultiValueMap<>();
         //body.add("email", VivoClient.vivoApiUsername);
@@ -116,8 +204,147 @@ public class VivoClient {
                         }
                     })
                     //.flatMap(response -> response.toEntity(String.class))
-                    .block()
-                    .getBody();
+                    .flatMap(response -> Mono.justOrEmpty(response.getBody()));
+    }
+
+    /**
+     * Run a construct query
+     * @param query the SPARQL construct query
+     * @return the constructed triples in a new in memory model
+     */
+    @Retryable(maxAttempts = 5, value = RuntimeException.class,
+        backoff = @Backoff(random = true, delay = 2000, maxDelay = 15000), listeners = {"retryListener"})
+    public Model vivoConstructApi(String query) {
+        Query localQuery = this.replica.getLocalQuery(query);
+        if (localQuery != null) {
+            return this.replica.construct(localQuery);
+        }
+        LinkedMultiValueMap<String, String> body = new LinkedMultiValueMap<>();
+        body.add("query", query);
+
+        String turtle = this.webClient.post()
+                    .uri(uriBuilder -> uriBuilder
+                        .path("/vivo/query")
+                    .build())
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .header("Accept", "text/turtle")
+                    .body(BodyInserters.fromFormData(body))
+                    .exchangeToMono(response -> {
+                        if (response.statusCode() != null && (response.statusCode().is5xxServerError() || response.statusCode().is4xxClientError())) {
+                            return response.bodyToMono(String.class)
+                                    .flatMap(errorBody -> {
+                                        return Mono.error(new CustomWebClientResponseException(errorBody,response.statusCode()));
+                                        });
+                        }
+                        else {
+                            return response.bodyToMono(String.class);
+                        }
+                    })
+                    .block();
+        Model model = ModelFactory.createDefaultModel();
+        if (turtle != null) {
+            RDFDataMgr.read(model, new StringReader(turtle), null, Lang.TURTLE);
+        }
+        return model;
+    }
+
+    /**
+     * Run a construct query against VIVO and hand the Turtle response to the reader while it is received, so large
+     * graphs are never held in memory as a whole. The replica is not consulted and nothing is retried since the reader
+     * may already have consumed part of the response when a failure happens.
+     * @param query the SPARQL construct query
+     * @param reader reads the response on the calling thread, for example into a model
+     * @throws IllegalStateException when the request failed, after the reader returned
+     */
+    public void vivoConstructApiStream(String query, Consumer<InputStream> reader) {
+        LinkedMultiValueMap<String, String> body = new LinkedMultiValueMap<>();
+        body.add("query", query);
+
+        Flux<DataBuffer> response = this.webClient.post()
+                    .uri(uriBuilder -> uriBuilder
+                        .path("/vivo/query")
+                    .build())
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .header("Accept", "text/turtle")
+                    .body(BodyInserters.fromFormData(body))
+                    .exchangeToFlux(clientResponse -> {
+                        if (clientResponse.statusCode() != null && (clientResponse.statusCode().is5xxServerError() || clientResponse.statusCode().is4xxClientError())) {
+                            return clientResponse.bodyToMono(String.class)
+                                    .flatMapMany(errorBody -> Flux.error(new CustomWebClientResponseException(errorBody, clientResponse.statusCode())));
+                        }
+                        return clientResponse.bodyToFlux(DataBuffer.class);
+                    });
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        try (PipedOutputStream out = new PipedOutputStream(); PipedInputStream in = new PipedInputStream(out, 64 * 1024)) {
+            //Writing to the pipe blocks while the reader is behind so it must not happen on the netty event loop
+            Disposable writing = DataBufferUtils.write(response.publishOn(Schedulers.boundedElastic()), out)
+                    .doOnError(failure::set)
+                    .doFinally(signal -> {
+                        try {
+                            out.close();
+                        } catch (IOException e) {
+                            log.error("Unable to close the construct response stream", e);
+                        }
+                    })
+                    .subscribe(DataBufferUtils.releaseConsumer(), e -> { });
+            try {
+                reader.accept(in);
+            } finally {
+                writing.dispose();
+            }
+        } catch (IOException e) {
+            failure.compareAndSet(null, e);
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Construct query to VIVO failed", failure.get());
+        }
+    }
+
+    /**
+     * Run a select query and map every result row. The response is decoded while it is received.
+     * @param query the SPARQL select query
+     * @param mapper maps each row, rows mapped to null are skipped
+     * @return the mapped rows in response order
+     */
+    @Retryable(maxAttempts = 5, value = RuntimeException.class, 
+        backoff = @Backoff(random = true, delay = 2000, maxDelay = 15000), listeners = {"retryListener"})
+    public <T> List<T> vivoQueryApi(String query, SparqlRowMapper<T> mapper) {
+        return vivoQueryApiStream(query, mapper).collectList().block();
+    }
+
+    /**
+     * Run a select query and emit the mapped rows as they are decoded from the response. Nothing is retried since rows
+     * may already have been consumed when a failure happens.
+     * @param query the SPARQL select query
+     * @param mapper maps each row, rows mapped to null are skipped
+     */
+    public <T> Flux<T> vivoQueryApiStream(String query, SparqlRowMapper<T> mapper) {
+        Query localQuery = this.replica.getLocalQuery(query);
+        if (localQuery != null) {
+            return Flux.defer(() -> SparqlResultsDecoder.decode(
+                Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(this.replica.select(localQuery).getBytes(StandardCharsets.UTF_8))), mapper));
+        }
+        LinkedMultiValueMap<String, String> body = new LinkedMultiValueMap<>();
+        body.add("query", query);
+
+        return this.webClient.post()
+                    .uri(uriBuilder -> uriBuilder
+                        .path("/vivo/query")
+                    .build())
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .header("Accept", "application/sparql-results+json")
+                    .body(BodyInserters.fromFormData(body))
+                    .exchangeToFlux(response -> {
+                        if (response.statusCode() != null && (response.statusCode().is5xxServerError() || response.statusCode().is4xxClientError())) {
+                            return response.bodyToMono(String.class)
+                                    .flatMapMany(errorBody -> {
+                                        return Flux.error(new CustomWebClientResponseException(errorBody,response.statusCode()));
+                                        });
+                        }
+                        else {
+                            return SparqlResultsDecoder.decode(response.bodyToFlux(DataBuffer.class), mapper);
+                        }
+                    });
     }
     
 }
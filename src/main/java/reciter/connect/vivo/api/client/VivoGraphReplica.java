@@ -0,0 +1,396 @@
+package reciter.connect.vivo.api.client;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.query.Dataset;
+import org.apache.jena.query.DatasetFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.ResultSetFormatter;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.sparql.core.DatasetGraph;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.core.VarExprList;
+import org.apache.jena.sparql.expr.Expr;
+import org.apache.jena.sparql.expr.ExprFunctionOp;
+import org.apache.jena.sparql.expr.ExprVisitorBase;
+import org.apache.jena.sparql.expr.ExprWalker;
+import org.apache.jena.sparql.modify.request.UpdateCreate;
+import org.apache.jena.sparql.modify.request.UpdateData;
+import org.apache.jena.sparql.modify.request.UpdateDeleteWhere;
+import org.apache.jena.sparql.modify.request.UpdateDropClear;
+import org.apache.jena.sparql.modify.request.UpdateModify;
+import org.apache.jena.sparql.syntax.Element;
+import org.apache.jena.sparql.syntax.Element1;
+import org.apache.jena.sparql.syntax.ElementAssign;
+import org.apache.jena.sparql.syntax.ElementBind;
+import org.apache.jena.sparql.syntax.ElementData;
+import org.apache.jena.sparql.syntax.ElementExists;
+import org.apache.jena.sparql.syntax.ElementFilter;
+import org.apache.jena.sparql.syntax.ElementGroup;
+import org.apache.jena.sparql.syntax.ElementMinus;
+import org.apache.jena.sparql.syntax.ElementNamedGraph;
+import org.apache.jena.sparql.syntax.ElementNotExists;
+import org.apache.jena.sparql.syntax.ElementOptional;
+import org.apache.jena.sparql.syntax.ElementPathBlock;
+import org.apache.jena.sparql.syntax.ElementSubQuery;
+import org.apache.jena.sparql.syntax.ElementTriplesBlock;
+import org.apache.jena.sparql.syntax.ElementUnion;
+import org.apache.jena.system.Txn;
+import org.apache.jena.tdb.TDBFactory;
+import org.apache.jena.update.Update;
+import org.apache.jena.update.UpdateAction;
+import org.apache.jena.update.UpdateFactory;
+import org.apache.jena.update.UpdateRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StopWatch;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local copy of the VIVO graphs that connect writes itself, used in VIVO_API mode.
+ * <p>Every graph is streamed from VIVO with one construct query by {@link #bootstrap(VivoClient)}. Afterwards
+ * {@link VivoClient} applies every update VIVO accepted to the copy as well and answers queries that only read the
+ * copied graphs locally instead of sending them to VIVO. Queries reading any other graph, or the default graph, still
+ * go to VIVO. When an update changes a copied graph in a way that can not be repeated locally, for example based on the
+ * inference graph, the copy is no longer trusted and every query goes to VIVO for the rest of the run.</p>
+ */
+@Slf4j
+@Component
+public class VivoGraphReplica {
+
+    private final boolean enabled;
+
+    private final Set<String> graphs;
+
+    private final Dataset dataset;
+
+    private volatile boolean ready = false;
+
+    private final LongAdder localQueries = new LongAdder();
+
+    private final LongAdder appliedUpdates = new LongAdder();
+
+    /**
+     * @param enabled whether queries are answered from the copy at all
+     * @param graphs URIs of the graphs copied from VIVO
+     * @param tdbDirectory directory of the TDB dataset holding the copy, empty to keep it in memory
+     */
+    public VivoGraphReplica(@Value("${vivo.replica.enabled}") boolean enabled, @Value("${vivo.replica.graphs}") String[] graphs,
+            @Value("${vivo.replica.tdb.directory}") String tdbDirectory) {
+        this.enabled = enabled;
+        this.graphs = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(graphs)));
+        if (!enabled) {
+            this.dataset = null;
+        } else if (tdbDirectory == null || tdbDirectory.trim().isEmpty()) {
+            this.dataset = DatasetFactory.createTxnMem();
+        } else {
+            this.dataset = TDBFactory.createDataset(tdbDirectory.trim());
+        }
+    }
+
+    /**
+     * Copy every graph from VIVO with one construct query each. The response is parsed into the copy while it is
+     * received, inside the write transaction, so a failed download leaves nothing behind. Queries are answered locally
+     * once all the graphs are copied. When a graph can not be copied the copy stays unused.
+     */
+    public void bootstrap(VivoClient vivoClient) {
+        if (!this.enabled) {
+            return;
+        }
+        StopWatch stopWatch = new StopWatch("VIVO graph replica bootstrap");
+        try {
+            for (String graph : this.graphs) {
+                stopWatch.start(graph);
+                long size = Txn.calculateWrite(this.dataset, () -> {
+                    Model replicaGraph = this.dataset.getNamedModel(graph);
+                    replicaGraph.removeAll();
+                    vivoClient.vivoConstructApiStream("CONSTRUCT { ?s ?p ?o } WHERE { GRAPH <" + graph + "> { ?s ?p ?o } }",
+                        in -> RDFDataMgr.read(replicaGraph, in, Lang.TURTLE));
+                    return replicaGraph.size();
+                });
+                stopWatch.stop();
+                log.info("Copied " + size + " triples of " + graph + " to the replica in " + stopWatch.getLastTaskTimeMillis() + "ms");
+            }
+            this.ready = true;
+        } catch (Exception e) {
+            log.error("Unable to copy the graphs from VIVO, all queries go to VIVO", e);
+        }
+    }
+
+    /**
+     * @param query the SPARQL query sent to VIVO
+     * @return the parsed query when it only reads copied graphs and can be answered locally, otherwise null
+     */
+    public Query getLocalQuery(String query) {
+        if (!this.ready) {
+            return null;
+        }
+        Query parsed;
+        try {
+            parsed = QueryFactory.create(query);
+        } catch (Exception e) {
+            return null;
+        }
+        if (!(parsed.isSelectType() || parsed.isAskType() || parsed.isConstructType())
+            || !parsed.getGraphURIs().isEmpty() || !parsed.getNamedGraphURIs().isEmpty()
+            || !readsCopiedGraphsOnly(parsed, false)) {
+            return null;
+        }
+        this.localQueries.increment();
+        return parsed;
+    }
+
+    /**
+     * Run a select or ask query on the copy
+     * @return the result in the <code>application/sparql-results+json</code> format VIVO responds with
+     */
+    public String select(Query query) {
+        return Txn.calculateRead(this.dataset, () -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (QueryExecution qe = QueryExecutionFactory.create(query, this.dataset)) {
+                if (query.isAskType()) {
+                    ResultSetFormatter.outputAsJSON(out, qe.execAsk());
+                } else {
+                    ResultSetFormatter.outputAsJSON(out, qe.execSelect());
+                }
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * Run a construct query on the copy
+     * @return the constructed triples in a new in memory model
+     */
+    public Model construct(Query query) {
+        return Txn.calculateRead(this.dataset, () -> {
+            try (QueryExecution qe = QueryExecutionFactory.create(query, this.dataset)) {
+                return qe.execConstruct();
+            }
+        });
+    }
+
+    /**
+     * Repeat an update VIVO accepted on the copy. Only changes to the copied graphs are kept.
+     * @param updateQuery the SPARQL update sent to VIVO
+     */
+    public void apply(String updateQuery) {
+        if (!this.ready) {
+            return;
+        }
+        try {
+            UpdateRequest request = UpdateFactory.create(updateQuery);
+            boolean applied = Txn.calculateWrite(this.dataset, () -> {
+                for (Update update : request.getOperations()) {
+                    if (!applyOperation(update)) {
+                        return false;
+                    }
+                }
+                removeOtherGraphs();
+                return true;
+            });
+            if (!applied) {
+                disable("Update can not be repeated on the replica: " + updateQuery);
+            } else {
+                this.appliedUpdates.increment();
+            }
+        } catch (Exception e) {
+            log.error("Exception applying update to the replica", e);
+            disable("Update failed on the replica: " + updateQuery);
+        }
+    }
+
+    /**
+     * @return number of queries answered locally and updates applied to the copy
+     */
+    public String getStats() {
+        return "VIVO graph replica " + (this.ready ? "in use" : "not in use") + ": " + this.localQueries.sum() + " queries answered locally, "
+            + this.appliedUpdates.sum() + " updates applied";
+    }
+
+    private void disable(String reason) {
+        this.ready = false;
+        log.warn(reason + " - all further queries go to VIVO");
+    }
+
+    /**
+     * @return false when the update changes a copied graph based on data that is not copied
+     */
+    private boolean applyOperation(Update update) {
+        if (update instanceof UpdateDeleteWhere) {
+            List<Quad> quads = ((UpdateDeleteWhere) update).getQuads();
+            if (!writesCopiedGraph(quads, null)) {
+                return true;
+            }
+            for (Quad quad : quads) {
+                if (!isCopiedGraph(quad.getGraph())) {
+                    return false;
+                }
+            }
+            UpdateAction.execute(update, this.dataset);
+            return true;
+        }
+        if (update instanceof UpdateData) {
+            //INSERT DATA and DELETE DATA
+            if (writesCopiedGraph(((UpdateData) update).getQuads(), null)) {
+                UpdateAction.execute(update, this.dataset);
+            }
+            return true;
+        }
+        if (update instanceof UpdateModify) {
+            UpdateModify modify = (UpdateModify) update;
+            List<Quad> quads = new ArrayList<>(modify.getDeleteQuads());
+            quads.addAll(modify.getInsertQuads());
+            if (!writesCopiedGraph(quads, modify.getWithIRI())) {
+                return true;
+            }
+            if (!modify.getUsing().isEmpty() || !modify.getUsingNamed().isEmpty()
+                || !readsCopiedGraphsOnly(modify.getWherePattern(), modify.getWithIRI() != null && isCopiedGraph(modify.getWithIRI()))) {
+                return false;
+            }
+            UpdateAction.execute(update, this.dataset);
+            return true;
+        }
+        if (update instanceof UpdateDropClear) {
+            UpdateDropClear dropClear = (UpdateDropClear) update;
+            if (dropClear.isAll() || dropClear.isAllNamed() || (dropClear.isOneGraph() && isCopiedGraph(dropClear.getGraph()))) {
+                UpdateAction.execute(update, this.dataset);
+            }
+            return true;
+        }
+        return update instanceof UpdateCreate;
+    }
+
+    private boolean writesCopiedGraph(List<Quad> quads, Node withIRI) {
+        for (Quad quad : quads) {
+            Node graph = quad.isDefaultGraph() && withIRI != null ? withIRI : quad.getGraph();
+            if (graph.isVariable() || isCopiedGraph(graph)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isCopiedGraph(Node graph) {
+        return graph.isURI() && this.graphs.contains(graph.getURI());
+    }
+
+    /**
+     * Changes of the update to graphs that are not copied are dropped so the copy only holds the copied graphs
+     */
+    private void removeOtherGraphs() {
+        DatasetGraph dsg = this.dataset.asDatasetGraph();
+        dsg.getDefaultGraph().clear();
+        List<Node> otherGraphs = new ArrayList<>();
+        Iterator<Node> it = dsg.listGraphNodes();
+        while (it.hasNext()) {
+            Node graph = it.next();
+            if (!isCopiedGraph(graph)) {
+                otherGraphs.add(graph);
+            }
+        }
+        otherGraphs.forEach(dsg::removeGraph);
+    }
+
+    private boolean readsCopiedGraphsOnly(Query query, boolean inCopiedGraph) {
+        if (query.getQueryPattern() == null || !readsCopiedGraphsOnly(query.getQueryPattern(), inCopiedGraph)) {
+            return false;
+        }
+        VarExprList project = query.getProject();
+        for (Expr expr : project.getExprs().values()) {
+            if (!readsCopiedGraphsOnly(expr, inCopiedGraph)) {
+                return false;
+            }
+        }
+        for (Expr expr : query.getHavingExprs()) {
+            if (!readsCopiedGraphsOnly(expr, inCopiedGraph)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param inCopiedGraph whether the element is inside a GRAPH block of a copied graph
+     * @return true when the element only matches triples of copied graphs
+     */
+    private boolean readsCopiedGraphsOnly(Element element, boolean inCopiedGraph) {
+        if (element instanceof ElementGroup) {
+            for (Element child : ((ElementGroup) element).getElements()) {
+                if (!readsCopiedGraphsOnly(child, inCopiedGraph)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (element instanceof ElementUnion) {
+            for (Element child : ((ElementUnion) element).getElements()) {
+                if (!readsCopiedGraphsOnly(child, inCopiedGraph)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (element instanceof ElementNamedGraph) {
+            ElementNamedGraph namedGraph = (ElementNamedGraph) element;
+            return isCopiedGraph(namedGraph.getGraphNameNode()) && readsCopiedGraphsOnly(namedGraph.getElement(), true);
+        }
+        if (element instanceof ElementPathBlock || element instanceof ElementTriplesBlock) {
+            return inCopiedGraph;
+        }
+        if (element instanceof ElementOptional) {
+            return readsCopiedGraphsOnly(((ElementOptional) element).getOptionalElement(), inCopiedGraph);
+        }
+        if (element instanceof ElementMinus) {
+            return readsCopiedGraphsOnly(((ElementMinus) element).getMinusElement(), inCopiedGraph);
+        }
+        if (element instanceof ElementExists || element instanceof ElementNotExists) {
+            return readsCopiedGraphsOnly(((Element1) element).getElement(), inCopiedGraph);
+        }
+        if (element instanceof ElementFilter) {
+            return readsCopiedGraphsOnly(((ElementFilter) element).getExpr(), inCopiedGraph);
+        }
+        if (element instanceof ElementBind) {
+            return readsCopiedGraphsOnly(((ElementBind) element).getExpr(), inCopiedGraph);
+        }
+        if (element instanceof ElementAssign) {
+            return readsCopiedGraphsOnly(((ElementAssign) element).getExpr(), inCopiedGraph);
+        }
+        if (element instanceof ElementSubQuery) {
+            Query subQuery = ((ElementSubQuery) element).getQuery();
+            return readsCopiedGraphsOnly(subQuery, inCopiedGraph);
+        }
+        //SERVICE and any other element is answered by VIVO
+        return element instanceof ElementData;
+    }
+
+    private boolean readsCopiedGraphsOnly(Expr expr, boolean inCopiedGraph) {
+        boolean[] local = {true};
+        ExprWalker.walk(new ExprVisitorBase() {
+            @Override
+            public void visit(ExprFunctionOp funcOp) {
+                if (funcOp.getElement() != null && !readsCopiedGraphsOnly(funcOp.getElement(), inCopiedGraph)) {
+                    local[0] = false;
+                }
+            }
+        }, expr);
+        return local[0];
+    }
+
+}
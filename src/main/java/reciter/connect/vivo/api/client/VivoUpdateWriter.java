@@ -0,0 +1,232 @@
+package reciter.connect.vivo.api.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coalesces SPARQL updates from many callers into fewer requests to the VIVO update API.
+ * <p>Updates are joined with <code>;</code> into one SPARQL Update request which is sent when the pending batch reaches
+ * the configured number of updates or characters, or when the flush interval has elapsed. Every caller gets its own
+ * future. If a batch is rejected each of its updates is sent again on its own so a bad update only fails its own
+ * caller. Since a batch can be partially applied before it fails and batches of different callers can be sent at the
+ * same time, only idempotent updates whose order does not matter like <code>INSERT DATA</code> should be submitted
+ * here.</p>
+ * <p>Batches are sent with {@link VivoClient#vivoUpdateApiAsync(String)} so neither the flush thread nor the callers
+ * filling a batch wait for VIVO. The connection pool of the client limits how many batches are in flight.</p>
+ * <p>Updates can name the subjects they create. Callers checking whether a subject exists in VIVO call
+ * {@link #awaitPending(String)} first so the check sees updates that are still queued here.</p>
+ */
+@Slf4j
+@Component
+public class VivoUpdateWriter {
+
+    private final VivoClient vivoClient;
+
+    private final int maxBatchCount;
+
+    private final int maxBatchSize;
+
+    private final ScheduledExecutorService flusher;
+
+    private List<PendingUpdate> pending = new ArrayList<>();
+
+    /**
+     * Batches being sent, completing once the request is done whether it failed or not
+     */
+    private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Unsent updates by the subjects they create
+     */
+    private final Map<String, CompletableFuture<?>> pendingSubjects = new ConcurrentHashMap<>();
+
+    private int pendingSize = 0;
+
+    @Autowired
+    public VivoUpdateWriter(VivoClient vivoClient, @Value("${vivo.api.update.batch.max-count}") int maxBatchCount,
+        @Value("${vivo.api.update.batch.max-size}") int maxBatchSize, @Value("${vivo.api.update.batch.flush-interval-ms}") long flushInterval) {
+        this.vivoClient = vivoClient;
+        this.maxBatchCount = maxBatchCount;
+        this.maxBatchSize = maxBatchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "vivo-update-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::sendPending, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue an update for the next batch.
+     * @param updateQuery a complete SPARQL update including its prefixes
+     * @param entity description of what the update is for, used when reporting a failure
+     * @param subjects URIs of the subjects the update creates, checked with {@link #awaitPending(String)}
+     * @return future completing with the VIVO response once the batch containing the update was sent
+     */
+    public CompletableFuture<String> submit(String updateQuery, String entity, String... subjects) {
+        PendingUpdate update = new PendingUpdate(updateQuery);
+        for (String subject : subjects) {
+            CompletableFuture<?> tracked = this.pendingSubjects.merge(subject, update.result,
+                (previous, next) -> CompletableFuture.allOf(previous, next));
+            tracked.whenComplete((response, e) -> this.pendingSubjects.remove(subject, tracked));
+        }
+        boolean full;
+        synchronized (this) {
+            this.pending.add(update);
+            this.pendingSize = this.pendingSize + updateQuery.length();
+            full = this.pending.size() >= this.maxBatchCount || this.pendingSize >= this.maxBatchSize;
+        }
+        if (full) {
+            sendPending();
+        }
+        return update.result.whenComplete((response, e) -> {
+            if (e != null) {
+                log.error("Api Exception for " + entity, e);
+            }
+        });
+    }
+
+    /**
+     * Wait until the updates creating a subject were sent so a following read sees them. The pending batch is sent
+     * right away when it holds such an update.
+     * @param subject URI passed to {@link #submit(String, String, String...)}
+     */
+    public void awaitPending(String subject) {
+        CompletableFuture<?> update = this.pendingSubjects.get(subject);
+        if (update == null) {
+            return;
+        }
+        if (!update.isDone()) {
+            sendPending();
+        }
+        try {
+            update.join();
+        } catch (Exception e) {
+            log.info("Pending update for " + subject + " was not written");
+        }
+    }
+
+    /**
+     * Send everything that is pending and wait for it and the batches other callers are sending to be written.
+     */
+    public void flush() {
+        List<PendingUpdate> batch;
+        List<CompletableFuture<Void>> sending;
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        synchronized (this) {
+            batch = drain();
+            sending = new ArrayList<>(this.inFlight);
+            this.inFlight.add(sent);
+        }
+        send(batch, sent);
+        sent.join();
+        for (CompletableFuture<Void> other : sending) {
+            other.join();
+        }
+    }
+
+    /**
+     * Send the pending batch without waiting for it or for batches of other callers. Only taking the batch is
+     * synchronized so batches are sent in parallel.
+     */
+    private void sendPending() {
+        List<PendingUpdate> batch;
+        CompletableFuture<Void> sent = new CompletableFuture<>();
+        synchronized (this) {
+            batch = drain();
+            this.inFlight.add(sent);
+        }
+        send(batch, sent);
+    }
+
+    @PreDestroy
+    public void close() {
+        this.flusher.shutdown();
+        flush();
+    }
+
+    private List<PendingUpdate> drain() {
+        List<PendingUpdate> batch = this.pending;
+        this.pending = new ArrayList<>();
+        this.pendingSize = 0;
+        return batch;
+    }
+
+    private void send(List<PendingUpdate> batch, CompletableFuture<Void> sent) {
+        send(batch).whenComplete((result, e) -> {
+            this.inFlight.remove(sent);
+            sent.complete(null);
+        });
+    }
+
+    /**
+     * @return future completing once every update of the batch has its result
+     */
+    private CompletableFuture<Void> send(List<PendingUpdate> batch) {
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (PendingUpdate update : batch) {
+            if (sb.length() > 0) {
+                sb.append(" ;\n");
+            }
+            sb.append(update.updateQuery);
+        }
+        return this.vivoClient.vivoUpdateApiAsync(sb.toString()).toFuture()
+            .handle((response, e) -> {
+                if (e == null) {
+                    log.info("Sent " + batch.size() + " updates to VIVO in one request");
+                    for (PendingUpdate update : batch) {
+                        update.result.complete(response);
+                    }
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+                if (batch.size() == 1) {
+                    batch.get(0).result.completeExceptionally(e);
+                    return CompletableFuture.<Void>completedFuture(null);
+                }
+                log.error("Batch of " + batch.size() + " updates was rejected. Sending them one by one", e);
+                CompletableFuture<?>[] single = new CompletableFuture<?>[batch.size()];
+                for (int i = 0; i < batch.size(); i++) {
+                    PendingUpdate update = batch.get(i);
+                    single[i] = this.vivoClient.vivoUpdateApiAsync(update.updateQuery).toFuture()
+                        .whenComplete((updateResponse, ex) -> {
+                            if (ex != null) {
+                                update.result.completeExceptionally(ex);
+                            } else {
+                                update.result.complete(updateResponse);
+                            }
+                        });
+                }
+                return CompletableFuture.allOf(single).exceptionally(ex -> null);
+            })
+            .thenCompose(done -> done);
+    }
+
+    private static class PendingUpdate {
+
+        private final String updateQuery;
+
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private PendingUpdate(String updateQuery) {
+            this.updateQuery = updateQuery;
+        }
+    }
+}
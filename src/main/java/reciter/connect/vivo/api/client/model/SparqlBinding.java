@@ -0,0 +1,25 @@
+package reciter.connect.vivo.api.client.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * A single bound value of a row in a <code>application/sparql-results+json</code> response
+ */
+@Data
+@AllArgsConstructor
+public class SparqlBinding {
+
+    public enum Type {
+        URI,
+        LITERAL,
+        TYPED_LITERAL,
+        BNODE
+    }
+
+    private Type type;
+    private String value;
+    private String datatype;
+    private String lang;
+
+}
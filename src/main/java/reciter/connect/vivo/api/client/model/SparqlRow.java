@@ -0,0 +1,40 @@
+package reciter.connect.vivo.api.client.model;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One solution of a SPARQL select query keyed by variable name. Unbound variables have no entry.
+ */
+@Data
+@AllArgsConstructor
+public class SparqlRow {
+
+    private Map<String, SparqlBinding> bindings;
+
+    public SparqlBinding get(String variable) {
+        return this.bindings.get(variable);
+    }
+
+    public boolean isBound(String variable) {
+        return this.bindings.containsKey(variable);
+    }
+
+    /**
+     * @return the lexical value of the variable or null if it is not bound
+     */
+    public String getValue(String variable) {
+        SparqlBinding binding = this.bindings.get(variable);
+        return (binding != null) ? binding.getValue() : null;
+    }
+
+    /**
+     * @return the value of a numeric literal like the result of a count or 0 if it is not bound
+     */
+    public long getLong(String variable) {
+        String value = getValue(variable);
+        return (value != null) ? Long.parseLong(value.trim()) : 0;
+    }
+}
@@ -0,0 +1,46 @@
+package reciter.connect.vivo.sdb.publications.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import reciter.connect.vivo.sdb.publications.util.PmidSet;
+
+/**
+ * Publications already in VIVO for a group of people, loaded with one query for the whole group.
+ * <p>Holds the pmids each person is an author of in VIVO and which of the pmids coming from ReCiter for the group
+ * exist in VIVO at all, regardless of author. Built once per group and shared by the publication tasks of the group.
+ * Publications imported by the tasks after it was loaded are tracked by the
+ * {@link reciter.connect.vivo.sdb.publications.util.PublicationRegistry}.</p>
+ */
+public class PublicationInventory {
+
+    private final Map<String, PmidSet> publications = new HashMap<>();
+
+    private final PmidSet existing = new PmidSet();
+
+    void addPublication(String cwid, long pmid) {
+        this.publications.computeIfAbsent(cwid, k -> new PmidSet()).add(pmid);
+        this.existing.add(pmid);
+    }
+
+    void addExisting(long pmid) {
+        this.existing.add(pmid);
+    }
+
+    /**
+     * @param cwid unique identifier of the person
+     * @return the pmids the person is an author of in VIVO
+     */
+    public PmidSet getPublications(String cwid) {
+        PmidSet pmids = this.publications.get(cwid);
+        return pmids != null ? pmids : new PmidSet();
+    }
+
+    /**
+     * @param pmid a pmid coming from ReCiter for one of the people of the group
+     * @return true if the publication exists in VIVO
+     */
+    public boolean exists(long pmid) {
+        return this.existing.contains(pmid);
+    }
+}
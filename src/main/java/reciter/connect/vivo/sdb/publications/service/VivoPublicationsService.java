@@ -2,6 +2,7 @@ package reciter.connect.vivo.sdb.publications.service;
 
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 import org.vivoweb.harvester.util.repo.SDBJenaConnect;
 
@@ -11,8 +12,11 @@ import reciter.engine.analysis.ReCiterArticleFeature;
 public interface VivoPublicationsService {
 
     String publicationsExist(List<ArticleRetrievalModel> articles);
-    void importPublications(List<ReCiterArticleFeature> articles, String uid, String dateUpdated, SDBJenaConnect vivoJena);
+    CompletableFuture<String> importPublications(List<ReCiterArticleFeature> articles, String uid, String dateUpdated, SDBJenaConnect vivoJena);
     void syncPublications(List<ReCiterArticleFeature> articles, List<Long> vivoPubs, SDBJenaConnect vivoJena);
     Callable<String> getCallable(List<ArticleRetrievalModel> articles);
+    Callable<String> getCallable(ArticleRetrievalModel article);
+    PublicationInventory getPublicationInventory(List<ArticleRetrievalModel> articles);
+    Callable<String> getCallable(ArticleRetrievalModel article, PublicationInventory inventory);
     
 }
\ No newline at end of file
@@ -4,16 +4,23 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.jena.query.QueryParseException;
@@ -27,10 +34,21 @@ import org.vivoweb.harvester.util.repo.SDBJenaConnect;
 import lombok.extern.slf4j.Slf4j;
 import reciter.connect.api.client.model.ArticleRetrievalModel;
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.mysql.jena.JenaConnectionLease;
 import reciter.connect.vivo.IngestType;
 import reciter.connect.vivo.api.client.VivoClient;
+import reciter.connect.vivo.api.client.VivoUpdateWriter;
+import reciter.connect.vivo.api.client.model.SparqlRow;
 import reciter.connect.vivo.sdb.VivoGraphs;
+import reciter.connect.vivo.sdb.publications.util.PmidDiff;
+import reciter.connect.vivo.sdb.publications.util.PmidSet;
+import reciter.connect.vivo.sdb.publications.util.PublicationFingerprintStore;
+import reciter.connect.vivo.sdb.publications.util.PublicationRegistry;
 import reciter.connect.vivo.sdb.query.QueryConstants;
+import reciter.connect.vivo.sdb.query.QuadTripleBuilder;
+import reciter.connect.vivo.sdb.query.SparqlLiteralEscaper;
+import reciter.connect.vivo.sdb.query.SparqlTripleBuilder;
+import reciter.connect.vivo.sdb.query.TripleBuilder;
 import reciter.engine.analysis.ReCiterArticleAuthorFeature;
 import reciter.engine.analysis.ReCiterArticleFeature;
 import reciter.engine.analysis.ReCiterArticleFeature.ArticleKeyword;
@@ -41,122 +59,103 @@ import reciter.model.pubmed.MedlineCitationJournalISSN;
 @Service
 public class VivoPublicationsServiceImpl implements VivoPublicationsService {
 
-    private SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-    private Calendar cal = Calendar.getInstance();
-
     @Autowired
     private JenaConnectionFactory jcf;
     
     @Autowired
     private VivoClient vivoClient;
 
+    @Autowired
+    private VivoUpdateWriter vivoUpdateWriter;
+
+    @Autowired
+    private PublicationFingerprintStore fingerprintStore;
+
+    @Autowired
+    private PublicationRegistry publicationRegistry;
+
     private String ingestType = System.getenv("INGEST_TYPE");
 
+    /**
+     * VIVO classes of the ReCiter canonical publication types keyed lower cased
+     */
+    private static final Map<String, String> PUBLICATION_TYPE_CLASSES;
+
+    static {
+        Map<String, String> types = new HashMap<>();
+        types.put("editorial article", "core:EditorialArticle");
+        types.put("letter", "fabio:Letter");
+        types.put("conference paper", "core:ConferencePaper");
+        types.put("guideline", "wcmc:Guideline");
+        types.put("review", "core:Review");
+        types.put("academic article", "bibo:AcademicArticle");
+        types.put("article", "bibo:Article");
+        types.put("comment", "fabio:Comment");
+        types.put("in process", "wcmc:InProcess");
+        types.put("pubmed.conferencepaper", "core:ConferencePaper");
+        types.put("report", "bibo:Report");
+        PUBLICATION_TYPE_CLASSES = Collections.unmodifiableMap(types);
+    }
+
     @Override
-    public void importPublications(List<ReCiterArticleFeature> articles, String uid, String dateUpdated, SDBJenaConnect vivoJena) {
+    public CompletableFuture<String> importPublications(List<ReCiterArticleFeature> articles, String uid, String dateUpdated, SDBJenaConnect vivoJena) {
         StopWatch stopWatch = new StopWatch("Publications import to VIVO");
         stopWatch.start("Publications import to VIVO");
-        StringBuilder sb = new StringBuilder();
-        sb.append(QueryConstants.getSparqlPrefixQuery());
-        sb.append("INSERT DATA { GRAPH <" + VivoGraphs.PUBLICATIONS_GRAPH + ">{ \n");
+        //Publications are imported concurrently so date helpers are kept per call
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+        Calendar cal = Calendar.getInstance();
+        String importDate = sdf.format(new Date());
+        String personUri = TripleBuilder.vivoUri("cwid-" + uid);
+        String roleUri = TripleBuilder.vivoUri("arg2000028-" + uid);
+        //SDB is written with Jena quads directly while VIVO API gets the SPARQL text
+        boolean sdbDirect = ingestType.equals(IngestType.SDB_DIRECT.toString());
+        QuadTripleBuilder quads = sdbDirect ? TripleBuilder.quads(VivoGraphs.PUBLICATIONS_GRAPH.getValue()) : null;
+        SparqlTripleBuilder sparql = sdbDirect ? null : TripleBuilder.insertData(VivoGraphs.PUBLICATIONS_GRAPH.getValue());
+        TripleBuilder tb = sdbDirect ? quads : sparql;
         for (ReCiterArticleFeature articleFeature : articles) {
-            final String publicationUrl = "<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid()
-                    + ">";
-            sb.append(publicationUrl + " core:DateTimeValue \"" + this.sdf.format(new Date()) + "\" . \n");
-            sb.append(publicationUrl + " rdf:type obo:BFO_0000001 . \n");
-            sb.append(publicationUrl + " rdf:type obo:BFO_0000002 . \n");
-            sb.append(publicationUrl + " rdf:type obo:IAO_0000030 . \n");
-            sb.append(publicationUrl + " rdf:type obo:BFO_0000031 . \n");
+            final String publicationUrl = TripleBuilder.vivoUri("pubid" + articleFeature.getPmid());
+            tb.subject(publicationUrl)
+                .literal("core:DateTimeValue", importDate)
+                .type("obo:BFO_0000001")
+                .type("obo:BFO_0000002")
+                .type("obo:IAO_0000030")
+                .type("obo:BFO_0000031");
             // Absract mapped to bibo:abstract
             if (articleFeature.getPublicationAbstract() != null
                     && !articleFeature.getPublicationAbstract().isEmpty()) {
-                sb.append(publicationUrl + " bibo:abstract \""
-                        + articleFeature.getPublicationAbstract().trim().replaceAll("([\\\\\\\\\"])", "\\\\$1").replaceAll("'", "\'").replaceAll("\"","\\\"").replaceAll("(\\r|\\n|\\r\\n)+", "\\\\n")
-                        + "\" .\n");
+                tb.literal("bibo:abstract", articleFeature.getPublicationAbstract().trim());
             }
             // articleTitle → rdfs:label
             if (articleFeature.getArticleTitle() != null) {
-                sb.append(publicationUrl + " rdfs:label \""
-                        + articleFeature.getArticleTitle().trim().replaceAll("([\\\\\\\\\"])", "\\\\$1").replaceAll("'", "\'").replaceAll("\"","\\\"").replaceAll("(\\r|\\n|\\r\\n)+", "\\\\n")
-                        + "\" .\n");
+                tb.literal("rdfs:label", articleFeature.getArticleTitle().trim());
             }
             // doi → bibo:doi
             if (articleFeature.getDoi() != null && !articleFeature.getDoi().isEmpty()) {
-                sb.append(publicationUrl + " bibo:doi \"" + articleFeature.getDoi().trim()
-                        .replaceAll("([\\\\\\\\\"])", "\\\\$1").replaceAll("\\s+", "") + "\" .\n");
-            }
-            // pmcid → core:pmcid
-            if (articleFeature.getPmcid() != null) {
-                sb.append(publicationUrl + " core:pmcid \"" + articleFeature.getPmcid() + "\" .\n");
-            }
-            // pmid → bibo:pmid
-            sb.append(publicationUrl + " bibo:pmid \"" + articleFeature.getPmid() + "\" .\n");
-
-            // issue → bibo:issue
-            if (articleFeature.getIssue() != null) {
-                sb.append(publicationUrl + " bibo:issue \"" + articleFeature.getIssue() + "\" .\n");
-            }
-            // scopusDocID → wcmc:scopusDocId
-            if (articleFeature.getScopusDocID() != null) {
-                sb.append(publicationUrl + " wcmc:scopusDocId \"" + articleFeature.getScopusDocID() + "\" .\n");
-            }
-            // volume → bibo:volume
-            if (articleFeature.getVolume() != null) {
-                sb.append(publicationUrl + " bibo:volume \"" + articleFeature.getVolume() + "\" .\n");
-            }
-            // pages -> bibo:pages
-            if (articleFeature.getPages() != null) {
-                sb.append(publicationUrl + " bibo:pages \"" + articleFeature.getPages() + "\" .\n");
+                tb.identifier("bibo:doi", articleFeature.getDoi());
             }
+            // pmcid, pmid, issue, scopusDocID, volume and pages
+            tb.literal("core:pmcid", articleFeature.getPmcid())
+                .literal("bibo:pmid", articleFeature.getPmid())
+                .literal("bibo:issue", articleFeature.getIssue())
+                .literal("wcmc:scopusDocId", articleFeature.getScopusDocID())
+                .literal("bibo:volume", articleFeature.getVolume())
+                .literal("bibo:pages", articleFeature.getPages());
             // timesCited
             if (articleFeature.getTimesCited() != null && articleFeature.getTimesCited() > 0 && !dateUpdated.isEmpty()) {
-                Date citationDate = null;
-                try {
-                    citationDate = this.sdf.parse(dateUpdated);
-                    
-                } catch (ParseException e) {
-                    log.error("ParseException", e);
-                }
-                String citeDate = this.sdf.format(citationDate);
-                sb.append(publicationUrl + " <http://purl.org/spar/c4o/hasGlobalCitationFrequency> <"
-                        + JenaConnectionFactory.nameSpace + "citation-pubid" + articleFeature.getPmid() + "> .\n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "citation-pubid" + articleFeature.getPmid()
-                        + "> rdf:type <http://purl.org/spar/c4o/GlobalCitationCount> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "citation-pubid" + articleFeature.getPmid()
-                + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "citation-pubid" + articleFeature.getPmid()
-                + "> vitro:mostSpecificType <http://purl.org/spar/c4o/GlobalCitationCount> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "citation-pubid" + articleFeature.getPmid()
-                        + "> rdfs:label \"" + articleFeature.getTimesCited() + "\" . \n");
-                // Citation date
-                /*if (citationDate != null) {
-                    this.cal.setTime(citationDate);
-                    int month = this.cal.get(Calendar.MONTH) + 1; // Since calender month start with 0
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "citation-pubid" + articleFeature.getPmid()
-                            + "> core:dateTimeValue <" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                            + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                            + this.cal.get(Calendar.YEAR) + "> . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                            + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                            + this.cal.get(Calendar.YEAR) + "> rdf:type core:DateTimeValue . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                            + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                            + this.cal.get(Calendar.YEAR) + "> vitro:mostSpecificType core:DateTimeValue . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                            + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                            + this.cal.get(Calendar.YEAR)
-                            + "> core:dateTimePrecision core:yearMonthDayPrecision . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                            + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                            + this.cal.get(Calendar.YEAR) + "> core:dateTime \"" + citeDate
-                            + "T00:00:00\"^^<http://www.w3.org/2001/XMLSchema#dateTime> . \n");
-                }*/
+                String citationUri = TripleBuilder.vivoUri("citation-pubid" + articleFeature.getPmid());
+                tb.resource("<http://purl.org/spar/c4o/hasGlobalCitationFrequency>", citationUri);
+                tb.subject(citationUri)
+                    .type("<http://purl.org/spar/c4o/GlobalCitationCount>")
+                    .type("owl:Thing")
+                    .resource("vitro:mostSpecificType", "<http://purl.org/spar/c4o/GlobalCitationCount>")
+                    .literal("rdfs:label", articleFeature.getTimesCited());
+                tb.subject(publicationUrl);
             }
             // MeshMajor 
             if(articleFeature.getArticleKeywords() != null && !articleFeature.getArticleKeywords().isEmpty()) {
                 for(ArticleKeyword keyword: articleFeature.getArticleKeywords()) {
                     if(keyword.getType() == KeywordType.MESH_MAJOR) {
-                        sb.append(publicationUrl + " core:freetextKeyword \"" + keyword.getKeyword().replaceAll("'", "\'") + "\" .\n");
+                        tb.literal("core:freetextKeyword", keyword.getKeyword());
                     }
                 }
             }
@@ -165,157 +164,69 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
             if (articleFeature.getPublicationDateStandardized() != null) {
                 Date standardDate = null;
                 try {
-                    standardDate = this.sdf.parse(articleFeature.getPublicationDateStandardized());
+                    standardDate = sdf.parse(articleFeature.getPublicationDateStandardized());
                 } catch (ParseException e) {
                     log.error("ParseException", e);
                 }
                 if (standardDate != null) {
-                    this.cal.setTime(standardDate);
-                    int month = this.cal.get(Calendar.MONTH) + 1; // Since calender month start with 0
-                    sb.append(publicationUrl + " core:dateTimeValue <" + JenaConnectionFactory.nameSpace
-                            + "daymonthyear" + this.cal.get(Calendar.DAY_OF_MONTH)
-                            + (month < 10 ? ("0" + month) : (month)) + this.cal.get(Calendar.YEAR) + ">  . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                            + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                            + this.cal.get(Calendar.YEAR) + "> rdf:type core:DateTimeValue . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                            + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                            + this.cal.get(Calendar.YEAR) + "> vitro:mostSpecificType core:DateTimeValue . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                            + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                            + this.cal.get(Calendar.YEAR)
-                            + "> core:dateTimePrecision core:yearMonthDayPrecision . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                            + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                            + this.cal.get(Calendar.YEAR) + "> core:dateTime \""
-                            + articleFeature.getPublicationDateStandardized()
-                            + "T00:00:00\"^^<http://www.w3.org/2001/XMLSchema#dateTime> . \n");
+                    cal.setTime(standardDate);
+                    int month = cal.get(Calendar.MONTH) + 1; // Since calender month start with 0
+                    String dateUri = TripleBuilder.vivoUri("daymonthyear" + cal.get(Calendar.DAY_OF_MONTH)
+                            + (month < 10 ? ("0" + month) : (month)) + cal.get(Calendar.YEAR));
+                    tb.resource("core:dateTimeValue", dateUri);
+                    tb.subject(dateUri)
+                        .type("core:DateTimeValue")
+                        .resource("vitro:mostSpecificType", "core:DateTimeValue")
+                        .resource("core:dateTimePrecision", "core:yearMonthDayPrecision")
+                        .typedLiteral("core:dateTime", articleFeature.getPublicationDateStandardized() + "T00:00:00", "xsd:dateTime");
+                    tb.subject(publicationUrl);
                 }
             }
             // Journal
-            String journalIdentifier = journalIdentifier(articleFeature);
-            sb.append(publicationUrl + " core:hasPublicationVenue  <" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + ">  . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> rdf:type obo:BFO_0000001 . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> rdf:type obo:BFO_0000002 . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> rdf:type obo:BFO_0000031 . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> rdf:type obo:IAO_0000030 . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> rdf:type bibo:Collection . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> rdf:type bibo:Periodical . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> rdf:type bibo:Journal . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> vitro:mostSpecificType bibo:Journal . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> core:title \"" + articleFeature.getJournalTitleVerbose().replaceAll("'", "\'").replaceAll("\"","\\\\\"") + "\" . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> rdfs:label \"" + articleFeature.getJournalTitleVerbose().replaceAll("'", "\'").replaceAll("\"","\\\\\"") + "\" . \n");
+            String journalUri = TripleBuilder.vivoUri("journal" + journalIdentifier(articleFeature));
+            tb.resource("core:hasPublicationVenue", journalUri);
+            tb.subject(journalUri)
+                .type("obo:BFO_0000001")
+                .type("obo:BFO_0000002")
+                .type("obo:BFO_0000031")
+                .type("obo:IAO_0000030")
+                .type("bibo:Collection")
+                .type("owl:Thing")
+                .type("bibo:Periodical")
+                .type("bibo:Journal")
+                .resource("vitro:mostSpecificType", "bibo:Journal")
+                .literal("core:title", articleFeature.getJournalTitleVerbose())
+                .literal("rdfs:label", articleFeature.getJournalTitleVerbose());
             if (articleFeature.getJournalTitleISOabbreviation() != null)
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> wcmc:ISOAbbreviation \"" + articleFeature.getJournalTitleISOabbreviation().trim()
-                        + "\" . \n");
+                tb.literal("wcmc:ISOAbbreviation", articleFeature.getJournalTitleISOabbreviation().trim());
             
             //Issn
             if(articleFeature.getIssn() != null && !articleFeature.getIssn().isEmpty()) {
                 for(MedlineCitationJournalISSN issn: articleFeature.getIssn()) {
                     if(issn.getIssntype().equalsIgnoreCase("Electronic")) {
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> bibo:eissn \"" + issn.getIssn()
-                        + "\" . \n");
+                        tb.literal("bibo:eissn", issn.getIssn());
                     }
                     if(issn.getIssntype().equalsIgnoreCase("Linking")) {
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> wcmc:lissn \"" + issn.getIssn()
-                        + "\" . \n");
+                        tb.literal("wcmc:lissn", issn.getIssn());
                     }
                     if(issn.getIssntype().equalsIgnoreCase("Print")) {
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> bibo:issn \"" + issn.getIssn()
-                        + "\" . \n");
+                        tb.literal("bibo:issn", issn.getIssn());
                     }
                 }
             }
-            sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> <http://vivoweb.org/ontology/core#publicationVenueFor> " + publicationUrl + " . \n");
+            tb.resource("core:publicationVenueFor", publicationUrl);
+            tb.subject(publicationUrl);
 
             //Publication Type
             if(articleFeature.getPublicationType() != null && articleFeature.getPublicationType().getPublicationTypeCanonical() != null) {
-                sb.append(publicationUrl + " rdf:type core:InformationResource . \n");
-                sb.append(publicationUrl + " rdf:type bibo:Document . \n");
-                sb.append(publicationUrl + " rdf:type bibo:Article . \n");
-                if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("Editorial Article")) {
-                    sb.append(publicationUrl + " rdf:type core:EditorialArticle . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType core:EditorialArticle . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType core:EditorialArticle . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                }
-                else if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("Letter")) {
-                    sb.append(publicationUrl + " rdf:type fabio:Letter . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType fabio:Letter . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType fabio:Letter . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                }
-                else if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("Conference Paper")) {
-                    sb.append(publicationUrl + " rdf:type core:ConferencePaper . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType core:ConferencePaper . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType core:ConferencePaper . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                }
-                else if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("Guideline")) {
-                    sb.append(publicationUrl + " rdf:type wcmc:Guideline . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType wcmc:Guideline . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType wcmc:Guideline . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                }
-                else if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("Review")) {
-                    sb.append(publicationUrl + " rdf:type core:Review . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType core:Review . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType core:Review . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                }
-                else if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("Academic Article")) {
-                    sb.append(publicationUrl + " rdf:type bibo:AcademicArticle . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType bibo:AcademicArticle . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType bibo:AcademicArticle . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                }
-                else if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("Article")) {
-                    sb.append(publicationUrl + " rdf:type bibo:Article . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType bibo:Article . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType bibo:Article . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                }
-                else if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("Comment")) {
-                    sb.append(publicationUrl + " rdf:type fabio:Comment . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType fabio:Comment . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType fabio:Comment . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                }
-                else if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("In Process")) {
-                    sb.append(publicationUrl + " rdf:type wcmc:InProcess . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType wcmc:InProcess . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType wcmc:InProcess . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                }
-                else if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("PubMed.ConferencePaper")) {
-                    sb.append(publicationUrl + " rdf:type core:ConferencePaper . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType core:ConferencePaper . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType core:ConferencePaper . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                }
-                else if(articleFeature.getPublicationType().getPublicationTypeCanonical().equalsIgnoreCase("Report")) {
-                    sb.append(publicationUrl + " rdf:type bibo:Report . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType bibo:Report . \n");
-                    sb.append(publicationUrl + " vitro:mostSpecificType bibo:Report . \n");
-                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
+                tb.type("core:InformationResource")
+                    .type("bibo:Document")
+                    .type("bibo:Article");
+                String publicationType = getPublicationTypeClass(articleFeature.getPublicationType().getPublicationTypeCanonical());
+                if(publicationType != null) {
+                    tb.type(publicationType)
+                        .resource("vitro:mostSpecificType", publicationType)
+                        .type("owl:Thing");
                 }
             }
             //Author Assignment
@@ -325,142 +236,93 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                     if(reCiterArticleAuthorFeature.isTargetAuthor())
                         targetAuthorCount++;
                     
+                    String authorshipUri = TripleBuilder.vivoUri("pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank());
+                    addAuthorship(tb, publicationUrl, authorshipUri);
+                    tb.typedLiteral("core:rank", reCiterArticleAuthorFeature.getRank(), "xsd:integer");
                     if(reCiterArticleAuthorFeature.isTargetAuthor() && targetAuthorCount == 1) {
-                        sb.append(publicationUrl + " core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type obo:BFO_0000001 . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type obo:BFO_0000002 . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type obo:BFO_0000020 . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type core:Relationship . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type core:Authorship . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> vitro:mostSpecificType core:Authorship . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> core:relates " + publicationUrl + " . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> core:rank \"" + reCiterArticleAuthorFeature.getRank() + "\"^^xsd:integer . \n");
                         //Linking vcard of the person
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> rdf:type foaf:Person . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> core:relates <" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> core:relates <" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> obo:ARG_2000029 <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> obo:ARG_2000028 <" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> . \n");
+                        addAuthor(tb, authorshipUri, personUri, roleUri);
                     } else {
                         String personIdentifier = getExternalPersonIdentifier(reCiterArticleAuthorFeature);
-                        sb.append(publicationUrl + " core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type obo:BFO_0000001 . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type obo:BFO_0000002 . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type obo:BFO_0000020 . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type core:Relationship . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> rdf:type core:Authorship . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> vitro:mostSpecificType core:Authorship . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> core:relates " + publicationUrl + " . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> core:relates <" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> .\n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> core:rank \"" + reCiterArticleAuthorFeature.getRank() + "\"^^xsd:integer . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> rdf:type <http://purl.obolibrary.org/obo/BFO_0000001> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> rdf:type <http://purl.obolibrary.org/obo/BFO_0000002> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> rdf:type <http://purl.obolibrary.org/obo/IAO_0000030> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> rdf:type <http://purl.obolibrary.org/obo/BFO_0000031> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> rdf:type <http://purl.obolibrary.org/obo/ARG_2000379> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> rdf:type <http://www.w3.org/2006/vcard/ns#Kind> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> rdf:type <http://www.w3.org/2006/vcard/ns#Individual> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> vitro:mostSpecificType <http://www.w3.org/2006/vcard/ns#Individual> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + reCiterArticleAuthorFeature.getRank() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "person" + personIdentifier +"> <http://www.w3.org/2006/vcard/ns#hasName> <" + JenaConnectionFactory.nameSpace + "hasName-person" + personIdentifier + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "hasName-person" + personIdentifier + "> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2006/vcard/ns#Explanatory> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "hasName-person" + personIdentifier + "> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2006/vcard/ns#Addressing> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "hasName-person" + personIdentifier + "> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2002/07/owl#Thing> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "hasName-person" + personIdentifier + "> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2006/vcard/ns#Communication> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "hasName-person" + personIdentifier + "> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2006/vcard/ns#Identification> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "hasName-person" + personIdentifier + "> <http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <http://www.w3.org/2006/vcard/ns#Name> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "hasName-person" + personIdentifier + "> vitro:mostSpecificType <http://www.w3.org/2006/vcard/ns#Name> . \n");
-                        if(reCiterArticleAuthorFeature.getFirstName() != null)
-                            sb.append("<" + JenaConnectionFactory.nameSpace + "hasName-person" + personIdentifier + "> <http://www.w3.org/2006/vcard/ns#givenName> \"" + reCiterArticleAuthorFeature.getFirstName().replaceAll("'", "\'") + "\" . \n");
-                        if(reCiterArticleAuthorFeature.getLastName() != null)
-                            sb.append("<" + JenaConnectionFactory.nameSpace + "hasName-person" + personIdentifier + "> <http://www.w3.org/2006/vcard/ns#familyName> \"" + reCiterArticleAuthorFeature.getLastName().replaceAll("'", "\'") + "\" . \n");
+                        String externalPersonUri = TripleBuilder.vivoUri("person" + personIdentifier);
+                        String nameUri = TripleBuilder.vivoUri("hasName-person" + personIdentifier);
+                        tb.resource("core:relates", externalPersonUri);
+                        tb.subject(externalPersonUri)
+                            .type("obo:BFO_0000001")
+                            .type("obo:BFO_0000002")
+                            .type("obo:IAO_0000030")
+                            .type("obo:BFO_0000031")
+                            .type("obo:ARG_2000379")
+                            .type("vcard:Kind")
+                            .type("owl:Thing")
+                            .type("vcard:Individual")
+                            .resource("vitro:mostSpecificType", "vcard:Individual")
+                            .resource("core:relatedBy", authorshipUri)
+                            .resource("vcard:hasName", nameUri);
+                        tb.subject(nameUri)
+                            .type("vcard:Explanatory")
+                            .type("vcard:Addressing")
+                            .type("owl:Thing")
+                            .type("vcard:Communication")
+                            .type("vcard:Identification")
+                            .type("vcard:Name")
+                            .resource("vitro:mostSpecificType", "vcard:Name")
+                            .literal("vcard:givenName", reCiterArticleAuthorFeature.getFirstName())
+                            .literal("vcard:familyName", reCiterArticleAuthorFeature.getLastName());
                     }
                 }
                 //case when no target author identified
                 if(targetAuthorCount == 0) {
-                    sb.append(publicationUrl + " core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type obo:BFO_0000001 . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type obo:BFO_0000002 . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type obo:BFO_0000020 . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type core:Relationship . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type core:Authorship . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> vitro:mostSpecificType core:Authorship . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> core:relates " + publicationUrl + " . \n");
-                    //sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> core:rank \"" + reCiterArticleAuthorFeature.getRank() + "\"^^xsd:integer . \n");
-                    //Linking vcard of the person
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> rdf:type foaf:Person . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> core:relates <" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> core:relates <" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> obo:ARG_2000029 <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> . \n");
-                    sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> obo:ARG_2000028 <" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> . \n");
+                    String authorshipUri = TripleBuilder.vivoUri("pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid());
+                    addAuthorship(tb, publicationUrl, authorshipUri);
+                    addAuthor(tb, authorshipUri, personUri, roleUri);
                 }
             } else {
                 log.info("Publication " + articleFeature.getPmid() + " has not author record. Thus assigning to the uid.");
                 //case when there is no author record
-                sb.append(publicationUrl + " core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type obo:BFO_0000001 . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type obo:BFO_0000002 . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type obo:BFO_0000020 . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type core:Relationship . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> rdf:type core:Authorship . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> vitro:mostSpecificType core:Authorship . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> core:relates " + publicationUrl + " . \n");
-                //sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> core:rank \"" + reCiterArticleAuthorFeature.getRank() + "\"^^xsd:integer . \n");
-                //Linking vcard of the person
-                sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> rdf:type foaf:Person . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> core:relates <" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> core:relates <" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> obo:ARG_2000029 <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> obo:ARG_2000028 <" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> . \n");
-
+                String authorshipUri = TripleBuilder.vivoUri("pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid());
+                addAuthorship(tb, publicationUrl, authorshipUri);
+                addAuthor(tb, authorshipUri, personUri, roleUri);
             }
-            sb.append(publicationUrl + " <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"ReCiter Connect\" . \n");
+            tb.subject(publicationUrl).literal("<http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy>", "ReCiter Connect");
         }
-        sb.append("}}");
-        //log.info(sb.toString());
-
-        if(ingestType.equals(IngestType.SDB_DIRECT.toString())) {
+        CompletableFuture<String> written = CompletableFuture.completedFuture(null);
+        String[] publicationUris = articles.stream().map(article -> TripleBuilder.vivoUri("pubid" + article.getPmid())).toArray(String[]::new);
+        if(sdbDirect) {
             try {
-                vivoJena.executeUpdateQuery(sb.toString(), true);
+                vivoJena.executeUpdate(quads.toInsertRequest(), true);
             } catch(IOException e) {
                 log.error("Error connecting to SDBJena");
             }
-            catch(QueryParseException qpe) {
-                log.error("QueryParseException", qpe);
-                log.error("ERROR: The pub is for " + uid);
-            }
         } else {
-            try{
-                String response = this.vivoClient.vivoUpdateApi(sb.toString());
-                log.info(response);
-            } catch(Exception  e) {
-                log.info("Api Exception", e);
-            }
+            written = this.vivoUpdateWriter.submit(sparql.build(), "publications of " + uid, publicationUris);
         }
         stopWatch.stop();
         log.info("Publication import for " + uid + " took " + stopWatch.getTotalTimeSeconds()+"s");
+        return written;
 
     }
 
     @Override
     public void syncPublications(List<ReCiterArticleFeature> articles, List<Long> vivoPubs, SDBJenaConnect vivoJena) {
         StringBuilder sb = new StringBuilder();
+        Map<Long, ReCiterArticleFeature> reciterPubs = new HashMap<>(articles.size() * 2);
+        for(ReCiterArticleFeature article: articles) {
+            reciterPubs.putIfAbsent(article.getPmid(), article);
+        }
         for(Long pmid: vivoPubs) {
-            ReCiterArticleFeature reciterPub = articles.stream()
-                                                        .filter(pub -> pub.getPmid() == pmid)
-                                                        .findAny()
-                                                        .orElse(null);
+            ReCiterArticleFeature reciterPub = reciterPubs.get(pmid);
+            //Publications no longer in ReCiter are only deleted and nothing is synced for them
+            if(reciterPub == null) {
+                continue;
+            }
+            long fingerprint = this.fingerprintStore.fingerprint(reciterPub);
+            if(this.fingerprintStore.isUnchanged(pmid, fingerprint)) {
+                log.info("Publication " + pmid + " has not changed since it was last synced");
+                continue;
+            }
+            //Only publications whose updates were all written are recorded as synced
+            boolean written = true;
             sb.append(QueryConstants.getSparqlPrefixQuery());
             sb.append("select ?citationCount ?pubType ?pmcid \n");
             sb.append("where { \n");
@@ -472,7 +334,14 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
             sb.append("} \n");
             sb.append("}}");
             
+            ReentrantLock lock = this.publicationRegistry.lock(pmid);
             try {
+                //Co-authors sync the same publication one at a time and only until one of them succeeded
+                if(this.publicationRegistry.isSynced(pmid)) {
+                    log.info("Publication " + pmid + " was already synced in this run by a co-author");
+                    sb.setLength(0);
+                    continue;
+                }
 				ResultSet rs = vivoJena.executeSelectQuery(sb.toString(), true);
 				while(rs.hasNext()) {
                     QuerySolution qs = rs.nextSolution();
@@ -499,9 +368,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                     try {
                                         vivoJena.executeUpdateQuery(sb.toString(), true);
                                     } catch(IOException e) {
+                                        written = false;
                                         log.error("Error connecting to SDBJena");
                                     }
                                     catch(QueryParseException qpe) {
+                                        written = false;
                                         log.error("QueryParseException", qpe);
                                         log.error("ERROR: The pub is " + pmid);
                                     }
@@ -526,9 +397,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                             try {
                                 vivoJena.executeUpdateQuery(sb.toString(), true);
                             } catch(IOException e) {
+                                written = false;
                                 log.error("Error connecting to SDBJena");
                             }
                             catch(QueryParseException qpe) {
+                                written = false;
                                 log.error("QueryParseException", qpe);
                                 log.error("ERROR: The pub is " + pmid);
                             }*/
@@ -550,9 +423,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                 try {
                                     vivoJena.executeUpdateQuery(sb.toString(), true);
                                 } catch(IOException e) {
+                                    written = false;
                                     log.error("Error connecting to SDBJena");
                                 }
                                 catch(QueryParseException qpe) {
+                                    written = false;
                                     log.error("QueryParseException", qpe);
                                     log.error("ERROR: The pub is " + pmid);
                                 }
@@ -628,9 +503,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                     try {
                                         vivoJena.executeUpdateQuery(sb.toString(), true);
                                     } catch(IOException e) {
+                                        written = false;
                                         log.error("Error connecting to SDBJena");
                                     }
                                     catch(QueryParseException qpe) {
+                                        written = false;
                                         log.error("QueryParseException", qpe);
                                         log.error("ERROR: The pub is " + pmid);
                                     }
@@ -649,9 +526,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                     try {
                                         vivoJena.executeUpdateQuery(sb.toString(), true);
                                     } catch(IOException e) {
+                                        written = false;
                                         log.error("Error connecting to SDBJena");
                                     }
                                     catch(QueryParseException qpe) {
+                                        written = false;
                                         log.error("QueryParseException", qpe);
                                         log.error("ERROR: The pub is " + pmid);
                                     }
@@ -692,7 +571,7 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                         sb.append("INSERT DATA { \n");
                         sb.append("GRAPH <" + VivoGraphs.PUBLICATIONS_GRAPH + "> { \n");
                         for(String meshMajor: reciterMeshMajor) {
-                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + pmid + "> core:freetextKeyword \"" + meshMajor + "\" . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + pmid + "> core:freetextKeyword \"" + SparqlLiteralEscaper.escape(meshMajor) + "\" . \n");
                         }
                         sb.append("}}");
                         if(ingestType.equals(IngestType.VIVO_API.toString())) {
@@ -702,9 +581,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                             try {
                                 vivoJena.executeUpdateQuery(sb.toString(), true);
                             } catch(IOException e) {
+                                written = false;
                                 log.error("Error connecting to SDBJena");
                             }
                             catch(QueryParseException qpe) {
+                                written = false;
                                 log.error("QueryParseException", qpe);
                                 log.error("ERROR: The pub is " + pmid);
                             }
@@ -713,8 +594,16 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                         log.info("Mesh Major is in sync for publication - " + pmid);
                     }
                 }
+                if(written) {
+                    this.fingerprintStore.put(pmid, fingerprint);
+                    this.publicationRegistry.markSynced(pmid);
+                } else {
+                    log.info("Publication " + pmid + " was not fully synced. It will be compared against VIVO again in the next run");
+                }
             } catch(Exception e) {
                 log.error("Error connecting to SDBJena", e);
+            } finally {
+                lock.unlock();
             }
             
             sb.setLength(0);
@@ -724,11 +613,23 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
     
     public void syncPublicationsUsingTDB(List<ReCiterArticleFeature> articles, List<Long> vivoPubs, SDBJenaConnect vivoJena) {
         StringBuilder sb = new StringBuilder();
+        Map<Long, ReCiterArticleFeature> reciterPubs = new HashMap<>(articles.size() * 2);
+        for(ReCiterArticleFeature article: articles) {
+            reciterPubs.putIfAbsent(article.getPmid(), article);
+        }
         for(Long pmid: vivoPubs) {
-            ReCiterArticleFeature reciterPub = articles.stream()
-                                                        .filter(pub -> pub.getPmid() == pmid)
-                                                        .findAny()
-                                                        .orElse(null);
+            ReCiterArticleFeature reciterPub = reciterPubs.get(pmid);
+            //Publications no longer in ReCiter are only deleted and nothing is synced for them
+            if(reciterPub == null) {
+                continue;
+            }
+            long fingerprint = this.fingerprintStore.fingerprint(reciterPub);
+            if(this.fingerprintStore.isUnchanged(pmid, fingerprint)) {
+                log.info("Publication " + pmid + " has not changed since it was last synced");
+                continue;
+            }
+            //Only publications whose updates were all written are recorded as synced
+            boolean written = true;
             sb.append(QueryConstants.getSparqlPrefixQuery());
             sb.append("select ?citationCount ?pubType ?pmcid \n");
             sb.append("where { \n");
@@ -740,15 +641,21 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
             sb.append("} \n");
             sb.append("}}");
             
+            ReentrantLock lock = this.publicationRegistry.lock(pmid);
             try {
-				String response = this.vivoClient.vivoQueryApi(sb.toString());
-				log.info(response);
-				JSONObject obj = new JSONObject(response);
-				JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-				if(bindings != null && !bindings.isEmpty()) {
+                //Co-authors sync the same publication one at a time and only until one of them succeeded
+                if(this.publicationRegistry.isSynced(pmid)) {
+                    log.info("Publication " + pmid + " was already synced in this run by a co-author");
+                    sb.setLength(0);
+                    continue;
+                }
+				List<SparqlRow> rows = this.vivoClient.vivoQueryApi(sb.toString(), row -> row);
+				String response;
+				if(!rows.isEmpty()) {
+                    SparqlRow vivoPub = rows.get(0);
                     if(reciterPub != null) {
-                        if(bindings.getJSONObject(0).optJSONObject("pmcid") != null && bindings.getJSONObject(0).optJSONObject("pmcid").has("value")) {
-                            if(!reciterPub.getPmcid().equalsIgnoreCase(bindings.getJSONObject(0).getJSONObject("pmcid").getString("value"))) {
+                        if(vivoPub.isBound("pmcid")) {
+                            if(!reciterPub.getPmcid().equalsIgnoreCase(vivoPub.getValue("pmcid"))) {
                                 sb.setLength(0);
                                 sb.append(QueryConstants.getSparqlPrefixQuery());
                                 sb.append("WITH <" + VivoGraphs.PUBLICATIONS_GRAPH + "> \n");
@@ -761,7 +668,7 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                 sb.append("WHERE { \n");
                                 sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + pmid + "> core:pmcid ?pmcid . \n");
                                 sb.append("}");
-                                log.info("PMCID was updated for publication - " + pmid + " from " + bindings.getJSONObject(0).getJSONObject("pmcid").getString("value") + " to " + reciterPub.getPmcid());
+                                log.info("PMCID was updated for publication - " + pmid + " from " + vivoPub.getValue("pmcid") + " to " + reciterPub.getPmcid());
                                 if(ingestType.equals(IngestType.VIVO_API.toString())) {
                                     response = this.vivoClient.vivoUpdateApi(sb.toString());
                                     log.info(response);
@@ -769,9 +676,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                     try {
                                         vivoJena.executeUpdateQuery(sb.toString(), true);
                                     } catch(IOException e) {
+                                        written = false;
                                         log.error("Error connecting to SDBJena");
                                     }
                                     catch(QueryParseException qpe) {
+                                        written = false;
                                         log.error("QueryParseException", qpe);
                                         log.error("ERROR: The pub is " + pmid);
                                     }
@@ -780,8 +689,8 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                 log.info("PMCID is in sync for publication - " + pmid);
                             }
                         }
-                        if(bindings.getJSONObject(0).optJSONObject("citationCount") != null && bindings.getJSONObject(0).optJSONObject("citationCount").has("value")) {
-                            if(reciterPub.getTimesCited() != null && reciterPub.getTimesCited() != Long.parseLong(bindings.getJSONObject(0).getJSONObject("citationCount").getString("value"))) {
+                        if(vivoPub.isBound("citationCount")) {
+                            if(reciterPub.getTimesCited() != null && reciterPub.getTimesCited() != Long.parseLong(vivoPub.getValue("citationCount"))) {
                                 sb.setLength(0);
                                 sb.append(QueryConstants.getSparqlPrefixQuery());
                                 sb.append("WITH <" + VivoGraphs.PUBLICATIONS_GRAPH + "> \n");
@@ -794,7 +703,7 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                 sb.append("WHERE { \n");
                                 sb.append("<" + JenaConnectionFactory.nameSpace + "citation-pubid" + pmid + "> rdfs:label ?count . \n");
                                 sb.append("}");
-                                log.info("Citation Count was updated for publication - " + pmid + " from " + bindings.getJSONObject(0).getJSONObject("citationCount").getString("value") + " to " + reciterPub.getTimesCited());
+                                log.info("Citation Count was updated for publication - " + pmid + " from " + vivoPub.getValue("citationCount") + " to " + reciterPub.getTimesCited());
                                 if(ingestType.equals(IngestType.VIVO_API.toString())) {
                                     response = this.vivoClient.vivoUpdateApi(sb.toString());
                                     log.info(response);
@@ -802,9 +711,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                     try {
                                         vivoJena.executeUpdateQuery(sb.toString(), true);
                                     } catch(IOException e) {
+                                        written = false;
                                         log.error("Error connecting to SDBJena");
                                     }
                                     catch(QueryParseException qpe) {
+                                        written = false;
                                         log.error("QueryParseException", qpe);
                                         log.error("ERROR: The pub is " + pmid);
                                     }
@@ -813,9 +724,9 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                 log.info("Times Cited is in sync for publication - " + pmid);
                             }
                         }
-                        if(bindings.getJSONObject(0).optJSONObject("pubType") != null && bindings.getJSONObject(0).optJSONObject("pubType").has("value")) {
+                        if(vivoPub.isBound("pubType")) {
                             if(reciterPub.getPublicationType() != null && 
-                                reciterPub.getPublicationType().getPublicationTypeCanonical() != null && !reciterPub.getPublicationType().getPublicationTypeCanonical().contains(bindings.getJSONObject(0).getJSONObject("pubType").getString("value").replace("http://purl.org/ontology/bibo/", "")
+                                reciterPub.getPublicationType().getPublicationTypeCanonical() != null && !reciterPub.getPublicationType().getPublicationTypeCanonical().contains(vivoPub.getValue("pubType").replace("http://purl.org/ontology/bibo/", "")
                             .replace("http://vivoweb.org/ontology/core#", "").replace("http://purl.org/spar/fabio", "").replace("http://weill.cornell.edu/vivo/ontology/wcmc#", "").substring(0,6))) {
                                 sb.setLength(0);
                                 sb.append(QueryConstants.getSparqlPrefixQuery());
@@ -880,9 +791,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                     try {
                                         vivoJena.executeUpdateQuery(sb.toString(), true);
                                     } catch(IOException e) {
+                                        written = false;
                                         log.error("Error connecting to SDBJena");
                                     }
                                     catch(QueryParseException qpe) {
+                                        written = false;
                                         log.error("QueryParseException", qpe);
                                         log.error("ERROR: The pub is " + pmid);
                                     }
@@ -901,9 +814,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                     try {
                                         vivoJena.executeUpdateQuery(sb.toString(), true);
                                     } catch(IOException e) {
+                                        written = false;
                                         log.error("Error connecting to SDBJena");
                                     }
                                     catch(QueryParseException qpe) {
+                                        written = false;
                                         log.error("QueryParseException", qpe);
                                         log.error("ERROR: The pub is " + pmid);
                                     }
@@ -933,15 +848,8 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                                                     .map(ArticleKeyword::getKeyword)
                                                     .collect(Collectors.toList());
 
-                    response = vivoClient.vivoQueryApi(sb.toString());
-                    log.info(response);
-                    obj = new JSONObject(response);
-                    bindings = obj.getJSONObject("results").getJSONArray("bindings");
-                    if(bindings != null && !bindings.isEmpty()) {
-                        for (int i = 0; i < bindings.length(); ++i) {
-                            vivoMeshMajor.add(bindings.getJSONObject(i).getJSONObject("mesh").getString("value"));
-                        }
-                    } else {
+                    vivoMeshMajor.addAll(vivoClient.vivoQueryApi(sb.toString(), row -> row.getValue("mesh")));
+                    if(vivoMeshMajor.isEmpty()) {
                         log.info("No result from the query");
                     } 
                     reciterMeshMajor.removeAll(vivoMeshMajor);
@@ -951,7 +859,7 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                         sb.append("INSERT DATA { \n");
                         sb.append("GRAPH <" + VivoGraphs.PUBLICATIONS_GRAPH + "> { \n");
                         for(String meshMajor: reciterMeshMajor) {
-                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + pmid + "> core:freetextKeyword \"" + meshMajor + "\" . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + pmid + "> core:freetextKeyword \"" + SparqlLiteralEscaper.escape(meshMajor) + "\" . \n");
                         }
                         sb.append("}}");
 
@@ -962,9 +870,11 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                             try {
                                 vivoJena.executeUpdateQuery(sb.toString(), true);
                             } catch(IOException e) {
+                                written = false;
                                 log.error("Error connecting to SDBJena");
                             }
                             catch(QueryParseException qpe) {
+                                written = false;
                                 log.error("QueryParseException", qpe);
                                 log.error("ERROR: The pub is " + pmid);
                             }
@@ -974,14 +884,61 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                     }
                 }
             }
+                if(written) {
+                    this.fingerprintStore.put(pmid, fingerprint);
+                    this.publicationRegistry.markSynced(pmid);
+                } else {
+                    log.info("Publication " + pmid + " was not fully synced. It will be compared against VIVO again in the next run");
+                }
             } catch(Exception e) {
                     log.error("Error connecting to SDBJena", e);
-                }
+            } finally {
+                lock.unlock();
+            }
             
             sb.setLength(0);
         }
     }
 
+    /**
+     * @return the VIVO class of the ReCiter canonical publication type or null if it is not mapped
+     */
+    private static String getPublicationTypeClass(String publicationTypeCanonical) {
+        return PUBLICATION_TYPE_CLASSES.get(publicationTypeCanonical.toLowerCase(Locale.ENGLISH));
+    }
+
+    /**
+     * Add the authorship linking the publication, leaving the authorship as subject
+     */
+    private static void addAuthorship(TripleBuilder tb, String publicationUri, String authorshipUri) {
+        tb.subject(publicationUri).resource("core:relatedBy", authorshipUri);
+        tb.subject(authorshipUri)
+            .type("obo:BFO_0000001")
+            .type("obo:BFO_0000002")
+            .type("obo:BFO_0000020")
+            .type("owl:Thing")
+            .type("core:Relationship")
+            .type("core:Authorship")
+            .resource("vitro:mostSpecificType", "core:Authorship")
+            .resource("core:relates", publicationUri);
+    }
+
+    /**
+     * Link the authorship to the person the publications are imported for
+     */
+    private static void addAuthor(TripleBuilder tb, String authorshipUri, String personUri, String roleUri) {
+        tb.subject(personUri)
+            .type("foaf:Person")
+            .resource("core:relatedBy", authorshipUri);
+        tb.subject(authorshipUri)
+            .resource("core:relates", personUri)
+            .resource("core:relates", roleUri)
+            .resource("obo:ARG_2000028", roleUri);
+        tb.subject(roleUri)
+            .resource("obo:ARG_2000029", authorshipUri)
+            .resource("core:relatedBy", authorshipUri);
+    }
+
     private String journalIdentifier(ReCiterArticleFeature reCiterArticleFeature) {
         if (reCiterArticleFeature.getJournalTitleISOabbreviation() != null
                 && !reCiterArticleFeature.getJournalTitleISOabbreviation().isEmpty()) {
@@ -998,104 +955,254 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
 
     @Override
     public String publicationsExist(List<ArticleRetrievalModel> articles) {
-        SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
-        if(articles != null && !articles.isEmpty()) {
-            for (ArticleRetrievalModel articleRetrievalModel : articles) {
-                //Get publications from VIVO for personIdentifier
-                StringBuilder sb = new StringBuilder();
-                List<Long> vivoPublications = new ArrayList<>();
-                sb.append(QueryConstants.getSparqlPrefixQuery());
-                sb.append("select ?pubs \n");
-                sb.append("where { \n");
-                sb.append("GRAPH <" + VivoGraphs.PUBLICATIONS_GRAPH + "> {\n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + articleRetrievalModel.getPersonIdentifier() + "> core:relatedBy ?authorship . \n");
-                sb.append("?authorship core:relates ?publication . \n");
-                sb.append("?publication rdf:type core:InformationResource . \n");
-                sb.append("?publication rdf:type bibo:Document . \n");
-                sb.append("?publication rdf:type bibo:Article . \n");
-                sb.append("BIND(REPLACE(STR(?publication), \"https://vivo.med.cornell.edu/individual/pubid\", \"\") AS ?pubs) \n");
-                sb.append("}}");
-                
-                if(ingestType.equals(IngestType.VIVO_API.toString())) {
-                    try {
-                        String response = this.vivoClient.vivoQueryApi(sb.toString());
-                        log.info(response);
-                        JSONObject obj = new JSONObject(response);
-                        JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-                        if(bindings != null && !bindings.isEmpty()) {
-                            for (int i = 0; i < bindings.length(); ++i) {
-                                vivoPublications.add(Long.parseLong(bindings.getJSONObject(i).getJSONObject("pubs").getString("value")));
-                            }
-                        }
-                    } catch(Exception  e) {
-                        log.error("Api Exception", e);
-                    }
-                } else {
-                    try {
-                        ResultSet rs = vivoJena.executeSelectQuery(sb.toString(), true);
-                        while(rs.hasNext()) {
-                            QuerySolution qs = rs.nextSolution();
-                            vivoPublications.add(Long.parseLong(qs.get("pubs").toString()));
-                        }
-                    } catch(IOException e) {
-                        log.error("Error connecting to SDBJena");
-                    }
+        return publicationsExist(articles, getPublicationInventory(articles));
+    }
+
+    @Override
+    public PublicationInventory getPublicationInventory(List<ArticleRetrievalModel> articles) {
+        List<ArticleRetrievalModel> people = articles == null ? Collections.emptyList() : articles.stream()
+            .filter(article -> article.getPersonIdentifier() != null)
+            .collect(Collectors.toList());
+        if(people.isEmpty()) {
+            return new PublicationInventory();
+        }
+        Set<Long> reciterPmids = new HashSet<>();
+        for(ArticleRetrievalModel articleRetrievalModel: people) {
+            if(articleRetrievalModel.getReCiterArticleFeatures() != null) {
+                for(ReCiterArticleFeature reCiterArticleFeature: articleRetrievalModel.getReCiterArticleFeatures()) {
+                    reciterPmids.add(reCiterArticleFeature.getPmid());
+                }
+            }
+        }
+        //Publications of every person in the group and which of the publications from ReCiter exist in VIVO with any author
+        StringBuilder sb = new StringBuilder();
+        sb.append(QueryConstants.getSparqlPrefixQuery());
+        sb.append("select ?cwid ?pmid \n");
+        sb.append("where { \n");
+        sb.append("GRAPH <" + VivoGraphs.PUBLICATIONS_GRAPH + "> {\n");
+        sb.append("{ \n");
+        sb.append("VALUES (?cwid ?person) { \n");
+        for(ArticleRetrievalModel articleRetrievalModel: people) {
+            sb.append("(\"" + articleRetrievalModel.getPersonIdentifier() + "\" <" + JenaConnectionFactory.nameSpace + "cwid-" + articleRetrievalModel.getPersonIdentifier() + ">) \n");
+        }
+        sb.append("} \n");
+        sb.append("?person core:relatedBy ?authorship . \n");
+        sb.append("?authorship core:relates ?publication . \n");
+        sb.append("?publication rdf:type core:InformationResource . \n");
+        sb.append("?publication rdf:type bibo:Document . \n");
+        sb.append("?publication rdf:type bibo:Article . \n");
+        sb.append("} \n");
+        if(!reciterPmids.isEmpty()) {
+            sb.append("UNION { \n");
+            sb.append("VALUES ?publication { \n");
+            for(Long pmid: reciterPmids) {
+                sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + pmid + "> \n");
+            }
+            sb.append("} \n");
+            sb.append("FILTER EXISTS { ?publication rdf:type ?type } \n");
+            sb.append("} \n");
+        }
+        sb.append("BIND(REPLACE(STR(?publication), \"" + JenaConnectionFactory.nameSpace + "pubid\", \"\") AS ?pmid) \n");
+        sb.append("}}");
+
+        PublicationInventory inventory = new PublicationInventory();
+        StopWatch stopWatch = new StopWatch("Publication inventory");
+        stopWatch.start("Publication inventory");
+        if(ingestType.equals(IngestType.VIVO_API.toString())) {
+            try {
+                this.vivoClient.vivoQueryApi(sb.toString(), row -> {
+                    addToInventory(inventory, row.getValue("cwid"), row.getValue("pmid"));
+                    return null;
+                });
+            } catch(Exception  e) {
+                log.error("Api Exception", e);
+                return null;
+            }
+        } else if(ingestType.equals(IngestType.SDB_DIRECT.toString())) {
+            try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+                ResultSet rs = lease.getConnection().executeSelectQuery(sb.toString(), true);
+                while(rs.hasNext()) {
+                    QuerySolution qs = rs.nextSolution();
+                    addToInventory(inventory, qs.contains("cwid") ? qs.getLiteral("cwid").getString() : null, qs.getLiteral("pmid").getString());
                 }
+            } catch(Exception e) {
+                log.error("Error connecting to SDBJena", e);
+                return null;
+            }
+        } else {
+            //Publications are looked up per person
+            return null;
+        }
+        stopWatch.stop();
+        log.info("Publication inventory for " + people.size() + " people and " + reciterPmids.size() + " publications took " + stopWatch.getTotalTimeSeconds() + "s");
+        return inventory;
+    }
 
-                if(articleRetrievalModel.getReCiterArticleFeatures() != null && !articleRetrievalModel.getReCiterArticleFeatures().isEmpty()) {
-                    log.info("*******************Starting publication import for " + articleRetrievalModel.getPersonIdentifier() + "************************");
+    private void addToInventory(PublicationInventory inventory, String cwid, String pmid) {
+        try {
+            if(cwid != null) {
+                inventory.addPublication(cwid, Long.parseLong(pmid));
+            } else {
+                inventory.addExisting(Long.parseLong(pmid));
+            }
+        } catch(NumberFormatException e) {
+            log.error("Publication " + pmid + " is not a pmid", e);
+        }
+    }
+
+    /**
+     * @param inventory publications in VIVO for the people, when null they are looked up per person and per publication
+     */
+    private String publicationsExist(List<ArticleRetrievalModel> articles, PublicationInventory inventory) {
+        //Only SDB ingest reads and writes through a Jena connection
+        try(JenaConnectionLease lease = ingestType.equals(IngestType.SDB_DIRECT.toString()) ? this.jcf.lease("dataSet") : null) {
+            SDBJenaConnect vivoJena = lease == null ? null : lease.getConnection();
+            if(articles != null && !articles.isEmpty()) {
+                for (ArticleRetrievalModel articleRetrievalModel : articles) {
+                    PmidSet vivoPublications;
+                    if(inventory != null) {
+                        vivoPublications = inventory.getPublications(articleRetrievalModel.getPersonIdentifier());
+                    } else {
+                        vivoPublications = PmidSet.of(getPublications(articleRetrievalModel.getPersonIdentifier(), vivoJena));
+                    }
+
+                    if(articleRetrievalModel.getReCiterArticleFeatures() != null && !articleRetrievalModel.getReCiterArticleFeatures().isEmpty()) {
+                        log.info("*******************Starting publication import for " + articleRetrievalModel.getPersonIdentifier() + "************************");
                     
-                    List<Long> reciterPublications = articleRetrievalModel.getReCiterArticleFeatures()
-                                                        .stream()
-                                                        .map(ReCiterArticleFeature::getPmid)
-                                                        .collect(Collectors.toList());
+                        PmidSet reciterPublications = new PmidSet(articleRetrievalModel.getReCiterArticleFeatures().size());
+                        for(ReCiterArticleFeature reCiterArticleFeature: articleRetrievalModel.getReCiterArticleFeatures()) {
+                            reciterPublications.add(reCiterArticleFeature.getPmid());
+                        }
 
-                    List<Long> pubsDifferences = new ArrayList<>(reciterPublications);
-                    pubsDifferences.removeAll(vivoPublications);
-                    if(!pubsDifferences.isEmpty()) {
-                        log.info("Some publications does not exist in VIVO. Importing them now for " + articleRetrievalModel.getPersonIdentifier() +  " List: " + pubsDifferences.toString());
-                        if(pubsDifferences.size() != articleRetrievalModel.getReCiterArticleFeatures().size()) {
+                        PmidDiff pubsDifferences = PmidDiff.of(reciterPublications, vivoPublications);
+                        if(pubsDifferences.getAdded().length > 0) {
+                            log.info("Some publications does not exist in VIVO. Importing them now for " + articleRetrievalModel.getPersonIdentifier() +  " List: " + Arrays.toString(pubsDifferences.getAdded()));
+                            //One article per added pmid so a pmid listed twice by ReCiter is imported once
+                            PmidSet newPmids = new PmidSet(pubsDifferences.getAdded().length);
                             List<ReCiterArticleFeature> newPublications = articleRetrievalModel.getReCiterArticleFeatures()
                                                                             .stream()
-                                                                            .filter(pub -> pubsDifferences.contains(pub.getPmid()))
+                                                                            .filter(pub -> !vivoPublications.contains(pub.getPmid()) && newPmids.add(pub.getPmid()))
                                                                             .collect(Collectors.toList());
-                            checkPublicationExistInVivo(newPublications, articleRetrievalModel.getPersonIdentifier(), vivoJena);
-                            importPublications(newPublications, articleRetrievalModel.getPersonIdentifier(), articleRetrievalModel.getDateUpdated(), vivoJena);
+                            importNewPublications(newPublications, articleRetrievalModel.getPersonIdentifier(), articleRetrievalModel.getDateUpdated(), vivoJena, inventory);
                         } else {
-                            checkPublicationExistInVivo(articleRetrievalModel.getReCiterArticleFeatures(), articleRetrievalModel.getPersonIdentifier(), vivoJena);
-                            importPublications(articleRetrievalModel.getReCiterArticleFeatures(), articleRetrievalModel.getPersonIdentifier(), articleRetrievalModel.getDateUpdated(), vivoJena);
+                            log.info("All publications from ReCiter exists in VIVO for " + articleRetrievalModel.getPersonIdentifier());
                         }
+                        List<Long> vivoPubs = vivoPublications.toList();
+                        if(ingestType.equals(IngestType.VIVO_API.toString())) {
+                            syncPublicationsUsingTDB(articleRetrievalModel.getReCiterArticleFeatures(), vivoPubs, vivoJena);
+                        } else {
+                            syncPublications(articleRetrievalModel.getReCiterArticleFeatures(), vivoPubs, vivoJena);
+                        }
+                        //Check for publications that needs to be deleted
+                        deletePublicationsVivo(PmidDiff.toList(pubsDifferences.getRemoved()), vivoJena, articleRetrievalModel.getPersonIdentifier());
+                        log.info("*******************Ending publication import for " + articleRetrievalModel.getPersonIdentifier() + "************************");
                     } else {
-                        log.info("All publications from ReCiter exists in VIVO for " + articleRetrievalModel.getPersonIdentifier());
-                    }
-                    //Check for publications that needs to be deleted
-                    List<Long> vivoPubs = new ArrayList<>(vivoPublications);
-                    if(ingestType.equals(IngestType.VIVO_API.toString())) {
-                        syncPublicationsUsingTDB(articleRetrievalModel.getReCiterArticleFeatures(), vivoPubs, vivoJena);
-                    } else {
-                        syncPublications(articleRetrievalModel.getReCiterArticleFeatures(), vivoPubs, vivoJena);
+                        //When number of accepted Publications from ReCiter is empty then delete publication from VIVO 
+                        log.info("*******************Check to see if Publications needs to be deleted for " + articleRetrievalModel.getPersonIdentifier() + "************************");
+                        deletePublicationsVivo(vivoPublications.toList(), vivoJena, articleRetrievalModel.getPersonIdentifier());
+                        log.info("*******************Publication deletion ends for " + articleRetrievalModel.getPersonIdentifier() + "************************");
+
                     }
-                    deletePublicationsVivo(vivoPubs, reciterPublications, vivoJena, articleRetrievalModel.getPersonIdentifier());
-                    log.info("*******************Ending publication import for " + articleRetrievalModel.getPersonIdentifier() + "************************");
-                } else {
-                    //When number of accepted Publications from ReCiter is empty then delete publication from VIVO 
-                    log.info("*******************Check to see if Publications needs to be deleted for " + articleRetrievalModel.getPersonIdentifier() + "************************");
-                    List<Long> reciterPublications = Collections.emptyList();
-                    deletePublicationsVivo(vivoPublications, reciterPublications, vivoJena, articleRetrievalModel.getPersonIdentifier());
-                    log.info("*******************Publication deletion ends for " + articleRetrievalModel.getPersonIdentifier() + "************************");
 
                 }
+            }
+        }
+        return "Publications fetch completed";
+    }
+
+    /**
+     * Import publications of a person that are not linked to the person in VIVO. Publications found in VIVO only get the
+     * authorship of the person added. Publications whose creation was claimed by a co-author are waited for, without
+     * holding any lock, and then only get the authorship added. When such a creation failed the publication is
+     * imported again by this person.
+     */
+    private void importNewPublications(List<ReCiterArticleFeature> newPublications, String uid, String dateUpdated, SDBJenaConnect vivoJena, PublicationInventory inventory) {
+        CompletableFuture<Void> creation = new CompletableFuture<>();
+        List<ReCiterArticleFeature> claimed = new ArrayList<>();
+        Map<ReCiterArticleFeature, CompletableFuture<Void>> createdByCoAuthors = new LinkedHashMap<>();
+        for(ReCiterArticleFeature article: newPublications) {
+            CompletableFuture<Void> other = this.publicationRegistry.claimCreation(article.getPmid(), creation);
+            if(other == null) {
+                claimed.add(article);
+            } else {
+                createdByCoAuthors.put(article, other);
+            }
+        }
+        try {
+            checkPublicationExistInVivo(claimed, uid, vivoJena, inventory);
+            CompletableFuture<String> written = CompletableFuture.completedFuture(null);
+            if(!claimed.isEmpty()) {
+                written = importPublications(claimed, uid, dateUpdated, vivoJena);
+            }
+            written.whenComplete((response, e) -> {
+                if(e != null) {
+                    creation.completeExceptionally(e);
+                } else {
+                    creation.complete(null);
+                }
+            });
+        } catch(RuntimeException e) {
+            creation.completeExceptionally(e);
+            throw e;
+        }
 
+        List<ReCiterArticleFeature> failed = new ArrayList<>();
+        for(Map.Entry<ReCiterArticleFeature, CompletableFuture<Void>> entry: createdByCoAuthors.entrySet()) {
+            ReCiterArticleFeature article = entry.getKey();
+            if(this.publicationRegistry.awaitCreation(article.getPmid(), entry.getValue())) {
+                log.info("Publication " + article.getPmid() + " was already created in this run. Updating authorship - ");
+                syncAuthorship(article, uid, vivoJena);
+            } else {
+                failed.add(article);
             }
         }
-        if(ingestType.equals(IngestType.SDB_DIRECT.toString())) {
-            this.jcf.returnConnectionToPool(vivoJena, "dataSet");
+        if(!failed.isEmpty()) {
+            importNewPublications(failed, uid, dateUpdated, vivoJena, inventory);
         }
-        return "Publications fetch completed";
     }
 
-    private void deletePublicationsVivo(List<Long> vivoPubs, List<Long> reciterPubs, SDBJenaConnect vivoJena, String uid) {
-        vivoPubs.removeAll(reciterPubs);
+    /**
+     * Get publications from VIVO for personIdentifier
+     */
+    private List<Long> getPublications(String personIdentifier, SDBJenaConnect vivoJena) {
+        StringBuilder sb = new StringBuilder();
+        List<Long> vivoPublications = new ArrayList<>();
+        sb.append(QueryConstants.getSparqlPrefixQuery());
+        sb.append("select ?pubs \n");
+        sb.append("where { \n");
+        sb.append("GRAPH <" + VivoGraphs.PUBLICATIONS_GRAPH + "> {\n");
+        sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + personIdentifier + "> core:relatedBy ?authorship . \n");
+        sb.append("?authorship core:relates ?publication . \n");
+        sb.append("?publication rdf:type core:InformationResource . \n");
+        sb.append("?publication rdf:type bibo:Document . \n");
+        sb.append("?publication rdf:type bibo:Article . \n");
+        sb.append("BIND(REPLACE(STR(?publication), \"https://vivo.med.cornell.edu/individual/pubid\", \"\") AS ?pubs) \n");
+        sb.append("}}");
+        
+        if(ingestType.equals(IngestType.VIVO_API.toString())) {
+            try {
+                vivoPublications.addAll(this.vivoClient.vivoQueryApi(sb.toString(), row -> Long.parseLong(row.getValue("pubs"))));
+            } catch(Exception  e) {
+                log.error("Api Exception", e);
+            }
+        } else {
+            try {
+                ResultSet rs = vivoJena.executeSelectQuery(sb.toString(), true);
+                while(rs.hasNext()) {
+                    QuerySolution qs = rs.nextSolution();
+                    vivoPublications.add(Long.parseLong(qs.get("pubs").toString()));
+                }
+            } catch(IOException e) {
+                log.error("Error connecting to SDBJena");
+            }
+        }
+        return vivoPublications;
+    }
+
+    /**
+     * @param vivoPubs publications of the person in VIVO that are no longer in ReCiter
+     */
+    private void deletePublicationsVivo(List<Long> vivoPubs, SDBJenaConnect vivoJena, String uid) {
         if(!vivoPubs.isEmpty()) {
             for(Long pmid: vivoPubs) {
                 StringBuilder sb = new StringBuilder();
@@ -1173,10 +1280,18 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
         }
     }
 
-    private void checkPublicationExistInVivo(List<ReCiterArticleFeature> articles, String uid,  SDBJenaConnect vivoJena) {
+    private void checkPublicationExistInVivo(List<ReCiterArticleFeature> articles, String uid,  SDBJenaConnect vivoJena, PublicationInventory inventory) {
         Iterator<ReCiterArticleFeature> it = articles.iterator();
         while(it.hasNext()) {
             ReCiterArticleFeature article = it.next();
+            if(inventory != null) {
+                if(inventory.exists(article.getPmid())) {
+                    it.remove();
+                    log.info("Publication " + article.getPmid() + " already exist in VIVO. Updating authorship - ");
+                    syncAuthorship(article, uid, vivoJena);
+                }
+                continue;
+            }
             StringBuilder sb = new StringBuilder();
             sb.append(QueryConstants.getSparqlPrefixQuery());
             sb.append("SELECT (count(?o) as ?count) \n");
@@ -1187,11 +1302,9 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
 
             if(ingestType.equals(IngestType.VIVO_API.toString())) {
                 try {
-                    String response = this.vivoClient.vivoQueryApi(sb.toString());
-                    log.info(response);
-                    JSONObject obj = new JSONObject(response);
-                    JSONArray bindings = obj.getJSONObject("results").getJSONArray("bindings");
-                    int count = bindings.getJSONObject(0).getJSONObject("count").getInt("value");
+                    //Publications queued by a co-author are sent before checking
+                    this.vivoUpdateWriter.awaitPending(TripleBuilder.vivoUri("pubid" + article.getPmid()));
+                    long count = this.vivoClient.vivoQueryApi(sb.toString(), row -> row.getLong("count")).get(0);
                     if(count > 0) {
                         it.remove();
                         log.info("Publication " + article.getPmid() + " already exist in VIVO. Updating authorship - ");
@@ -1269,40 +1382,24 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
                 }
         } else {
             log.info("Publication " + article.getPmid() + " has not author record. Thus assigning to the uid.");
-            StringBuilder sb = new StringBuilder();
-            sb.append(QueryConstants.getSparqlPrefixQuery());
-            sb.append("INSERT DATA { \n");
-            sb.append("GRAPH <" + VivoGraphs.PUBLICATIONS_GRAPH + "> {\n");
             //case when there is no author record
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> rdf:type obo:BFO_0000001 . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> rdf:type obo:BFO_0000002 . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> rdf:type obo:BFO_0000020 . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> rdf:type core:Relationship . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> rdf:type core:Authorship . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> vitro:mostSpecificType core:Authorship . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> core:relates <" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "> . \n");
-            //sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + articleFeature.getPmid() + "authorship" + articleFeature.getPmid() + "> core:rank \"" + reCiterArticleAuthorFeature.getRank() + "\"^^xsd:integer . \n");
-            //Linking vcard of the person
-            sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> rdf:type foaf:Person . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> core:relates <" + JenaConnectionFactory.nameSpace + "cwid-" + uid + "> . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> core:relates <" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> obo:ARG_2000029 <" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> . \n");
-            sb.append("<" + JenaConnectionFactory.nameSpace + "pubid" + article.getPmid() + "authorship" + article.getPmid() + "> obo:ARG_2000028 <" + JenaConnectionFactory.nameSpace + "arg2000028-" + uid + "> . \n");
-            sb.append("}}");
-            if(ingestType.equals(IngestType.VIVO_API.toString())) {
+            boolean vivoApi = ingestType.equals(IngestType.VIVO_API.toString());
+            SparqlTripleBuilder sparql = vivoApi ? TripleBuilder.insertData(VivoGraphs.PUBLICATIONS_GRAPH.getValue()) : null;
+            QuadTripleBuilder quads = vivoApi ? null : TripleBuilder.quads(VivoGraphs.PUBLICATIONS_GRAPH.getValue());
+            TripleBuilder tb = vivoApi ? sparql : quads;
+            String authorshipUri = TripleBuilder.vivoUri("pubid" + article.getPmid() + "authorship" + article.getPmid());
+            addAuthorship(tb, TripleBuilder.vivoUri("pubid" + article.getPmid()), authorshipUri);
+            addAuthor(tb, authorshipUri, TripleBuilder.vivoUri("cwid-" + uid), TripleBuilder.vivoUri("arg2000028-" + uid));
+            if(vivoApi) {
                 try{
-                    String response = this.vivoClient.vivoUpdateApi(sb.toString());
+                    String response = this.vivoClient.vivoUpdateApi(sparql.build());
                     log.info(response);
                 } catch(Exception  e) {
                     log.info("Api Exception", e);
                 }
             } else {
                 try {
-                    vivoJena.executeUpdateQuery(sb.toString(), true);
+                    vivoJena.executeUpdate(quads.toInsertRequest(), true);
                 } catch(IOException e) {
                     log.error("Error connecting to SDBJena");
                 }
@@ -1318,4 +1415,18 @@ public class VivoPublicationsServiceImpl implements VivoPublicationsService {
             }
         };
     }
+
+    @Override
+    public Callable<String> getCallable(ArticleRetrievalModel article) {
+        return getCallable(Collections.singletonList(article));
+    }
+
+    @Override
+    public Callable<String> getCallable(ArticleRetrievalModel article, PublicationInventory inventory) {
+        return new Callable<String>() {
+            public String call() throws Exception {
+                return publicationsExist(Collections.singletonList(article), inventory);
+            }
+        };
+    }
 }
@@ -0,0 +1,110 @@
+package reciter.connect.vivo.sdb.publications.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reconciliation of the pmids of a person in ReCiter against the pmids of the person in VIVO.
+ * <p>Both sides are sorted once and merged in a single pass that yields the pmids only in ReCiter, only in VIVO and
+ * in both, without boxing and without the quadratic cost of <code>List.removeAll</code>.</p>
+ */
+public class PmidDiff {
+
+    private final long[] added;
+
+    private final long[] removed;
+
+    private final long[] common;
+
+    private PmidDiff(long[] added, long[] removed, long[] common) {
+        this.added = added;
+        this.removed = removed;
+        this.common = common;
+    }
+
+    /**
+     * @param reciterPmids pmids of the person in ReCiter
+     * @param vivoPmids pmids of the person in VIVO
+     */
+    public static PmidDiff of(PmidSet reciterPmids, PmidSet vivoPmids) {
+        return merge(reciterPmids.toSortedArray(), vivoPmids.toSortedArray());
+    }
+
+    /**
+     * @param reciterPmids pmids of the person in ReCiter, duplicates are ignored
+     * @param vivoPmids pmids of the person in VIVO, duplicates are ignored
+     */
+    public static PmidDiff of(long[] reciterPmids, long[] vivoPmids) {
+        long[] reciter = reciterPmids.clone();
+        long[] vivo = vivoPmids.clone();
+        Arrays.sort(reciter);
+        Arrays.sort(vivo);
+        return merge(reciter, vivo);
+    }
+
+    private static PmidDiff merge(long[] reciter, long[] vivo) {
+        long[] added = new long[reciter.length];
+        long[] removed = new long[vivo.length];
+        long[] common = new long[Math.min(reciter.length, vivo.length)];
+        int addedCount = 0;
+        int removedCount = 0;
+        int commonCount = 0;
+        int i = 0;
+        int j = 0;
+        while (i < reciter.length || j < vivo.length) {
+            if (j == vivo.length || (i < reciter.length && reciter[i] < vivo[j])) {
+                added[addedCount++] = reciter[i];
+                i = skip(reciter, i);
+            } else if (i == reciter.length || vivo[j] < reciter[i]) {
+                removed[removedCount++] = vivo[j];
+                j = skip(vivo, j);
+            } else {
+                common[commonCount++] = reciter[i];
+                i = skip(reciter, i);
+                j = skip(vivo, j);
+            }
+        }
+        return new PmidDiff(Arrays.copyOf(added, addedCount), Arrays.copyOf(removed, removedCount), Arrays.copyOf(common, commonCount));
+    }
+
+    /**
+     * @return index of the next distinct pmid of a sorted array
+     */
+    private static int skip(long[] pmids, int index) {
+        long pmid = pmids[index];
+        while (index < pmids.length && pmids[index] == pmid) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return pmids in ReCiter that are not in VIVO in ascending order
+     */
+    public long[] getAdded() {
+        return this.added;
+    }
+
+    /**
+     * @return pmids in VIVO that are not in ReCiter in ascending order
+     */
+    public long[] getRemoved() {
+        return this.removed;
+    }
+
+    /**
+     * @return pmids both in ReCiter and VIVO in ascending order
+     */
+    public long[] getCommon() {
+        return this.common;
+    }
+
+    public static List<Long> toList(long[] pmids) {
+        List<Long> list = new ArrayList<>(pmids.length);
+        for (long pmid : pmids) {
+            list.add(pmid);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,170 @@
+package reciter.connect.vivo.sdb.publications.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of pmids stored as primitive longs in an open addressing hash table.
+ * <p>Avoids boxing every pmid into a {@link Long} when comparing publication lists of people with thousands of
+ * publications. Not thread safe, a set that is shared between threads must not be modified once it is published.</p>
+ */
+public class PmidSet {
+
+    private static final long FREE = 0L;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] table;
+
+    private int mask;
+
+    private int size;
+
+    /**
+     * 0 marks a free slot in the table so it is tracked on its own
+     */
+    private boolean containsFree;
+
+    public PmidSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize number of pmids the set should hold without resizing
+     */
+    public PmidSet(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity = capacity << 1;
+        }
+        this.table = new long[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public static PmidSet of(Collection<Long> pmids) {
+        PmidSet set = new PmidSet(pmids.size());
+        for (Long pmid : pmids) {
+            if (pmid != null) {
+                set.add(pmid);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * @return true if the pmid was not in the set before
+     */
+    public boolean add(long pmid) {
+        if (pmid == FREE) {
+            if (this.containsFree) {
+                return false;
+            }
+            this.containsFree = true;
+            this.size++;
+            return true;
+        }
+        int index = index(pmid);
+        while (this.table[index] != FREE) {
+            if (this.table[index] == pmid) {
+                return false;
+            }
+            index = (index + 1) & this.mask;
+        }
+        this.table[index] = pmid;
+        this.size++;
+        if (this.size * 2 > this.table.length) {
+            resize();
+        }
+        return true;
+    }
+
+    public boolean contains(long pmid) {
+        if (pmid == FREE) {
+            return this.containsFree;
+        }
+        int index = index(pmid);
+        while (this.table[index] != FREE) {
+            if (this.table[index] == pmid) {
+                return true;
+            }
+            index = (index + 1) & this.mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void forEach(LongConsumer consumer) {
+        if (this.containsFree) {
+            consumer.accept(FREE);
+        }
+        for (long pmid : this.table) {
+            if (pmid != FREE) {
+                consumer.accept(pmid);
+            }
+        }
+    }
+
+    /**
+     * @return the pmids in ascending order
+     */
+    public long[] toSortedArray() {
+        long[] pmids = new long[this.size];
+        int i = 0;
+        if (this.containsFree) {
+            pmids[i++] = FREE;
+        }
+        for (long pmid : this.table) {
+            if (pmid != FREE) {
+                pmids[i++] = pmid;
+            }
+        }
+        Arrays.sort(pmids);
+        return pmids;
+    }
+
+    /**
+     * @return a new modifiable list of the pmids in ascending order
+     */
+    public List<Long> toList() {
+        List<Long> pmids = new ArrayList<>(this.size);
+        for (long pmid : toSortedArray()) {
+            pmids.add(pmid);
+        }
+        return pmids;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toSortedArray());
+    }
+
+    private int index(long pmid) {
+        long hash = pmid * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & this.mask;
+    }
+
+    private void resize() {
+        long[] old = this.table;
+        this.table = new long[old.length << 1];
+        this.mask = this.table.length - 1;
+        for (long pmid : old) {
+            if (pmid != FREE) {
+                int index = index(pmid);
+                while (this.table[index] != FREE) {
+                    index = (index + 1) & this.mask;
+                }
+                this.table[index] = pmid;
+            }
+        }
+    }
+}
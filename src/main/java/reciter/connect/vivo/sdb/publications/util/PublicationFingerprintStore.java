@@ -0,0 +1,151 @@
+package reciter.connect.vivo.sdb.publications.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import reciter.engine.analysis.ReCiterArticleFeature;
+import reciter.engine.analysis.ReCiterArticleFeature.ArticleKeyword;
+import reciter.engine.analysis.ReCiterArticleFeature.ArticleKeyword.KeywordType;
+
+/**
+ * Fingerprints of the publication metadata last synced to VIVO keyed by pmid.
+ * <p>The fingerprint is a hash of the ReCiter fields the publication sync maps to VIVO, namely pmcid, citation count,
+ * publication type and mesh major keywords. A publication whose fingerprint matches the one recorded after its last
+ * successful sync has not changed in ReCiter and does not need to be compared against VIVO again. The fingerprints are
+ * kept in a file on persistent storage that is loaded on startup and written when the run ends. Changes made to VIVO
+ * directly are not detected so the file can be deleted to force a full sync.</p>
+ */
+@Slf4j
+@Component
+public class PublicationFingerprintStore {
+
+    private final boolean enabled;
+
+    private final Path file;
+
+    private final Map<Long, Long> fingerprints = new ConcurrentHashMap<>();
+
+    public PublicationFingerprintStore(@Value("${connect.publications.fingerprint.enabled}") boolean enabled,
+        @Value("${connect.publications.fingerprint.file}") String file) {
+        if (enabled && (file == null || file.trim().isEmpty())) {
+            throw new IllegalStateException("connect.publications.fingerprint.file has to point to persistent storage when publication fingerprints are enabled");
+        }
+        this.enabled = enabled;
+        this.file = enabled ? Paths.get(file.trim()) : null;
+        if (enabled) {
+            load();
+        }
+    }
+
+    /**
+     * @return a stable hash of the fields of the publication that are synced to VIVO
+     */
+    public long fingerprint(ReCiterArticleFeature article) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(article.getPmcid()).append('\u0001');
+        sb.append(article.getTimesCited()).append('\u0001');
+        if (article.getPublicationType() != null) {
+            sb.append(article.getPublicationType().getPublicationTypeCanonical());
+        }
+        sb.append('\u0001');
+        if (article.getArticleKeywords() != null) {
+            List<String> meshMajor = article.getArticleKeywords()
+                .stream()
+                .filter(mesh -> mesh.getType() == KeywordType.MESH_MAJOR)
+                .map(ArticleKeyword::getKeyword)
+                .sorted()
+                .collect(Collectors.toList());
+            sb.append(String.join("\u0002", meshMajor));
+        }
+        byte[] digest = DigestUtils.sha256(sb.toString().getBytes(StandardCharsets.UTF_8));
+        long fingerprint = 0;
+        for (int i = 0; i < 8; i++) {
+            fingerprint = (fingerprint << 8) | (digest[i] & 0xff);
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return true if the publication was synced before with the same fingerprint
+     */
+    public boolean isUnchanged(long pmid, long fingerprint) {
+        if (!this.enabled) {
+            return false;
+        }
+        Long previous = this.fingerprints.get(pmid);
+        return previous != null && previous == fingerprint;
+    }
+
+    /**
+     * Record the fingerprint of a publication after it was synced successfully
+     */
+    public void put(long pmid, long fingerprint) {
+        if (this.enabled) {
+            this.fingerprints.put(pmid, fingerprint);
+        }
+    }
+
+    /**
+     * Write the fingerprints to the local file. The file is replaced at once so an interrupted write keeps the previous state.
+     */
+    @PreDestroy
+    public synchronized void save() {
+        if (!this.enabled) {
+            return;
+        }
+        try {
+            if (this.file.getParent() != null) {
+                Files.createDirectories(this.file.getParent());
+            }
+            Path tmp = this.file.resolveSibling(this.file.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<Long, Long> entry : this.fingerprints.entrySet()) {
+                    writer.write(entry.getKey() + "," + Long.toHexString(entry.getValue()));
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Saved " + this.fingerprints.size() + " publication fingerprints to " + this.file);
+        } catch (IOException e) {
+            log.error("Unable to save publication fingerprints to " + this.file, e);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(this.file)) {
+            log.info("No publication fingerprints found at " + this.file + ". All publications will be synced");
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(this.file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(',');
+                if (separator > 0) {
+                    this.fingerprints.put(Long.parseLong(line.substring(0, separator)), Long.parseUnsignedLong(line.substring(separator + 1), 16));
+                }
+            }
+            log.info("Loaded " + this.fingerprints.size() + " publication fingerprints from " + this.file);
+        } catch (IOException | NumberFormatException e) {
+            //A damaged file only means a full sync
+            log.error("Unable to load publication fingerprints from " + this.file, e);
+            this.fingerprints.clear();
+        }
+    }
+}
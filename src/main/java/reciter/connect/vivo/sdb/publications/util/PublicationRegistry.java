@@ -0,0 +1,96 @@
+package reciter.connect.vivo.sdb.publications.util;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publications created or synced in VIVO during this run keyed by pmid.
+ * <p>Publications co-authored by several people come from ReCiter once per author and are handled by different
+ * publication tasks, often at the same time. The first task to claim a publication creates it and the tasks of the
+ * other authors wait for that creation, without holding any lock, and then only add their authorship. Syncing the
+ * metadata of one publication is serialized with a striped lock taken for that single pmid, so a co-author waits for a
+ * sync in progress and only syncs again when it failed.</p>
+ */
+@Slf4j
+@Component
+public class PublicationRegistry {
+
+    private static final int STRIPES = 256;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    /**
+     * Creations claimed by this run, completing once the update creating the publication was written
+     */
+    private final Map<Long, CompletableFuture<Void>> created = new ConcurrentHashMap<>();
+
+    private final Set<Long> synced = ConcurrentHashMap.newKeySet();
+
+    public PublicationRegistry() {
+        for (int i = 0; i < STRIPES; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Acquire the lock of a publication. Only one publication should be locked at a time.
+     * @return the acquired lock to be unlocked by the caller
+     */
+    public ReentrantLock lock(long pmid) {
+        ReentrantLock lock = this.locks[stripe(pmid)];
+        lock.lock();
+        return lock;
+    }
+
+    /**
+     * Claim the creation of a publication in VIVO
+     * @param creation to be completed by the caller once the update creating the publication was written, or
+     * exceptionally when it failed
+     * @return null when the caller claimed the creation, otherwise the creation claimed by another task before
+     */
+    public CompletableFuture<Void> claimCreation(long pmid, CompletableFuture<Void> creation) {
+        return this.created.putIfAbsent(pmid, creation);
+    }
+
+    /**
+     * Wait for a creation claimed by another task. Must not be called while holding a publication lock.
+     * @return true if the publication was written, false if the creation failed and the claim was released so the
+     * caller can create the publication again
+     */
+    public boolean awaitCreation(long pmid, CompletableFuture<Void> creation) {
+        try {
+            creation.join();
+            return true;
+        } catch (Exception e) {
+            log.error("Publication " + pmid + " was not written to VIVO", e);
+            this.created.remove(pmid, creation);
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the metadata of the publication was synced successfully by this run
+     */
+    public boolean isSynced(long pmid) {
+        return this.synced.contains(pmid);
+    }
+
+    /**
+     * Record a publication whose metadata was synced successfully by this run
+     */
+    public void markSynced(long pmid) {
+        this.synced.add(pmid);
+    }
+
+    private static int stripe(long pmid) {
+        long hash = pmid * 0x9E3779B97F4A7C15L;
+        return (int) ((hash ^ (hash >>> 32)) & (STRIPES - 1));
+    }
+}
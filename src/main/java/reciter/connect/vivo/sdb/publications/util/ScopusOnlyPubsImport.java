@@ -2,7 +2,6 @@ package reciter.connect.vivo.sdb.publications.util;
 
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.ParseException;
@@ -26,9 +25,14 @@ import reciter.connect.beans.vivo.AuthorBean;
 import reciter.connect.beans.vivo.PublicationBean;
 import reciter.connect.database.mysql.MysqlConnectionFactory;
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.mysql.jena.JenaConnectionLease;
+import reciter.connect.database.sql.SqlQuery;
+import reciter.connect.database.sql.SqlQueryRepository;
+import reciter.connect.database.sql.SqlSession;
 import reciter.connect.vivo.api.client.VivoClient;
 import reciter.connect.vivo.sdb.VivoGraphs;
 import reciter.connect.vivo.sdb.query.QueryConstants;
+import reciter.connect.vivo.sdb.query.SparqlLiteralEscaper;
 
 @Slf4j
 @Component
@@ -48,41 +52,39 @@ public class ScopusOnlyPubsImport {
     @Autowired
     private JenaConnectionFactory jcf;
 
+    @Autowired
+    private SqlQueryRepository sqlQueries;
+
+    private static final SqlQuery SCOPUS_ONLY_PUBS = new SqlQuery("pubadmin.scopusOnlyPublications", "select distinct d1.wcmc_document_pk,'artcle' as pubtype,scopus_doc_id, \n" +
+        "concat('https://vivo.weill.cornell.edu/individual/nn',scopus_doc_id) as articleURI, \n" +
+        "cast(case \n" +
+        "when nlmisoabbreviation is not null then md5(nlmisoabbreviation) \n" +
+        "when nlmAbbreviationNew is not null then md5(nlmAbbreviationNew) \n" +
+        "else md5(publication_name) \n" +
+        "end as char) as journaURI, \n" +
+        "publication_name as journal_name,da1.wcmc_authorship_rank as rank,a1.cwid, \n" +
+        "case \n" +
+        "when issn is not null then issn \n" +
+        "when eissn is not null then eissn \n" +
+        "else null \n" +
+        "end as issn,doi,issue,volume,pages,cover_date, \n" +
+        "case \n" +
+        "when substring(cover_date,3,2) = '01' and substring(cover_date,5,2) = '01' then 'year' \n" +
+        "when substring(cover_date,3,2) = '01' then 'yearMonth' \n" +
+        "else 'yearMonthDay' \n" +
+        "end as datePrecision,title \n" +
+        "from wcmc_authorship a1 \n" +
+        "join wcmc_document_authorship da1 on da1.wcmc_authorship_fk = a1.wcmc_authorship_pk \n" +
+        "join wcmc_document d1 on d1.wcmc_document_pk = da1.wcmc_document_fk \n" +
+        "left join scopusIDsInReCiter r on r.scopusDocID = scopus_doc_id \n" +
+        "left join NLM n on n.nlmabbreviation = d1.nlmabbreviationNEW \n" +
+        "where cwid is not null and pmid is null and scopusDocID is null and a1.cwid not like '\\_%' and (pubtype like 'ar' or pubtype like '%Journal Article%')");
+
     public void getScopusOnlyPubs(List<String> peopleCwids) {
         Connection con = this.mycf.getConnectionfromPool();
         
-        StringBuilder selectQuery = new StringBuilder();
-        selectQuery.append("select distinct d1.wcmc_document_pk,'artcle' as pubtype,scopus_doc_id, \n");
-        selectQuery.append("concat('https://vivo.weill.cornell.edu/individual/nn',scopus_doc_id) as articleURI, \n");
-        selectQuery.append("cast(case \n");
-        selectQuery.append("when nlmisoabbreviation is not null then md5(nlmisoabbreviation) \n");
-        selectQuery.append("when nlmAbbreviationNew is not null then md5(nlmAbbreviationNew) \n");
-        selectQuery.append("else md5(publication_name) \n");
-        selectQuery.append("end as char) as journaURI, \n");
-        selectQuery.append("publication_name as journal_name,da1.wcmc_authorship_rank as rank,a1.cwid, \n");
-        selectQuery.append("case \n");
-        selectQuery.append("when issn is not null then issn \n");
-        selectQuery.append("when eissn is not null then eissn \n");
-        selectQuery.append("else null \n");
-        selectQuery.append("end as issn,doi,issue,volume,pages,cover_date, \n");
-        selectQuery.append("case \n");
-        selectQuery.append("when substring(cover_date,3,2) = '01' and substring(cover_date,5,2) = '01' then 'year' \n");
-        selectQuery.append("when substring(cover_date,3,2) = '01' then 'yearMonth' \n");
-        selectQuery.append("else 'yearMonthDay' \n");
-        selectQuery.append("end as datePrecision,title \n");
-        selectQuery.append("from wcmc_authorship a1 \n");
-        selectQuery.append("join wcmc_document_authorship da1 on da1.wcmc_authorship_fk = a1.wcmc_authorship_pk \n");
-        selectQuery.append("join wcmc_document d1 on d1.wcmc_document_pk = da1.wcmc_document_fk \n");
-        selectQuery.append("left join scopusIDsInReCiter r on r.scopusDocID = scopus_doc_id \n");
-        selectQuery.append("left join NLM n on n.nlmabbreviation = d1.nlmabbreviationNEW \n");
-        selectQuery.append("where cwid is not null and pmid is null and scopusDocID is null and a1.cwid not like '\\_%' and (pubtype like 'ar' or pubtype like '%Journal Article%')");
-
-        log.info(selectQuery.toString());
-        PreparedStatement ps = null;
-        ResultSet rs = null;
-        try {	
-                ps = con.prepareStatement(selectQuery.toString());
-                rs = ps.executeQuery();
+        try(SqlSession session = this.sqlQueries.session(con);
+            ResultSet rs = session.executeQuery(SCOPUS_ONLY_PUBS, null)) {
                 while(rs.next()) {
                     PublicationBean pb = new PublicationBean();
                     if(rs.getString(1) != null)
@@ -128,10 +130,6 @@ public class ScopusOnlyPubsImport {
         }
         finally {
             try{
-                if(ps!=null)
-                    ps.close();
-                if(rs!=null)
-                    rs.close();
                 if(con != null)
                     this.mycf.returnConnectionToPool(con);
             }
@@ -144,182 +142,182 @@ public class ScopusOnlyPubsImport {
     }
 
     public void importPublications(List<String> peopleCwids) {
-        SDBJenaConnect vivoJena = this.jcf.getConnectionfromPool("dataSet");
-        StopWatch stopWatch = new StopWatch("Publications import to VIVO");
-        stopWatch.start("Publications import to VIVO");
-        StringBuilder sb = new StringBuilder();
-        for (PublicationBean articleFeature : this.scopusOnlyPubs) {
-            if(articleFeature.getAuthorList() != null && !articleFeature.getAuthorList().isEmpty()
-                &&
-                peopleCwids.contains(articleFeature.getAuthorList().iterator().next().getCwid())) {
-                log.info("Importing scopus publication with scopusDocId: " + articleFeature.getScopusDocId());
-                sb.append(QueryConstants.getSparqlPrefixQuery());
-                sb.append("INSERT DATA { GRAPH <" + VivoGraphs.DEFAULT_KB_2_GRAPH + "> { \n");
-                final String publicationUrl = "<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId()
-                        + ">";
-                sb.append(publicationUrl + " core:DateTimeValue \"" + this.sdf.format(new Date()) + "\" . \n");
-                sb.append(publicationUrl + " rdf:type obo:BFO_0000001 . \n");
-                sb.append(publicationUrl + " rdf:type obo:BFO_0000002 . \n");
-                sb.append(publicationUrl + " rdf:type obo:IAO_0000030 . \n");
-                sb.append(publicationUrl + " rdf:type obo:BFO_0000031 . \n");
-                // articleTitle → rdfs:label
-                if (articleFeature.getTitle() != null) {
-                    sb.append(publicationUrl + " rdfs:label \""
-                            + articleFeature.getTitle().trim().replaceAll("([\\\\\\\\\"])", "\\\\$1").replaceAll("'", "\'").replaceAll("\"","\\\"").replaceAll("(\\r|\\n|\\r\\n)+", "\\\\n")
-                            + "\" .\n");
-                }
-                // doi → bibo:doi
-                if (articleFeature.getDoi() != null && !articleFeature.getDoi().isEmpty()) {
-                    sb.append(publicationUrl + " bibo:doi \"" + articleFeature.getDoi().trim()
-                            .replaceAll("([\\\\\\\\\"])", "\\\\$1").replaceAll("\\s+", "") + "\" .\n");
-                }
-
-                // issue → bibo:issue
-                if (articleFeature.getIssue() != null && !articleFeature.getIssue().trim().isEmpty()) {
-                    sb.append(publicationUrl + " bibo:issue \"" + articleFeature.getIssue() + "\" .\n");
-                }
-                // scopusDocID → wcmc:scopusDocId
-                if (articleFeature.getScopusDocId() != null) {
-                    sb.append(publicationUrl + " wcmc:scopusDocId \"" + articleFeature.getScopusDocId() + "\" .\n");
-                }
-                // volume → bibo:volume
-                if (articleFeature.getVolume() != null && !articleFeature.getVolume().trim().isEmpty()) {
-                    sb.append(publicationUrl + " bibo:volume \"" + articleFeature.getVolume() + "\" .\n");
-                }
-                // pages -> bibo:pages
-                if (articleFeature.getPages() != null && !articleFeature.getPages().trim().isEmpty()) {
-                    sb.append(publicationUrl + " bibo:pages \"" + articleFeature.getPages() + "\" .\n");
-                }
+        try(JenaConnectionLease lease = this.jcf.lease("dataSet")) {
+            SDBJenaConnect vivoJena = lease.getConnection();
+            StopWatch stopWatch = new StopWatch("Publications import to VIVO");
+            stopWatch.start("Publications import to VIVO");
+            StringBuilder sb = new StringBuilder();
+            for (PublicationBean articleFeature : this.scopusOnlyPubs) {
+                if(articleFeature.getAuthorList() != null && !articleFeature.getAuthorList().isEmpty()
+                    &&
+                    peopleCwids.contains(articleFeature.getAuthorList().iterator().next().getCwid())) {
+                    log.info("Importing scopus publication with scopusDocId: " + articleFeature.getScopusDocId());
+                    sb.append(QueryConstants.getSparqlPrefixQuery());
+                    sb.append("INSERT DATA { GRAPH <" + VivoGraphs.DEFAULT_KB_2_GRAPH + "> { \n");
+                    final String publicationUrl = "<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId()
+                            + ">";
+                    sb.append(publicationUrl + " core:DateTimeValue \"" + this.sdf.format(new Date()) + "\" . \n");
+                    sb.append(publicationUrl + " rdf:type obo:BFO_0000001 . \n");
+                    sb.append(publicationUrl + " rdf:type obo:BFO_0000002 . \n");
+                    sb.append(publicationUrl + " rdf:type obo:IAO_0000030 . \n");
+                    sb.append(publicationUrl + " rdf:type obo:BFO_0000031 . \n");
+                    // articleTitle → rdfs:label
+                    if (articleFeature.getTitle() != null) {
+                        sb.append(publicationUrl + " rdfs:label \"");
+                        SparqlLiteralEscaper.appendEscaped(sb, articleFeature.getTitle().trim()).append("\" .\n");
+                    }
+                    // doi → bibo:doi
+                    if (articleFeature.getDoi() != null && !articleFeature.getDoi().isEmpty()) {
+                        sb.append(publicationUrl + " bibo:doi \"");
+                        SparqlLiteralEscaper.appendEscapedIdentifier(sb, articleFeature.getDoi()).append("\" .\n");
+                    }
 
-                // Cover Date
-                if (articleFeature.getCoverDate() != null) {
-                    Date standardDate = null;
-                    try {
-                        standardDate = this.sdf.parse(articleFeature.getCoverDate());
-                    } catch (ParseException e) {
-                        log.error("ParseException", e);
+                    // issue → bibo:issue
+                    if (articleFeature.getIssue() != null && !articleFeature.getIssue().trim().isEmpty()) {
+                        sb.append(publicationUrl + " bibo:issue \"" + articleFeature.getIssue() + "\" .\n");
                     }
-                    if (standardDate != null) {
-                        this.cal.setTime(standardDate);
-                        int month = this.cal.get(Calendar.MONTH) + 1; // Since calender month start with 0
-                        sb.append(publicationUrl + " core:dateTimeValue <" + JenaConnectionFactory.nameSpace
-                                + "daymonthyear" + this.cal.get(Calendar.DAY_OF_MONTH)
-                                + (month < 10 ? ("0" + month) : (month)) + this.cal.get(Calendar.YEAR) + ">  . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                                + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                                + this.cal.get(Calendar.YEAR) + "> rdf:type core:DateTimeValue . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                                + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                                + this.cal.get(Calendar.YEAR) + "> vitro:mostSpecificType core:DateTimeValue . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                                + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                                + this.cal.get(Calendar.YEAR)
-                                + "> core:dateTimePrecision core:yearMonthDayPrecision . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
-                                + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
-                                + this.cal.get(Calendar.YEAR) + "> core:dateTime \""
-                                + articleFeature.getCoverDate()
-                                + "T00:00:00\"^^<http://www.w3.org/2001/XMLSchema#dateTime> . \n");
+                    // scopusDocID → wcmc:scopusDocId
+                    if (articleFeature.getScopusDocId() != null) {
+                        sb.append(publicationUrl + " wcmc:scopusDocId \"" + articleFeature.getScopusDocId() + "\" .\n");
                     }
-                }
-                // Journal
-                String journalIdentifier = articleFeature.getJournalHash();
-                sb.append(publicationUrl + " core:hasPublicationVenue  <" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + ">  . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> rdf:type obo:BFO_0000001 . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> rdf:type obo:BFO_0000002 . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> rdf:type obo:BFO_0000031 . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> rdf:type obo:IAO_0000030 . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> rdf:type bibo:Collection . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> rdf:type bibo:Periodical . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> rdf:type bibo:Journal . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> vitro:mostSpecificType bibo:Journal . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> core:title \"" + articleFeature.getJournal().replaceAll("'", "\'").replaceAll("\"","\\\\\"") + "\" . \n");
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> rdfs:label \"" + articleFeature.getJournal().replaceAll("'", "\'").replaceAll("\"","\\\\\"") + "\" . \n");
+                    // volume → bibo:volume
+                    if (articleFeature.getVolume() != null && !articleFeature.getVolume().trim().isEmpty()) {
+                        sb.append(publicationUrl + " bibo:volume \"" + articleFeature.getVolume() + "\" .\n");
+                    }
+                    // pages -> bibo:pages
+                    if (articleFeature.getPages() != null && !articleFeature.getPages().trim().isEmpty()) {
+                        sb.append(publicationUrl + " bibo:pages \"" + articleFeature.getPages() + "\" .\n");
+                    }
+
+                    // Cover Date
+                    if (articleFeature.getCoverDate() != null) {
+                        Date standardDate = null;
+                        try {
+                            standardDate = this.sdf.parse(articleFeature.getCoverDate());
+                        } catch (ParseException e) {
+                            log.error("ParseException", e);
+                        }
+                        if (standardDate != null) {
+                            this.cal.setTime(standardDate);
+                            int month = this.cal.get(Calendar.MONTH) + 1; // Since calender month start with 0
+                            sb.append(publicationUrl + " core:dateTimeValue <" + JenaConnectionFactory.nameSpace
+                                    + "daymonthyear" + this.cal.get(Calendar.DAY_OF_MONTH)
+                                    + (month < 10 ? ("0" + month) : (month)) + this.cal.get(Calendar.YEAR) + ">  . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
+                                    + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
+                                    + this.cal.get(Calendar.YEAR) + "> rdf:type core:DateTimeValue . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
+                                    + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
+                                    + this.cal.get(Calendar.YEAR) + "> vitro:mostSpecificType core:DateTimeValue . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
+                                    + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
+                                    + this.cal.get(Calendar.YEAR)
+                                    + "> core:dateTimePrecision core:yearMonthDayPrecision . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "daymonthyear"
+                                    + this.cal.get(Calendar.DAY_OF_MONTH) + (month < 10 ? ("0" + month) : (month))
+                                    + this.cal.get(Calendar.YEAR) + "> core:dateTime \""
+                                    + articleFeature.getCoverDate()
+                                    + "T00:00:00\"^^<http://www.w3.org/2001/XMLSchema#dateTime> . \n");
+                        }
+                    }
+                    // Journal
+                    String journalIdentifier = articleFeature.getJournalHash();
+                    sb.append(publicationUrl + " core:hasPublicationVenue  <" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + ">  . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> rdf:type obo:BFO_0000001 . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> rdf:type obo:BFO_0000002 . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> rdf:type obo:BFO_0000031 . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> rdf:type obo:IAO_0000030 . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> rdf:type bibo:Collection . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> rdf:type bibo:Periodical . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> rdf:type bibo:Journal . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> vitro:mostSpecificType bibo:Journal . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> core:title \"" + SparqlLiteralEscaper.escape(articleFeature.getJournal()) + "\" . \n");
+                    sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                            + journalIdentifier + "> rdfs:label \"" + SparqlLiteralEscaper.escape(articleFeature.getJournal()) + "\" . \n");
                 
-                //Issn
-                if(articleFeature.getIssn() != null && !articleFeature.getIssn().isEmpty()) {
+                    //Issn
+                    if(articleFeature.getIssn() != null && !articleFeature.getIssn().isEmpty()) {
+                        sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
+                        + journalIdentifier + "> bibo:issn \"" + articleFeature.getIssn()
+                        + "\" . \n");
+                    }
                     sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                    + journalIdentifier + "> bibo:issn \"" + articleFeature.getIssn()
-                    + "\" . \n");
-                }
-                sb.append("<" + JenaConnectionFactory.nameSpace + "journal"
-                        + journalIdentifier + "> <http://vivoweb.org/ontology/core#publicationVenueFor> " + publicationUrl + " . \n");
+                            + journalIdentifier + "> <http://vivoweb.org/ontology/core#publicationVenueFor> " + publicationUrl + " . \n");
 
-                //Publication Type
-                sb.append(publicationUrl + " rdf:type core:InformationResource . \n");
-                sb.append(publicationUrl + " rdf:type bibo:Document . \n");
-                sb.append(publicationUrl + " rdf:type bibo:Article . \n");
-                sb.append(publicationUrl + " vitro:mostSpecificType bibo:Article . \n");
-                sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
+                    //Publication Type
+                    sb.append(publicationUrl + " rdf:type core:InformationResource . \n");
+                    sb.append(publicationUrl + " rdf:type bibo:Document . \n");
+                    sb.append(publicationUrl + " rdf:type bibo:Article . \n");
+                    sb.append(publicationUrl + " vitro:mostSpecificType bibo:Article . \n");
+                    sb.append(publicationUrl + " rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
                     
-                //Author Assignment
-                if(articleFeature.getAuthorList() != null && !articleFeature.getAuthorList().isEmpty()) {
-                    for(AuthorBean author : articleFeature.getAuthorList()) {
-                        sb.append(publicationUrl + " core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type obo:BFO_0000001 . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type obo:BFO_0000002 . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type obo:BFO_0000020 . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type core:Relationship . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type core:Authorship . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> vitro:mostSpecificType core:Authorship . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> core:relates " + publicationUrl + " . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> core:rank \"" + author.getAuthorshipRank() + "\"^^xsd:integer . \n");
-                        //Linking vcard of the person
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + author.getCwid() + "> rdf:type foaf:Person . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + author.getCwid() + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> core:relates <" + JenaConnectionFactory.nameSpace + "cwid-" + author.getCwid() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> core:relates <" + JenaConnectionFactory.nameSpace + "arg2000028-" + author.getCwid() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + author.getCwid() + "> obo:ARG_2000029 <" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + author.getCwid() + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> . \n");
-                        sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> obo:ARG_2000028 <" + JenaConnectionFactory.nameSpace + "arg2000028-" + author.getCwid() + "> . \n");
+                    //Author Assignment
+                    if(articleFeature.getAuthorList() != null && !articleFeature.getAuthorList().isEmpty()) {
+                        for(AuthorBean author : articleFeature.getAuthorList()) {
+                            sb.append(publicationUrl + " core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type obo:BFO_0000001 . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type obo:BFO_0000002 . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type obo:BFO_0000020 . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type <http://www.w3.org/2002/07/owl#Thing> . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type core:Relationship . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> rdf:type core:Authorship . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> vitro:mostSpecificType core:Authorship . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> core:relates " + publicationUrl + " . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> core:rank \"" + author.getAuthorshipRank() + "\"^^xsd:integer . \n");
+                            //Linking vcard of the person
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + author.getCwid() + "> rdf:type foaf:Person . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "cwid-" + author.getCwid() + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> core:relates <" + JenaConnectionFactory.nameSpace + "cwid-" + author.getCwid() + "> . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> core:relates <" + JenaConnectionFactory.nameSpace + "arg2000028-" + author.getCwid() + "> . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + author.getCwid() + "> obo:ARG_2000029 <" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "arg2000028-" + author.getCwid() + "> core:relatedBy <" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> . \n");
+                            sb.append("<" + JenaConnectionFactory.nameSpace + "pubidnn" + articleFeature.getScopusDocId() + "authorship" + author.getAuthorshipRank() + "> obo:ARG_2000028 <" + JenaConnectionFactory.nameSpace + "arg2000028-" + author.getCwid() + "> . \n");
+                        }
                     }
-                }
-                sb.append(publicationUrl + " <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"ReCiter Connect\" . \n");
-                sb.append("}}");
-                //log.info(sb.toString());
+                    sb.append(publicationUrl + " <http://vivo.ufl.edu/ontology/vivo-ufl/harvestedBy> \"ReCiter Connect\" . \n");
+                    sb.append("}}");
+                    //log.info(sb.toString());
                 
-                /*try {
-                    String response = this.vivoClient.vivoUpdateApi(sb.toString());
-                    log.info(response);
-                } catch(Exception e) {
-                    log.error("Error connecting to SDBJena", e);
-                }*/
+                    /*try {
+                        String response = this.vivoClient.vivoUpdateApi(sb.toString());
+                        log.info(response);
+                    } catch(Exception e) {
+                        log.error("Error connecting to SDBJena", e);
+                    }*/
                  
-                try {
-                    vivoJena.executeUpdateQuery(sb.toString(), true);
-                } catch(IOException e) {
-                    log.error("Error connecting to SDBJena");
-                }
-                catch(QueryParseException qpe) {
-                    log.error("QueryParseException", qpe);
-                }
-                sb.setLength(0);
+                    try {
+                        vivoJena.executeUpdateQuery(sb.toString(), true);
+                    } catch(IOException e) {
+                        log.error("Error connecting to SDBJena");
+                    }
+                    catch(QueryParseException qpe) {
+                        log.error("QueryParseException", qpe);
+                    }
+                    sb.setLength(0);
 
                
-            } else {
-                log.info("Not Importing scopus publication with scopusDocId: " + articleFeature.getScopusDocId());
-            }
+                } else {
+                    log.info("Not Importing scopus publication with scopusDocId: " + articleFeature.getScopusDocId());
+                }
             
-        }
+            }
         
         
-        stopWatch.stop();
-        log.info("Publication import took " + stopWatch.getTotalTimeSeconds()+"s");
-        this.jcf.returnConnectionToPool(vivoJena, "dataSet");
+            stopWatch.stop();
+            log.info("Publication import took " + stopWatch.getTotalTimeSeconds()+"s");
+        }
 
     }
 
@@ -0,0 +1,266 @@
+package reciter.connect.vivo.sdb.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.apache.jena.sparql.modify.request.QuadDataAcc;
+import org.apache.jena.sparql.modify.request.UpdateDataDelete;
+import org.apache.jena.sparql.modify.request.UpdateDataInsert;
+import org.apache.jena.update.UpdateRequest;
+
+/**
+ * Difference between the triples an entity should have in a VIVO graph and the triples it has.
+ * <p>The desired state of one or more subjects is declared with {@link #set(String, String, Node)} for properties whose
+ * current values are replaced and {@link #ensure(String, String, Node)} for triples that are only added when missing.
+ * Single triples that have to go are declared with {@link #delete(String, String, Node)}.
+ * The current values of all declared subject and predicate pairs are fetched with the single query of
+ * {@link #getConstructQuery()}. {@link #compute(Model)} then keeps the triples to delete and to insert so the update
+ * written by {@link #toUpdate()} or {@link #toUpdateRequest()} only touches what changed.</p>
+ * <p>Subjects, predicates and resources are written like for {@link TripleBuilder}, either as IRI references or as
+ * prefixed names.</p>
+ */
+public class EntityGraphDiff {
+
+    private final Node graph;
+
+    private final Graph desired = GraphFactory.createDefaultGraph();
+
+    /**
+     * Subject and predicate pairs as triples with any object whose current values are deleted when not desired
+     */
+    private final Set<Triple> replaced = new LinkedHashSet<>();
+
+    /**
+     * Subject and predicate pairs whose current values are kept
+     */
+    private final Set<Triple> ensured = new LinkedHashSet<>();
+
+    /**
+     * Triples deleted without fetching their current values
+     */
+    private final Set<Triple> removed = new LinkedHashSet<>();
+
+    private final List<Triple> deletes = new ArrayList<>();
+
+    private final List<Triple> inserts = new ArrayList<>();
+
+    public EntityGraphDiff(String graph) {
+        this.graph = NodeFactory.createURI(graph);
+    }
+
+    /**
+     * The property of the subject has the value and no other. A null value deletes the current values.
+     * Calling it again for the same pair adds a further value.
+     */
+    public EntityGraphDiff set(String subject, String predicate, Node value) {
+        Triple pair = pair(subject, predicate);
+        this.replaced.add(pair);
+        if (value != null) {
+            this.desired.add(Triple.create(pair.getSubject(), pair.getPredicate(), value));
+        }
+        return this;
+    }
+
+    /**
+     * The triple is added when missing. Other values of the property are kept.
+     */
+    public EntityGraphDiff ensure(String subject, String predicate, Node value) {
+        Triple pair = pair(subject, predicate);
+        this.ensured.add(pair);
+        this.desired.add(Triple.create(pair.getSubject(), pair.getPredicate(), value));
+        return this;
+    }
+
+    /**
+     * The triple is deleted. Its subject and predicate are not fetched since deleting a missing triple changes nothing,
+     * which suits properties with many values like the inverse links of shared resources.
+     */
+    public EntityGraphDiff delete(String subject, String predicate, Node value) {
+        Triple pair = pair(subject, predicate);
+        this.removed.add(Triple.create(pair.getSubject(), pair.getPredicate(), value));
+        return this;
+    }
+
+    /**
+     * @return a plain literal or null for a null value
+     */
+    public static Node literal(String value) {
+        return value == null ? null : NodeFactory.createLiteral(value);
+    }
+
+    /**
+     * @param datatype an IRI reference or a prefixed name like <code>xsd:anyURI</code>
+     * @return a typed literal or null for a null value
+     */
+    public static Node typedLiteral(String value, String datatype) {
+        return value == null ? null : NodeFactory.createLiteral(value, TypeMapper.getInstance().getSafeTypeByName(QuadTripleBuilder.node(datatype).getURI()));
+    }
+
+    /**
+     * @param resource an IRI reference or a prefixed name
+     */
+    public static Node resource(String resource) {
+        return QuadTripleBuilder.node(resource);
+    }
+
+    /**
+     * @return a query constructing the current values of all declared subject and predicate pairs
+     */
+    public String getConstructQuery() {
+        return getConstructQuery(Collections.singletonList(this));
+    }
+
+    /**
+     * Fetch the current state of several entities of the same graph at once. The result can be passed to
+     * {@link #compute(Model)} of every diff.
+     * @return a query constructing the current values of the subject and predicate pairs of all diffs
+     */
+    public static String getConstructQuery(Collection<EntityGraphDiff> diffs) {
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("CONSTRUCT { ?s ?p ?o } WHERE { GRAPH ");
+        sb.append(NodeFmtLib.str(diffs.iterator().next().graph));
+        sb.append(" {\nVALUES (?s ?p) {\n");
+        Set<Triple> pairs = new LinkedHashSet<>();
+        for (EntityGraphDiff diff : diffs) {
+            pairs.addAll(diff.replaced);
+            pairs.addAll(diff.ensured);
+        }
+        for (Triple pair : pairs) {
+            sb.append('(').append(NodeFmtLib.str(pair.getSubject())).append(' ').append(NodeFmtLib.str(pair.getPredicate())).append(")\n");
+        }
+        sb.append("}\n?s ?p ?o .\n}}");
+        return sb.toString();
+    }
+
+    /**
+     * Compare the desired triples with the current ones
+     * @param current the result of the construct query, may hold triples of other entities
+     * @return this diff
+     */
+    public EntityGraphDiff compute(Model current) {
+        Graph currentGraph = current.getGraph();
+        this.deletes.clear();
+        this.inserts.clear();
+        for (Triple pair : this.replaced) {
+            Iterator<Triple> it = currentGraph.find(pair);
+            while (it.hasNext()) {
+                Triple triple = it.next();
+                if (!this.desired.contains(triple)) {
+                    this.deletes.add(triple);
+                }
+            }
+        }
+        for (Triple triple : this.removed) {
+            if (!this.desired.contains(triple) && !this.deletes.contains(triple)) {
+                this.deletes.add(triple);
+            }
+        }
+        Iterator<Triple> it = this.desired.find(Node.ANY, Node.ANY, Node.ANY);
+        while (it.hasNext()) {
+            Triple triple = it.next();
+            if (!currentGraph.contains(triple)) {
+                this.inserts.add(triple);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return true if nothing has to be changed
+     */
+    public boolean isEmpty() {
+        return this.deletes.isEmpty() && this.inserts.isEmpty();
+    }
+
+    /**
+     * @return true if a value of the property of the subject is deleted or inserted
+     */
+    public boolean isChanged(String subject, String predicate) {
+        Triple pair = pair(subject, predicate);
+        return matches(this.deletes, pair) || matches(this.inserts, pair);
+    }
+
+    public List<Triple> getDeletes() {
+        return this.deletes;
+    }
+
+    public List<Triple> getInserts() {
+        return this.inserts;
+    }
+
+    /**
+     * @return the change as one <code>DELETE DATA</code> and <code>INSERT DATA</code> update
+     */
+    public String toUpdate() {
+        StringBuilder sb = new StringBuilder(512);
+        if (!this.deletes.isEmpty()) {
+            appendData(sb, "DELETE DATA", this.deletes);
+        }
+        if (!this.inserts.isEmpty()) {
+            if (sb.length() > 0) {
+                sb.append(" ;\n");
+            }
+            appendData(sb, "INSERT DATA", this.inserts);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return the change as a Jena update for updates applied directly to the dataset
+     */
+    public UpdateRequest toUpdateRequest() {
+        UpdateRequest request = new UpdateRequest();
+        if (!this.deletes.isEmpty()) {
+            request.add(new UpdateDataDelete(new QuadDataAcc(quads(this.deletes))));
+        }
+        if (!this.inserts.isEmpty()) {
+            request.add(new UpdateDataInsert(new QuadDataAcc(quads(this.inserts))));
+        }
+        return request;
+    }
+
+    private static Triple pair(String subject, String predicate) {
+        return Triple.create(QuadTripleBuilder.node(subject), QuadTripleBuilder.node(predicate), Node.ANY);
+    }
+
+    private static boolean matches(List<Triple> triples, Triple pair) {
+        for (Triple triple : triples) {
+            if (pair.matches(triple)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void appendData(StringBuilder sb, String operation, List<Triple> triples) {
+        sb.append(operation).append(" { GRAPH ").append(NodeFmtLib.str(this.graph)).append(" {\n");
+        for (Triple triple : triples) {
+            sb.append(NodeFmtLib.str(triple.getSubject())).append(' ')
+                .append(NodeFmtLib.str(triple.getPredicate())).append(' ')
+                .append(NodeFmtLib.str(triple.getObject())).append(" .\n");
+        }
+        sb.append("}}");
+    }
+
+    private List<Quad> quads(List<Triple> triples) {
+        List<Quad> quads = new ArrayList<>(triples.size());
+        for (Triple triple : triples) {
+            quads.add(new Quad(this.graph, triple));
+        }
+        return quads;
+    }
+}
@@ -0,0 +1,105 @@
+package reciter.connect.vivo.sdb.query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.sparql.core.Quad;
+import org.apache.jena.sparql.modify.request.QuadDataAcc;
+import org.apache.jena.sparql.modify.request.UpdateDataDelete;
+import org.apache.jena.sparql.modify.request.UpdateDataInsert;
+import org.apache.jena.update.UpdateRequest;
+
+/**
+ * Collects the triples of an update as Jena quads so updates applied directly to the SDB dataset skip writing and
+ * parsing SPARQL.
+ * <p>Prefixed names are resolved with {@link QueryConstants#PREFIX_TO_NAMESPACE}. Literals are normalized with
+ * {@link SparqlLiteralEscaper} so they hold the same value as the text of {@link SparqlTripleBuilder} once parsed.</p>
+ */
+public class QuadTripleBuilder implements TripleBuilder {
+
+    private final Node graph;
+
+    private final List<Quad> quads = new ArrayList<>();
+
+    private Node subject;
+
+    QuadTripleBuilder(String graph) {
+        this.graph = NodeFactory.createURI(graph);
+    }
+
+    @Override
+    public QuadTripleBuilder subject(String subject) {
+        this.subject = node(subject);
+        return this;
+    }
+
+    @Override
+    public QuadTripleBuilder resource(String predicate, String object) {
+        return add(predicate, node(object));
+    }
+
+    @Override
+    public QuadTripleBuilder literal(String predicate, Object value) {
+        if (value == null) {
+            return this;
+        }
+        return add(predicate, NodeFactory.createLiteral(SparqlLiteralEscaper.normalize(value.toString())));
+    }
+
+    @Override
+    public QuadTripleBuilder identifier(String predicate, String value) {
+        if (value == null) {
+            return this;
+        }
+        return add(predicate, NodeFactory.createLiteral(SparqlLiteralEscaper.normalizeIdentifier(value)));
+    }
+
+    @Override
+    public QuadTripleBuilder typedLiteral(String predicate, Object value, String datatype) {
+        if (value == null) {
+            return this;
+        }
+        return add(predicate, NodeFactory.createLiteral(SparqlLiteralEscaper.normalize(value.toString()), TypeMapper.getInstance().getSafeTypeByName(node(datatype).getURI())));
+    }
+
+    /**
+     * @return an <code>INSERT DATA</code> of the collected quads
+     */
+    public UpdateRequest toInsertRequest() {
+        return new UpdateRequest(new UpdateDataInsert(new QuadDataAcc(this.quads)));
+    }
+
+    /**
+     * @return a <code>DELETE DATA</code> of the collected quads
+     */
+    public UpdateRequest toDeleteRequest() {
+        return new UpdateRequest(new UpdateDataDelete(new QuadDataAcc(this.quads)));
+    }
+
+    public List<Quad> getQuads() {
+        return this.quads;
+    }
+
+    private QuadTripleBuilder add(String predicate, Node object) {
+        this.quads.add(Quad.create(this.graph, this.subject, node(predicate), object));
+        return this;
+    }
+
+    /**
+     * @param term an IRI reference like <code>&lt;http://...&gt;</code> or a prefixed name like <code>core:relates</code>
+     */
+    static Node node(String term) {
+        if (term.charAt(0) == '<') {
+            return NodeFactory.createURI(term.substring(1, term.length() - 1));
+        }
+        int separator = term.indexOf(':');
+        String namespace = QueryConstants.PREFIX_TO_NAMESPACE.get(term.substring(0, separator));
+        if (namespace == null) {
+            throw new IllegalArgumentException("Unknown prefix in " + term);
+        }
+        return NodeFactory.createURI(namespace + term.substring(separator + 1));
+    }
+}
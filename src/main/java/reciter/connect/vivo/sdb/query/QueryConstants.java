@@ -46,7 +46,16 @@ public class QueryConstants {
         put("fabio", "http://purl.org/spar/fabio");
     } };
 
+    /**
+     * Prefix declarations for all namespaces in {@link #PREFIX_TO_NAMESPACE}, built once
+     */
+    public static final String SPARQL_PREFIX_QUERY = buildSparqlPrefixQuery();
+
     public static String getSparqlPrefixQuery() {
+        return SPARQL_PREFIX_QUERY;
+    }
+
+    private static String buildSparqlPrefixQuery() {
 
 		StringBuilder prefixSection = new StringBuilder();
 
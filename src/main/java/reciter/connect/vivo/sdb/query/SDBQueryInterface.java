@@ -5,9 +5,9 @@ import java.io.IOException;
 import org.apache.jena.query.QuerySolution;
 import org.apache.jena.query.ResultSet;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.vivoweb.harvester.util.repo.SDBJenaConnect;
 
 import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+import reciter.connect.database.mysql.jena.JenaConnectionLease;
 
 @org.springframework.stereotype.Component
 public class SDBQueryInterface {
@@ -22,10 +22,9 @@ public class SDBQueryInterface {
 		sb.append("GRAPH ?g { \n");
 		sb.append("?s ?p ?o . \n");
 		sb.append("}} LIMIT 3");
-        SDBJenaConnect vivoJena = jcf.getConnectionfromPool("dataSet");
         ResultSet rs;
-        try {
-            rs = vivoJena.executeSelectQuery(sb.toString(), true);
+        try(JenaConnectionLease lease = jcf.lease("dataSet")) {
+            rs = lease.getConnection().executeSelectQuery(sb.toString(), true);
             while(rs.hasNext())
             {
                 QuerySolution qs =rs.nextSolution();
@@ -38,7 +37,6 @@ public class SDBQueryInterface {
         } catch(IOException e) {
             System.out.println(e);
         }
-        jcf.returnConnectionToPool(vivoJena, "dataSet");
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package reciter.connect.vivo.sdb.query;
+
+/**
+ * Escapes text for double quoted SPARQL and N-Triples literals.
+ * <p>Backslashes and double quotes are escaped and every run of line breaks becomes a single <code>\n</code>, the same
+ * output the chained <code>replaceAll</code> calls of the ingests produced, in one pass over the text without regular
+ * expressions. Other characters including non ASCII ones are kept as they are since updates are sent as UTF-8.</p>
+ */
+public final class SparqlLiteralEscaper {
+
+    private SparqlLiteralEscaper() {
+    }
+
+    /**
+     * Append the escaped value to the builder
+     * @return the builder
+     */
+    public static StringBuilder appendEscaped(StringBuilder sb, CharSequence value) {
+        return append(sb, value, false, true);
+    }
+
+    /**
+     * Append the escaped value to the builder leaving out all whitespace, used for identifiers like doi
+     * @return the builder
+     */
+    public static StringBuilder appendEscapedIdentifier(StringBuilder sb, CharSequence value) {
+        return append(sb, value, true, true);
+    }
+
+    /**
+     * @return the escaped value, the value itself when nothing needs escaping or null when the value is null
+     */
+    public static String escape(String value) {
+        if (value == null || !needsEscaping(value)) {
+            return value;
+        }
+        return append(new StringBuilder(value.length() + 16), value, false, true).toString();
+    }
+
+    /**
+     * @return the escaped value without whitespace or null when the value is null
+     */
+    public static String escapeIdentifier(String value) {
+        if (value == null) {
+            return null;
+        }
+        return append(new StringBuilder(value.length()), value, true, true).toString();
+    }
+
+    /**
+     * The value as a parsed escaped literal reads, used for literals written as Jena nodes without SPARQL text
+     * @return the value with every run of line breaks as a single line feed or null when the value is null
+     */
+    public static String normalize(String value) {
+        if (value == null || (value.indexOf('\r') < 0 && value.indexOf('\n') < 0)) {
+            return value;
+        }
+        return append(new StringBuilder(value.length()), value, false, false).toString();
+    }
+
+    /**
+     * @return the value without whitespace or null when the value is null
+     * @see #normalize(String)
+     */
+    public static String normalizeIdentifier(String value) {
+        if (value == null) {
+            return null;
+        }
+        return append(new StringBuilder(value.length()), value, true, false).toString();
+    }
+
+    private static StringBuilder append(StringBuilder sb, CharSequence value, boolean stripWhitespace, boolean escape) {
+        int length = value.length();
+        sb.ensureCapacity(sb.length() + length + 16);
+        boolean lineBreak = false;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (stripWhitespace && isWhitespace(c)) {
+                continue;
+            }
+            if (c == '\r' || c == '\n') {
+                if (!lineBreak) {
+                    if (escape) {
+                        sb.append('\\').append('n');
+                    } else {
+                        sb.append('\n');
+                    }
+                    lineBreak = true;
+                }
+                continue;
+            }
+            lineBreak = false;
+            if (escape && (c == '\\' || c == '"')) {
+                sb.append('\\');
+            }
+            sb.append(c);
+        }
+        return sb;
+    }
+
+    private static boolean needsEscaping(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Same characters as <code>\s</code> in a Java regular expression
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
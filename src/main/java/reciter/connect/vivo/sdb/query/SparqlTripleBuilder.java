@@ -0,0 +1,75 @@
+package reciter.connect.vivo.sdb.query;
+
+/**
+ * Writes the triples of a SPARQL <code>INSERT DATA</code> straight into the text of the update.
+ * <p>The subject is concatenated once per entity and not once per triple. Prefixed names are declared by the prefix
+ * header of {@link QueryConstants} and literals are escaped with {@link SparqlLiteralEscaper}. The update is not
+ * streamed: {@link #build()} returns the whole text, which the VIVO API client sends as one form parameter and the
+ * replica parses again.</p>
+ */
+public class SparqlTripleBuilder implements TripleBuilder {
+
+    private final StringBuilder sb;
+
+    private String subject;
+
+    SparqlTripleBuilder(String graph) {
+        this.sb = new StringBuilder(8192);
+        this.sb.append(QueryConstants.SPARQL_PREFIX_QUERY);
+        this.sb.append("INSERT DATA { GRAPH <").append(graph).append("> {\n");
+    }
+
+    @Override
+    public SparqlTripleBuilder subject(String subject) {
+        this.subject = subject;
+        return this;
+    }
+
+    @Override
+    public SparqlTripleBuilder resource(String predicate, String object) {
+        this.sb.append(this.subject).append(' ').append(predicate).append(' ').append(object).append(" .\n");
+        return this;
+    }
+
+    @Override
+    public SparqlTripleBuilder literal(String predicate, Object value) {
+        if (value == null) {
+            return this;
+        }
+        this.sb.append(this.subject).append(' ').append(predicate).append(" \"");
+        SparqlLiteralEscaper.appendEscaped(this.sb, value.toString());
+        this.sb.append("\" .\n");
+        return this;
+    }
+
+    @Override
+    public SparqlTripleBuilder identifier(String predicate, String value) {
+        if (value == null) {
+            return this;
+        }
+        this.sb.append(this.subject).append(' ').append(predicate).append(" \"");
+        SparqlLiteralEscaper.appendEscapedIdentifier(this.sb, value);
+        this.sb.append("\" .\n");
+        return this;
+    }
+
+    @Override
+    public SparqlTripleBuilder typedLiteral(String predicate, Object value, String datatype) {
+        if (value == null) {
+            return this;
+        }
+        this.sb.append(this.subject).append(' ').append(predicate).append(" \"");
+        SparqlLiteralEscaper.appendEscaped(this.sb, value.toString());
+        this.sb.append("\"^^").append(datatype).append(" .\n");
+        return this;
+    }
+
+    /**
+     * Close the <code>INSERT DATA</code>
+     * @return the complete update
+     */
+    public String build() {
+        this.sb.append("}}");
+        return this.sb.toString();
+    }
+}
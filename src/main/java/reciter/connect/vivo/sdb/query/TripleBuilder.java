@@ -0,0 +1,67 @@
+package reciter.connect.vivo.sdb.query;
+
+import reciter.connect.database.mysql.jena.JenaConnectionFactory;
+
+/**
+ * Adds the triples of entities to an update, one subject after the other.
+ * <p>The subject of an entity is set once with {@link #subject(String)} and reused by every following triple. Predicates
+ * and objects are IRI references or prefixed names like <code>core:relates</code>. Literals end up as the same value
+ * in both builders: {@link #insertData(String)} writes the text of a SPARQL <code>INSERT DATA</code> for the VIVO API
+ * and {@link #quads(String)} collects Jena quads for updates applied directly to the SDB dataset.</p>
+ */
+public interface TripleBuilder {
+
+    /**
+     * Start an <code>INSERT DATA</code> update into the graph including the prefix header
+     */
+    static SparqlTripleBuilder insertData(String graph) {
+        return new SparqlTripleBuilder(graph);
+    }
+
+    /**
+     * Start collecting quads of the graph
+     */
+    static QuadTripleBuilder quads(String graph) {
+        return new QuadTripleBuilder(graph);
+    }
+
+    /**
+     * @param localName name of the resource in the VIVO namespace like <code>pubid123</code>
+     * @return the resource as an IRI reference
+     */
+    static String vivoUri(String localName) {
+        return "<" + JenaConnectionFactory.nameSpace + localName + ">";
+    }
+
+    /**
+     * Set the subject of the following triples
+     * @param subject an IRI reference or a prefixed name
+     */
+    TripleBuilder subject(String subject);
+
+    /**
+     * @param predicate an IRI reference or a prefixed name
+     * @param object an IRI reference or a prefixed name
+     */
+    TripleBuilder resource(String predicate, String object);
+
+    default TripleBuilder type(String type) {
+        return resource("rdf:type", type);
+    }
+
+    /**
+     * Add a plain literal. Nothing is added for a null value.
+     */
+    TripleBuilder literal(String predicate, Object value);
+
+    /**
+     * Add an identifier like a doi as a plain literal without whitespace. Nothing is added for a null value.
+     */
+    TripleBuilder identifier(String predicate, String value);
+
+    /**
+     * Add a typed literal. Nothing is added for a null value.
+     * @param datatype an IRI reference or a prefixed name like <code>xsd:integer</code>
+     */
+    TripleBuilder typedLiteral(String predicate, Object value, String datatype);
+}
@@ -0,0 +1,127 @@
+package reciter.connect.vivo.sdb.publications.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+public class PmidDiffTest {
+
+    private static final long[] NONE = new long[0];
+
+    @Test
+    public void bothSidesEmpty() {
+        PmidDiff diff = PmidDiff.of(NONE, NONE);
+        assertArrayEquals(NONE, diff.getAdded());
+        assertArrayEquals(NONE, diff.getRemoved());
+        assertArrayEquals(NONE, diff.getCommon());
+    }
+
+    @Test
+    public void vivoEmpty() {
+        PmidDiff diff = PmidDiff.of(new long[] {30, 10, 20}, NONE);
+        assertArrayEquals(new long[] {10, 20, 30}, diff.getAdded());
+        assertArrayEquals(NONE, diff.getRemoved());
+        assertArrayEquals(NONE, diff.getCommon());
+    }
+
+    @Test
+    public void reciterEmpty() {
+        PmidDiff diff = PmidDiff.of(NONE, new long[] {30, 10, 20});
+        assertArrayEquals(NONE, diff.getAdded());
+        assertArrayEquals(new long[] {10, 20, 30}, diff.getRemoved());
+        assertArrayEquals(NONE, diff.getCommon());
+    }
+
+    @Test
+    public void duplicatesInReciter() {
+        PmidDiff diff = PmidDiff.of(new long[] {5, 1, 5, 3, 1, 5}, new long[] {3, 4});
+        assertArrayEquals(new long[] {1, 5}, diff.getAdded());
+        assertArrayEquals(new long[] {4}, diff.getRemoved());
+        assertArrayEquals(new long[] {3}, diff.getCommon());
+    }
+
+    @Test
+    public void duplicatesInVivo() {
+        PmidDiff diff = PmidDiff.of(new long[] {3, 4}, new long[] {7, 3, 7, 3, 2, 2});
+        assertArrayEquals(new long[] {4}, diff.getAdded());
+        assertArrayEquals(new long[] {2, 7}, diff.getRemoved());
+        assertArrayEquals(new long[] {3}, diff.getCommon());
+    }
+
+    @Test
+    public void duplicatesOnBothSides() {
+        PmidDiff diff = PmidDiff.of(new long[] {8, 8, 9, 9, 1}, new long[] {9, 9, 9, 2, 2});
+        assertArrayEquals(new long[] {1, 8}, diff.getAdded());
+        assertArrayEquals(new long[] {2}, diff.getRemoved());
+        assertArrayEquals(new long[] {9}, diff.getCommon());
+    }
+
+    @Test
+    public void disjoint() {
+        PmidDiff diff = PmidDiff.of(new long[] {1, 3, 5, 7}, new long[] {8, 6, 4, 2});
+        assertArrayEquals(new long[] {1, 3, 5, 7}, diff.getAdded());
+        assertArrayEquals(new long[] {2, 4, 6, 8}, diff.getRemoved());
+        assertArrayEquals(NONE, diff.getCommon());
+    }
+
+    @Test
+    public void identical() {
+        PmidDiff diff = PmidDiff.of(new long[] {31, 12, 20}, new long[] {20, 31, 12});
+        assertArrayEquals(NONE, diff.getAdded());
+        assertArrayEquals(NONE, diff.getRemoved());
+        assertArrayEquals(new long[] {12, 20, 31}, diff.getCommon());
+    }
+
+    @Test
+    public void inputIsNotModified() {
+        long[] reciter = {3, 1, 2};
+        long[] vivo = {2, 9};
+        PmidDiff.of(reciter, vivo);
+        assertArrayEquals(new long[] {3, 1, 2}, reciter);
+        assertArrayEquals(new long[] {2, 9}, vivo);
+    }
+
+    @Test
+    public void pmidSetsWithZeroAndDuplicates() {
+        PmidSet reciter = PmidSet.of(Arrays.asList(0L, 5L, 5L, 40000000L, null));
+        PmidSet vivo = PmidSet.of(Arrays.asList(5L, 0L, 12L, 12L));
+        PmidDiff diff = PmidDiff.of(reciter, vivo);
+        assertArrayEquals(new long[] {40000000L}, diff.getAdded());
+        assertArrayEquals(new long[] {12}, diff.getRemoved());
+        assertArrayEquals(new long[] {0, 5}, diff.getCommon());
+    }
+
+    @Test
+    public void matchesSetDifferenceOfRandomLists() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            long[] reciter = random.longs(random.nextInt(300), 1, 500).toArray();
+            long[] vivo = random.longs(random.nextInt(300), 1, 500).toArray();
+            TreeSet<Long> added = toSet(reciter);
+            added.removeAll(toSet(vivo));
+            TreeSet<Long> removed = toSet(vivo);
+            removed.removeAll(toSet(reciter));
+            TreeSet<Long> common = toSet(reciter);
+            common.retainAll(toSet(vivo));
+
+            PmidDiff diff = PmidDiff.of(reciter, vivo);
+            assertEquals(new ArrayList<>(added), PmidDiff.toList(diff.getAdded()));
+            assertEquals(new ArrayList<>(removed), PmidDiff.toList(diff.getRemoved()));
+            assertEquals(new ArrayList<>(common), PmidDiff.toList(diff.getCommon()));
+        }
+    }
+
+    private static TreeSet<Long> toSet(long[] pmids) {
+        TreeSet<Long> set = new TreeSet<>();
+        for (long pmid : pmids) {
+            set.add(pmid);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,116 @@
+package reciter.connect.vivo.sdb.query;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the escaper with the chained <code>replaceAll</code> calls it replaced in the ingests
+ */
+public class SparqlLiteralEscaperTest {
+
+    private static final List<String> VALUES = Arrays.asList(
+            "",
+            "Plain title",
+            "First line\r\nSecond line",
+            "Mac\rUnix\nWindows\r\nend",
+            "Runs\r\n\r\n\n\r\rof line breaks\n\n",
+            "\r\nLeading and trailing\r\n",
+            "A \"quoted\" title",
+            "\"\"",
+            "C:\\path\\to\\file",
+            "Escaped quote \\\" and backslash at the end\\",
+            "It's an apostrophe",
+            "Tabs\tand\u000Bvertical\ftabs  and  spaces",
+            "Non ASCII: Müller, Čapek, 日本語, naïve café, \uD83D\uDE00",
+            "Mixed \"ß\"\r\n\\\r\n  ö  ");
+
+    /** The chain used for titles and abstracts */
+    private static String oldEscape(String value) {
+        return value.replaceAll("([\\\\\\\\\"])", "\\\\$1").replaceAll("'", "\'").replaceAll("\"", "\\\"")
+                .replaceAll("(\\r|\\n|\\r\\n)+", "\\\\n");
+    }
+
+    /** The chain used for doi and other identifiers */
+    private static String oldEscapeIdentifier(String value) {
+        return value.replaceAll("([\\\\\\\\\"])", "\\\\$1").replaceAll("\\s+", "");
+    }
+
+    /** What the literal of the old chain reads once parsed */
+    private static String oldNormalize(String value) {
+        return value.replaceAll("(\\r|\\n|\\r\\n)+", "\n");
+    }
+
+    @Test
+    public void escapeMatchesRegexChain() {
+        for (String value : VALUES) {
+            assertEquals(oldEscape(value), SparqlLiteralEscaper.escape(value), value);
+            assertEquals(oldEscape(value), SparqlLiteralEscaper.appendEscaped(new StringBuilder(), value).toString(), value);
+        }
+    }
+
+    @Test
+    public void escapeIdentifierMatchesRegexChain() {
+        for (String value : VALUES) {
+            assertEquals(oldEscapeIdentifier(value), SparqlLiteralEscaper.escapeIdentifier(value), value);
+            assertEquals(oldEscapeIdentifier(value), SparqlLiteralEscaper.appendEscapedIdentifier(new StringBuilder(), value).toString(), value);
+        }
+    }
+
+    @Test
+    public void normalizeMatchesRegexChain() {
+        for (String value : VALUES) {
+            assertEquals(oldNormalize(value), SparqlLiteralEscaper.normalize(value), value);
+            assertEquals(value.replaceAll("\\s+", ""), SparqlLiteralEscaper.normalizeIdentifier(value), value);
+        }
+    }
+
+    @Test
+    public void escapeOfNormalizedValueIsUnchanged() {
+        for (String value : VALUES) {
+            assertEquals(SparqlLiteralEscaper.escape(value), SparqlLiteralEscaper.escape(SparqlLiteralEscaper.normalize(value)), value);
+        }
+    }
+
+    @Test
+    public void crlfIsOneLineBreak() {
+        assertEquals("a\\nb", SparqlLiteralEscaper.escape("a\r\nb"));
+        assertEquals("a\nb", SparqlLiteralEscaper.normalize("a\r\nb"));
+        assertEquals("ab", SparqlLiteralEscaper.escapeIdentifier("a\r\nb"));
+    }
+
+    @Test
+    public void runOfLineBreaksIsOneLineBreak() {
+        assertEquals("a\\nb", SparqlLiteralEscaper.escape("a\n\r\n\r\r\nb"));
+        assertEquals("a\nb", SparqlLiteralEscaper.normalize("a\n\r\n\r\r\nb"));
+    }
+
+    @Test
+    public void quotesAndBackslashesAreEscaped() {
+        assertEquals("say \\\"hi\\\"", SparqlLiteralEscaper.escape("say \"hi\""));
+        assertEquals("a\\\\b", SparqlLiteralEscaper.escape("a\\b"));
+        assertEquals("10.1000/a\\\"b\\\\c", SparqlLiteralEscaper.escapeIdentifier(" 10.1000/a\"b\\c \n"));
+        assertEquals("say \"hi\" a\\b", SparqlLiteralEscaper.normalize("say \"hi\" a\\b"));
+    }
+
+    @Test
+    public void nonAsciiIsKept() {
+        String value = "Müller – Čapek 日本語 \uD83D\uDE00";
+        assertSame(value, SparqlLiteralEscaper.escape(value));
+        assertSame(value, SparqlLiteralEscaper.normalize(value));
+        assertEquals("Müller–Čapek日本語\uD83D\uDE00", SparqlLiteralEscaper.escapeIdentifier(value));
+    }
+
+    @Test
+    public void nullStaysNull() {
+        assertNull(SparqlLiteralEscaper.escape(null));
+        assertNull(SparqlLiteralEscaper.escapeIdentifier(null));
+        assertNull(SparqlLiteralEscaper.normalize(null));
+        assertNull(SparqlLiteralEscaper.normalizeIdentifier(null));
+    }
+}